@@ -0,0 +1,113 @@
+package org.poo.benchmarks;
+
+import org.poo.commands.Command;
+import org.poo.commands.CommandFactory;
+import org.poo.fileio.CommandInput;
+import org.poo.output.OutputSink;
+
+/**
+ * The command dispatch used before the commands were shared: the factory compared
+ * the name of every command with the known names and created a new command object,
+ * which copied the fields of the input, was executed once and then dropped.
+ * The work of the command is done by the shared command, so the two dispatches
+ * differ only in the name comparisons and the objects they create.
+ * Kept here only as the baseline for the dispatch benchmark.
+ */
+public final class AllocatingDispatch {
+
+    private final CommandFactory commandFactory;
+
+    /**
+     * A command created for one input, holding its own copy of the fields.
+     */
+    private static final class OneShotCommand {
+        private final Command command;
+        private final CommandInput input;
+        private final OutputSink output;
+        private final int timestamp;
+        private final String account;
+        private final String email;
+        private final double amount;
+
+        OneShotCommand(final Command command, final CommandInput input,
+                       final OutputSink output) {
+            this.command = command;
+            this.input = input;
+            this.output = output;
+            this.timestamp = input.getTimestamp();
+            this.account = input.getAccount();
+            this.email = input.getEmail();
+            this.amount = input.getAmount();
+        }
+
+        void execute() {
+            command.execute(input, output);
+        }
+    }
+
+    /**
+     * @param commandFactory the factory which holds the shared commands
+     */
+    public AllocatingDispatch(final CommandFactory commandFactory) {
+        this.commandFactory = commandFactory;
+    }
+
+    /**
+     * Creates a command for the input, by its name, and executes it.
+     *
+     * @param input  the command to process
+     * @param output the output sink
+     */
+    public void processCommand(final CommandInput input, final OutputSink output) {
+        OneShotCommand command = createCommand(input.getCommand(), input, output);
+        if (command == null) {
+            return;
+        }
+        command.execute();
+    }
+
+    /**
+     * Creates the command object for one input, after comparing its name with
+     * the names of all the commands, like the factory did before.
+     *
+     * @param commandType the name of the command
+     * @param input       the command to process
+     * @param output      the output sink
+     * @return the command object, or null if the command is not known
+     */
+    private OneShotCommand createCommand(final String commandType, final CommandInput input,
+                                         final OutputSink output) {
+        switch (commandType) {
+            case "printUsers":
+            case "addAccount":
+            case "createCard":
+            case "createOneTimeCard":
+            case "addFunds":
+            case "deleteAccount":
+            case "deleteCard":
+            case "payOnline":
+            case "sendMoney":
+            case "printTransactions":
+            case "setAlias":
+            case "checkCardStatus":
+            case "setMinimumBalance":
+            case "splitPayment":
+            case "acceptSplitPayment":
+            case "rejectSplitPayment":
+            case "changeInterestRate":
+            case "addInterest":
+            case "withdrawSavings":
+            case "upgradePlan":
+            case "cashWithdrawal":
+            case "report":
+            case "spendingsReport":
+            case "addNewBusinessAssociate":
+            case "changeSpendingLimit":
+            case "businessReport":
+            case "changeDepositLimit":
+                return new OneShotCommand(commandFactory.getCommand(input), input, output);
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.poo.benchmarks;
+
+import org.poo.account.Account;
+import org.poo.exchangeRates.ExchangeInputFormat;
+import org.poo.exchangeRates.ExchangeRates;
+import org.poo.transaction.TransactionStore;
+import org.poo.user.User;
+import org.poo.user.UserRegistry;
+import org.poo.utils.IdentifierGenerator;
+
+import java.util.Random;
+
+/**
+ * Builds the pre-populated registries used by the benchmarks.
+ */
+public final class BankFixture {
+
+    private static final int SEED = 11;
+    private static final int SHORTCUTS_DIVISOR = 4;
+    private static final double MAX_RATE = 5.0;
+
+    private BankFixture() {
+    }
+
+    /**
+     * Creates a user registry and fills it with generated users, each one with
+     * the given number of classic RON accounts, one regular card per account and
+     * an alias per account.
+     *
+     * @param users           the number of users
+     * @param accountsPerUser the number of accounts of every user
+     * @return the populated user registry
+     */
+    public static UserRegistry populateUsers(final int users, final int accountsPerUser) {
+        UserRegistry registry = new UserRegistry();
+        IdentifierGenerator identifiers = new IdentifierGenerator();
+        TransactionStore transactions = new TransactionStore();
+
+        for (int i = 0; i < users; i++) {
+            String email = "user" + i + "@poo.org";
+            User user = new User("First" + i, "Last" + i, email, "1990-01-01", "engineer",
+                    transactions);
+            user.setServicePlan("standard");
+            registry.addUser(user);
+
+            for (int j = 0; j < accountsPerUser; j++) {
+                String iban = identifiers.generateIBAN();
+                user.addAccount("classic", "RON", iban, 0, user, 0);
+                Account account = user.getAccountByIBAN(iban);
+                registry.addAccount(user, account);
+                registry.setAlias(user, account, "alias" + i + "_" + j);
+
+                String cardNumber = identifiers.generateCardNumber();
+                account.createCard("regular", cardNumber, email);
+                registry.addCard(user, account, account.getCardByNumber(cardNumber));
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * Returns the name of a generated currency; the first one is always RON.
+     *
+     * @param index the index of the currency
+     * @return the currency name
+     */
+    public static String currencyName(final int index) {
+        if (index == 0) {
+            return "RON";
+        }
+        return "C" + index;
+    }
+
+    /**
+     * Creates the exchange rates and fills them with a chain of rates through all
+     * the generated currencies plus a few random shortcuts, then finds the
+     * reciprocal rates like the bank does at startup.
+     *
+     * @param currencies the number of currencies
+     * @return the populated exchange rates
+     */
+    public static ExchangeRates populateExchangeRates(final int currencies) {
+        ExchangeRates exchangeRates = new ExchangeRates();
+        Random random = new Random(SEED);
+
+        for (int i = 1; i < currencies; i++) {
+            exchangeRates.addExchangeRate(new ExchangeInputFormat(currencyName(i - 1),
+                    currencyName(i), 1 + random.nextDouble() * MAX_RATE, 0));
+        }
+        for (int i = 0; i < currencies / SHORTCUTS_DIVISOR; i++) {
+            exchangeRates.addExchangeRate(new ExchangeInputFormat(
+                    currencyName(random.nextInt(currencies)),
+                    currencyName(random.nextInt(currencies)),
+                    1 + random.nextDouble() * MAX_RATE, 0));
+        }
+        exchangeRates.findNewExchangeRates();
+        return exchangeRates;
+    }
+}
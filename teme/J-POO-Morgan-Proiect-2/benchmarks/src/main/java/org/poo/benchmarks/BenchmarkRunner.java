@@ -0,0 +1,73 @@
+package org.poo.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * The main class of the benchmarks jar. It takes the usual JMH options and, unless
+ * other ones are given with -rf and -rff, saves the results as JSON in the results
+ * directory, in a file named after the time of the run, so successive runs can be
+ * compared:
+ * <pre>
+ * java -jar target/benchmarks.jar CommandBenchmark -p users=10000
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * The directory of the JSON results.
+     */
+    public static final String RESULTS_DIRECTORY = "results";
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the benchmarks selected by the arguments.
+     *
+     * @param args the JMH command line options
+     * @throws CommandLineOptionException if the options are not valid
+     * @throws RunnerException            if a benchmark fails
+     * @throws IOException                if the results directory cannot be created
+     */
+    public static void main(final String[] args)
+            throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        if (commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            // JMH prints the lists itself
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            Path directory = Paths.get(RESULTS_DIRECTORY);
+            Files.createDirectories(directory);
+            String name = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+            String extension = commandLine.getResultFormat().orElse(ResultFormatType.JSON)
+                    .toString().toLowerCase();
+            options.result(directory.resolve(name + "." + extension).toString());
+        }
+        new Runner(options.build()).run();
+    }
+}
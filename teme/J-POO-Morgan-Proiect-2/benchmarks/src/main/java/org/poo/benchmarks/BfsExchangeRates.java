@@ -0,0 +1,68 @@
+package org.poo.benchmarks;
+
+import org.poo.exchangeRates.ExchangeInputFormat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * The conversion ExchangeRates used before the conversion table: the graph of
+ * rates is rebuilt and searched with a breadth-first search on every call.
+ * Kept here only as the baseline for the exchange rate benchmarks.
+ */
+public final class BfsExchangeRates {
+
+    private BfsExchangeRates() {
+    }
+
+    /**
+     * Converts an exchange rate between two currencies with a fresh search.
+     *
+     * @param exchangeRates all the exchange rates, including the reciprocal ones
+     * @param currencyFrom  the source currency
+     * @param currencyTo    the target currency
+     * @return the converted exchange rate, or 0 if not available
+     */
+    public static double convertExchangeRate(final List<ExchangeInputFormat> exchangeRates,
+                                             final String currencyFrom,
+                                             final String currencyTo) {
+        Map<String, List<ExchangeInputFormat>> graph = new HashMap<>();
+        for (ExchangeInputFormat exchange : exchangeRates) {
+            if (!graph.containsKey(exchange.getFrom())) {
+                graph.put(exchange.getFrom(), new ArrayList<>());
+            }
+            graph.get(exchange.getFrom()).add(exchange);
+        }
+
+        Queue<ExchangeInputFormat> queue = new LinkedList<>();
+        Set<String> visited = new HashSet<>();
+        queue.add(new ExchangeInputFormat(currencyFrom, currencyFrom, 1.0, 0));
+
+        while (!queue.isEmpty()) {
+            ExchangeInputFormat current = queue.poll();
+            String currentCurrency = current.getFrom();
+            double currentRate = current.getRate();
+            visited.add(currentCurrency);
+
+            List<ExchangeInputFormat> neighbors = graph.getOrDefault(currentCurrency,
+                    new ArrayList<>());
+            for (ExchangeInputFormat neighbor : neighbors) {
+                String nextCurrency = neighbor.getTo();
+                double nextRate = currentRate * neighbor.getRate();
+                if (nextCurrency.equals(currencyTo)) {
+                    return nextRate;
+                }
+                if (!visited.contains(nextCurrency)) {
+                    queue.add(new ExchangeInputFormat(nextCurrency, nextCurrency, nextRate, 0));
+                }
+            }
+        }
+        return 0;
+    }
+}
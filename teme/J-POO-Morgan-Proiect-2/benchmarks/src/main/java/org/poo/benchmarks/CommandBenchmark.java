@@ -0,0 +1,227 @@
+package org.poo.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.poo.account.Account;
+import org.poo.bankingApp.BankManager;
+import org.poo.card.Card;
+import org.poo.fileio.CommandInput;
+import org.poo.fileio.ObjectInput;
+import org.poo.output.DiscardingOutputSink;
+import org.poo.output.OutputSink;
+import org.poo.user.User;
+import org.poo.user.UserRegistry;
+import org.poo.workload.WorkloadGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every command on its own, on banks of several sizes.
+ * <p>
+ * The bank is set up from a generated workload: every user has a classic account
+ * with a card, some of them a savings or a business account. The commands of the
+ * kind being measured are generated with the rest of the workload, on accounts
+ * drawn with the Zipfian popularity of the generator, and executed again and again
+ * on the same bank, so its state changes like in a long run: the accounts run out
+ * of money, the histories grow. The bank is set up again before every iteration.
+ * <p>
+ * The commands the generator does not write are built from the users of the bank.
+ * A card or an account cannot be deleted twice, so deleteCard is measured together
+ * with the createCard of the card it deletes, on an empty account, and deleteAccount
+ * together with the addAccount of the account it deletes.
+ * acceptSplitPayment and rejectSplitPayment are measured with splitPayment, as the
+ * generator writes them after every split payment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = CommandBenchmark.WARMUP_ITERATIONS, time = 1)
+@Measurement(iterations = CommandBenchmark.MEASUREMENT_ITERATIONS, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CommandBenchmark {
+
+    /**
+     * The number of warmup iterations of the benchmarks which run the commands.
+     */
+    static final int WARMUP_ITERATIONS = 3;
+
+    /**
+     * The number of measured iterations of the benchmarks which run the commands.
+     */
+    static final int MEASUREMENT_ITERATIONS = 5;
+
+    private static final int COMMANDS = 1024;
+    private static final int SEED = 19;
+
+    @Param({"payOnline", "sendMoney", "addFunds", "splitPayment", "cashWithdrawal",
+        "withdrawSavings", "addInterest", "changeInterestRate", "upgradePlan", "report",
+        "spendingsReport", "businessReport", "printTransactions", "checkCardStatus",
+        "setMinimumBalance", "changeSpendingLimit", "changeDepositLimit", "setAlias",
+        "createCard", "createOneTimeCard", "addAccount", "addNewBusinessAssociate",
+        "deleteCard", "deleteAccount", "printUsers"})
+    private String command;
+
+    @Param({"100", "10000", "100000"})
+    private int users;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BankManager bank;
+    private UserRegistry userRegistry;
+    private OutputSink output;
+
+    private CommandInput[] commands;
+    private int next;
+
+    // deletes what the measured command created, null if it creates nothing to delete
+    private CommandInput removal;
+
+    /**
+     * Sets up the bank and the commands to measure.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        output = new DiscardingOutputSink(objectMapper);
+        bank = new BankManager();
+        removal = null;
+        next = 0;
+
+        if (WorkloadGenerator.SUPPORTED_COMMANDS.contains(command)) {
+            byte[] workload = WorkloadFixture.generate(users, COMMANDS, command + "=1");
+            ObjectInput input = WorkloadFixture.decode(workload);
+            commands = WorkloadFixture.setUpBank(bank, input, COMMANDS, output);
+            userRegistry = bank.getContext().getUserRegistry();
+            return;
+        }
+
+        byte[] workload = WorkloadFixture.generate(users, 0, null);
+        WorkloadFixture.setUpBank(bank, WorkloadFixture.decode(workload), 0,
+                output);
+        userRegistry = bank.getContext().getUserRegistry();
+        buildCommands();
+    }
+
+    /**
+     * Builds the commands the generator does not write, on random users of the bank.
+     */
+    private void buildCommands() {
+        List<User> userList = userRegistry.getUsers();
+        List<Account> businessAccounts = new ArrayList<>();
+        for (User user : userList) {
+            for (Account account : user.getAccounts()) {
+                if (account.getType().equals("business")) {
+                    businessAccounts.add(account);
+                }
+            }
+        }
+        if (command.equals("addNewBusinessAssociate") && businessAccounts.isEmpty()) {
+            throw new IllegalStateException("The bank has no business accounts");
+        }
+
+        Random random = new Random(SEED);
+        commands = new CommandInput[COMMANDS];
+        for (int i = 0; i < COMMANDS; i++) {
+            User user = userList.get(random.nextInt(userList.size()));
+            CommandInput input = new CommandInput();
+            input.setEmail(user.getEmail());
+            input.setTimestamp(i);
+
+            switch (command) {
+                case "addAccount":
+                case "deleteAccount":
+                    input.setCommand("addAccount");
+                    input.setAccountType("classic");
+                    input.setCurrency("RON");
+                    break;
+                case "createOneTimeCard":
+                    input.setCommand(command);
+                    input.setAccount(user.getAccounts().get(0).getIBAN());
+                    break;
+                case "deleteCard":
+                    input.setCommand("createCard");
+                    input.setAccount(addEmptyAccount(user));
+                    break;
+                case "addNewBusinessAssociate":
+                    Account account = businessAccounts.get(
+                            random.nextInt(businessAccounts.size()));
+                    input.setCommand(command);
+                    input.setAccount(account.getIBAN());
+                    input.setRole(random.nextBoolean() ? "manager" : "employee");
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command " + command);
+            }
+            commands[i] = input;
+        }
+
+        if (command.equals("deleteCard") || command.equals("deleteAccount")) {
+            removal = new CommandInput();
+            removal.setCommand(command);
+        }
+    }
+
+    /**
+     * Opens a classic account without money: the cards of an account with money are not deleted.
+     *
+     * @param user the owner of the account
+     * @return the IBAN of the new account
+     */
+    private String addEmptyAccount(final User user) {
+        CommandInput addAccount = new CommandInput();
+        addAccount.setCommand("addAccount");
+        addAccount.setEmail(user.getEmail());
+        addAccount.setAccountType("classic");
+        addAccount.setCurrency("RON");
+        bank.processCommand(addAccount, output);
+
+        List<Account> accounts = user.getAccounts();
+        return accounts.get(accounts.size() - 1).getIBAN();
+    }
+
+    private CommandInput nextCommand() {
+        next = (next + 1) & (COMMANDS - 1);
+        return commands[next];
+    }
+
+    /**
+     * Executes the next command and, for deleteCard and deleteAccount, deletes
+     * what it created.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    @Benchmark
+    public void execute() throws IOException {
+        CommandInput input = nextCommand();
+        bank.processCommand(input, output);
+        output.endCommand();
+
+        if (removal != null) {
+            removal.setEmail(input.getEmail());
+            removal.setTimestamp(input.getTimestamp());
+            if (command.equals("deleteCard")) {
+                List<Card> cards = userRegistry.getAccountByIBAN(input.getAccount()).getCards();
+                removal.setCardNumber(cards.get(cards.size() - 1).getCardNumber());
+            } else {
+                List<Account> accounts = userRegistry.getUserByEmail(input.getEmail())
+                        .getAccounts();
+                removal.setAccount(accounts.get(accounts.size() - 1).getIBAN());
+            }
+            bank.processCommand(removal, output);
+            output.endCommand();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.poo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.poo.account.Account;
+import org.poo.bankingApp.BankManager;
+import org.poo.commands.CommandFactory;
+import org.poo.fileio.CommandInput;
+import org.poo.fileio.CommerciantInput;
+import org.poo.fileio.ExchangeInput;
+import org.poo.fileio.ObjectInput;
+import org.poo.fileio.UserInput;
+import org.poo.output.DiscardingOutputSink;
+import org.poo.output.OutputSink;
+import org.poo.user.User;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the dispatch loop of BankManager, with the shared commands found by the
+ * kind of the command and with a new command object created for every command,
+ * like the factory did before.
+ * The commands are addFunds and setMinimumBalance on classic accounts, which do
+ * not create any object themselves, so everything allocated belongs to the dispatch.
+ * <p>
+ * The main method measures the bytes allocated by the current thread for every
+ * command, through the ThreadMXBean of the JVM:
+ * <pre>
+ * java -cp target/benchmarks.jar org.poo.benchmarks.CommandDispatchBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class CommandDispatchBenchmark {
+
+    private static final int COMMANDS = 1024;
+    private static final int SEED = 17;
+    private static final int DEFAULT_USERS = 1000;
+    private static final int WARMUP_COMMANDS = 2_000_000;
+    private static final int MEASURED_COMMANDS = 2_000_000;
+
+    @Param({"1000"})
+    private int users;
+
+    private BankManager bank;
+    private AllocatingDispatch allocatingDispatch;
+    private OutputSink output;
+
+    private final CommandInput[] commands = new CommandInput[COMMANDS];
+    private int next;
+
+    /**
+     * Sets up a bank with one classic account per user and decodes the commands.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectInput input = new ObjectInput();
+        UserInput[] userInputs = new UserInput[users];
+        for (int i = 0; i < users; i++) {
+            userInputs[i] = new UserInput();
+            userInputs[i].setFirstName("First" + i);
+            userInputs[i].setLastName("Last" + i);
+            userInputs[i].setEmail("user" + i + "@poo.org");
+            userInputs[i].setBirthDate("1990-01-01");
+            userInputs[i].setOccupation("engineer");
+        }
+        input.setUsers(userInputs);
+        input.setCommerciants(new CommerciantInput[0]);
+        input.setExchangeRates(new ExchangeInput[0]);
+
+        output = new DiscardingOutputSink(new ObjectMapper());
+        bank = new BankManager();
+        bank.setUp(input);
+        for (int i = 0; i < users; i++) {
+            CommandInput addAccount = new CommandInput();
+            addAccount.setCommand("addAccount");
+            addAccount.setEmail(userInputs[i].getEmail());
+            addAccount.setAccountType("classic");
+            addAccount.setCurrency("RON");
+            bank.processCommand(addAccount, output);
+        }
+        allocatingDispatch = new AllocatingDispatch(new CommandFactory(bank.getContext()));
+
+        List<User> userList = bank.getContext().getUserRegistry().getUsers();
+        Random random = new Random(SEED);
+        for (int i = 0; i < COMMANDS; i++) {
+            User user = userList.get(random.nextInt(userList.size()));
+            Account account = user.getAccounts().get(0);
+
+            CommandInput command = new CommandInput();
+            command.setCommand(i % 2 == 0 ? "addFunds" : "setMinimumBalance");
+            command.setEmail(user.getEmail());
+            command.setAccount(account.getIBAN());
+            command.setAmount(1 + random.nextInt(COMMANDS));
+            command.setTimestamp(i);
+            commands[i] = command;
+        }
+    }
+
+    private CommandInput nextCommand() {
+        next = (next + 1) & (COMMANDS - 1);
+        return commands[next];
+    }
+
+    /**
+     * Executes one command through the shared commands.
+     */
+    @Benchmark
+    public void sharedCommands() {
+        bank.processCommand(nextCommand(), output);
+    }
+
+    /**
+     * Executes one command through a new command object.
+     */
+    @Benchmark
+    public void allocatedCommands() {
+        allocatingDispatch.processCommand(nextCommand(), output);
+    }
+
+    /**
+     * Prints the bytes allocated for every command by the two dispatch loops.
+     *
+     * @param args the number of users, 1000 if not given
+     */
+    public static void main(final String[] args) {
+        CommandDispatchBenchmark benchmark = new CommandDispatchBenchmark();
+        benchmark.users = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_USERS;
+        benchmark.setUp();
+
+        System.out.printf("shared commands:    %.2f bytes per command%n",
+                benchmark.bytesPerCommand(benchmark::sharedCommands));
+        System.out.printf("allocated commands: %.2f bytes per command%n",
+                benchmark.bytesPerCommand(benchmark::allocatedCommands));
+    }
+
+    /**
+     * Runs the dispatch loop until it is compiled, then measures the bytes the
+     * current thread allocates while it executes the commands again.
+     *
+     * @param dispatch executes the next command
+     * @return the average number of bytes allocated for one command
+     */
+    private double bytesPerCommand(final Runnable dispatch) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int i = 0; i < WARMUP_COMMANDS; i++) {
+            dispatch.run();
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_COMMANDS; i++) {
+            dispatch.run();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        return (double) allocated / (MEASURED_COMMANDS);
+    }
+}
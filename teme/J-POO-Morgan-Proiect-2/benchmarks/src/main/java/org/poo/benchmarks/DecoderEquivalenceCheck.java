@@ -0,0 +1,155 @@
+package org.poo.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.poo.fileio.InputDecoder;
+import org.poo.fileio.ObjectInput;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Checks that the InputDecoder reads the input files exactly like the databinding of
+ * the ObjectMapper. Every file of a directory is decoded both ways and the two
+ * ObjectInputs are compared field by field, going through the arrays of users,
+ * exchange rates, commands and commerciants by reflection, so a field added to one
+ * of the input classes is compared without changing the check:
+ * <pre>
+ * java -cp target/benchmarks.jar org.poo.benchmarks.DecoderEquivalenceCheck ../input
+ * </pre>
+ * The first difference of every file is printed with its path, for example
+ * {@code commands[12].amount}, and the check exits with status 1 if any file differs.
+ * A file which only one of the two rejects is a difference too.
+ */
+public final class DecoderEquivalenceCheck {
+    private static final String DEFAULT_DIRECTORY = "../input";
+    private static final String INPUT_PACKAGE = ObjectInput.class.getPackageName();
+
+    private DecoderEquivalenceCheck() {
+    }
+
+    /**
+     * Decodes every file of the directory both ways and compares the results.
+     *
+     * @param args the directory of the input files, ../input if missing
+     * @throws IOException if the directory has no input files
+     */
+    public static void main(final String[] args) throws IOException {
+        File directory = new File(args.length > 0 ? args[0] : DEFAULT_DIRECTORY);
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".json"));
+        if (files == null || files.length == 0) {
+            throw new IOException("No input files in " + directory);
+        }
+        Arrays.sort(files);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        int different = 0;
+        for (File file : files) {
+            Object reflective;
+            try {
+                reflective = objectMapper.readValue(file, ObjectInput.class);
+            } catch (IOException e) {
+                reflective = e;
+            }
+            Object decoded;
+            try {
+                decoded = InputDecoder.decode(file);
+            } catch (IOException e) {
+                decoded = e;
+            }
+
+            String difference;
+            if (reflective instanceof IOException || decoded instanceof IOException) {
+                // both must reject the file
+                difference = reflective instanceof IOException && decoded instanceof IOException
+                        ? null : describe("input", reflective, decoded);
+            } else {
+                difference = difference("", reflective, decoded);
+            }
+            if (difference != null) {
+                System.out.println(file.getName() + ": " + difference);
+                different++;
+            }
+        }
+        System.out.println(files.length + " files, " + different + " different");
+        if (different > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compares two values decoded from the same input.
+     *
+     * @param path     the path of the values in the input
+     * @param expected the value read by the ObjectMapper
+     * @param actual   the value read by the InputDecoder
+     * @return the first difference, or null if the values are the same
+     */
+    private static String difference(final String path, final Object expected,
+                                     final Object actual) {
+        if (expected == null || actual == null) {
+            return expected == actual ? null : describe(path, expected, actual);
+        }
+        if (expected.getClass() != actual.getClass()) {
+            return describe(path, expected, actual);
+        }
+        if (expected.getClass().isArray()) {
+            int length = Array.getLength(expected);
+            if (length != Array.getLength(actual)) {
+                return path + ": " + length + " elements, decoded "
+                        + Array.getLength(actual);
+            }
+            for (int i = 0; i < length; i++) {
+                String found = difference(path + "[" + i + "]", Array.get(expected, i),
+                        Array.get(actual, i));
+                if (found != null) {
+                    return found;
+                }
+            }
+            return null;
+        }
+        if (expected.getClass().getPackageName().equals(INPUT_PACKAGE)
+                && !expected.getClass().isEnum()) {
+            return fieldDifference(path, expected, actual);
+        }
+        return expected.equals(actual) ? null : describe(path, expected, actual);
+    }
+
+    /**
+     * Compares the instance fields of two input objects of the same class.
+     *
+     * @param path     the path of the objects in the input
+     * @param expected the object read by the ObjectMapper
+     * @param actual   the object read by the InputDecoder
+     * @return the first difference, or null if all the fields are the same
+     */
+    private static String fieldDifference(final String path, final Object expected,
+                                          final Object actual) {
+        for (Field field : expected.getClass().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            String name = path.isEmpty() ? field.getName() : path + "." + field.getName();
+            try {
+                String found = difference(name, field.get(expected), field.get(actual));
+                if (found != null) {
+                    return found;
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot read " + name, e);
+            }
+        }
+        return null;
+    }
+
+    private static String describe(final String path, final Object expected,
+                                   final Object actual) {
+        return path + ": " + Objects.toString(expected) + ", decoded "
+                + Objects.toString(actual);
+    }
+}
@@ -0,0 +1,138 @@
+package org.poo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.poo.exchangeRates.ExchangeInputFormat;
+import org.poo.exchangeRates.ExchangeRates;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the currency conversions made by one payment, with the conversion
+ * table of ExchangeRates and with the breadth-first search it used before.
+ * A payOnline in a foreign currency by a silver user converts three times:
+ * from the account currency to the payment currency, from the account currency
+ * to RON for the commission and again to RON for the cashback.
+ * <p>
+ * The feed benchmark converts at the timestamp of every payment while new versions
+ * of the rates keep coming, one pair every few payments, so it also measures the
+ * rows of the table computed again after a rate changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class ExchangeRatesBenchmark {
+
+    private static final int PAIRS = 256;
+    private static final int SEED = 7;
+    private static final int FEED_PERIOD = 16;
+    private static final int FEED_RATES = 8;
+
+    @Param({"4", "16", "64"})
+    private int currencies;
+
+    private ExchangeRates exchangeRates;
+    private List<ExchangeInputFormat> rateList;
+
+    private final String[] accountCurrencies = new String[PAIRS];
+    private final String[] paymentCurrencies = new String[PAIRS];
+    private int next;
+
+    private ExchangeRates feedRates;
+    private int timestamp;
+
+    /**
+     * Builds a connected graph of rates: a chain through all the currencies,
+     * starting from RON, plus a few random shortcuts.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        exchangeRates = BankFixture.populateExchangeRates(currencies);
+        rateList = exchangeRates.getExchangeRates();
+
+        Random random = new Random(SEED);
+        for (int i = 0; i < PAIRS; i++) {
+            accountCurrencies[i] = BankFixture.currencyName(random.nextInt(currencies));
+            paymentCurrencies[i] = BankFixture.currencyName(random.nextInt(currencies));
+        }
+    }
+
+    /**
+     * Starts every iteration of the feed from the rates at timestamp 0, so the number
+     * of versions does not grow with the length of the run.
+     */
+    @Setup(Level.Iteration)
+    public void setUpFeed() {
+        feedRates = BankFixture.populateExchangeRates(currencies);
+        timestamp = 0;
+    }
+
+    private int nextPair() {
+        next = (next + 1) & (PAIRS - 1);
+        return next;
+    }
+
+    /**
+     * @param blackhole consumes the rates
+     */
+    @Benchmark
+    public void paymentConversionsTable(final Blackhole blackhole) {
+        int pair = nextPair();
+        blackhole.consume(exchangeRates.convertExchangeRate(accountCurrencies[pair],
+                paymentCurrencies[pair]));
+        blackhole.consume(exchangeRates.convertExchangeRate(accountCurrencies[pair], "RON"));
+        blackhole.consume(exchangeRates.convertExchangeRate(accountCurrencies[pair], "RON"));
+    }
+
+    /**
+     * @param blackhole consumes the rates
+     */
+    @Benchmark
+    public void paymentConversionsFeed(final Blackhole blackhole) {
+        int pair = nextPair();
+        timestamp++;
+        if (timestamp % FEED_PERIOD == 0) {
+            // a new version of a pair of the chain, and of its reciprocal
+            int currency = pair % (currencies - 1);
+            double rate = 1 + (double) (timestamp % FEED_RATES) / FEED_RATES;
+            feedRates.addExchangeRate(new ExchangeInputFormat(
+                    BankFixture.currencyName(currency),
+                    BankFixture.currencyName(currency + 1), rate, timestamp));
+            feedRates.addExchangeRate(new ExchangeInputFormat(
+                    BankFixture.currencyName(currency + 1),
+                    BankFixture.currencyName(currency), 1 / rate, timestamp));
+        }
+        blackhole.consume(feedRates.convertExchangeRate(accountCurrencies[pair],
+                paymentCurrencies[pair], timestamp));
+        blackhole.consume(feedRates.convertExchangeRate(accountCurrencies[pair], "RON",
+                timestamp));
+        blackhole.consume(feedRates.convertExchangeRate(accountCurrencies[pair], "RON",
+                timestamp));
+    }
+
+    /**
+     * @param blackhole consumes the rates
+     */
+    @Benchmark
+    public void paymentConversionsBfs(final Blackhole blackhole) {
+        int pair = nextPair();
+        blackhole.consume(BfsExchangeRates.convertExchangeRate(rateList,
+                accountCurrencies[pair], paymentCurrencies[pair]));
+        blackhole.consume(BfsExchangeRates.convertExchangeRate(rateList,
+                accountCurrencies[pair], "RON"));
+        blackhole.consume(BfsExchangeRates.convertExchangeRate(rateList,
+                accountCurrencies[pair], "RON"));
+    }
+}
@@ -0,0 +1,172 @@
+package org.poo.benchmarks;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.poo.bankingApp.BankManager;
+import org.poo.fileio.CommandInput;
+import org.poo.fileio.InputDecoder;
+import org.poo.fileio.ObjectInput;
+import org.poo.fileio.StreamingObjectInput;
+import org.poo.output.ArrayNodeOutputSink;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the decoding of a generated input file and the encoding of its results,
+ * without executing any command.
+ * <ul>
+ * <li>decodeTree reads the whole file into an ObjectInput with the InputDecoder, like
+ * the default run.</li>
+ * <li>decodeTreeReflective reads the same ObjectInput with the databinding of the
+ * ObjectMapper, which the runs used before the InputDecoder.</li>
+ * <li>decodeStreaming reads the file with the StreamingObjectInput, one command at
+ * a time into the same CommandInput.</li>
+ * <li>decodeStreamingReflective reads the commands in the same way, with the
+ * databinding of the ObjectMapper.</li>
+ * <li>encodePretty and encodeCompact write the results of the workload, with and
+ * without indentation.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = CommandBenchmark.WARMUP_ITERATIONS)
+@Measurement(iterations = CommandBenchmark.MEASUREMENT_ITERATIONS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JsonCodecBenchmark {
+
+    @Param({"1000", "10000"})
+    private int users;
+
+    @Param({"100000"})
+    private int commands;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private File inputFile;
+    private ArrayNode results;
+
+    /**
+     * Generates the workload, writes it to a temporary file and runs it once
+     * to have its results.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] workload = WorkloadFixture.generate(users, commands, null);
+        inputFile = Files.createTempFile("workload", ".json").toFile();
+        Files.write(inputFile.toPath(), workload);
+
+        results = objectMapper.createArrayNode();
+        new BankManager().processCommands(WorkloadFixture.decode(workload),
+                new ArrayNodeOutputSink(objectMapper, results));
+    }
+
+    /**
+     * Deletes the temporary file.
+     *
+     * @throws IOException in case of exceptions to deleting
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputFile.toPath());
+    }
+
+    /**
+     * @return the decoded input
+     * @throws IOException in case of exceptions to reading
+     */
+    @Benchmark
+    public ObjectInput decodeTree() throws IOException {
+        return InputDecoder.decode(inputFile);
+    }
+
+    /**
+     * @return the decoded input
+     * @throws IOException in case of exceptions to reading
+     */
+    @Benchmark
+    public ObjectInput decodeTreeReflective() throws IOException {
+        return objectMapper.readValue(inputFile, ObjectInput.class);
+    }
+
+    /**
+     * @param blackhole consumes the decoded commands
+     * @throws IOException in case of exceptions to reading
+     */
+    @Benchmark
+    public void decodeStreaming(final Blackhole blackhole) throws IOException {
+        try (StreamingObjectInput input = new StreamingObjectInput(inputFile)) {
+            blackhole.consume(input.readSetup());
+            CommandInput command = new CommandInput();
+            while (input.nextCommand(command) != null) {
+                blackhole.consume(command.getTimestamp());
+            }
+        }
+    }
+
+    /**
+     * @param blackhole consumes the decoded commands
+     * @throws IOException in case of exceptions to reading
+     */
+    @Benchmark
+    public void decodeStreamingReflective(final Blackhole blackhole) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputFile)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                if (!name.equals("commands")) {
+                    blackhole.consume(objectMapper.readTree(parser));
+                    continue;
+                }
+
+                CommandInput command = new CommandInput();
+                ObjectReader reader = objectMapper.readerForUpdating(command);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    command.clear();
+                    reader.readValue(parser);
+                    blackhole.consume(command.getTimestamp());
+                }
+            }
+        }
+    }
+
+    /**
+     * @throws IOException in case of exceptions to writing
+     */
+    @Benchmark
+    public void encodePretty() throws IOException {
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(OutputStream.nullOutputStream(),
+                results);
+    }
+
+    /**
+     * @throws IOException in case of exceptions to writing
+     */
+    @Benchmark
+    public void encodeCompact() throws IOException {
+        objectMapper.writer().writeValue(OutputStream.nullOutputStream(), results);
+    }
+}
@@ -0,0 +1,90 @@
+package org.poo.benchmarks;
+
+import org.poo.account.Account;
+import org.poo.card.Card;
+import org.poo.user.User;
+
+import java.util.List;
+
+/**
+ * The lookups UserRegistry used before the hash indexes: every search walks
+ * all the users, then all their accounts, then all their cards.
+ * Kept here only as the baseline for the lookup benchmarks.
+ */
+public final class LinearScanLookups {
+
+    private LinearScanLookups() {
+    }
+
+    /**
+     * Finds a user by email with a linear scan.
+     *
+     * @param users the users to search
+     * @param email the email of the user
+     * @return the user, or null if not found
+     */
+    public static User getUserByEmail(final List<User> users, final String email) {
+        for (final User user : users) {
+            if (user.getEmail().equals(email)) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds an account by IBAN with a linear scan.
+     *
+     * @param users the users to search
+     * @param iban  the IBAN of the account
+     * @return the account, or null if not found
+     */
+    public static Account getAccountByIBAN(final List<User> users, final String iban) {
+        for (final User user : users) {
+            for (final Account account : user.getAccounts()) {
+                if (account.getIBAN().equals(iban)) {
+                    return account;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds an account by alias with a linear scan.
+     *
+     * @param users the users to search
+     * @param alias the alias of the account
+     * @return the account, or null if not found
+     */
+    public static Account getAccountByAlias(final List<User> users, final String alias) {
+        for (final User user : users) {
+            for (final Account account : user.getAccounts()) {
+                if (account.getAlias() != null && account.getAlias().equals(alias)) {
+                    return account;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds a card by its number with a linear scan.
+     *
+     * @param users      the users to search
+     * @param cardNumber the card number
+     * @return the card, or null if not found
+     */
+    public static Card getCardByNumber(final List<User> users, final String cardNumber) {
+        for (final User user : users) {
+            for (final Account account : user.getAccounts()) {
+                for (final Card card : account.getCards()) {
+                    if (card.getCardNumber().equals(cardNumber)) {
+                        return card;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
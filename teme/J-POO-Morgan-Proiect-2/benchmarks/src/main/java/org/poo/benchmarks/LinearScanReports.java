@@ -0,0 +1,58 @@
+package org.poo.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.account.Account;
+import org.poo.transaction.Transaction;
+
+import java.util.List;
+
+/**
+ * The report generation used before the time range index: every transaction of
+ * the account is checked against the start and end timestamps.
+ * Kept here only as the baseline for the report benchmarks.
+ */
+public final class LinearScanReports {
+
+    private LinearScanReports() {
+    }
+
+    /**
+     * Generates a report for the transactions between two timestamps, like
+     * ClassicReport did, by going through the whole list.
+     *
+     * @param transactions   all the transactions of the account
+     * @param timestampStart the start timestamp
+     * @param timestampEnd   the end timestamp
+     * @param timestamp      the timestamp of the report
+     * @param account        the account of the report
+     * @return the report
+     */
+    public static ObjectNode generateReportBetweenTimestamps(
+            final List<Transaction> transactions,
+            final int timestampStart,
+            final int timestampEnd,
+            final int timestamp,
+            final Account account) {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode output = mapper.createObjectNode();
+        output.put("command", "report");
+
+        ObjectNode accountNode = output.putObject("output");
+        accountNode.put("balance", account.getBalance());
+        accountNode.put("currency", account.getCurrency());
+        accountNode.put("IBAN", account.getIBAN());
+
+        ArrayNode transactionArray = accountNode.putArray("transactions");
+        for (Transaction transaction : transactions) {
+            if (transaction.getTimestamp() >= timestampStart
+                    && transaction.getTimestamp() <= timestampEnd) {
+                ObjectNode transactionNode = transactionArray.addObject();
+                transaction.toJson(transactionNode);
+            }
+        }
+        output.put("timestamp", timestamp);
+        return output;
+    }
+}
@@ -0,0 +1,139 @@
+package org.poo.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.poo.bankingApp.BankManager;
+import org.poo.fileio.InputDecoder;
+import org.poo.fileio.ObjectInput;
+import org.poo.fileio.StreamingObjectInput;
+import org.poo.output.ArrayNodeOutputSink;
+import org.poo.output.DiscardingOutputSink;
+import org.poo.output.JsonGeneratorOutputSink;
+import org.poo.output.OutputSink;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures whole runs of the bank on a generated workload, from the setup of the
+ * bank to the last command.
+ * <ul>
+ * <li>processCommands runs BankManager.processCommands on the decoded input,
+ * with the results discarded, so only the commands are measured.</li>
+ * <li>fileToFile reads the input file, runs the commands and writes the pretty
+ * printed output file, like the default run of Main.</li>
+ * <li>fileToFileStreaming does the same with the streamed input and the compact
+ * streamed output.</li>
+ * </ul>
+ * With stats=true, the bank keeps the statistics of the commands, to measure what
+ * they cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = CommandBenchmark.WARMUP_ITERATIONS)
+@Measurement(iterations = CommandBenchmark.MEASUREMENT_ITERATIONS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PipelineBenchmark {
+
+    private static final int FLUSH_INTERVAL = 64;
+
+    @Param({"1000", "10000"})
+    private int users;
+
+    @Param({"100000"})
+    private int commands;
+
+    @Param({"false", "true"})
+    private boolean stats;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ObjectInput input;
+    private File inputFile;
+    private File outputFile;
+
+    /**
+     * Generates the workload, decodes it and writes it to a temporary file.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] workload = WorkloadFixture.generate(users, commands, null);
+        input = WorkloadFixture.decode(workload);
+
+        inputFile = Files.createTempFile("workload", ".json").toFile();
+        outputFile = Files.createTempFile("output", ".json").toFile();
+        Files.write(inputFile.toPath(), workload);
+    }
+
+    /**
+     * Deletes the temporary files.
+     *
+     * @throws IOException in case of exceptions to deleting
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputFile.toPath());
+        Files.deleteIfExists(outputFile.toPath());
+    }
+
+    private BankManager newBank() {
+        BankManager bank = new BankManager();
+        if (stats) {
+            bank.enableStats();
+        }
+        return bank;
+    }
+
+    /**
+     * @param blackhole consumes the state of the bank
+     * @throws IOException in case of exceptions to writing
+     */
+    @Benchmark
+    public void processCommands(final Blackhole blackhole) throws IOException {
+        BankManager bank = newBank();
+        bank.processCommands(input, new DiscardingOutputSink(objectMapper));
+        blackhole.consume(bank.getContext());
+    }
+
+    /**
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    @Benchmark
+    public void fileToFile() throws IOException {
+        ObjectInput fileInput = InputDecoder.decode(inputFile);
+        ArrayNode results = objectMapper.createArrayNode();
+        newBank().processCommands(fileInput,
+                new ArrayNodeOutputSink(objectMapper, results));
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(outputFile, results);
+    }
+
+    /**
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    @Benchmark
+    public void fileToFileStreaming() throws IOException {
+        try (StreamingObjectInput fileInput = new StreamingObjectInput(inputFile);
+             OutputSink output = new JsonGeneratorOutputSink(objectMapper, outputFile,
+                     false, FLUSH_INTERVAL)) {
+            newBank().processCommands(fileInput, output);
+        }
+    }
+}
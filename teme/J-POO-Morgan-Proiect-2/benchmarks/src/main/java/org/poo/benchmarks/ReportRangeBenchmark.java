@@ -0,0 +1,212 @@
+package org.poo.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.poo.account.BusinessAccount;
+import org.poo.account.ClassicAccount;
+import org.poo.report.SpendingsReport;
+import org.poo.transaction.CardPaymentTransaction;
+import org.poo.transaction.Transaction;
+import org.poo.transaction.TransactionReport;
+import org.poo.transaction.TransactionStore;
+import org.poo.user.User;
+import org.poo.user.UserRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures report, spendingsReport and businessReport over a time window
+ * of an account with a long history, with the time range index and with the
+ * linear scan over every transaction used before.
+ * Every timestamp of the history holds one payment. businessReport adds up
+ * the buckets of the rollup of the business account.
+ * <p>
+ * The reports are built as nodes, like before, and streamed to a generator which
+ * discards the bytes, like the commands do now. printTransactions writes a user
+ * history with as many payments as the window, both ways, to the same generator.
+ * The reports built as nodes are not written, so they only measure the lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReportRangeBenchmark {
+
+    private static final int WINDOWS = 256;
+    private static final int SEED = 13;
+    private static final double AMOUNT = 10.0;
+
+    @Param({"1000000"})
+    private int history;
+
+    @Param({"10", "1000", "100000"})
+    private int window;
+
+    private ClassicAccount classicAccount;
+    private SpendingsReport spendingsReport;
+    private BusinessAccount businessAccount;
+    private List<Transaction> transactions;
+    private TransactionReport userHistory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JsonGenerator generator;
+
+    private final int[] windowStarts = new int[WINDOWS];
+    private int next;
+
+    /**
+     * Fills a classic account and a business account with one payment per timestamp.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        TransactionStore store = new TransactionStore();
+        classicAccount = new ClassicAccount("RON", "RO00POOB0000000000000001", 0, 0, store);
+        User owner = new User("Owner", "Business", "owner@poo.org", "1990-01-01", "engineer",
+                store);
+        User manager = new User("Manager", "Business", "manager@poo.org", "1990-01-01",
+                "engineer", store);
+        // the business account keeps the amounts of the associates by their registry ids
+        UserRegistry registry = new UserRegistry();
+        registry.addUser(owner);
+        registry.addUser(manager);
+        businessAccount = new BusinessAccount("RON", "RO00POOB0000000000000002", 0, 0,
+                owner, 0);
+        businessAccount.addManager(manager);
+
+        userHistory = owner.getTransactionReport();
+        transactions = new ArrayList<>(history);
+        for (int i = 0; i < history; i++) {
+            Transaction transaction = new CardPaymentTransaction(i, "Card payment",
+                    AMOUNT, "Commerciant" + (i % WINDOWS));
+            classicAccount.getReport().addTransaction(transaction);
+            classicAccount.getPaymentsRecord().addTransaction(transaction);
+            businessAccount.recordSpending(manager, true, AMOUNT,
+                    "Commerciant" + (i % WINDOWS), i);
+            if (i < window) {
+                userHistory.addTransaction(transaction);
+            }
+            transactions.add(transaction);
+        }
+        spendingsReport = new SpendingsReport(classicAccount.getPaymentsRecord(),
+                new ArrayList<>());
+
+        Random random = new Random(SEED);
+        for (int i = 0; i < WINDOWS; i++) {
+            windowStarts[i] = random.nextInt(history - window);
+        }
+
+        try {
+            generator = objectMapper.getFactory()
+                    .createGenerator(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Closes the generator.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        generator.close();
+    }
+
+    private int nextStart() {
+        next = (next + 1) & (WINDOWS - 1);
+        return windowStarts[next];
+    }
+
+    /**
+     * @param blackhole consumes the report
+     */
+    @Benchmark
+    public void reportIndexed(final Blackhole blackhole) {
+        int start = nextStart();
+        blackhole.consume(classicAccount.getReport().generateReportBetweenTimestamps(start,
+                start + window, history, classicAccount));
+    }
+
+    /**
+     * @throws IOException in case of exceptions to writing
+     */
+    @Benchmark
+    public void reportStreamed() throws IOException {
+        int start = nextStart();
+        classicAccount.getReport().writeReportBetweenTimestamps(generator, start,
+                start + window, history, classicAccount);
+    }
+
+    /**
+     * @param blackhole consumes the report
+     */
+    @Benchmark
+    public void reportLinearScan(final Blackhole blackhole) {
+        int start = nextStart();
+        blackhole.consume(LinearScanReports.generateReportBetweenTimestamps(transactions,
+                start, start + window, history, classicAccount));
+    }
+
+    /**
+     * @param blackhole consumes the report
+     */
+    @Benchmark
+    public void spendingsReportIndexed(final Blackhole blackhole) {
+        int start = nextStart();
+        blackhole.consume(spendingsReport.generateSpendingsReportBetweenTimestamps(start,
+                start + window, history, classicAccount, new ArrayList<>()));
+    }
+
+    /**
+     * @throws IOException in case of exceptions to writing
+     */
+    @Benchmark
+    public void spendingsReportStreamed() throws IOException {
+        int start = nextStart();
+        spendingsReport.writeSpendingsReportBetweenTimestamps(generator, start,
+                start + window, history, classicAccount, new ArrayList<>());
+    }
+
+    /**
+     * @throws IOException in case of exceptions to writing
+     */
+    @Benchmark
+    public void printTransactionsTree() throws IOException {
+        objectMapper.writeTree(generator, userHistory.generateReport(history));
+    }
+
+    /**
+     * @throws IOException in case of exceptions to writing
+     */
+    @Benchmark
+    public void printTransactionsStreamed() throws IOException {
+        userHistory.writeReport(generator, history);
+    }
+
+    /**
+     * @param blackhole consumes the report
+     */
+    @Benchmark
+    public void businessReportIndexed(final Blackhole blackhole) {
+        int start = nextStart();
+        blackhole.consume(businessAccount.getBusinessTransactionReport(start,
+                start + window, history));
+    }
+}
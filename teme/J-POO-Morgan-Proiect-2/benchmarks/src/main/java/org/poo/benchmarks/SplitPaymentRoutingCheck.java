@@ -0,0 +1,243 @@
+package org.poo.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.bankingApp.BankManager;
+import org.poo.fileio.ObjectInput;
+import org.poo.output.ArrayNodeOutputSink;
+import org.poo.utils.IdentifierGenerator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks how the answers to split payments are routed when a user takes part in several
+ * pending split payments at once: an answer goes to the oldest pending payment of its
+ * type which the user did not accept yet.
+ * <ul>
+ * <li>a and b get two equal split payments, of 40 and 60 RON. a accepts the first one
+ * and then rejects, which rejects the second one, the first being accepted already;
+ * b then accepts, which makes the first one.</li>
+ * <li>a and c get a custom split payment of 15 RON and then an equal one of 10 RON.
+ * Both accept the equal one, which makes it while the custom one is still pending,
+ * and c then rejects the custom one.</li>
+ * <li>b and c get an equal split payment of 20 RON, which only c accepts, so it stays
+ * pending: an acceptance given to an earlier payment does not count for it.</li>
+ * </ul>
+ * The split payments in the history of every user and the final balances are compared
+ * with the expected ones, and the check exits with status 1 if one of them differs:
+ * <pre>
+ * java -cp target/benchmarks.jar org.poo.benchmarks.SplitPaymentRoutingCheck
+ * </pre>
+ */
+public final class SplitPaymentRoutingCheck {
+    private static final String[] EMAILS = {"a@poo.ro", "b@poo.ro", "c@poo.ro"};
+    private static final double INITIAL_FUNDS = 100;
+    private static final String REJECTED = ": One user rejected the payment.";
+
+    // the amounts of the split payments, in the order they are made
+    private static final double FIRST_EQUAL = 40;
+    private static final double SECOND_EQUAL = 60;
+    private static final double[] CUSTOM_AMOUNTS = {10, 5};
+    private static final double CUSTOM = 15;
+    private static final double MIXED_EQUAL = 10;
+    private static final double UNANSWERED_EQUAL = 20;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectNode input = objectMapper.createObjectNode();
+    private final ArrayNode commands = input.putArray("commands");
+    private final Map<String, String> ibans = new HashMap<>();
+    private int timestamp;
+
+    private SplitPaymentRoutingCheck() {
+    }
+
+    /**
+     * Runs the split payments and compares their results with the expected ones.
+     *
+     * @param args not used
+     * @throws Exception if the input cannot be built
+     */
+    public static void main(final String[] args) throws Exception {
+        SplitPaymentRoutingCheck check = new SplitPaymentRoutingCheck();
+        if (!check.run()) {
+            System.exit(1);
+        }
+    }
+
+    private boolean run() throws Exception {
+        createUsers();
+
+        // two overlapping equal split payments of a and b
+        splitPayment("equal", FIRST_EQUAL, null, "a", "b");
+        splitPayment("equal", SECOND_EQUAL, null, "a", "b");
+        answer("acceptSplitPayment", "a", "equal");
+        answer("rejectSplitPayment", "a", "equal");
+        answer("acceptSplitPayment", "b", "equal");
+
+        // a custom and an equal split payment of a and c, answered in the other order
+        splitPayment("custom", CUSTOM, CUSTOM_AMOUNTS, "a", "c");
+        splitPayment("equal", MIXED_EQUAL, null, "a", "c");
+        answer("acceptSplitPayment", "c", "equal");
+        answer("acceptSplitPayment", "a", "equal");
+        answer("rejectSplitPayment", "c", "custom");
+
+        // a split payment answered by only one of its users
+        splitPayment("equal", UNANSWERED_EQUAL, null, "b", "c");
+        answer("acceptSplitPayment", "c", "equal");
+
+        for (String email : EMAILS) {
+            command("printTransactions").put("email", email);
+        }
+        command("printUsers");
+
+        ArrayNode output = objectMapper.createArrayNode();
+        new BankManager().processCommands(objectMapper.treeToValue(input, ObjectInput.class),
+                new ArrayNodeOutputSink(objectMapper, output));
+
+        // the first and the mixed equal payments are made, the others are not
+        Map<String, List<String>> expected = new HashMap<>();
+        expected.put("a", sorted(made(FIRST_EQUAL), rejected(SECOND_EQUAL), rejected(CUSTOM),
+                made(MIXED_EQUAL)));
+        expected.put("b", sorted(made(FIRST_EQUAL), rejected(SECOND_EQUAL)));
+        expected.put("c", sorted(rejected(CUSTOM), made(MIXED_EQUAL)));
+        Map<String, Double> balances = Map.of(
+                "a", INITIAL_FUNDS - FIRST_EQUAL / 2 - MIXED_EQUAL / 2,
+                "b", INITIAL_FUNDS - FIRST_EQUAL / 2,
+                "c", INITIAL_FUNDS - MIXED_EQUAL / 2);
+
+        boolean same = true;
+        int printed = 0;
+        for (JsonNode result : output) {
+            String command = result.get("command").asText();
+            if (command.equals("printTransactions")) {
+                // the histories are printed in the order of the users
+                String user = name(EMAILS[printed++]);
+                List<String> splits = splitPayments(result.get("output"));
+                if (!splits.equals(expected.get(user))) {
+                    System.out.println(user + ": split payments " + splits + ", expected "
+                            + expected.get(user));
+                    same = false;
+                }
+            } else if (command.equals("printUsers")) {
+                for (JsonNode user : result.get("output")) {
+                    String name = name(user.get("email").asText());
+                    double balance = user.get("accounts").get(0).get("balance").asDouble();
+                    if (balance != balances.get(name)) {
+                        System.out.println(name + ": balance " + balance + ", expected "
+                                + balances.get(name));
+                        same = false;
+                    }
+                }
+            }
+        }
+        System.out.println(same ? "The split payments were answered as expected"
+                : "The split payments were not answered as expected");
+        return same;
+    }
+
+    /**
+     * Adds the users, with one RON account each, funded with the same amount. The IBANs
+     * are generated with the seeds of the bank, so they are the ones the bank creates.
+     */
+    private void createUsers() {
+        ArrayNode users = input.putArray("users");
+        input.putArray("exchangeRates");
+        input.putArray("commerciants");
+        IdentifierGenerator identifiers = new IdentifierGenerator();
+        for (String email : EMAILS) {
+            ObjectNode user = users.addObject();
+            user.put("firstName", name(email));
+            user.put("lastName", name(email));
+            user.put("email", email);
+            user.put("birthDate", "2000-01-01");
+            user.put("occupation", "student");
+
+            ObjectNode account = command("addAccount");
+            account.put("email", email);
+            account.put("currency", "RON");
+            account.put("accountType", "classic");
+            String iban = identifiers.generateIBAN();
+            ibans.put(name(email), iban);
+
+            ObjectNode funds = command("addFunds");
+            funds.put("email", email);
+            funds.put("account", iban);
+            funds.put("amount", INITIAL_FUNDS);
+        }
+    }
+
+    private void splitPayment(final String type, final double amount,
+                              final double[] amountForUsers, final String... users) {
+        ObjectNode split = command("splitPayment");
+        split.put("splitPaymentType", type);
+        split.put("amount", amount);
+        split.put("currency", "RON");
+        ArrayNode accounts = split.putArray("accounts");
+        for (String user : users) {
+            accounts.add(ibans.get(user));
+        }
+        if (amountForUsers != null) {
+            ArrayNode amounts = split.putArray("amountForUsers");
+            for (double userAmount : amountForUsers) {
+                amounts.add(userAmount);
+            }
+        }
+    }
+
+    private void answer(final String command, final String user, final String type) {
+        ObjectNode answer = command(command);
+        answer.put("email", user + "@poo.ro");
+        answer.put("splitPaymentType", type);
+    }
+
+    private ObjectNode command(final String name) {
+        ObjectNode command = commands.addObject();
+        command.put("command", name);
+        command.put("timestamp", ++timestamp);
+        return command;
+    }
+
+    /**
+     * Returns the split payments of a history, with their error if they were not made,
+     * sorted so they do not depend on the order of the history.
+     *
+     * @param transactions the history printed by printTransactions
+     * @return the descriptions of the split payments
+     */
+    private static List<String> splitPayments(final JsonNode transactions) {
+        List<String> splits = new ArrayList<>();
+        for (JsonNode transaction : transactions) {
+            String description = transaction.path("description").asText();
+            if (description.startsWith("Split payment")) {
+                JsonNode error = transaction.get("error");
+                splits.add(error == null ? description : description + ": " + error.asText());
+            }
+        }
+        Collections.sort(splits);
+        return splits;
+    }
+
+    private static String made(final double amount) {
+        return String.format("Split payment of %.2f RON", amount);
+    }
+
+    private static String rejected(final double amount) {
+        return made(amount) + REJECTED;
+    }
+
+    private static List<String> sorted(final String... splits) {
+        List<String> list = new ArrayList<>(List.of(splits));
+        Collections.sort(list);
+        return list;
+    }
+
+    private static String name(final String email) {
+        return email.substring(0, email.indexOf('@'));
+    }
+}
@@ -0,0 +1,139 @@
+package org.poo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.poo.account.Account;
+import org.poo.card.Card;
+import org.poo.user.User;
+import org.poo.user.UserRegistry;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hash indexed lookups of UserRegistry with the linear scans
+ * it used before, on registries of increasing size.
+ * Every lookup picks a random existing key, so the linear scan walks on
+ * average half of the users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class UserRegistryLookupBenchmark {
+
+    private static final int KEYS = 1024;
+    private static final int SEED = 42;
+
+    @Param({"100", "10000", "100000"})
+    private int users;
+
+    @Param({"2"})
+    private int accountsPerUser;
+
+    private UserRegistry registry;
+    private List<User> userList;
+
+    private final String[] emails = new String[KEYS];
+    private final String[] ibans = new String[KEYS];
+    private final String[] aliases = new String[KEYS];
+    private final String[] cardNumbers = new String[KEYS];
+    private int next;
+
+    /**
+     * Builds the registry and picks the keys that will be looked up.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        registry = BankFixture.populateUsers(users, accountsPerUser);
+        userList = registry.getUsers();
+
+        Random random = new Random(SEED);
+        for (int i = 0; i < KEYS; i++) {
+            User user = userList.get(random.nextInt(userList.size()));
+            Account account = user.getAccounts().get(random.nextInt(accountsPerUser));
+            emails[i] = user.getEmail();
+            ibans[i] = account.getIBAN();
+            aliases[i] = account.getAlias();
+            cardNumbers[i] = account.getCards().get(0).getCardNumber();
+        }
+    }
+
+    private int nextKey() {
+        next = (next + 1) & (KEYS - 1);
+        return next;
+    }
+
+    /**
+     * @return the user found through the email index
+     */
+    @Benchmark
+    public User indexedUserByEmail() {
+        return registry.getUserByEmail(emails[nextKey()]);
+    }
+
+    /**
+     * @return the user found by scanning
+     */
+    @Benchmark
+    public User linearUserByEmail() {
+        return LinearScanLookups.getUserByEmail(userList, emails[nextKey()]);
+    }
+
+    /**
+     * @return the account found through the IBAN index
+     */
+    @Benchmark
+    public Account indexedAccountByIBAN() {
+        return registry.getAccountByIBAN(ibans[nextKey()]);
+    }
+
+    /**
+     * @return the account found by scanning
+     */
+    @Benchmark
+    public Account linearAccountByIBAN() {
+        return LinearScanLookups.getAccountByIBAN(userList, ibans[nextKey()]);
+    }
+
+    /**
+     * @return the account found through the alias index
+     */
+    @Benchmark
+    public Account indexedAccountByAlias() {
+        return registry.getAccountByAlias(aliases[nextKey()]);
+    }
+
+    /**
+     * @return the account found by scanning
+     */
+    @Benchmark
+    public Account linearAccountByAlias() {
+        return LinearScanLookups.getAccountByAlias(userList, aliases[nextKey()]);
+    }
+
+    /**
+     * @return the card found through the card number index
+     */
+    @Benchmark
+    public Card indexedCardByNumber() {
+        return registry.getCardByNumber(cardNumbers[nextKey()]);
+    }
+
+    /**
+     * @return the card found by scanning
+     */
+    @Benchmark
+    public Card linearCardByNumber() {
+        return LinearScanLookups.getCardByNumber(userList, cardNumbers[nextKey()]);
+    }
+}
@@ -0,0 +1,151 @@
+package org.poo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.poo.transaction.CardPaymentTransaction;
+import org.poo.transaction.Transaction;
+import org.poo.velocity.VelocityLimits;
+import org.poo.velocity.VelocityRule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost the velocity limits add to a payment: the check before it and the
+ * record after it, for payments spread over many cards of many accounts, one timestamp
+ * after the other. The rules only flag the payments, so every payment is recorded.
+ * <p>
+ * The baseline counts the payments of the card in the window by going through the
+ * payments in its history, like a check made from the transactions of the user would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class VelocityLimitsBenchmark {
+
+    private static final int CARDS = 1024;
+    private static final int CARDS_PER_ACCOUNT = 4;
+    private static final int WINDOW = 100;
+    private static final int SEED = 17;
+    private static final int MAX_AMOUNT = 500;
+
+    private final String[] cardNumbers = new String[CARDS];
+    private final String[] ibans = new String[CARDS];
+    private final double[] amounts = new double[CARDS];
+    private int next;
+    private int timestamp;
+
+    /**
+     * Creates the card numbers, their accounts and the amounts of the payments.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < CARDS; i++) {
+            cardNumbers[i] = String.format("%016d", i);
+            ibans[i] = String.format("RO00POOB%016d", i / CARDS_PER_ACCOUNT);
+            amounts[i] = 1 + random.nextInt(MAX_AMOUNT);
+        }
+    }
+
+    /**
+     * The velocity limits, with no rule, a limit of the card or limits of the card
+     * and of the account.
+     */
+    @State(Scope.Benchmark)
+    public static class Limits {
+        @Param({"none", "card", "cardAndAccount"})
+        private String rules;
+
+        private final VelocityLimits limits = new VelocityLimits();
+
+        /**
+         * Sets the rules.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            switch (rules) {
+                case "card" -> limits.setRules(VelocityRule.parseAll("card:10:3:0:flag"));
+                case "cardAndAccount" -> limits.setRules(VelocityRule.parseAll(
+                        "card:10:3:0:flag,account:" + WINDOW + ":0:5000:flag"));
+                default -> limits.setRules(List.of());
+            }
+        }
+    }
+
+    /**
+     * The payments of every card, one every few timestamps.
+     */
+    @State(Scope.Benchmark)
+    public static class History {
+        @Param({"100", "1000"})
+        private int payments;
+
+        private final List<List<Transaction>> histories = new ArrayList<>();
+
+        /**
+         * Fills the history of every card, ending before the first payment measured.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            for (int card = 0; card < CARDS; card++) {
+                List<Transaction> history = new ArrayList<>(payments);
+                for (int i = 0; i < payments; i++) {
+                    history.add(new CardPaymentTransaction((i - payments) * CARDS + card,
+                            "Card payment", 1 + i % MAX_AMOUNT, "Commerciant"));
+                }
+                histories.add(history);
+            }
+        }
+    }
+
+    private int nextCard() {
+        next = (next + 1) & (CARDS - 1);
+        timestamp++;
+        return next;
+    }
+
+    /**
+     * @param limits    the velocity limits
+     * @param blackhole consumes the rule which flags the payment
+     */
+    @Benchmark
+    public void checkAndRecord(final Limits limits, final Blackhole blackhole) {
+        int card = nextCard();
+        VelocityLimits velocity = limits.limits;
+        blackhole.consume(velocity.check(cardNumbers[card], ibans[card], amounts[card],
+                timestamp));
+        velocity.record(cardNumbers[card], ibans[card], amounts[card], timestamp);
+    }
+
+    /**
+     * @param history   the payments of the cards
+     * @param blackhole consumes the number of payments and the amount in the window
+     */
+    @Benchmark
+    public void scanHistory(final History history, final Blackhole blackhole) {
+        int card = nextCard();
+        int count = 0;
+        double amount = 0;
+        for (Transaction transaction : history.histories.get(card)) {
+            if (transaction.getTimestamp() > timestamp - WINDOW * CARDS) {
+                count++;
+                amount += ((CardPaymentTransaction) transaction).getAmount();
+            }
+        }
+        blackhole.consume(count);
+        blackhole.consume(amount);
+    }
+}
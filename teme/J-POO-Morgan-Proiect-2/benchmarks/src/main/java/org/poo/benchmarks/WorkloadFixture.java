@@ -0,0 +1,89 @@
+package org.poo.benchmarks;
+
+import org.poo.bankingApp.BankManager;
+import org.poo.fileio.CommandInput;
+import org.poo.fileio.InputDecoder;
+import org.poo.fileio.ObjectInput;
+import org.poo.output.OutputSink;
+import org.poo.workload.CommandMix;
+import org.poo.workload.WorkloadGenerator;
+import org.poo.workload.WorkloadSettings;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Builds the inputs and the banks used by the benchmarks from generated workloads.
+ */
+public final class WorkloadFixture {
+
+    private WorkloadFixture() {
+    }
+
+    /**
+     * Generates a workload with the default settings of the generator.
+     *
+     * @param users    the number of users
+     * @param commands the number of commands after the setup of the bank
+     * @param mix      the command mix, null for the default one
+     * @return the input file, as bytes
+     */
+    public static byte[] generate(final int users, final int commands, final String mix) {
+        WorkloadSettings settings = new WorkloadSettings();
+        settings.setUsers(users);
+        settings.setCommands(commands);
+        if (mix != null) {
+            settings.setCommandMix(CommandMix.parse(mix));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            new WorkloadGenerator(settings).write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a generated workload.
+     *
+     * @param workload the input file, as bytes
+     * @return the decoded input
+     */
+    public static ObjectInput decode(final byte[] workload) {
+        try {
+            return InputDecoder.decode(workload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sets up a bank from the input and executes all its commands except the
+     * last ones, which are returned to be executed by the benchmark.
+     *
+     * @param bank     the bank to set up
+     * @param input    the decoded input
+     * @param measured the number of commands left for the benchmark
+     * @param output   the sink which receives the results of the setup commands
+     * @return the commands left for the benchmark
+     */
+    public static CommandInput[] setUpBank(final BankManager bank, final ObjectInput input,
+                                           final int measured, final OutputSink output) {
+        bank.setUp(input);
+        CommandInput[] commands = input.getCommands();
+        int setupCommands = commands.length - measured;
+        try {
+            for (int i = 0; i < setupCommands; i++) {
+                bank.processCommand(commands[i], output);
+                output.endCommand();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Arrays.copyOfRange(commands, setupCommands, commands.length);
+    }
+}
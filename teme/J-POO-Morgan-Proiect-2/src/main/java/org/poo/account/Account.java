@@ -3,8 +3,11 @@ package org.poo.account;
 import org.poo.card.Card;
 import org.poo.commerciants.Commerciant;
 import org.poo.discounts.Discount;
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
 import org.poo.transaction.Transaction;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 /**
@@ -48,6 +51,22 @@ public interface Account {
      */
     double getMinBalance();
 
+    /**
+     * Getter for the watcher of the balance, which keeps the status given to the cards
+     * of the account by its balance and its minimum balance
+     *
+     * @return the watcher of the balance
+     */
+    BalanceWatcher getBalanceWatcher();
+
+    /**
+     * Adds a listener to the watcher of the balance, called every time the balance or
+     * the minimum balance changes the status given to the cards of the account
+     *
+     * @param listener the listener
+     */
+    void addBalanceListener(BalanceListener listener);
+
     /**
      * Getter for the alias (a name for the account that can be used instead of the IBAN)
      *
@@ -233,4 +252,21 @@ public interface Account {
      */
     Discount getDiscountByType(String type);
 
+    /**
+     * Method to write the fields of the account to a snapshot, after its type,
+     * which is written by the AccountFactory
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    void writeTo(SnapshotWriter writer) throws IOException;
+
+    /**
+     * Method to read back the fields written by writeTo into a new account of the same type
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    void readFrom(SnapshotReader reader) throws IOException;
+
 }
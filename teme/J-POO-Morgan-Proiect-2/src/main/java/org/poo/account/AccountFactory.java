@@ -1,7 +1,12 @@
 package org.poo.account;
 
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+import org.poo.transaction.TransactionStore;
 import org.poo.user.User;
 
+import java.io.IOException;
+
 /**
  * Factory class to create instances of different account types.
  * This class cannot be instantiated.
@@ -33,6 +38,7 @@ public final class AccountFactory {
      * @param minBalance   the minimum balance of the account
      *                     (the balance cannot go below this value)
      * @param interestRate the interest rate (only applicable for savings accounts)
+     * @param store        the store which saves the transactions of the account
      * @return the created account
      * @throws IllegalArgumentException if the account type is not of type classic or savings
      */
@@ -44,12 +50,14 @@ public final class AccountFactory {
                                         final String alias,
                                         final double interestRate,
                                         final User owner,
-                                        final double businessLimit) {
+                                        final double businessLimit,
+                                        final TransactionStore store) {
         switch (accountType) {
             case classic:
-                return new ClassicAccount(currency, iban, balance, minBalance);
+                return new ClassicAccount(currency, iban, balance, minBalance, store);
             case savings:
-                return new SavingsAccount(currency, iban, balance, minBalance, interestRate);
+                return new SavingsAccount(currency, iban, balance, minBalance, interestRate,
+                        store);
             case business:
                 return new BusinessAccount(currency, iban, balance, minBalance,
                         owner, businessLimit);
@@ -58,4 +66,50 @@ public final class AccountFactory {
                         + accountType + " is not recognized.");
         }
     }
+
+    /**
+     * Writes an account to a snapshot, its type first, and registers it in the writer,
+     * so the users and the indexes which hold it refer to it.
+     *
+     * @param writer  the writer of the snapshot
+     * @param account the account
+     * @throws IOException in case of exceptions to writing
+     */
+    public static void writeAccount(final SnapshotWriter writer, final Account account)
+            throws IOException {
+        AccountType type;
+        if (account instanceof BusinessAccount) {
+            type = AccountType.business;
+        } else if (account instanceof SavingsAccount) {
+            type = AccountType.savings;
+        } else {
+            type = AccountType.classic;
+        }
+        writer.register(account);
+        writer.writeByte(type.ordinal());
+        account.writeTo(writer);
+    }
+
+    /**
+     * Reads back an account written by {@link #writeAccount(SnapshotWriter, Account)}
+     * and registers it in the reader. The users it refers to must be read already.
+     *
+     * @param reader the reader of the snapshot
+     * @param store  the store which saves the transactions of the account
+     * @return the account
+     * @throws IOException if the snapshot cannot be read
+     */
+    public static Account readAccount(final SnapshotReader reader, final TransactionStore store)
+            throws IOException {
+        int ordinal = reader.readByte();
+        AccountType[] types = AccountType.values();
+        if (ordinal < 0 || ordinal >= types.length) {
+            throw reader.corrupted("account type " + ordinal);
+        }
+        Account account = createAccount(types[ordinal], null, null, 0, 0, null, 0, null, 0,
+                store);
+        reader.register(account);
+        account.readFrom(reader);
+        return account;
+    }
 }
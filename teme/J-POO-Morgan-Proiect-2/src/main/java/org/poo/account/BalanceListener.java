@@ -0,0 +1,19 @@
+package org.poo.account;
+
+/**
+ * Listener for the changes of the status given to the cards of an account by its balance,
+ * called by the {@link BalanceWatcher} of the account at the moment the balance crosses
+ * one of its thresholds.
+ */
+@FunctionalInterface
+public interface BalanceListener {
+
+    /**
+     * Called after the status of the account changed.
+     *
+     * @param previous the status before the change, one of the constants of BalanceWatcher
+     * @param current  the new status
+     * @param balance  the balance which caused the change
+     */
+    void statusChanged(int previous, int current, double balance);
+}
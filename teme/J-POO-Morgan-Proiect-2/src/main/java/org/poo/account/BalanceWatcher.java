@@ -0,0 +1,171 @@
+package org.poo.account;
+
+import org.poo.jfr.BalanceThresholdEvent;
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Keeps the thresholds of the balance of an account and the status they give to its cards,
+ * updated every time the balance or the minimum balance is set, so the status of a card
+ * is read without comparing the balance again.
+ * <p>
+ * The cards of an account are "frozen" if the balance is at or below the minimum balance,
+ * "warning" if the balance is less than the warning margin above it, and "active" otherwise.
+ * When the status changes, the listeners are called and a Flight Recorder event is
+ * recorded, at the moment the balance crosses the threshold.
+ * <p>
+ * The listeners are not saved in a snapshot, they are added again to the restored bank.
+ */
+public final class BalanceWatcher {
+    public static final int ACTIVE = 0;
+    public static final int WARNING = 1;
+    public static final int FROZEN = 2;
+
+    // the difference to the minimum balance under which the cards get a warning
+    public static final double DEFAULT_WARNING_MARGIN = 30;
+
+    private static final String[] STATUS_NAMES = {"active", "warning", "frozen"};
+    private static final BalanceListener[] NO_LISTENERS = new BalanceListener[0];
+
+    private double minBalance;
+    private double warningMargin = DEFAULT_WARNING_MARGIN;
+    private int status;
+
+    private BalanceListener[] listeners = NO_LISTENERS;
+
+    /**
+     * Creates the watcher of an account.
+     *
+     * @param balance    the balance of the account
+     * @param minBalance the minimum balance of the account
+     */
+    public BalanceWatcher(final double balance, final double minBalance) {
+        this.minBalance = minBalance;
+        this.status = statusOf(balance);
+    }
+
+    /**
+     * Updates the status after the balance of the account was set.
+     *
+     * @param balance the new balance
+     */
+    public void balanceChanged(final double balance) {
+        int current = statusOf(balance);
+        if (current != status) {
+            changeStatus(current, balance);
+        }
+    }
+
+    /**
+     * Sets the minimum balance of the account and updates the status.
+     *
+     * @param newMinBalance the new minimum balance
+     * @param balance       the balance of the account
+     */
+    public void setMinBalance(final double newMinBalance, final double balance) {
+        minBalance = newMinBalance;
+        balanceChanged(balance);
+    }
+
+    /**
+     * Sets the difference to the minimum balance under which the cards get a warning
+     * and updates the status.
+     *
+     * @param margin  the new warning margin
+     * @param balance the balance of the account
+     */
+    public void setWarningMargin(final double margin, final double balance) {
+        warningMargin = margin;
+        balanceChanged(balance);
+    }
+
+    /**
+     * Returns the status given to the cards by the last balance.
+     *
+     * @return {@link #ACTIVE}, {@link #WARNING} or {@link #FROZEN}
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the name of a status, the one used for the status of a card.
+     *
+     * @param value the status
+     * @return "active", "warning" or "frozen"
+     */
+    public static String statusName(final int value) {
+        return STATUS_NAMES[value];
+    }
+
+    /**
+     * Adds a listener, called every time the status changes.
+     *
+     * @param listener the listener
+     */
+    public synchronized void addListener(final BalanceListener listener) {
+        BalanceListener[] current = listeners == null ? NO_LISTENERS : listeners;
+        BalanceListener[] added = Arrays.copyOf(current, current.length + 1);
+        added[current.length] = listener;
+        listeners = added;
+    }
+
+    /**
+     * Writes the thresholds and the status to a snapshot.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeDouble(minBalance);
+        writer.writeDouble(warningMargin);
+        writer.writeInt(status);
+    }
+
+    /**
+     * Reads back the thresholds and the status written by {@link #writeTo(SnapshotWriter)}
+     * into this watcher. The listeners are kept, and not called.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        minBalance = reader.readDouble();
+        warningMargin = reader.readDouble();
+        status = reader.readInt();
+        if (status < ACTIVE || status > FROZEN) {
+            throw reader.corrupted("card status " + status);
+        }
+    }
+
+    private int statusOf(final double balance) {
+        if (balance <= minBalance) {
+            return FROZEN;
+        }
+        if (balance - minBalance < warningMargin) {
+            return WARNING;
+        }
+        return ACTIVE;
+    }
+
+    private void changeStatus(final int current, final double balance) {
+        int previous = status;
+        status = current;
+
+        BalanceThresholdEvent event = new BalanceThresholdEvent();
+        if (event.shouldCommit()) {
+            event.set(STATUS_NAMES[previous], STATUS_NAMES[current], balance, minBalance);
+            event.commit();
+        }
+
+        BalanceListener[] registered = listeners;
+        if (registered != null) {
+            for (BalanceListener listener : registered) {
+                listener.statusChanged(previous, current, balance);
+            }
+        }
+    }
+}
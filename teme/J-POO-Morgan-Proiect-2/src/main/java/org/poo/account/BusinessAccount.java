@@ -4,16 +4,20 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.card.Card;
 import org.poo.card.CardFactory;
 import org.poo.commerciants.Commerciant;
+import org.poo.commerciants.CommerciantStore;
 import org.poo.discounts.Discount;
 import org.poo.report.BusinessCommerciantReport;
+import org.poo.report.BusinessRollup;
 import org.poo.report.BusinessTransactionReport;
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
 import org.poo.transaction.Transaction;
 import org.poo.user.User;
+import org.poo.user.UserAmounts;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public final class BusinessAccount implements Account {
     private static final int MINIMUM_BALANCE = 500;
@@ -26,13 +30,16 @@ public final class BusinessAccount implements Account {
     private double maxDepositedLimit = MINIMUM_BALANCE;
     private String alias;
 
+    // the status given to the cards by the balance, updated every time it is set
+    private final BalanceWatcher balanceWatcher;
+
     // cards is a list of all the cards that the user has in a specific account
     private ArrayList<Card> cards = new ArrayList<>();
 
     // commerciantsList is a list of all the commerciants that the user has sent money to
     // it will help in the spending report
     // it will help with the cashback strategy, counting the transactions for each commerciant
-    private final ArrayList<Commerciant> commerciantsList = new ArrayList<>();
+    private final CommerciantStore commerciantsList = new CommerciantStore();
 
     // amountSpentOnSTCommerciants is the amount of money spent on the commerciants who
     // have a cashback strategy of type SpendingThreshold
@@ -48,22 +55,27 @@ public final class BusinessAccount implements Account {
     private List<User> employees = new ArrayList<>();
 
     // maps for the amount spent by the managers and employees, will help in transaction report
-    private Map<User, Double> managerSpentAmounts = new HashMap<>();
-    private Map<User, Double> employeeSpentAmount = new HashMap<>();
+    private UserAmounts managerSpentAmounts = new UserAmounts();
+    private UserAmounts employeeSpentAmount = new UserAmounts();
 
     // maps for the amount deposited by the managers and employees, will help in transaction report
-    private Map<User, Double> managerDepositedAmounts = new HashMap<>();
-    private Map<User, Double> employeeDepositedAmounts = new HashMap<>();
+    private UserAmounts managerDepositedAmounts = new UserAmounts();
+    private UserAmounts employeeDepositedAmounts = new UserAmounts();
 
     // total spent and total deposited will help in the commerciant report
-    private Double totalSpent = 0.0;
-    private Double totalDeposited = 0.0;
+    private double totalSpent = 0.0;
+    private double totalDeposited = 0.0;
+
+    // the amounts spent and deposited by the associates, added up by timestamp for the reports
+    private final BusinessRollup rollup = new BusinessRollup();
 
     // the transactions report
-    private BusinessTransactionReport businessTransactionReport = new BusinessTransactionReport();
+    private BusinessTransactionReport businessTransactionReport =
+            new BusinessTransactionReport(rollup);
 
     // the commercaints report
-    private BusinessCommerciantReport businessCommerciantReport = new BusinessCommerciantReport();
+    private BusinessCommerciantReport businessCommerciantReport =
+            new BusinessCommerciantReport(rollup);
 
     public BusinessAccount(final String currency, final String iban, final double balance,
                            final double minBalance, final User owner, final double businessLimit) {
@@ -71,6 +83,7 @@ public final class BusinessAccount implements Account {
         this.currency = currency;
         this.balance = 0;
         this.minBalance = MINIMUM_BALANCE;
+        this.balanceWatcher = new BalanceWatcher(this.balance, this.minBalance);
         this.accountType = "business";
         this.owner = owner;
         this.maxSpendLimit = businessLimit;
@@ -156,6 +169,7 @@ public final class BusinessAccount implements Account {
     @Override
     public void setBalance(final double balance) {
         this.balance = balance;
+        balanceWatcher.balanceChanged(balance);
     }
 
     /**
@@ -164,6 +178,7 @@ public final class BusinessAccount implements Account {
     @Override
     public void setMinBalance(final double minBalance) {
         this.minBalance = minBalance;
+        balanceWatcher.setMinBalance(minBalance, balance);
     }
 
     /**
@@ -182,6 +197,22 @@ public final class BusinessAccount implements Account {
         this.alias = alias;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BalanceWatcher getBalanceWatcher() {
+        return balanceWatcher;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addBalanceListener(final BalanceListener listener) {
+        balanceWatcher.addListener(listener);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -280,7 +311,7 @@ public final class BusinessAccount implements Account {
      *
      * @return the map of the amounts spent by the managers
      */
-    public Map<User, Double> getManagerSpentAmounts() {
+    public UserAmounts getManagerSpentAmounts() {
         return managerSpentAmounts;
     }
 
@@ -289,7 +320,7 @@ public final class BusinessAccount implements Account {
      *
      * @return the map of the amounts spent by the employees
      */
-    public Map<User, Double> getEmployeeSpentAmount() {
+    public UserAmounts getEmployeeSpentAmount() {
         return employeeSpentAmount;
     }
 
@@ -300,11 +331,7 @@ public final class BusinessAccount implements Account {
      * @param amount  the amount spent by the manager
      */
     public void addManagerSpentAmount(final User manager, final double amount) {
-        if (managerSpentAmounts.containsKey(manager)) {
-            managerSpentAmounts.put(manager, managerSpentAmounts.get(manager) + amount);
-        } else {
-            managerSpentAmounts.put(manager, amount);
-        }
+        managerSpentAmounts.add(manager, amount);
     }
 
     /**
@@ -314,11 +341,48 @@ public final class BusinessAccount implements Account {
      * @param amount   the amount spent by the employee
      */
     public void addEmployeeSpentAmount(final User employee, final double amount) {
-        if (employeeSpentAmount.containsKey(employee)) {
-            employeeSpentAmount.put(employee, employeeSpentAmount.get(employee) + amount);
+        employeeSpentAmount.add(employee, amount);
+    }
+
+    /**
+     * Records an amount spent by a manager or an employee: it is added to the amounts
+     * spent by the associate, to the total spent and to the amounts of the reports.
+     *
+     * @param user        the manager or employee
+     * @param manager     true if the user spends as a manager, false as an employee
+     * @param amount      the amount spent
+     * @param commerciant the commerciant paid
+     * @param timestamp   the timestamp of the payment
+     */
+    public void recordSpending(final User user, final boolean manager, final double amount,
+                               final String commerciant, final int timestamp) {
+        if (manager) {
+            addManagerSpentAmount(user, amount);
+        } else {
+            addEmployeeSpentAmount(user, amount);
+        }
+        totalSpent += amount;
+        rollup.addSpending(user, manager, amount, commerciant, timestamp);
+    }
+
+    /**
+     * Records an amount deposited by a manager or an employee: it is added to the amounts
+     * deposited by the associate, to the total deposited and to the amounts of the reports.
+     *
+     * @param user      the manager or employee
+     * @param manager   true if the user deposits as a manager, false as an employee
+     * @param amount    the amount deposited
+     * @param timestamp the timestamp of the deposit
+     */
+    public void recordDeposit(final User user, final boolean manager,
+                              final double amount, final int timestamp) {
+        if (manager) {
+            addManagerDepositedAmount(user, amount);
         } else {
-            employeeSpentAmount.put(employee, amount);
+            addEmployeeDepositedAmount(user, amount);
         }
+        totalDeposited += amount;
+        rollup.addDeposit(user, manager, amount, timestamp);
     }
 
     /**
@@ -326,7 +390,7 @@ public final class BusinessAccount implements Account {
      *
      * @return the map of the amounts deposited by the managers
      */
-    public Map<User, Double> getManagerDepositedAmounts() {
+    public UserAmounts getManagerDepositedAmounts() {
         return managerDepositedAmounts;
     }
 
@@ -338,11 +402,7 @@ public final class BusinessAccount implements Account {
      * @param amount  the amount deposited by the manager
      */
     public void addManagerDepositedAmount(final User manager, final double amount) {
-        if (managerDepositedAmounts.containsKey(manager)) {
-            managerDepositedAmounts.put(manager, managerDepositedAmounts.get(manager) + amount);
-        } else {
-            managerDepositedAmounts.put(manager, amount);
-        }
+        managerDepositedAmounts.add(manager, amount);
     }
 
     /**
@@ -350,7 +410,7 @@ public final class BusinessAccount implements Account {
      *
      * @return the map of the amounts deposited by the employees
      */
-    public Map<User, Double> getEmployeeDepositedAmounts() {
+    public UserAmounts getEmployeeDepositedAmounts() {
         return employeeDepositedAmounts;
     }
 
@@ -361,11 +421,7 @@ public final class BusinessAccount implements Account {
      * @param amount   the amount deposited by the employee
      */
     public void addEmployeeDepositedAmount(final User employee, final double amount) {
-        if (employeeDepositedAmounts.containsKey(employee)) {
-            employeeDepositedAmounts.put(employee, employeeDepositedAmounts.get(employee) + amount);
-        } else {
-            employeeDepositedAmounts.put(employee, amount);
-        }
+        employeeDepositedAmounts.add(employee, amount);
     }
 
     /**
@@ -375,12 +431,7 @@ public final class BusinessAccount implements Account {
      * @return the commerciant with the given iban
      */
     public Commerciant getCommerciantByIBAN(final String accountIban) {
-        for (Commerciant commerciant : commerciantsList) {
-            if (commerciant.getIban().equals(accountIban)) {
-                return commerciant;
-            }
-        }
-        return null;
+        return commerciantsList.getByIban(accountIban);
     }
 
     /**
@@ -388,7 +439,7 @@ public final class BusinessAccount implements Account {
      *
      * @return the total amount spent
      */
-    public Double getTotalSpent() {
+    public double getTotalSpent() {
         return totalSpent;
     }
 
@@ -397,7 +448,7 @@ public final class BusinessAccount implements Account {
      *
      * @param totalSpent the total amount spent
      */
-    public void setTotalSpent(final Double totalSpent) {
+    public void setTotalSpent(final double totalSpent) {
         this.totalSpent = totalSpent;
     }
 
@@ -406,7 +457,7 @@ public final class BusinessAccount implements Account {
      *
      * @param total the total amount spent
      */
-    public void addTotalSpent(final Double total) {
+    public void addTotalSpent(final double total) {
         this.totalSpent += total;
     }
 
@@ -415,7 +466,7 @@ public final class BusinessAccount implements Account {
      *
      * @return the total amount deposited
      */
-    public Double getTotalDeposited() {
+    public double getTotalDeposited() {
         return totalDeposited;
     }
 
@@ -424,7 +475,7 @@ public final class BusinessAccount implements Account {
      *
      * @param totalDeposited the total amount deposited
      */
-    public void setTotalDeposited(final Double totalDeposited) {
+    public void setTotalDeposited(final double totalDeposited) {
         this.totalDeposited = totalDeposited;
     }
 
@@ -512,7 +563,7 @@ public final class BusinessAccount implements Account {
      */
     @Override
     public ArrayList<Commerciant> getCommerciantList() {
-        return commerciantsList;
+        return commerciantsList.getList();
     }
 
     /**
@@ -520,25 +571,16 @@ public final class BusinessAccount implements Account {
      */
     @Override
     public void addCommerciant(final Commerciant commerciant) {
-        for (Commerciant c : commerciantsList) {
-            if (c.getCommerciant().equals(commerciant.getCommerciant())) {
-                return;
-            }
+        if (commerciantsList.getByName(commerciant.getCommerciant()) != null) {
+            return;
         }
 
-        int index = 0;
-        for (Commerciant c : this.commerciantsList) {
-            if (c.getCommerciant().compareTo(commerciant.getCommerciant()) > 0) {
-                break;
-            }
-            index++;
-        }
         Commerciant newCommerciant = new Commerciant(commerciant.getCommerciant(),
                 commerciant.getId(),
                 commerciant.getIban(),
                 commerciant.getType(),
                 commerciant.getCashbackStrategy());
-        commerciantsList.add(index, newCommerciant);
+        commerciantsList.add(newCommerciant);
     }
 
     /**
@@ -554,12 +596,7 @@ public final class BusinessAccount implements Account {
      */
     @Override
     public Commerciant getCommerciantByCommerciantName(final String commerciantName) {
-        for (Commerciant commerciant : commerciantsList) {
-            if (commerciant.getCommerciant().equals(commerciantName)) {
-                return commerciant;
-            }
-        }
-        return null;
+        return commerciantsList.getByName(commerciantName);
     }
 
     /**
@@ -649,4 +686,87 @@ public final class BusinessAccount implements Account {
                                                      businessCommerciantReport) {
         this.businessCommerciantReport = businessCommerciantReport;
     }
+
+    /**
+     * {@inheritDoc}
+     * The owner and the associates are written as references to the users.
+     */
+    @Override
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeString(iban);
+        writer.writeString(accountType);
+        writer.writeString(currency);
+        writer.writeDouble(balance);
+        writer.writeDouble(minBalance);
+        writer.writeDouble(maxSpendLimit);
+        writer.writeDouble(maxDepositedLimit);
+        writer.writeString(alias);
+        balanceWatcher.writeTo(writer);
+        CardFactory.writeCards(writer, cards);
+        commerciantsList.writeTo(writer);
+        writer.writeDouble(amountSpentOnSTCommerciants);
+        writer.writeInt(discounts.size());
+        for (Discount discount : discounts) {
+            discount.writeTo(writer);
+        }
+        writer.writeRef(owner);
+        writeUsers(writer, managers);
+        writeUsers(writer, employees);
+        managerSpentAmounts.writeTo(writer);
+        employeeSpentAmount.writeTo(writer);
+        managerDepositedAmounts.writeTo(writer);
+        employeeDepositedAmounts.writeTo(writer);
+        writer.writeDouble(totalSpent);
+        writer.writeDouble(totalDeposited);
+        rollup.writeTo(writer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        iban = reader.readString();
+        accountType = reader.readString();
+        currency = reader.readString();
+        balance = reader.readDouble();
+        minBalance = reader.readDouble();
+        maxSpendLimit = reader.readDouble();
+        maxDepositedLimit = reader.readDouble();
+        alias = reader.readString();
+        balanceWatcher.readFrom(reader);
+        CardFactory.readCards(reader, cards);
+        commerciantsList.readFrom(reader);
+        amountSpentOnSTCommerciants = reader.readDouble();
+        int count = reader.readLength(Double.BYTES);
+        for (int i = 0; i < count; i++) {
+            discounts.add(Discount.readFrom(reader));
+        }
+        owner = reader.readRef(User.class);
+        readUsers(reader, managers);
+        readUsers(reader, employees);
+        managerSpentAmounts.readFrom(reader);
+        employeeSpentAmount.readFrom(reader);
+        managerDepositedAmounts.readFrom(reader);
+        employeeDepositedAmounts.readFrom(reader);
+        totalSpent = reader.readDouble();
+        totalDeposited = reader.readDouble();
+        rollup.readFrom(reader);
+    }
+
+    private static void writeUsers(final SnapshotWriter writer, final List<User> users)
+            throws IOException {
+        writer.writeInt(users.size());
+        for (User user : users) {
+            writer.writeRef(user);
+        }
+    }
+
+    private static void readUsers(final SnapshotReader reader, final List<User> users)
+            throws IOException {
+        int count = reader.readLength(Integer.BYTES);
+        for (int i = 0; i < count; i++) {
+            users.add(reader.readRef(User.class));
+        }
+    }
 }
@@ -3,11 +3,16 @@ package org.poo.account;
 import org.poo.card.Card;
 import org.poo.card.CardFactory;
 import org.poo.commerciants.Commerciant;
+import org.poo.commerciants.CommerciantStore;
 import org.poo.discounts.Discount;
 import org.poo.report.ClassicReport;
 import org.poo.report.PaymentsRecord;
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
 import org.poo.transaction.Transaction;
+import org.poo.transaction.TransactionStore;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 /**
@@ -25,15 +30,18 @@ public final class ClassicAccount implements Account {
     private double minBalance;
     private String alias;
 
+    // the status given to the cards by the balance, updated every time it is set
+    private final BalanceWatcher balanceWatcher;
+
     // cards is a list of all the cards that the user has in a specific account
     private final ArrayList<Card> cards = new ArrayList<>();
 
     // commerciantsList is a list of all the commerciants that the user has sent money to
     // it will help with the cashback strategy, counting the transactions for each commerciant
-    private final ArrayList<Commerciant> commerciantsList = new ArrayList<>();
+    private final CommerciantStore commerciantsList = new CommerciantStore();
 
     // it will help in the spending report, because the commerciants come only from Online payments
-    private final ArrayList<Commerciant> commerciantsListForSpendingReport = new ArrayList<>();
+    private final CommerciantStore commerciantsListForSpendingReport = new CommerciantStore();
 
     // amountSpentOnSTCommerciants is the amount of money spent on the commerciants who
     // have a cashback strategy of type SpendingThreshold
@@ -43,10 +51,10 @@ public final class ClassicAccount implements Account {
     private ArrayList<Discount> discounts = new ArrayList<>();
 
     // report is a list of all the transactions made by the user
-    private final ClassicReport report = new ClassicReport();
+    private final ClassicReport report;
 
     // paymentsRecord is a list of all the payments made by the user (payOnline type)
-    private final PaymentsRecord paymentsRecord = new PaymentsRecord();
+    private final PaymentsRecord paymentsRecord;
 
     /**
      * Constructor for the ClassicAccount class.
@@ -55,14 +63,19 @@ public final class ClassicAccount implements Account {
      * @param iban       the IBAN of the account
      * @param balance    the balance of the account (the amount of money in the account)
      * @param minBalance the minimum balance of the account
+     * @param store      the store which saves the transactions of the account
      */
     public ClassicAccount(final String currency, final String iban,
-                          final double balance, final double minBalance) {
+                          final double balance, final double minBalance,
+                          final TransactionStore store) {
         this.currency = currency;
         this.iban = iban;
         this.balance = balance;
         this.minBalance = minBalance;
+        this.balanceWatcher = new BalanceWatcher(balance, minBalance);
         this.accountType = "classic";
+        this.report = new ClassicReport(store);
+        this.paymentsRecord = new PaymentsRecord(store);
     }
 
     /**
@@ -105,6 +118,22 @@ public final class ClassicAccount implements Account {
         return minBalance;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BalanceWatcher getBalanceWatcher() {
+        return balanceWatcher;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addBalanceListener(final BalanceListener listener) {
+        balanceWatcher.addListener(listener);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -144,6 +173,7 @@ public final class ClassicAccount implements Account {
     @Override
     public void setBalance(final double balance) {
         this.balance = balance;
+        balanceWatcher.balanceChanged(balance);
     }
 
     /**
@@ -152,6 +182,7 @@ public final class ClassicAccount implements Account {
     @Override
     public void setMinBalance(final double minBalance) {
         this.minBalance = minBalance;
+        balanceWatcher.setMinBalance(minBalance, balance);
     }
 
     /**
@@ -266,7 +297,7 @@ public final class ClassicAccount implements Account {
      */
     @Override
     public ArrayList<Commerciant> getCommerciantList() {
-        return commerciantsList;
+        return commerciantsList.getList();
     }
 
     /**
@@ -276,23 +307,14 @@ public final class ClassicAccount implements Account {
      */
     @Override
     public void addCommerciant(final Commerciant commerciant) {
-        for (Commerciant c : commerciantsList) {
-            if (c.getCommerciant().equals(commerciant.getCommerciant())) {
-                return;
-            }
+        if (commerciantsList.getByName(commerciant.getCommerciant()) != null) {
+            return;
         }
 
-        int index = 0;
-        for (Commerciant c : this.commerciantsList) {
-            if (c.getCommerciant().compareTo(commerciant.getCommerciant()) > 0) {
-                break;
-            }
-            index++;
-        }
         Commerciant newCommerciant = new Commerciant(commerciant.getCommerciant(),
                 commerciant.getId(), commerciant.getIban(),
                 commerciant.getType(), commerciant.getCashbackStrategy());
-        commerciantsList.add(index, newCommerciant);
+        commerciantsList.add(newCommerciant);
     }
 
     /**
@@ -300,12 +322,7 @@ public final class ClassicAccount implements Account {
      */
     @Override
     public Commerciant getCommerciantByCommerciantName(final String commerciantName) {
-        for (Commerciant commerciant : this.commerciantsList) {
-            if (commerciant.getCommerciant().equals(commerciantName)) {
-                return commerciant;
-            }
-        }
-        return null;
+        return commerciantsList.getByName(commerciantName);
     }
 
     /**
@@ -313,12 +330,7 @@ public final class ClassicAccount implements Account {
      */
     @Override
     public Commerciant getCommerciantByIBAN(final String accountIban) {
-        for (Commerciant commerciant : this.commerciantsList) {
-            if (commerciant.getIban().equals(accountIban)) {
-                return commerciant;
-            }
-        }
-        return null;
+        return commerciantsList.getByIban(accountIban);
     }
 
     /**
@@ -393,7 +405,7 @@ public final class ClassicAccount implements Account {
      * @return the list of commerciants
      */
     public ArrayList<Commerciant> getCommerciantsListForSpendingReport() {
-        return commerciantsListForSpendingReport;
+        return commerciantsListForSpendingReport.getList();
     }
 
     /**
@@ -402,23 +414,61 @@ public final class ClassicAccount implements Account {
      * @param commerciant the commerciant to be added
      */
     public void addCommerciantForSpendingReport(final Commerciant commerciant) {
-        for (Commerciant c : commerciantsListForSpendingReport) {
-            if (c.getCommerciant().equals(commerciant.getCommerciant())) {
-                c.setAmountSpent(c.getAmountSpent() + commerciant.getAmountSpent());
-                return;
-            }
+        Commerciant c = commerciantsListForSpendingReport.getByName(commerciant.getCommerciant());
+        if (c != null) {
+            c.setAmountSpent(c.getAmountSpent() + commerciant.getAmountSpent());
+            return;
         }
-        // Find the correct position to insert the commerciant in alphabetical order
-        int insertIndex = 0;
-        for (int i = 0; i < commerciantsListForSpendingReport.size(); i++) {
-            if (commerciantsListForSpendingReport.get(i).getCommerciant()
-                    .compareTo(commerciant.getCommerciant()) > 0) {
-                insertIndex = i;
-                break;
-            }
-            insertIndex = i + 1; // If no smaller element is found, insert at the end
+        // the store keeps the commerciants in alphabetical order
+        commerciantsListForSpendingReport.add(commerciant);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeString(currency);
+        writer.writeString(accountType);
+        writer.writeString(iban);
+        writer.writeDouble(balance);
+        writer.writeDouble(minBalance);
+        writer.writeString(alias);
+        balanceWatcher.writeTo(writer);
+        CardFactory.writeCards(writer, cards);
+        commerciantsList.writeTo(writer);
+        commerciantsListForSpendingReport.writeTo(writer);
+        writer.writeDouble(amountSpentOnSTCommerciants);
+        writer.writeInt(discounts.size());
+        for (Discount discount : discounts) {
+            discount.writeTo(writer);
+        }
+        report.writeTo(writer);
+        paymentsRecord.writeTo(writer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        currency = reader.readString();
+        accountType = reader.readString();
+        iban = reader.readString();
+        balance = reader.readDouble();
+        minBalance = reader.readDouble();
+        alias = reader.readString();
+        balanceWatcher.readFrom(reader);
+        CardFactory.readCards(reader, cards);
+        commerciantsList.readFrom(reader);
+        commerciantsListForSpendingReport.readFrom(reader);
+        amountSpentOnSTCommerciants = reader.readDouble();
+        int count = reader.readLength(Double.BYTES);
+        for (int i = 0; i < count; i++) {
+            discounts.add(Discount.readFrom(reader));
         }
-        commerciantsListForSpendingReport.add(insertIndex, commerciant);
+        report.readFrom(reader);
+        paymentsRecord.readFrom(reader);
     }
 
 }
@@ -3,10 +3,15 @@ package org.poo.account;
 import org.poo.card.Card;
 import org.poo.card.CardFactory;
 import org.poo.commerciants.Commerciant;
+import org.poo.commerciants.CommerciantStore;
 import org.poo.discounts.Discount;
 import org.poo.report.SavingsReport;
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
 import org.poo.transaction.Transaction;
+import org.poo.transaction.TransactionStore;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 /**
@@ -26,28 +31,34 @@ public final class SavingsAccount implements Account {
     private String alias;
     private double interestRate;
 
+    // the status given to the cards by the balance, updated every time it is set
+    private final BalanceWatcher balanceWatcher;
+
     // report is a list of all the transactions made by the user in the account
     // only the transactions that represented interest earnings or changes in interest
-    private SavingsReport report = new SavingsReport();
+    private SavingsReport report;
 
     // cards is a list of all the cards that the user has in a specific account
     private final ArrayList<Card> cards = new ArrayList<>();
 
     // Constructor
     public SavingsAccount(final String currency, final String iban, final double balance,
-                          final double minBalance, final double interestRate) {
+                          final double minBalance, final double interestRate,
+                          final TransactionStore store) {
         this.currency = currency;
         this.accountType = "savings";
         this.iban = iban;
         this.balance = balance;
         this.minBalance = minBalance;
+        this.balanceWatcher = new BalanceWatcher(balance, minBalance);
         this.interestRate = interestRate;
+        this.report = new SavingsReport(store);
     }
 
     // commerciantsList is a list of all the commerciants that the user has sent money to
     // it will help in the spending report
     // it will help with the cashback strategy, counting the transactions for each commerciant
-    private final ArrayList<Commerciant> commerciantsList = new ArrayList<>();
+    private final CommerciantStore commerciantsList = new CommerciantStore();
 
     // amountSpentOnSTCommerciants is the amount of money spent on the commerciants who
     // have a cashback strategy of type SpendingThreshold
@@ -96,6 +107,22 @@ public final class SavingsAccount implements Account {
         return minBalance;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BalanceWatcher getBalanceWatcher() {
+        return balanceWatcher;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addBalanceListener(final BalanceListener listener) {
+        balanceWatcher.addListener(listener);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -134,6 +161,7 @@ public final class SavingsAccount implements Account {
     @Override
     public void setBalance(final double balance) {
         this.balance = balance;
+        balanceWatcher.balanceChanged(balance);
     }
 
     /**
@@ -142,6 +170,7 @@ public final class SavingsAccount implements Account {
     @Override
     public void setMinBalance(final double minBalance) {
         this.minBalance = minBalance;
+        balanceWatcher.setMinBalance(minBalance, balance);
     }
 
     /**
@@ -249,7 +278,7 @@ public final class SavingsAccount implements Account {
      * @return the list of commerciants
      */
     public ArrayList<Commerciant> getCommerciantList() {
-        return commerciantsList;
+        return commerciantsList.getList();
     }
 
     /**
@@ -259,23 +288,14 @@ public final class SavingsAccount implements Account {
      */
     @Override
     public void addCommerciant(final Commerciant commerciant) {
-        for (Commerciant c : commerciantsList) {
-            if (c.getCommerciant().equals(commerciant.getCommerciant())) {
-                return;
-            }
+        if (commerciantsList.getByName(commerciant.getCommerciant()) != null) {
+            return;
         }
 
-        int index = 0;
-        for (Commerciant c : this.commerciantsList) {
-            if (c.getCommerciant().compareTo(commerciant.getCommerciant()) > 0) {
-                break;
-            }
-            index++;
-        }
         Commerciant newCommerciant = new Commerciant(commerciant.getCommerciant(),
                 commerciant.getId(), commerciant.getIban(),
                 commerciant.getType(), commerciant.getCashbackStrategy());
-        commerciantsList.add(index, newCommerciant);
+        commerciantsList.add(newCommerciant);
     }
 
     /**
@@ -291,12 +311,7 @@ public final class SavingsAccount implements Account {
      */
     @Override
     public Commerciant getCommerciantByCommerciantName(final String commerciantName) {
-        for (Commerciant commerciant : commerciantsList) {
-            if (commerciant.getCommerciant().equals(commerciantName)) {
-                return commerciant;
-            }
-        }
-        return null;
+        return commerciantsList.getByName(commerciantName);
     }
 
     /**
@@ -357,11 +372,52 @@ public final class SavingsAccount implements Account {
      */
     @Override
     public Commerciant getCommerciantByIBAN(final String accountIban) {
-        for (Commerciant commerciant : commerciantsList) {
-            if (commerciant.getIban().equals(accountIban)) {
-                return commerciant;
-            }
+        return commerciantsList.getByIban(accountIban);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeString(currency);
+        writer.writeString(accountType);
+        writer.writeString(iban);
+        writer.writeDouble(balance);
+        writer.writeDouble(minBalance);
+        writer.writeString(alias);
+        writer.writeDouble(interestRate);
+        balanceWatcher.writeTo(writer);
+        report.writeTo(writer);
+        CardFactory.writeCards(writer, cards);
+        commerciantsList.writeTo(writer);
+        writer.writeDouble(amountSpentOnSTCommerciants);
+        writer.writeInt(discounts.size());
+        for (Discount discount : discounts) {
+            discount.writeTo(writer);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        currency = reader.readString();
+        accountType = reader.readString();
+        iban = reader.readString();
+        balance = reader.readDouble();
+        minBalance = reader.readDouble();
+        alias = reader.readString();
+        interestRate = reader.readDouble();
+        balanceWatcher.readFrom(reader);
+        report.readFrom(reader);
+        CardFactory.readCards(reader, cards);
+        commerciantsList.readFrom(reader);
+        amountSpentOnSTCommerciants = reader.readDouble();
+        int count = reader.readLength(Double.BYTES);
+        for (int i = 0; i < count; i++) {
+            discounts.add(Discount.readFrom(reader));
         }
-        return null;
     }
 }
@@ -0,0 +1,128 @@
+package org.poo.bankingApp;
+
+import org.poo.commerciants.CommerciantRegistry;
+import org.poo.exchangeRates.ExchangeRates;
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+import org.poo.splitPayment.SplitPaymentsRegistry;
+import org.poo.transaction.TransactionStore;
+import org.poo.user.UserRegistry;
+import org.poo.utils.IdentifierGenerator;
+import org.poo.velocity.VelocityLimits;
+
+import java.io.IOException;
+
+/**
+ * The state of one bank: the registries, the exchange rates, the transactions and
+ * the generator of IBAN codes and card numbers. Every run of the BankManager creates
+ * its own context and gives it to the commands through the CommandFactory, so several
+ * banks can run at the same time in the same JVM without sharing anything.
+ */
+public final class BankContext {
+    private final UserRegistry userRegistry = new UserRegistry();
+    private final CommerciantRegistry commerciantRegistry = new CommerciantRegistry();
+    private final ExchangeRates exchangeRates = new ExchangeRates();
+    private final SplitPaymentsRegistry splitPaymentsRegistry = new SplitPaymentsRegistry();
+    private final IdentifierGenerator identifiers = new IdentifierGenerator();
+    private final TransactionStore transactionStore = new TransactionStore();
+    private final VelocityLimits velocityLimits = new VelocityLimits();
+
+    /**
+     * Getter for the users of the bank.
+     *
+     * @return the user registry
+     */
+    public UserRegistry getUserRegistry() {
+        return userRegistry;
+    }
+
+    /**
+     * Getter for the commerciants of the bank.
+     *
+     * @return the commerciant registry
+     */
+    public CommerciantRegistry getCommerciantRegistry() {
+        return commerciantRegistry;
+    }
+
+    /**
+     * Getter for the exchange rates of the bank.
+     *
+     * @return the exchange rates
+     */
+    public ExchangeRates getExchangeRates() {
+        return exchangeRates;
+    }
+
+    /**
+     * Getter for the pending split payments of the bank.
+     *
+     * @return the split payments registry
+     */
+    public SplitPaymentsRegistry getSplitPaymentsRegistry() {
+        return splitPaymentsRegistry;
+    }
+
+    /**
+     * Getter for the generator of IBAN codes and card numbers of the bank.
+     *
+     * @return the generator
+     */
+    public IdentifierGenerator getIdentifiers() {
+        return identifiers;
+    }
+
+    /**
+     * Getter for the store which saves the transactions of the users and of
+     * the accounts of the bank.
+     *
+     * @return the transaction store
+     */
+    public TransactionStore getTransactionStore() {
+        return transactionStore;
+    }
+
+    /**
+     * Getter for the velocity limits of the cards and of the accounts of the bank.
+     *
+     * @return the velocity limits
+     */
+    public VelocityLimits getVelocityLimits() {
+        return velocityLimits;
+    }
+
+    /**
+     * Writes the state of the bank to a snapshot. The transactions come first, because
+     * the histories refer to them, and the users before the split payments and the
+     * business accounts, which refer to them.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        transactionStore.writeTo(writer);
+        identifiers.writeTo(writer);
+        exchangeRates.writeTo(writer);
+        commerciantRegistry.writeTo(writer);
+        userRegistry.writeTo(writer);
+        splitPaymentsRegistry.writeTo(writer);
+        velocityLimits.writeTo(writer);
+    }
+
+    /**
+     * Reads back the state written by {@link #writeTo(SnapshotWriter)} into this
+     * context, which must be new.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        transactionStore.readFrom(reader);
+        identifiers.readFrom(reader);
+        exchangeRates.readFrom(reader);
+        commerciantRegistry.readFrom(reader);
+        userRegistry.readFrom(reader, transactionStore);
+        splitPaymentsRegistry.readFrom(reader);
+        velocityLimits.readFrom(reader);
+    }
+}
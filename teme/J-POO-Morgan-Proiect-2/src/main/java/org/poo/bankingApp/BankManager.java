@@ -1,6 +1,6 @@
 package org.poo.bankingApp;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.poo.commands.Command;
 import org.poo.commands.CommandFactory;
 import org.poo.commerciants.Commerciant;
@@ -12,46 +12,382 @@ import org.poo.fileio.ObjectInput;
 import org.poo.fileio.UserInput;
 import org.poo.fileio.CommerciantInput;
 import org.poo.fileio.ExchangeInput;
-import org.poo.splitPayment.SplitPaymentsRegistry;
+import org.poo.fileio.StreamingObjectInput;
+import org.poo.journal.CommandJournal;
+import org.poo.output.DiscardingOutputSink;
+import org.poo.output.OutputSink;
+import org.poo.snapshot.BankSnapshot;
+import org.poo.snapshot.SnapshotFile;
+import org.poo.stats.BankStats;
 import org.poo.user.User;
 import org.poo.user.UserRegistry;
-import org.poo.utils.Utils;
+import org.poo.velocity.VelocityRule;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 
 public final class BankManager {
 
+    // the state of the bank, created again by every run
+    private BankContext context;
+
+    // creates the commands, after the bank was set up
+    private CommandFactory commandFactory;
+
+    // the number of threads which execute the commands, 1 for serial execution
+    private final int parallelism;
+
+    // a snapshot of the bank is written every snapshotInterval commands, 0 for none
+    private Path snapshotDirectory;
+    private String snapshotName;
+    private int snapshotInterval = 0;
+
+    // the snapshot the run resumes from, null to run all the commands
+    private Path resumeSnapshot;
+
+    // the journal of the executed commands, null for none
+    private Path journalFile;
+    private int journalGroupSize;
+    private CommandJournal journal;
+
+    // the latencies and counters of the commands, null when they are not kept
+    private BankStats stats;
+
+    // the velocity limits of the cards and of the accounts, given to every run
+    private List<VelocityRule> velocityRules = List.of();
+
+    // true to write the changes of the status of the cards when a balance crosses a threshold
+    private boolean cardStatusTransactions;
+
+    // the number of commands executed so far, including the ones from the snapshot
+    private int commandsProcessed = 0;
+
+    /**
+     * Creates a bank manager which executes the commands one by one.
+     */
+    public BankManager() {
+        this(1);
+    }
+
+    /**
+     * Creates a bank manager which executes the commands on the given number of threads.
+     * The results are the same as when the commands are executed one by one.
+     *
+     * @param parallelism the number of threads, 1 for serial execution
+     */
+    public BankManager(final int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Writes a snapshot of the bank after every given number of commands.
+     * The snapshot after the first N commands is saved as name-N.snapshot
+     * in the given directory.
+     *
+     * @param directory the directory of the snapshots
+     * @param name      the name of the run, usually the name of the input file
+     * @param interval  the number of commands between two snapshots
+     */
+    public void enableSnapshots(final Path directory, final String name, final int interval) {
+        this.snapshotDirectory = directory;
+        this.snapshotName = name;
+        this.snapshotInterval = interval;
+    }
+
+    /**
+     * Resumes the next run from a snapshot: the state of the bank is read from the
+     * snapshot and only the commands after the ones it covers are executed.
+     * The input must be the same as the one of the run which wrote the snapshot.
+     *
+     * @param snapshot the snapshot file
+     */
+    public void resumeFrom(final Path snapshot) {
+        this.resumeSnapshot = snapshot;
+    }
+
+    /**
+     * Writes every command to a journal before executing it. If the journal already
+     * holds commands when the run starts, a previous run with the same input stopped
+     * before the end: the commands from the journal are executed again to rebuild the
+     * state of the bank, without writing their results, and the run continues with
+     * the next command from the input.
+     *
+     * @param file      the journal file
+     * @param groupSize the number of commands written and forced to the disk together
+     */
+    public void enableJournal(final Path file, final int groupSize) {
+        this.journalFile = file;
+        this.journalGroupSize = groupSize;
+    }
+
+    /**
+     * Keeps statistics of the commands: the latency histogram and the number of
+     * successful and failed commands of every kind, the lookups in the registries and
+     * the currency conversions. The statistics cover every run from now on.
+     *
+     * @return the statistics
+     */
+    public BankStats enableStats() {
+        if (stats == null) {
+            stats = new BankStats();
+            if (context != null) {
+                stats.attach(context);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Checks the payments of every run from now on against velocity limits.
+     * A run resumed from a snapshot keeps the limits of the run which wrote it.
+     *
+     * @param rules the rules, checked in this order, none to check nothing
+     */
+    public void setVelocityRules(final List<VelocityRule> rules) {
+        this.velocityRules = List.copyOf(rules);
+    }
+
+    /**
+     * Writes a FrozenCard or a WarningForPay transaction to the history in every run from
+     * now on, at the moment the balance of an account crosses a threshold of its watcher.
+     * The outputs differ from the expected ones, which only have the warnings written
+     * by checkCardStatus.
+     *
+     * @param enabled true to write the transactions
+     */
+    public void setCardStatusTransactions(final boolean enabled) {
+        this.cardStatusTransactions = enabled;
+    }
+
+    /**
+     * Returns the statistics of the commands.
+     *
+     * @return the statistics, or null if they are not kept
+     */
+    public BankStats getStats() {
+        return stats;
+    }
+
     /**
      * Process the commands from the input data
      *
      * @param inputData the input data to process
-     * @param output    the output node to write the results to
+     * @param output    the output sink to write the results to
+     * @throws IOException in case of exceptions to writing
      */
-    public void processCommands(final ObjectInput inputData, final ArrayNode output) {
-        // create a new instance of the exchange rates, singleton pattern
-        ExchangeRates exchangeRates = ExchangeRates.getInstance();
+    public void processCommands(final ObjectInput inputData,
+                                final OutputSink output) throws IOException {
+        setUp(inputData);
+        restoreSnapshot();
+        recoverJournal();
 
-        // clear the exchange rates
-        exchangeRates.reset();
+        CommandInput[] commands = inputData.getCommands();
 
-        // create a new instance of the commerciants registry, singleton pattern
-        CommerciantRegistry commerciantRegistry = CommerciantRegistry.getInstance();
+        ParallelCommandExecutor executor = null;
+        if (parallelism > 1) {
+            executor = newExecutor(output);
+        }
 
-        // clear the commerciants registry
-        commerciantRegistry.reset();
+        try {
+            // the commands covered by the snapshot are skipped
+            for (int i = commandsProcessed; i < commands.length; i++) {
+                runCommand(commands[i], output, executor);
+            }
+        } finally {
+            finishRun(executor);
+        }
+    }
 
-        // holds all the users
-        UserRegistry userRegistry = UserRegistry.getInstance();
+    /**
+     * Process the commands from an input file read as a stream.
+     * The users, commerciants and exchange rates are read first, then every command
+     * is decoded into the same CommandInput object and executed right away.
+     *
+     * @param input  the input file, opened as a stream
+     * @param output the output sink to write the results to
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public void processCommands(final StreamingObjectInput input,
+                                final OutputSink output) throws IOException {
+        setUp(input.readSetup());
+        restoreSnapshot();
+        recoverJournal();
 
-        // clear the user registry
-        userRegistry.reset();
+        // the commands covered by the snapshot are read, but not executed
+        CommandInput command = new CommandInput();
+        for (int i = 0; i < commandsProcessed; i++) {
+            if (input.nextCommand(command) == null) {
+                finishRun(null);
+                return;
+            }
+        }
 
-        // holds all the split payments
-        SplitPaymentsRegistry splitPaymentsRegistry = SplitPaymentsRegistry.getInstance();
+        ParallelCommandExecutor executor = null;
+        if (parallelism > 1) {
+            executor = newExecutor(output);
+        }
 
-        // clear the split payments registry
-        splitPaymentsRegistry.reset();
+        try {
+            while (true) {
+                CommandInput nextCommand = input.nextCommand(command);
+                if (nextCommand == null) {
+                    break;
+                }
+                runCommand(nextCommand, output, executor);
+            }
+        } finally {
+            finishRun(executor);
+        }
+    }
 
-        // reset the random seed for account IBAN and card number generation
-        Utils.resetRandom();
+    /**
+     * Executes one command, serially or on the executor, and writes a snapshot
+     * if one is due after it.
+     *
+     * @param input    the command to process
+     * @param output   the output sink to write the results to
+     * @param executor the executor of the parallel run, null for serial execution
+     * @throws IOException in case of exceptions to writing
+     */
+    private void runCommand(final CommandInput input, final OutputSink output,
+                            final ParallelCommandExecutor executor) throws IOException {
+        if (journal != null) {
+            journal.append(commandsProcessed, input);
+        }
+
+        if (executor != null) {
+            executor.submit(input);
+        } else {
+            processCommand(input, output);
+            output.endCommand();
+        }
+        commandsProcessed++;
+
+        if (snapshotInterval > 0 && commandsProcessed % snapshotInterval == 0) {
+            // the commands submitted so far must finish before the state is saved
+            if (executor != null) {
+                executor.drain();
+            }
+            Path file = snapshotDirectory.resolve(
+                    snapshotName + "-" + commandsProcessed + ".snapshot");
+            SnapshotFile.write(file, BankSnapshot.capture(commandsProcessed, context));
+        }
+    }
+
+    /**
+     * Replaces the state of the bank with the one from the snapshot to resume from,
+     * if there is one. The bank must be set up first.
+     *
+     * @throws IOException if the snapshot cannot be read
+     */
+    private void restoreSnapshot() throws IOException {
+        commandsProcessed = 0;
+        if (resumeSnapshot == null) {
+            return;
+        }
+
+        BankSnapshot snapshot = SnapshotFile.read(resumeSnapshot);
+        context = snapshot.getContext();
+        commandsProcessed = snapshot.getCommandsProcessed();
+
+        // the factory must give the commands the restored registries
+        commandFactory = new CommandFactory(context);
+        if (stats != null) {
+            stats.attach(context);
+        }
+        if (cardStatusTransactions) {
+            CardStatusTransactions.attach(context);
+        }
+    }
+
+    /**
+     * Opens the journal, if there is one, and executes again the commands it holds
+     * after the ones already covered by the restored snapshot.
+     *
+     * @throws IOException if the journal cannot be read
+     */
+    private void recoverJournal() throws IOException {
+        journal = null;
+        if (journalFile == null) {
+            return;
+        }
+
+        journal = CommandJournal.open(journalFile, new ObjectMapper(), journalGroupSize);
+        try {
+            if (journal.getFirstSequence() > commandsProcessed
+                    || (journal.getFirstSequence() >= 0
+                    && journal.getNextSequence() < commandsProcessed)) {
+                throw new IOException("The journal " + journalFile
+                        + " does not continue from command " + commandsProcessed);
+            }
+
+            DiscardingOutputSink discarded = new DiscardingOutputSink(new ObjectMapper());
+            journal.replay(commandsProcessed, input -> {
+                Command command = commandFactory.getCommand(input);
+                if (command != null) {
+                    CommandRunner.replay(command, input, discarded);
+                }
+                discarded.endCommand();
+            });
+            commandsProcessed = Math.max(commandsProcessed, journal.getNextSequence());
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            journal = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the commands still running and writes the rest of the journal.
+     *
+     * @param executor the executor of the parallel run, null for serial execution
+     * @throws IOException in case of exceptions to writing
+     */
+    private void finishRun(final ParallelCommandExecutor executor) throws IOException {
+        try {
+            if (executor != null) {
+                executor.close();
+            }
+        } finally {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+        }
+    }
+
+    /**
+     * Creates the executor used to run the commands in parallel.
+     * The bank must be set up first.
+     *
+     * @param output the output sink to write the results to
+     * @return the executor
+     */
+    private ParallelCommandExecutor newExecutor(final OutputSink output) {
+        return new ParallelCommandExecutor(commandFactory, context.getUserRegistry(),
+                output, parallelism, stats);
+    }
+
+    /**
+     * Returns the state of the bank of the last run.
+     *
+     * @return the context of the bank, or null before the first run
+     */
+    public BankContext getContext() {
+        return context;
+    }
+
+    /**
+     * Creates a new bank and fills it with the users, commerciants and
+     * exchange rates from the input data. The commands are not processed.
+     *
+     * @param inputData the input data to process
+     */
+    public void setUp(final ObjectInput inputData) {
+        // the registries and the IBAN / card number generators of this run,
+        // not shared with the other banks in the JVM
+        context = new BankContext();
 
         // add all the users to the user registry
         processUsers(inputData);
@@ -63,21 +399,33 @@ public final class BankManager {
         processExchageRates(inputData);
 
         // try to find new exchange rates based on the existing ones
-        exchangeRates.findNewExchangeRates();
+        context.getExchangeRates().findNewExchangeRates();
+        context.getVelocityLimits().setRules(velocityRules);
 
-        CommandFactory commandFactory = new CommandFactory(userRegistry, output, exchangeRates,
-                commerciantRegistry, splitPaymentsRegistry);
-        for (CommandInput input : inputData.getCommands()) {
-            String commandType = input.getCommand();
-
-            // create the command using the factory
-            Command command = commandFactory.createCommand(commandType, input);
-            if (command == null) {
-                continue; // Skip this iteration if the command is null
-            }
-            command.execute();
+        commandFactory = new CommandFactory(context);
+        if (stats != null) {
+            stats.attach(context);
         }
+        if (cardStatusTransactions) {
+            CardStatusTransactions.attach(context);
+        }
+    }
 
+    /**
+     * Executes one command. The bank must be set up first.
+     * The command of its kind is found by the factory and given the input,
+     * so no object is created to dispatch the command.
+     *
+     * @param input  the command to process
+     * @param output the output sink to write the results to
+     */
+    public void processCommand(final CommandInput input, final OutputSink output) {
+        // find the command using the factory
+        Command command = commandFactory.getCommand(input);
+        if (command == null) {
+            return; // Skip the command if it is not recognized
+        }
+        CommandRunner.execute(command, input, output, stats);
     }
 
     /**
@@ -86,10 +434,10 @@ public final class BankManager {
      * @param inputData the input data to process
      */
     public void processUsers(final ObjectInput inputData) {
-        UserRegistry userRegistry = UserRegistry.getInstance();
+        UserRegistry userRegistry = context.getUserRegistry();
         for (UserInput user : inputData.getUsers()) {
             User newUser = new User(user.getFirstName(), user.getLastName(), user.getEmail(),
-                    user.getBirthDate(), user.getOccupation());
+                    user.getBirthDate(), user.getOccupation(), context.getTransactionStore());
 
             if (user.getOccupation().equals("student")) {
                 newUser.setServicePlan("student");
@@ -107,7 +455,7 @@ public final class BankManager {
      * @param inputData the input data to process
      */
     public void processExchageRates(final ObjectInput inputData) {
-        ExchangeRates exchangeRates = ExchangeRates.getInstance();
+        ExchangeRates exchangeRates = context.getExchangeRates();
 
         for (ExchangeInput exchange : inputData.getExchangeRates()) {
             ExchangeInputFormat exchangeInputData = new ExchangeInputFormat();
@@ -127,7 +475,7 @@ public final class BankManager {
      * @param inputData the input data to process
      */
     public void processCommerciants(final ObjectInput inputData) {
-        CommerciantRegistry commerciantRegistry = CommerciantRegistry.getInstance();
+        CommerciantRegistry commerciantRegistry = context.getCommerciantRegistry();
         for (CommerciantInput commerciant : inputData.getCommerciants()) {
             Commerciant newCommerciant = new Commerciant(commerciant.getCommerciant(),
                     commerciant.getId(),
@@ -0,0 +1,59 @@
+package org.poo.bankingApp;
+
+import org.poo.account.Account;
+import org.poo.account.BalanceWatcher;
+import org.poo.transaction.FrozenCard;
+import org.poo.transaction.Transaction;
+import org.poo.transaction.WarningForPay;
+import org.poo.user.User;
+import org.poo.user.UserRegistry;
+
+/**
+ * Writes the changes of the status of the cards to the history, at the moment the balance
+ * of an account crosses one of the thresholds of its BalanceWatcher: a FrozenCard
+ * transaction when the cards become "frozen" and a WarningForPay transaction when they
+ * get a warning. The transactions are added to the account and to its owner, at the
+ * timestamp of the command which changed the balance.
+ * <p>
+ * The transactions are only written when the BankManager is asked to; otherwise the
+ * history only has the warnings written by checkCardStatus, like the expected outputs.
+ */
+final class CardStatusTransactions {
+
+    private CardStatusTransactions() {
+    }
+
+    /**
+     * Watches every account of a bank, the ones it has and the ones created from now on.
+     * The listeners are not saved in a snapshot, so a restored bank is attached again.
+     *
+     * @param context the bank
+     */
+    static void attach(final BankContext context) {
+        UserRegistry userRegistry = context.getUserRegistry();
+        for (User user : userRegistry.getUsers()) {
+            for (Account account : user.getAccounts()) {
+                watch(user, account);
+            }
+        }
+        userRegistry.setAccountListener(CardStatusTransactions::watch);
+    }
+
+    private static void watch(final User owner, final Account account) {
+        account.addBalanceListener((previous, current, balance) -> {
+            Transaction transaction;
+            if (current == BalanceWatcher.FROZEN) {
+                transaction = new FrozenCard(CommandRunner.currentTimestamp(),
+                        "The card is frozen");
+            } else if (current == BalanceWatcher.WARNING) {
+                transaction = new WarningForPay(CommandRunner.currentTimestamp(),
+                        "You have reached the minimum amount of funds, "
+                                + "the card will be frozen");
+            } else {
+                return;
+            }
+            owner.addTransaction(transaction);
+            account.addTransaction(transaction);
+        });
+    }
+}
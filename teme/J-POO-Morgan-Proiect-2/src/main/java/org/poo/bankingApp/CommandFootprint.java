@@ -0,0 +1,173 @@
+package org.poo.bankingApp;
+
+import org.poo.account.Account;
+import org.poo.account.BusinessAccount;
+import org.poo.card.Card;
+import org.poo.fileio.CommandInput;
+import org.poo.user.User;
+import org.poo.user.UserRegistry;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The part of the bank state that a command may read or change.
+ * <p>
+ * The IBANs, aliases and card numbers of a command are resolved to the users who own or
+ * are associated with the accounts, because the transactions, the service plan and the
+ * other accounts of a user can change together with any of its accounts. Two commands
+ * which have no user in common can be executed in any order.
+ * <p>
+ * A barrier is a command with effects on the whole bank, like printUsers, a command
+ * which changes the registry (accounts, cards, aliases, associates), a split payment or
+ * a command that generates card numbers. It must run alone, after all the commands
+ * before it. Every command that is not known to be local is a barrier.
+ */
+public final class CommandFootprint {
+    private static final CommandFootprint BARRIER = new CommandFootprint(null);
+
+    // the emails of the users the command works with, null for a barrier
+    private final Set<String> keys;
+
+    private CommandFootprint(final Set<String> keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Returns true if the command must run alone.
+     *
+     * @return true for a barrier
+     */
+    public boolean isBarrier() {
+        return keys == null;
+    }
+
+    /**
+     * Returns the emails of the users the command works with.
+     *
+     * @return the keys of the command, empty for a barrier
+     */
+    public Set<String> getKeys() {
+        if (keys == null) {
+            return Collections.emptySet();
+        }
+        return keys;
+    }
+
+    /**
+     * Works out the footprint of a command, before it is executed.
+     * The registry must not change while this method runs.
+     *
+     * @param input        the command
+     * @param userRegistry the registry used to find the owners of the accounts and cards
+     * @return the footprint of the command
+     */
+    public static CommandFootprint of(final CommandInput input,
+                                      final UserRegistry userRegistry) {
+        String command = input.getCommand();
+        if (command == null) {
+            return BARRIER;
+        }
+
+        Set<String> keys = new HashSet<>();
+        switch (command) {
+            case "addFunds":
+            case "changeSpendingLimit":
+            case "changeDepositLimit":
+                addUser(keys, input.getEmail());
+                addAccount(keys, userRegistry, userRegistry.getAccountByIBAN(input.getAccount()));
+                break;
+
+            case "sendMoney":
+                addUser(keys, input.getEmail());
+                addAccount(keys, userRegistry, userRegistry.getAccountByIBAN(input.getAccount()));
+                addAccount(keys, userRegistry, findAccount(userRegistry, input.getReceiver()));
+                break;
+
+            case "payOnline":
+            case "cashWithdrawal":
+                Card card = userRegistry.getCardByNumber(input.getCardNumber());
+                if (card != null && card.getType().equals("oneTimePay")) {
+                    // the card is replaced with a newly generated one after the payment
+                    return BARRIER;
+                }
+                addUser(keys, input.getEmail());
+                addAccount(keys, userRegistry,
+                        userRegistry.getAccountByCardNumber(input.getCardNumber()));
+                break;
+
+            case "checkCardStatus":
+                addAccount(keys, userRegistry,
+                        userRegistry.getAccountByCardNumber(input.getCardNumber()));
+                break;
+
+            case "printTransactions":
+                addUser(keys, input.getEmail());
+                break;
+
+            case "setMinimumBalance":
+            case "changeInterestRate":
+            case "addInterest":
+            case "withdrawSavings":
+            case "upgradePlan":
+            case "report":
+            case "spendingsReport":
+            case "businessReport":
+                addAccount(keys, userRegistry, userRegistry.getAccountByIBAN(input.getAccount()));
+                break;
+
+            default:
+                return BARRIER;
+        }
+        return new CommandFootprint(keys);
+    }
+
+    /**
+     * Finds an account by its IBAN, then by its alias.
+     */
+    private static Account findAccount(final UserRegistry userRegistry,
+                                       final String ibanOrAlias) {
+        Account account = userRegistry.getAccountByIBAN(ibanOrAlias);
+        if (account == null) {
+            account = userRegistry.getAccountByAlias(ibanOrAlias);
+        }
+        return account;
+    }
+
+    /**
+     * Adds the owner of the account and, for a business account, all its associates.
+     */
+    private static void addAccount(final Set<String> keys,
+                                   final UserRegistry userRegistry,
+                                   final Account account) {
+        if (account == null) {
+            return;
+        }
+
+        User owner = userRegistry.getUserByIBAN(account.getIBAN());
+        if (owner != null) {
+            keys.add(owner.getEmail());
+        }
+
+        if (account.getType().equals("business")) {
+            BusinessAccount businessAccount = (BusinessAccount) account;
+            keys.add(businessAccount.getOwner().getEmail());
+            for (User manager : businessAccount.getManagers()) {
+                keys.add(manager.getEmail());
+            }
+            for (User employee : businessAccount.getEmployees()) {
+                keys.add(employee.getEmail());
+            }
+        }
+    }
+
+    /**
+     * Adds the user who gave the command.
+     */
+    private static void addUser(final Set<String> keys, final String email) {
+        if (email != null) {
+            keys.add(email);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.poo.bankingApp;
+
+import org.poo.commands.Command;
+import org.poo.fileio.CommandInput;
+import org.poo.jfr.CommandExecutedEvent;
+import org.poo.output.OutcomeSink;
+import org.poo.output.OutputSink;
+import org.poo.stats.BankStats;
+
+/**
+ * Executes the commands of a run, for the BankManager and the ParallelCommandExecutor.
+ * When the statistics are kept or Flight Recorder records the command events, the
+ * duration and the outcome of every command are measured; otherwise the command is
+ * only executed.
+ * <p>
+ * The timestamp of the command a thread executes is kept for the transactions written
+ * while the command runs, like the ones of the CardStatusTransactions.
+ */
+final class CommandRunner {
+
+    // every thread tells the errors of its commands apart with its own sink
+    private static final ThreadLocal<OutcomeSink> OUTCOME_SINKS =
+            ThreadLocal.withInitial(OutcomeSink::new);
+
+    // the timestamp of the command executed by every thread
+    private static final ThreadLocal<int[]> TIMESTAMPS =
+            ThreadLocal.withInitial(() -> new int[1]);
+
+    private CommandRunner() {
+    }
+
+    /**
+     * Executes a command and records it in the statistics and as a Flight Recorder
+     * event, if they are kept.
+     *
+     * @param command the command
+     * @param input   the input of the command
+     * @param output  the sink which receives the results
+     * @param stats   the statistics of the bank, or null when they are not kept
+     */
+    static void execute(final Command command, final CommandInput input,
+                        final OutputSink output, final BankStats stats) {
+        TIMESTAMPS.get()[0] = input.getTimestamp();
+        CommandExecutedEvent event = new CommandExecutedEvent();
+        if (stats == null && !event.isEnabled()) {
+            command.execute(input, output);
+            return;
+        }
+
+        OutcomeSink outcome = OUTCOME_SINKS.get();
+        outcome.begin(output);
+        event.begin();
+        long start = System.nanoTime();
+        String result = CommandExecutedEvent.EXCEPTION;
+        try {
+            command.execute(input, outcome);
+            result = outcome.hasError() ? CommandExecutedEvent.ERROR : CommandExecutedEvent.SUCCESS;
+        } finally {
+            long duration = System.nanoTime() - start;
+            if (stats != null) {
+                stats.record(input.getCommandType(), duration,
+                        !CommandExecutedEvent.SUCCESS.equals(result));
+            }
+            event.record(input.getCommand(), input.getTimestamp(), input.getAccount(), result);
+            outcome.end();
+        }
+    }
+
+    /**
+     * Executes a command again from the journal, without recording it.
+     *
+     * @param command the command
+     * @param input   the input of the command
+     * @param output  the sink which receives the results
+     */
+    static void replay(final Command command, final CommandInput input,
+                       final OutputSink output) {
+        TIMESTAMPS.get()[0] = input.getTimestamp();
+        command.execute(input, output);
+    }
+
+    /**
+     * Returns the timestamp of the command executed by the calling thread.
+     *
+     * @return the timestamp of the command
+     */
+    static int currentTimestamp() {
+        return TIMESTAMPS.get()[0];
+    }
+}
@@ -0,0 +1,219 @@
+package org.poo.bankingApp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.poo.commands.Command;
+import org.poo.commands.CommandFactory;
+import org.poo.fileio.CommandInput;
+import org.poo.output.ArrayNodeOutputSink;
+import org.poo.output.OutputSink;
+import org.poo.stats.BankStats;
+import org.poo.user.UserRegistry;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Executes the commands on a ForkJoinPool, keeping the results of serial execution.
+ * <p>
+ * The footprint of each command is worked out before it is submitted. A command
+ * starts after the last submitted command of each of its users, so the commands of
+ * different users run in parallel, while the commands of the same user keep their order.
+ * A barrier waits for all the commands before it and runs alone, on the calling thread.
+ * <p>
+ * Every command writes its results to its own buffer. The buffers are copied to the
+ * output in the order the commands were submitted, so the output is the same as
+ * when the commands are executed one by one.
+ */
+public final class ParallelCommandExecutor implements AutoCloseable {
+    // the maximum number of commands submitted, but not written to the output yet
+    private static final int MAX_IN_FLIGHT = 1024;
+
+    private final CommandFactory commandFactory;
+    private final UserRegistry userRegistry;
+    private final OutputSink output;
+    private final ForkJoinPool pool;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // the statistics of the commands, null when they are not kept
+    private final BankStats stats;
+
+    // the last submitted command of every user
+    private final Map<String, CompletableFuture<Void>> lastByKey = new HashMap<>();
+
+    // the submitted commands, in order, whose results were not written yet
+    private final ArrayDeque<Submitted> inFlight = new ArrayDeque<>();
+
+    /**
+     * A command which was submitted to the pool.
+     */
+    private static final class Submitted {
+        private final CompletableFuture<Void> future;
+        private final ArrayNode results;
+
+        Submitted(final CompletableFuture<Void> future, final ArrayNode results) {
+            this.future = future;
+            this.results = results;
+        }
+    }
+
+    /**
+     * Constructor for the ParallelCommandExecutor class.
+     *
+     * @param commandFactory the factory which finds the commands
+     * @param userRegistry   the registry used to work out the footprints
+     * @param output         the sink which receives the results, in order
+     * @param parallelism    the number of threads of the pool
+     * @param stats          the statistics of the commands, null when they are not kept
+     */
+    public ParallelCommandExecutor(final CommandFactory commandFactory,
+                                   final UserRegistry userRegistry,
+                                   final OutputSink output,
+                                   final int parallelism,
+                                   final BankStats stats) {
+        this.commandFactory = commandFactory;
+        this.userRegistry = userRegistry;
+        this.output = output;
+        this.pool = new ForkJoinPool(parallelism);
+        this.stats = stats;
+    }
+
+    /**
+     * Submits a command. The input can be reused after this method returns,
+     * because the command which runs later receives a copy of it.
+     *
+     * @param input the command to execute
+     * @throws IOException in case of exceptions to writing
+     */
+    public void submit(final CommandInput input) throws IOException {
+        CommandFootprint footprint = CommandFootprint.of(input, userRegistry);
+
+        if (footprint.isBarrier()) {
+            // wait for all the commands before it, then run it alone
+            drain();
+            lastByKey.clear();
+
+            Command command = commandFactory.getCommand(input);
+            if (command != null) {
+                execute(command, input, output);
+            }
+            output.endCommand();
+            return;
+        }
+
+        Command command = commandFactory.getCommand(input);
+        if (command == null) {
+            return; // Skip the command if it is not recognized
+        }
+        ArrayNode results = objectMapper.createArrayNode();
+        ArrayNodeOutputSink commandOutput = new ArrayNodeOutputSink(objectMapper, results);
+        CommandInput commandInput = input.copy();
+        Runnable task = () -> {
+            execute(command, commandInput, commandOutput);
+            commandOutput.endCommand();
+        };
+
+        // the command starts after the previous commands of the same users
+        List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+        for (String key : footprint.getKeys()) {
+            CompletableFuture<Void> last = lastByKey.get(key);
+            if (last != null) {
+                dependencies.add(last);
+            }
+        }
+
+        CompletableFuture<Void> future;
+        if (dependencies.isEmpty()) {
+            future = CompletableFuture.runAsync(task, pool);
+        } else {
+            future = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+                    .thenRunAsync(task, pool);
+        }
+
+        for (String key : footprint.getKeys()) {
+            lastByKey.put(key, future);
+        }
+        inFlight.add(new Submitted(future, results));
+
+        writeCompleted();
+        if (inFlight.size() > MAX_IN_FLIGHT) {
+            writeNext();
+        }
+    }
+
+    /**
+     * Executes a command, recording it in the statistics and as a Flight Recorder
+     * event if they are kept.
+     *
+     * @param command the command
+     * @param input   the input of the command
+     * @param sink    the sink which receives the results
+     */
+    private void execute(final Command command, final CommandInput input,
+                         final OutputSink sink) {
+        CommandRunner.execute(command, input, sink, stats);
+    }
+
+    /**
+     * Waits for all the submitted commands and writes their results.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    public void drain() throws IOException {
+        while (!inFlight.isEmpty()) {
+            writeNext();
+        }
+    }
+
+    /**
+     * Waits for the remaining commands and stops the pool.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Writes the results of the first commands, as long as they are already done.
+     */
+    private void writeCompleted() throws IOException {
+        while (!inFlight.isEmpty() && inFlight.peek().future.isDone()) {
+            writeNext();
+        }
+    }
+
+    /**
+     * Waits for the first submitted command and writes its results.
+     */
+    private void writeNext() throws IOException {
+        Submitted submitted = inFlight.poll();
+        try {
+            submitted.future.join();
+        } catch (CompletionException e) {
+            // report the failure of the command like the serial execution does
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+
+        for (JsonNode node : submitted.results) {
+            output.add(node);
+        }
+        output.endCommand();
+    }
+}
@@ -1,5 +1,11 @@
 package org.poo.card;
 
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.List;
+
 /**
  * This class represents a card factory, which can create a card based on the card type.
  * The card type can be "regular" or "oneTimePay".
@@ -33,4 +39,71 @@ public final class CardFactory {
                 throw new IllegalArgumentException("The card type " + type + " is not recognized.");
         }
     }
+
+    /**
+     * Writes the cards of an account to a snapshot and registers them in the writer,
+     * so the indexes of the UserRegistry refer to them.
+     *
+     * @param writer the writer of the snapshot
+     * @param cards  the cards of the account
+     * @throws IOException in case of exceptions to writing
+     */
+    public static void writeCards(final SnapshotWriter writer, final List<Card> cards)
+            throws IOException {
+        writer.writeInt(cards.size());
+        for (Card card : cards) {
+            writeCard(writer, card);
+        }
+    }
+
+    /**
+     * Reads back the cards written by {@link #writeCards(SnapshotWriter, List)}
+     * and registers them in the reader.
+     *
+     * @param reader the reader of the snapshot
+     * @param cards  the list which receives the cards
+     * @throws IOException if the snapshot cannot be read
+     */
+    public static void readCards(final SnapshotReader reader, final List<Card> cards)
+            throws IOException {
+        int count = reader.readLength(Integer.BYTES);
+        for (int i = 0; i < count; i++) {
+            cards.add(readCard(reader));
+        }
+    }
+
+    /**
+     * Writes a card to a snapshot and registers it in the writer.
+     *
+     * @param writer the writer of the snapshot
+     * @param card   the card
+     * @throws IOException in case of exceptions to writing
+     */
+    public static void writeCard(final SnapshotWriter writer, final Card card)
+            throws IOException {
+        writer.register(card);
+        writer.writeString(card.getType());
+        writer.writeString(card.getCardNumber());
+        writer.writeString(card.getOwnerEmail());
+        writer.writeString(card.getStatus());
+    }
+
+    /**
+     * Reads back a card written by {@link #writeCard(SnapshotWriter, Card)}
+     * and registers it in the reader.
+     *
+     * @param reader the reader of the snapshot
+     * @return the card
+     * @throws IOException if the snapshot cannot be read
+     */
+    public static Card readCard(final SnapshotReader reader) throws IOException {
+        String type = reader.readString();
+        if (!"regular".equals(type) && !"oneTimePay".equals(type)) {
+            throw reader.corrupted("card type " + type);
+        }
+        Card card = createCard(type, reader.readString(), reader.readString());
+        card.setStatus(reader.readString());
+        reader.register(card);
+        return card;
+    }
 }
@@ -1,6 +1,5 @@
 package org.poo.commands;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.account.Account;
 import org.poo.exchangeRates.ExchangeRates;
@@ -13,6 +12,8 @@ import org.poo.transaction.SplitPaymentCustomTransaction;
 import org.poo.transaction.SplitPaymentTransaction;
 import org.poo.user.User;
 import org.poo.user.UserRegistry;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
 import java.util.List;
 
@@ -22,10 +23,6 @@ import java.util.List;
  */
 public class AcceptSplitPaymentCommand implements Command {
     private UserRegistry userRegistry;
-    private ArrayNode output;
-    private int timestamp;
-    private String email;
-    private String splitPaymentType;
     private SplitPaymentsRegistry splitPaymentsRegistry;
     private ExchangeRates exchangeRates;
 
@@ -33,25 +30,13 @@ public class AcceptSplitPaymentCommand implements Command {
      * Constructor for the AcceptSplitPaymentCommand.
      *
      * @param userRegistry          UserRegistry
-     * @param output                the output of the command
-     * @param timestamp             the timestamp of the command
-     * @param email                 the email of the user
-     * @param splitPaymentType      the type of the split payment
      * @param splitPaymentsRegistry the registry of split payments
      * @param exchangeRates         the exchange rates
      */
     public AcceptSplitPaymentCommand(final UserRegistry userRegistry,
-                                     final ArrayNode output,
-                                     final int timestamp,
-                                     final String email,
-                                     final String splitPaymentType,
                                      final SplitPaymentsRegistry splitPaymentsRegistry,
                                      final ExchangeRates exchangeRates) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.timestamp = timestamp;
-        this.email = email;
-        this.splitPaymentType = splitPaymentType;
         this.splitPaymentsRegistry = splitPaymentsRegistry;
         this.exchangeRates = exchangeRates;
     }
@@ -61,7 +46,11 @@ public class AcceptSplitPaymentCommand implements Command {
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String email = input.getEmail();
+        String splitPaymentType = input.getSplitPaymentType();
+
         User userToAccept = userRegistry.getUserByEmail(email);
         if (userToAccept == null) {
             ObjectNode error = output.addObject();
@@ -73,14 +62,14 @@ public class AcceptSplitPaymentCommand implements Command {
             return;
         }
 
-        userToAccept.acceptSplitPayment(splitPaymentType);
-
+        // the user answers the oldest split payment of the type they did not accept yet
         SplitPayment splitPayment = splitPaymentsRegistry.getSplitPaymentByUserEmail(email,
                 splitPaymentType);
         if (splitPayment == null) {
             return;
         }
 
+        splitPaymentsRegistry.acceptSplitPayment(splitPayment, userToAccept);
         if (!splitPayment.checkIfAllUsersAcceptedPayment()) {
             // we cant do the split payment
             return;
@@ -108,7 +97,7 @@ public class AcceptSplitPaymentCommand implements Command {
             // check if the account has the same currency as the total amount
             if (!account.getCurrency().equals(currency)) {
                 double exchangeRate = exchangeRates.convertExchangeRate(account.getCurrency(),
-                        currency);
+                        currency, timestamp);
                 if (exchangeRate == 0) {
                     return;
                 }
@@ -166,7 +155,8 @@ public class AcceptSplitPaymentCommand implements Command {
                     account.addTransaction(transaction);
                 }
             }
-            splitPaymentsRegistry.removeSplitPayment(splitPayment);
+            splitPaymentsRegistry.resolveSplitPayment(splitPayment,
+                    SplitPaymentsRegistry.INSUFFICIENT_FUNDS);
             return; // Exit if any account does not have enough balance
         }
 
@@ -178,7 +168,7 @@ public class AcceptSplitPaymentCommand implements Command {
             if (!account.getCurrency().equals(currency)) {
                 double exchangeRate =
                         exchangeRates.convertExchangeRate(account.getCurrency(),
-                                currency);
+                                currency, timestamp);
                 deductionAmount = amountsForEachUser.get(i) / exchangeRate;
             }
 
@@ -203,7 +193,7 @@ public class AcceptSplitPaymentCommand implements Command {
                 user.addTransaction(transaction);
             }
         }
-        splitPaymentsRegistry.removeSplitPayment(splitPayment);
+        splitPaymentsRegistry.resolveSplitPayment(splitPayment, SplitPaymentsRegistry.ACCEPTED);
 
     }
 }
@@ -6,7 +6,9 @@ import org.poo.user.UserRegistry;
 import org.poo.transaction.NewAccountCreated;
 import org.poo.transaction.Transaction;
 import org.poo.user.User;
-import org.poo.utils.Utils;
+import org.poo.utils.IdentifierGenerator;
+import org.poo.fileio.CommandInput;
+import org.poo.output.OutputSink;
 
 /**
  * Command to create a new account for a user.
@@ -14,37 +16,22 @@ import org.poo.utils.Utils;
  */
 public final class AddAccountCommand implements Command {
     private final UserRegistry userRegistry;
-    private final int timestamp;
-    private final String email;
-    private final String accountType;
-    private final String currency;
-    private final double interestRate;
     private final ExchangeRates exchangeRates;
+    private final IdentifierGenerator identifiers;
     private static final int MINIMUM_BALANCE = 500;
 
     /**
      * Constructor for the AddAccountCommand.
      *
      * @param userRegistry the user registry
-     * @param timestamp    the timestamp of the command
-     * @param email        the email of the user
-     * @param accountType  the type of the account (classic or savings)
-     * @param currency     the currency of the account
+     * @param identifiers  the generator of IBAN codes of the bank
      */
     public AddAccountCommand(final UserRegistry userRegistry,
-                             final int timestamp,
-                             final String email,
-                             final String accountType,
-                             final String currency,
-                             final double interestRate,
-                             final ExchangeRates exchangeRates) {
+                             final ExchangeRates exchangeRates,
+                             final IdentifierGenerator identifiers) {
         this.userRegistry = userRegistry;
-        this.timestamp = timestamp;
-        this.email = email;
-        this.accountType = accountType;
-        this.currency = currency;
-        this.interestRate = interestRate;
         this.exchangeRates = exchangeRates;
+        this.identifiers = identifiers;
     }
 
     /**
@@ -52,9 +39,11 @@ public final class AddAccountCommand implements Command {
      * This transaction will be added to the user's transaction list and the account's report.
      *
      * @param user    the user that the account belongs to
-     * @param account the account that was created
+     * @param account   the account that was created
+     * @param timestamp the timestamp of the command
      */
-    private void createTransactions(final User user, final Account account) {
+    private void createTransactions(final User user, final Account account,
+                                    final int timestamp) {
         Transaction transaction = new NewAccountCreated(timestamp, "New account created");
         user.addTransaction(transaction);
         account.addTransaction(transaction);
@@ -64,20 +53,29 @@ public final class AddAccountCommand implements Command {
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String email = input.getEmail();
+        String accountType = input.getAccountType();
+        String currency = input.getCurrency();
+        double interestRate = input.getInterestRate();
+
         // Get the user from the user registry by email
         User user = userRegistry.getUserByEmail(email);
 
-        double rate = exchangeRates.convertExchangeRate("RON", currency);
+        double rate = exchangeRates.convertExchangeRate("RON", currency, timestamp);
         double auxiliarAmountBusiness = MINIMUM_BALANCE * rate;
 
-        String iban = Utils.generateIBAN();
+        String iban = identifiers.generateIBAN();
         user.addAccount(accountType, currency, iban, interestRate, user, auxiliarAmountBusiness);
 
         Account account = user.getAccountByIBAN(iban);
 
+        // index the new account, so it can be found by its IBAN
+        userRegistry.addAccount(user, account);
+
         // Create a new transaction for the new account
-        createTransactions(user, account);
+        createTransactions(user, account, timestamp);
 
     }
 }
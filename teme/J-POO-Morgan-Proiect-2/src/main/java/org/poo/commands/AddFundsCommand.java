@@ -4,6 +4,8 @@ import org.poo.account.Account;
 import org.poo.account.BusinessAccount;
 import org.poo.user.UserRegistry;
 import org.poo.user.User;
+import org.poo.fileio.CommandInput;
+import org.poo.output.OutputSink;
 
 /**
  * Command to add funds to an account.
@@ -11,32 +13,26 @@ import org.poo.user.User;
  */
 public final class AddFundsCommand implements Command {
     private final UserRegistry userRegistry;
-    private final String iban;
-    private final double amount;
-    private final String email;
 
     /**
      * Constructor for the AddFundsCommand.
      *
      * @param userRegistry the user registry
-     * @param iban         the iban of the account
-     * @param amount       the amount to add
      */
-    public AddFundsCommand(final UserRegistry userRegistry,
-                           final String iban,
-                           final double amount,
-                           final String email) {
+    public AddFundsCommand(final UserRegistry userRegistry) {
         this.userRegistry = userRegistry;
-        this.iban = iban;
-        this.amount = amount;
-        this.email = email;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String iban = input.getAccount();
+        double amount = input.getAmount();
+        String email = input.getEmail();
+
         User user = userRegistry.getUserByEmail(email);
         if (user == null) {
             return;
@@ -63,12 +59,10 @@ public final class AddFundsCommand implements Command {
                 if (amount > businessAccount.getMaxDepositedLimit()) {
                     return;
                 }
-                businessAccount.addEmployeeDepositedAmount(user, amount);
-                businessAccount.setTotalDeposited(businessAccount.getTotalDeposited() + amount);
+                businessAccount.recordDeposit(user, false, amount, timestamp);
 
             } else if (businessAccount.isManager(user)) {
-                businessAccount.addManagerDepositedAmount(user, amount);
-                businessAccount.setTotalDeposited(businessAccount.getTotalDeposited() + amount);
+                businessAccount.recordDeposit(user, true, amount, timestamp);
             }
         }
 
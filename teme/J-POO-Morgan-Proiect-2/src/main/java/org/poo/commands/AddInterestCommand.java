@@ -1,6 +1,5 @@
 package org.poo.commands;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.account.Account;
 import org.poo.account.SavingsAccount;
@@ -8,6 +7,8 @@ import org.poo.transaction.Transaction;
 import org.poo.transaction.InterestRateIncome;
 import org.poo.user.User;
 import org.poo.user.UserRegistry;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
 /**
  * Command to change the balance of an account by adding interest
@@ -16,33 +17,27 @@ import org.poo.user.UserRegistry;
  */
 public final class AddInterestCommand implements Command {
     private UserRegistry userRegistry;
-    private ArrayNode output;
-    private int timestamp;
-    private String accountIBAN;
 
     /**
      * Constructor for the AddInterestCommand.
      *
      * @param userRegistry The user registry.
-     * @param output       The output array.
-     * @param timestamp    The timestamp of the command.
-     * @param accountIBAN  The IBAN of the account.
      */
-    public AddInterestCommand(final UserRegistry userRegistry,
-                              final ArrayNode output,
-                              final int timestamp,
-                              final String accountIBAN) {
+    public AddInterestCommand(final UserRegistry userRegistry) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.timestamp = timestamp;
-        this.accountIBAN = accountIBAN;
     }
 
     /**
      * Execute the command.
+     *
+     * @param input  the command
+     * @param output the output sink
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String accountIBAN = input.getAccount();
+
         Account account = userRegistry.getAccountByIBAN(accountIBAN);
         if (account == null) {
             return;
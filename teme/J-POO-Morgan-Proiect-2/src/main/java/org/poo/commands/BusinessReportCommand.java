@@ -1,12 +1,12 @@
 package org.poo.commands;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.account.Account;
 import org.poo.account.BusinessAccount;
 import org.poo.report.BusinessCommerciantReport;
-import org.poo.report.BusinessTransactionReport;
 import org.poo.user.UserRegistry;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
 /**
  * Command to generate a business report.
@@ -14,42 +14,26 @@ import org.poo.user.UserRegistry;
 public final class BusinessReportCommand implements Command {
 
     private final UserRegistry userRegistry;
-    private final ArrayNode output;
-    private final int startTimestamp;
-    private final int endTimestamp;
-    private final String accountIban;
-    private final String type;
-    private final int timestamp;
 
     /**
      * Constructor for the BusinessReportCommand.
      *
      * @param userRegistry   the user registry
-     * @param output         the output
-     * @param startTimestamp the start timestamp
-     * @param endTimestamp   the end timestamp
-     * @param accountIban    the account iban
-     * @param type           the type (transaction or commerciant)
-     * @param timestamp      the timestamp
      */
-    public BusinessReportCommand(final UserRegistry userRegistry, final ArrayNode output,
-                                 final int startTimestamp, final int endTimestamp,
-                                 final String accountIban, final String type,
-                                 final int timestamp) {
+    public BusinessReportCommand(final UserRegistry userRegistry) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.startTimestamp = startTimestamp;
-        this.endTimestamp = endTimestamp;
-        this.accountIban = accountIban;
-        this.type = type;
-        this.timestamp = timestamp;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        int startTimestamp = input.getStartTimestamp();
+        int endTimestamp = input.getEndTimestamp();
+        String accountIban = input.getAccount();
+        String type = input.getType();
 
         Account account = userRegistry.getAccountByIBAN(accountIban);
         if (account == null) {
@@ -64,9 +48,8 @@ public final class BusinessReportCommand implements Command {
 
         if (type.equals("transaction")) {
             // Generate a business transaction report
-            ObjectNode report =
-                    new BusinessTransactionReport().generateReportBetweenTimestamps(startTimestamp,
-                            endTimestamp, timestamp, businessAccount);
+            ObjectNode report = businessAccount.getBusinessTransactionReport(startTimestamp,
+                    endTimestamp, timestamp);
             output.add(report);
 
         } else {
@@ -1,6 +1,5 @@
 package org.poo.commands;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.account.Account;
 import org.poo.card.Card;
@@ -8,57 +7,47 @@ import org.poo.exchangeRates.ExchangeRates;
 import org.poo.transaction.CashWithdrawalError;
 import org.poo.transaction.CashWithdrawalTransaction;
 import org.poo.transaction.Transaction;
+import org.poo.transaction.VelocityLimitTransaction;
 import org.poo.user.User;
 import org.poo.user.UserRegistry;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
+import org.poo.velocity.VelocityLimits;
+import org.poo.velocity.VelocityRule;
 
 /**
  * CashWithdrawalCommand class is a command that executes a cash withdrawal operation.
  */
 public final class CashWithdrawalCommand implements Command {
     private final UserRegistry userRegistry;
-    private final int timestamp;
-    private final String cardNumber;
-    private final double amount;
-    private final String location;
-    private final String email;
     private final ExchangeRates exchangeRates;
-    private final ArrayNode output;
+    private final VelocityLimits velocityLimits;
 
     /**
      * Constructor for the CashWithdrawalCommand class.
      *
-     * @param userRegistry  the user registry
-     * @param output        the output array
-     * @param timestamp     the timestamp
-     * @param exchangeRates the exchange rates
-     * @param cardNumber    the card number
-     * @param amount        the amount
-     * @param location      the location
-     * @param email         the email
+     * @param userRegistry   the user registry
+     * @param exchangeRates  the exchange rates
+     * @param velocityLimits the velocity limits of the cards and of the accounts
      */
     public CashWithdrawalCommand(final UserRegistry userRegistry,
-                                 final ArrayNode output,
-                                 final int timestamp,
                                  final ExchangeRates exchangeRates,
-                                 final String cardNumber,
-                                 final double amount,
-                                 final String location,
-                                 final String email) {
+                                 final VelocityLimits velocityLimits) {
         this.userRegistry = userRegistry;
-        this.timestamp = timestamp;
-        this.cardNumber = cardNumber;
-        this.amount = amount;
-        this.location = location;
-        this.email = email;
         this.exchangeRates = exchangeRates;
-        this.output = output;
+        this.velocityLimits = velocityLimits;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String cardNumber = input.getCardNumber();
+        double amount = input.getAmount();
+        String email = input.getEmail();
+
         User user = userRegistry.getUserByEmail(email);
         if (user == null) {
             ObjectNode node = output.addObject();
@@ -92,10 +81,12 @@ public final class CashWithdrawalCommand implements Command {
             return;
         }
 
-        double exchangeRate = exchangeRates.convertExchangeRate("RON", account.getCurrency());
+        double exchangeRate = exchangeRates.convertExchangeRate("RON", account.getCurrency(),
+                timestamp);
         double convertedSum = amount * exchangeRate;
 
-        double amountToPay = user.addCommission(convertedSum, exchangeRates, account.getCurrency());
+        double amountToPay = user.addCommission(convertedSum, exchangeRates, account.getCurrency(),
+                timestamp);
 
         if (account.getBalance() < amountToPay) {
             Transaction transaction = new CashWithdrawalError(timestamp, "Insufficient funds");
@@ -116,7 +107,20 @@ public final class CashWithdrawalCommand implements Command {
             return;
         }
 
+        // the amount is in RON, like the velocity limits
+        VelocityRule rule = velocityLimits.check(cardNumber, account.getIBAN(), amount, timestamp);
+        if (rule != null) {
+            Transaction velocityTransaction = new VelocityLimitTransaction(timestamp,
+                    rule.getDescription(), cardNumber, amount);
+            user.addTransaction(velocityTransaction);
+            account.addTransaction(velocityTransaction);
+            if (rule.rejects()) {
+                return;
+            }
+        }
+
         account.setBalance(account.getBalance() - amountToPay);
+        velocityLimits.record(cardNumber, account.getIBAN(), amount, timestamp);
 
         Transaction transaction = new CashWithdrawalTransaction(timestamp,
                 "Cash withdrawal of " + amount, amount);
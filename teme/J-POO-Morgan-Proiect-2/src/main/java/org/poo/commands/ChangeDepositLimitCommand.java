@@ -1,11 +1,12 @@
 package org.poo.commands;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.account.Account;
 import org.poo.account.BusinessAccount;
 import org.poo.user.User;
 import org.poo.user.UserRegistry;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
 /**
  * Command to change the deposit limit of a business account.
@@ -13,38 +14,26 @@ import org.poo.user.UserRegistry;
 public final class ChangeDepositLimitCommand implements Command {
 
     private final UserRegistry userRegistry;
-    private final int timestamp;
-    private final String email;
-    private final String accountIban;
-    private final double amount;
-    private final ArrayNode output;
 
     /**
      * Instantiates a new Change deposit limit command.
      *
      * @param userRegistry the user registry
-     * @param output the output
-     * @param timestamp the timestamp
-     * @param accountIban the account IBAN
-     * @param email the email
-     * @param amount the amount
      */
-    public ChangeDepositLimitCommand(final UserRegistry userRegistry, final ArrayNode output,
-                                     final int timestamp, final String accountIban,
-                                     final String email, final double amount) {
+    public ChangeDepositLimitCommand(final UserRegistry userRegistry) {
         this.userRegistry = userRegistry;
-        this.timestamp = timestamp;
-        this.email = email;
-        this.accountIban = accountIban;
-        this.amount = amount;
-        this.output = output;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String accountIban = input.getAccount();
+        String email = input.getEmail();
+        double amount = input.getAmount();
+
         // get the user by email
         User user = userRegistry.getUserByEmail(email);
         if (user == null) {
@@ -1,6 +1,5 @@
 package org.poo.commands;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.account.Account;
 import org.poo.account.SavingsAccount;
@@ -8,27 +7,17 @@ import org.poo.user.UserRegistry;
 import org.poo.transaction.InterestRateChange;
 import org.poo.transaction.Transaction;
 import org.poo.user.User;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
 /**
  * Command to change the interest rate of a savings account.
  */
 public final class ChangeInterestRateCommand implements Command {
     private UserRegistry userRegistry;
-    private ArrayNode output;
-    private int timestamp;
-    private String accountIBAN;
-    private double interestRate;
 
-    public ChangeInterestRateCommand(final UserRegistry userRegistry,
-                                     final ArrayNode output,
-                                     final int timestamp,
-                                     final String accountIBAN,
-                                     final double interestRate) {
+    public ChangeInterestRateCommand(final UserRegistry userRegistry) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.timestamp = timestamp;
-        this.accountIBAN = accountIBAN;
-        this.interestRate = interestRate;
     }
 
     /**
@@ -36,9 +25,12 @@ public final class ChangeInterestRateCommand implements Command {
      * The transaction will be added to the user's transaction list and the account's report.
      *
      * @param user    the user that the account belongs to
-     * @param account the account that the interest rate was changed
+     * @param account      the account that the interest rate was changed
+     * @param timestamp    the timestamp of the command
+     * @param interestRate the new interest rate
      */
-    private void createTransactions(final User user, final Account account) {
+    private void createTransactions(final User user, final Account account,
+                                    final int timestamp, final double interestRate) {
         Transaction transaction = new InterestRateChange(timestamp,
                 "Interest rate of the account changed to " + interestRate);
         user.addTransaction(transaction);
@@ -47,9 +39,16 @@ public final class ChangeInterestRateCommand implements Command {
 
     /**
      * Execute the command.
+     *
+     * @param input  the command
+     * @param output the output sink
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String accountIBAN = input.getAccount();
+        double interestRate = input.getInterestRate();
+
         Account account = userRegistry.getAccountByIBAN(accountIBAN);
         if (account == null) {
             return;
@@ -64,7 +63,7 @@ public final class ChangeInterestRateCommand implements Command {
             User user = userRegistry.getUserByIBAN(accountIBAN);
 
             // Create the transaction for the interest rate change
-            createTransactions(user, savingsAccount);
+            createTransactions(user, savingsAccount, timestamp, interestRate);
         } else {
             // Print an error message if the account is not a savings account
             ObjectNode node = output.addObject();
@@ -1,13 +1,15 @@
 package org.poo.commands;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.account.Account;
+import org.poo.account.BalanceWatcher;
 import org.poo.user.UserRegistry;
 import org.poo.card.Card;
 import org.poo.transaction.Transaction;
 import org.poo.transaction.WarningForPay;
 import org.poo.user.User;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
 /**
  * Command to check the status of a card.
@@ -15,36 +17,27 @@ import org.poo.user.User;
  */
 public final class CheckCardStatusCommand implements Command {
     private final UserRegistry userRegistry;
-    private final ArrayNode output;
-    private final String cardNumber;
-    private final int timestamp;
-
-    private static final int MINIMUM_BALANCE_DIFFERENCE = 30;
 
     /**
      * Constructor for the CheckCardStatusCommand.
      *
      * @param userRegistry The user registry.
-     * @param output       The output array.
-     * @param cardNumber   The card number.
-     * @param timestamp    The timestamp.
      */
-    public CheckCardStatusCommand(final UserRegistry userRegistry,
-                                  final ArrayNode output,
-                                  final String cardNumber,
-                                  final int timestamp) {
+    public CheckCardStatusCommand(final UserRegistry userRegistry) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.cardNumber = cardNumber;
-        this.timestamp = timestamp;
-
     }
 
     /**
      * Execute the command.
+     *
+     * @param input  the command
+     * @param output the output sink
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String cardNumber = input.getCardNumber();
+
         Card card = userRegistry.getCardByNumber(cardNumber);
 
         if (card == null) {
@@ -68,8 +61,8 @@ public final class CheckCardStatusCommand implements Command {
             return;
         }
 
-        // Check if the card needs to be frozen
-        if (account.getBalance() - account.getMinBalance() < MINIMUM_BALANCE_DIFFERENCE) {
+        // Check if the card needs to be frozen, the status is kept by every change of the balance
+        if (account.getBalanceWatcher().getStatus() != BalanceWatcher.ACTIVE) {
             //card.setStatus("frozen");
 
             // Create a new transaction and add it to the user and account
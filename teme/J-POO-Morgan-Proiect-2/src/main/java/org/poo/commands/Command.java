@@ -1,8 +1,14 @@
 package org.poo.commands;
 
+import org.poo.fileio.CommandInput;
+import org.poo.output.OutputSink;
+
 /**
  * Interface for all commands.
  * Each command will implement the execute method.
+ * <p>
+ * A command keeps no state of its own: it receives the input of the command
+ * every time it is executed, so one object serves every command of its kind.
  */
 public interface Command {
 
@@ -10,6 +16,9 @@ public interface Command {
      * Execute the command.
      * This method will be overridden by each command and
      * will contain the logic for the command.
+     *
+     * @param input  the input of the command
+     * @param output the sink which receives the results of the command
      */
-    void execute();
+    void execute(CommandInput input, OutputSink output);
 }
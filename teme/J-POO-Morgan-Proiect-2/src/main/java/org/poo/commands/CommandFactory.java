@@ -1,185 +1,118 @@
 package org.poo.commands;
 
+import org.poo.bankingApp.BankContext;
 import org.poo.commerciants.CommerciantRegistry;
 import org.poo.splitPayment.SplitPaymentsRegistry;
 import org.poo.user.UserRegistry;
 import org.poo.fileio.CommandInput;
 import org.poo.exchangeRates.ExchangeRates;
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.poo.utils.IdentifierGenerator;
+import org.poo.velocity.VelocityLimits;
 
 /**
- * Factory class for creating Command objects.
- * The CommandFactory class is responsible for creating Command objects based on the command name.
+ * Factory class for the Command objects.
+ * The CommandFactory class is responsible for finding the Command object
+ * based on the kind of the command.
+ * <p>
+ * The commands keep no state of their own, so the factory creates one command
+ * of every kind when it is created and returns the same object every time.
+ * The kind of a command is resolved from its name when the input is read,
+ * so finding the command is only an array access.
  * <p>
  * This class is part of the Command design pattern.
  */
 public final class CommandFactory {
-    private final UserRegistry userRegistry;
-    private final ExchangeRates exchangeRates;
-    private final ArrayNode output;
-    private final CommerciantRegistry commerciantRegistry;
-    private final SplitPaymentsRegistry splitPaymentsRegistry;
+    // the command of every kind, indexed by the ordinal of the kind
+    private final Command[] commands = new Command[CommandType.values().length];
+
+    // the split payments are split equally, unless the custom type is given
+    private final Command customSplitPayment;
 
     /**
      * Constructor for the CommandFactory class.
+     * The commands receive the registries of the given bank.
      *
-     * @param userRegistry  the UserRegistry object
-     * @param output        the ArrayNode object
-     * @param exchangeRates the ExchangeRates object
+     * @param context the state of the bank
      */
-    public CommandFactory(final UserRegistry userRegistry,
-                          final ArrayNode output,
-                          final ExchangeRates exchangeRates,
-                          final CommerciantRegistry commerciantRegistry,
-                          final SplitPaymentsRegistry splitPaymentsRegistry) {
-        this.userRegistry = userRegistry;
-        this.output = output;
-        this.exchangeRates = exchangeRates;
-        this.commerciantRegistry = commerciantRegistry;
-        this.splitPaymentsRegistry = splitPaymentsRegistry;
+    public CommandFactory(final BankContext context) {
+        UserRegistry userRegistry = context.getUserRegistry();
+        ExchangeRates exchangeRates = context.getExchangeRates();
+        CommerciantRegistry commerciantRegistry = context.getCommerciantRegistry();
+        SplitPaymentsRegistry splitPaymentsRegistry = context.getSplitPaymentsRegistry();
+        IdentifierGenerator identifiers = context.getIdentifiers();
+        VelocityLimits velocityLimits = context.getVelocityLimits();
+
+        Command createCard = new CreateCardCommand(userRegistry, identifiers);
+
+        register(CommandType.PRINT_USERS, new PrintUsersCommand(userRegistry));
+        register(CommandType.ADD_ACCOUNT,
+                new AddAccountCommand(userRegistry, exchangeRates, identifiers));
+        register(CommandType.CREATE_CARD, createCard);
+        register(CommandType.CREATE_ONE_TIME_CARD, createCard);
+        register(CommandType.ADD_FUNDS, new AddFundsCommand(userRegistry));
+        register(CommandType.DELETE_ACCOUNT,
+                new DeleteAccountCommand(userRegistry, velocityLimits));
+        register(CommandType.DELETE_CARD, new DeleteCardCommand(userRegistry, velocityLimits));
+        register(CommandType.PAY_ONLINE, new PayOnlineCommand(userRegistry, exchangeRates,
+                commerciantRegistry, identifiers, velocityLimits));
+        register(CommandType.SEND_MONEY, new SendMoneyCommand(userRegistry, exchangeRates,
+                commerciantRegistry));
+        register(CommandType.PRINT_TRANSACTIONS, new PrintTransactionsCommand(userRegistry));
+        register(CommandType.SET_ALIAS, new SetAliasCommand(userRegistry));
+        register(CommandType.CHECK_CARD_STATUS, new CheckCardStatusCommand(userRegistry));
+        register(CommandType.SET_MINIMUM_BALANCE, new SetMinimumBalanceCommand(userRegistry));
+        register(CommandType.SPLIT_PAYMENT, new SplitPaymentCommandEqual(userRegistry,
+                exchangeRates, splitPaymentsRegistry));
+        register(CommandType.ACCEPT_SPLIT_PAYMENT, new AcceptSplitPaymentCommand(userRegistry,
+                splitPaymentsRegistry, exchangeRates));
+        register(CommandType.REJECT_SPLIT_PAYMENT, new RejectionSplitPaymentCommand(
+                userRegistry, splitPaymentsRegistry, exchangeRates));
+        register(CommandType.CHANGE_INTEREST_RATE, new ChangeInterestRateCommand(userRegistry));
+        register(CommandType.ADD_INTEREST, new AddInterestCommand(userRegistry));
+        register(CommandType.WITHDRAW_SAVINGS,
+                new WithdrawSavingsCommand(userRegistry, exchangeRates));
+        register(CommandType.UPGRADE_PLAN, new UpgradePlanCommand(userRegistry, exchangeRates));
+        register(CommandType.CASH_WITHDRAWAL,
+                new CashWithdrawalCommand(userRegistry, exchangeRates, velocityLimits));
+        register(CommandType.REPORT, new ReportCommand(userRegistry));
+        register(CommandType.SPENDINGS_REPORT, new SpendingsReportCommand(userRegistry));
+        register(CommandType.ADD_NEW_BUSINESS_ASSOCIATE,
+                new AddNewBusinessAssociateCommand(userRegistry));
+        register(CommandType.CHANGE_SPENDING_LIMIT, new ChangeSpendingLimitCommand(userRegistry));
+        register(CommandType.BUSINESS_REPORT, new BusinessReportCommand(userRegistry));
+        register(CommandType.CHANGE_DEPOSIT_LIMIT, new ChangeDepositLimitCommand(userRegistry));
+
+        customSplitPayment = new SplitPaymentCommandCustom(userRegistry, exchangeRates,
+                splitPaymentsRegistry);
     }
 
     /**
-     * Creates a Command object based on the command type.
+     * Saves the command of a kind.
      *
-     * @param commandType the command name
-     * @param input       the CommandInput object
-     * @return the Command object
+     * @param type    the kind of the command
+     * @param command the command
      */
-    public Command createCommand(final String commandType,
-                                 final CommandInput input) {
-        int timestamp = input.getTimestamp();
-        switch (commandType) {
-            case "printUsers":
-                return new PrintUsersCommand(userRegistry, output, timestamp);
-
-            case "addAccount":
-                return new AddAccountCommand(userRegistry, timestamp,
-                        input.getEmail(), input.getAccountType(), input.getCurrency(),
-                        input.getInterestRate(),
-                        exchangeRates);
-
-            case "createCard":
-                return new CreateCardCommand(userRegistry, output, timestamp,
-                        input.getEmail(), input.getAccount(), "createCard");
-
-            case "createOneTimeCard":
-                return new CreateCardCommand(userRegistry, output, timestamp,
-                        input.getEmail(), input.getAccount(), "createOneTimeCard");
-
-            case "addFunds":
-                return new AddFundsCommand(userRegistry, input.getAccount(), input.getAmount(),
-                        input.getEmail());
-
-            case "deleteAccount":
-                return new DeleteAccountCommand(userRegistry, output, timestamp,
-                        input.getEmail(), input.getAccount());
-
-            case "deleteCard":
-                return new DeleteCardCommand(userRegistry, timestamp,
-                        input.getEmail(), input.getCardNumber());
-
-            case "payOnline":
-                return new PayOnlineCommand(userRegistry, exchangeRates, output, timestamp,
-                        input.getCardNumber(), input.getAmount(), input.getCurrency(),
-                        input.getDescription(), input.getCommerciant(), input.getEmail(),
-                        commerciantRegistry);
-
-            case "sendMoney":
-                return new SendMoneyCommand(userRegistry, output, timestamp,
-                        input.getAccount(), input.getReceiver(), input.getAmount(),
-                        input.getEmail(), input.getDescription(),
-                        exchangeRates, commerciantRegistry);
-
-            case "printTransactions":
-                return new PrintTransactionsCommand(userRegistry, output, timestamp,
-                        input.getEmail());
-
-            case "setAlias":
-                return new SetAliasCommand(userRegistry, timestamp,
-                        input.getEmail(), input.getAccount(), input.getAlias());
-
-            case "checkCardStatus":
-                return new CheckCardStatusCommand(userRegistry, output,
-                        input.getCardNumber(), timestamp);
-
-            case "setMinimumBalance":
-                return new SetMinimumBalanceCommand(userRegistry, timestamp,
-                        input.getAccount(), input.getAmount());
-
-            case "splitPayment":
-                if (input.getSplitPaymentType().equals("custom")) {
-                    return new SplitPaymentCommandCustom(userRegistry, output, timestamp,
-                            input.getAmount(), input.getCurrency(), input.getAccounts(),
-                            exchangeRates, input.getAmountForUsers(), splitPaymentsRegistry);
-                } else {
-                    return new SplitPaymentCommandEqual(userRegistry, output, timestamp,
-                            input.getAmount(), input.getCurrency(), input.getAccounts(),
-                            exchangeRates, splitPaymentsRegistry);
-                }
-
-            case "acceptSplitPayment":
-                return new AcceptSplitPaymentCommand(userRegistry, output, timestamp,
-                        input.getEmail(), input.getSplitPaymentType(), splitPaymentsRegistry,
-                        exchangeRates);
-
-            case "rejectSplitPayment":
-                return new RejectionSplitPaymentCommand(userRegistry, output, timestamp,
-                        input.getEmail(), input.getSplitPaymentType(), splitPaymentsRegistry,
-                        exchangeRates);
-
-            case "changeInterestRate":
-                return new ChangeInterestRateCommand(userRegistry, output, timestamp,
-                        input.getAccount(), input.getInterestRate());
-
-            case "addInterest":
-                return new AddInterestCommand(userRegistry, output, timestamp,
-                        input.getAccount());
-
-            case "withdrawSavings":
-                return new WithdrawSavingsCommand(userRegistry, output, timestamp, exchangeRates,
-                        input.getAccount(), input.getAmount(), input.getCurrency());
-
-            case "upgradePlan":
-                return new UpgradePlanCommand(userRegistry, output, timestamp, input.getAccount(),
-                        input.getNewPlanType(), exchangeRates);
-
-            case "cashWithdrawal":
-                return new CashWithdrawalCommand(userRegistry, output, timestamp, exchangeRates,
-                        input.getCardNumber(), input.getAmount(), input.getLocation(),
-                        input.getEmail());
-
-            case "report":
-                return new ReportCommand(userRegistry, output, input.getStartTimestamp(),
-                        input.getEndTimestamp(),
-                        input.getAccount(), timestamp);
-
-            case "spendingsReport":
-                return new SpendingsReportCommand(userRegistry, output,
-                        input.getStartTimestamp(), input.getEndTimestamp(),
-                        input.getAccount(), timestamp);
-
-            case "addNewBusinessAssociate":
-                return new AddNewBusinessAssociateCommand(userRegistry, output, timestamp,
-                        input.getEmail(), input.getAccount(), input.getRole());
-
-            case "changeSpendingLimit":
-                return new ChangeSpendingLimitCommand(userRegistry, output, timestamp,
-                        input.getAccount(), input.getEmail(), input.getAmount());
-
-            case "businessReport":
-                return new BusinessReportCommand(userRegistry, output,
-                        input.getStartTimestamp(), input.getEndTimestamp(),
-                        input.getAccount(), input.getType(), timestamp);
-
-            case "changeDepositLimit":
-                return new ChangeDepositLimitCommand(userRegistry, output, timestamp,
-                        input.getAccount(), input.getEmail(), input.getAmount());
+    private void register(final CommandType type, final Command command) {
+        commands[type.ordinal()] = command;
+    }
 
-            default:
-                // Log unknown command type and skip
-                return null;
+    /**
+     * Returns the Command object for the kind of the given input.
+     * The same object is returned for every command of a kind, so the input
+     * has to be given again to {@link Command#execute}.
+     *
+     * @param input the CommandInput object
+     * @return the Command object, or null if the command is not known
+     */
+    public Command getCommand(final CommandInput input) {
+        CommandType type = input.getCommandType();
+        if (type == null) {
+            return null;
         }
-
+        if (type == CommandType.SPLIT_PAYMENT
+                && input.getSplitPaymentType().equals("custom")) {
+            return customSplitPayment;
+        }
+        return commands[type.ordinal()];
     }
 }
@@ -0,0 +1,75 @@
+package org.poo.commands;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The kinds of commands the bank knows.
+ * The name of a command is resolved to its kind once, when the input is read,
+ * so the commands are dispatched by the ordinal of the kind, not by their name.
+ */
+public enum CommandType {
+    PRINT_USERS("printUsers"),
+    ADD_ACCOUNT("addAccount"),
+    CREATE_CARD("createCard"),
+    CREATE_ONE_TIME_CARD("createOneTimeCard"),
+    ADD_FUNDS("addFunds"),
+    DELETE_ACCOUNT("deleteAccount"),
+    DELETE_CARD("deleteCard"),
+    PAY_ONLINE("payOnline"),
+    SEND_MONEY("sendMoney"),
+    PRINT_TRANSACTIONS("printTransactions"),
+    SET_ALIAS("setAlias"),
+    CHECK_CARD_STATUS("checkCardStatus"),
+    SET_MINIMUM_BALANCE("setMinimumBalance"),
+    SPLIT_PAYMENT("splitPayment"),
+    ACCEPT_SPLIT_PAYMENT("acceptSplitPayment"),
+    REJECT_SPLIT_PAYMENT("rejectSplitPayment"),
+    CHANGE_INTEREST_RATE("changeInterestRate"),
+    ADD_INTEREST("addInterest"),
+    WITHDRAW_SAVINGS("withdrawSavings"),
+    UPGRADE_PLAN("upgradePlan"),
+    CASH_WITHDRAWAL("cashWithdrawal"),
+    REPORT("report"),
+    SPENDINGS_REPORT("spendingsReport"),
+    ADD_NEW_BUSINESS_ASSOCIATE("addNewBusinessAssociate"),
+    CHANGE_SPENDING_LIMIT("changeSpendingLimit"),
+    BUSINESS_REPORT("businessReport"),
+    CHANGE_DEPOSIT_LIMIT("changeDepositLimit");
+
+    private static final Map<String, CommandType> BY_NAME = new HashMap<>();
+
+    static {
+        for (CommandType type : values()) {
+            BY_NAME.put(type.commandName, type);
+        }
+    }
+
+    private final String commandName;
+
+    CommandType(final String commandName) {
+        this.commandName = commandName;
+    }
+
+    /**
+     * Returns the name of the command, as it appears in the input.
+     *
+     * @return the name of the command
+     */
+    public String getCommandName() {
+        return commandName;
+    }
+
+    /**
+     * Finds the kind of a command by its name.
+     *
+     * @param commandName the name of the command, as it appears in the input
+     * @return the kind of the command, or null if the command is not known
+     */
+    public static CommandType fromName(final String commandName) {
+        if (commandName == null) {
+            return null;
+        }
+        return BY_NAME.get(commandName);
+    }
+}
@@ -5,8 +5,9 @@ import org.poo.user.UserRegistry;
 import org.poo.transaction.NewCardCreatedTransaction;
 import org.poo.transaction.Transaction;
 import org.poo.user.User;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import org.poo.utils.Utils;
+import org.poo.utils.IdentifierGenerator;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
 /**
  * Command for creating a new card.
@@ -14,24 +15,12 @@ import org.poo.utils.Utils;
 public final class CreateCardCommand implements Command {
 
     private final UserRegistry userRegistry;
-    private final ArrayNode output;
-    private final int timestamp;
-    private final String email;
-    private final String iban;
-    private final String command;
+    private final IdentifierGenerator identifiers;
 
     public CreateCardCommand(final UserRegistry userRegistry,
-                             final ArrayNode output,
-                             final int timestamp,
-                             final String email,
-                             final String iban,
-                             final String command) {
+                             final IdentifierGenerator identifiers) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.timestamp = timestamp;
-        this.email = email;
-        this.iban = iban;
-        this.command = command;
+        this.identifiers = identifiers;
     }
 
     /**
@@ -40,11 +29,12 @@ public final class CreateCardCommand implements Command {
      * @param user       the user
      * @param account    the account where the card was created
      * @param cardNumber the card number
+     * @param input      the command which created the card
      */
     private void addTransaction(final User user, final Account account,
-                                final String cardNumber) {
-        Transaction transaction = new NewCardCreatedTransaction(timestamp,
-                "New card created", iban, cardNumber, email);
+                                final String cardNumber, final CommandInput input) {
+        Transaction transaction = new NewCardCreatedTransaction(input.getTimestamp(),
+                "New card created", input.getAccount(), cardNumber, input.getEmail());
         user.addTransaction(transaction);
 
         account.addTransaction(transaction);
@@ -54,7 +44,11 @@ public final class CreateCardCommand implements Command {
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        String email = input.getEmail();
+        String iban = input.getAccount();
+        String command = input.getCommand();
+
         User user = userRegistry.getUserByEmail(email);
 
         if (user == null) {
@@ -70,7 +64,7 @@ public final class CreateCardCommand implements Command {
         }
 
         // generate a card number
-        String cardNumber = Utils.generateCardNumber();
+        String cardNumber = identifiers.generateCardNumber();
 
         Account account = user.getAccountByIBAN(iban);
 
@@ -78,13 +72,15 @@ public final class CreateCardCommand implements Command {
         for (Account acc : user.getAccounts()) {
             if (acc.getIBAN().equals(iban)) {
                 acc.createCard(type, cardNumber, email);
+
+                // index the new card, so it can be found by its number
+                userRegistry.addCard(user, acc, acc.getCardByNumber(cardNumber));
             }
         }
 
 
-
         // add the transactions to the user transactions list and the account report
-        addTransaction(user, account, cardNumber);
+        addTransaction(user, account, cardNumber, input);
 
     }
 }
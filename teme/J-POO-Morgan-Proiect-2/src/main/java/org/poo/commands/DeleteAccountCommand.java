@@ -5,8 +5,10 @@ import org.poo.user.UserRegistry;
 import org.poo.transaction.ErrorDeleteAccount;
 import org.poo.transaction.Transaction;
 import org.poo.user.User;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
+import org.poo.velocity.VelocityLimits;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 /**
@@ -14,37 +16,29 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
  */
 public final class DeleteAccountCommand implements Command {
     private final UserRegistry userRegistry;
-    private final ArrayNode output;
-    private final int timestamp;
-    private final String email;
-    private final String iban;
+    private final VelocityLimits velocityLimits;
 
     /**
      * Constructor for the DeleteAccountCommand
      *
-     * @param userRegistry the user registry
-     * @param output       the output
-     * @param timestamp    the timestamp
-     * @param email        the email
-     * @param iban         the iban
+     * @param userRegistry   the user registry
+     * @param velocityLimits the velocity limits of the accounts and cards
      */
     public DeleteAccountCommand(final UserRegistry userRegistry,
-                                final ArrayNode output,
-                                final int timestamp,
-                                final String email,
-                                final String iban) {
+                                final VelocityLimits velocityLimits) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.timestamp = timestamp;
-        this.email = email;
-        this.iban = iban;
+        this.velocityLimits = velocityLimits;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String email = input.getEmail();
+        String iban = input.getAccount();
+
         User user = userRegistry.getUserByEmail(email);
 
         if (user == null) {
@@ -76,6 +70,8 @@ public final class DeleteAccountCommand implements Command {
         } else {
             // if the account has no funds remaining, remove the account from the user
             user.getAccounts().remove(account);
+            userRegistry.removeAccount(account);
+            velocityLimits.removeAccount(account);
 
             // print a success message
             ObjectNode node = output.addObject();
@@ -6,32 +6,27 @@ import org.poo.transaction.CardDestroyed;
 import org.poo.transaction.Transaction;
 import org.poo.user.User;
 import org.poo.card.Card;
+import org.poo.fileio.CommandInput;
+import org.poo.output.OutputSink;
+import org.poo.velocity.VelocityLimits;
 
 /**
  * Command to delete a card from a user's account.
  */
 public final class DeleteCardCommand implements Command {
     private final UserRegistry userRegistry;
-    private final int timestamp;
-    private final String email;
-    private final String cardNumber;
+    private final VelocityLimits velocityLimits;
 
     /**
      * Constructor for the DeleteCardCommand class.
      *
-     * @param userRegistry the UserRegistry object
-     * @param timestamp    the timestamp
-     * @param email        the email of the user
-     * @param cardNumber   the card number
+     * @param userRegistry   the UserRegistry object
+     * @param velocityLimits the velocity limits of the cards
      */
     public DeleteCardCommand(final UserRegistry userRegistry,
-                             final int timestamp,
-                             final String email,
-                             final String cardNumber) {
+                             final VelocityLimits velocityLimits) {
         this.userRegistry = userRegistry;
-        this.timestamp = timestamp;
-        this.email = email;
-        this.cardNumber = cardNumber;
+        this.velocityLimits = velocityLimits;
     }
 
     /**
@@ -39,9 +34,12 @@ public final class DeleteCardCommand implements Command {
      * and report of the account.
      *
      * @param user    the user
-     * @param account the account of the user
+     * @param account    the account of the user
+     * @param cardNumber the number of the destroyed card
+     * @param timestamp  the timestamp of the command
      */
-    private void addTransaction(final User user, final Account account) {
+    private void addTransaction(final User user, final Account account,
+                                final String cardNumber, final int timestamp) {
         Transaction transaction = new CardDestroyed(timestamp,
                 "The card has been destroyed", account.getIBAN(),
                 cardNumber, user.getEmail());
@@ -53,7 +51,11 @@ public final class DeleteCardCommand implements Command {
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String email = input.getEmail();
+        String cardNumber = input.getCardNumber();
+
         User user = userRegistry.getUserByEmail(email);
         if (user == null) {
             return;
@@ -64,9 +66,11 @@ public final class DeleteCardCommand implements Command {
             if (card != null && account.getBalance() == 0) {
                 // Remove the card from the account
                 account.getCards().remove(card);
+                userRegistry.removeCard(cardNumber);
+                velocityLimits.removeCard(cardNumber);
 
                 // Add the transaction to the transaction history and to the report
-                addTransaction(user, account);
+                addTransaction(user, account, cardNumber, timestamp);
                 return;
             }
         }
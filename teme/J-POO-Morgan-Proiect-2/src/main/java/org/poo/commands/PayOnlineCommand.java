@@ -9,14 +9,13 @@ import org.poo.cashback.SpendingThresholdCashback;
 import org.poo.commerciants.CommerciantRegistry;
 import org.poo.discounts.DiscountStrategy;
 import org.poo.discounts.DiscountStrategyFactory;
-import org.poo.report.BusinessCommerciantReport;
-import org.poo.report.CommerciantBusiness;
 import org.poo.transaction.CardDestroyed;
 import org.poo.transaction.CardPaymentTransaction;
 import org.poo.transaction.InsufficientFunds;
 import org.poo.transaction.NewCardCreatedTransaction;
 import org.poo.transaction.Transaction;
 import org.poo.transaction.UpgradePlanTransaction;
+import org.poo.transaction.VelocityLimitTransaction;
 import org.poo.user.UserRegistry;
 import org.poo.commerciants.Commerciant;
 import org.poo.report.ClassicReport;
@@ -25,9 +24,12 @@ import org.poo.user.User;
 import org.poo.card.Card;
 import org.poo.exchangeRates.ExchangeRates;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import org.poo.utils.Utils;
+import org.poo.utils.IdentifierGenerator;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
+import org.poo.velocity.VelocityLimits;
+import org.poo.velocity.VelocityRule;
 
 /**
  * Command class for the payOnline command.
@@ -36,54 +38,31 @@ import org.poo.utils.Utils;
 public final class PayOnlineCommand implements Command {
     private final UserRegistry userRegistry;
     private final ExchangeRates exchangeRates;
-    private final ArrayNode output;
-    private final int timestamp;
-    private final String cardNumber;
-    private double amount;
-    private final String currency;
-    private final String description;
-    private final String commerciant;
-    private final String email;
     private static final int MIN_DIFFERENCE = 30;
     private final CommerciantRegistry commerciantRegistry;
+    private final IdentifierGenerator identifiers;
+    private final VelocityLimits velocityLimits;
     private static final int UPGRADE_LIMIT = 300;
     private static final int UPGRADE_COUNT = 5;
 
     /**
      * Constructor for the PayOnlineCommand class.
      *
-     * @param userRegistry  the UserRegistry object
-     * @param exchangeRates the ExchangeRates object
-     * @param output        the ArrayNode object
-     * @param timestamp     the timestamp
-     * @param cardNumber    the card number
-     * @param amount        the amount to pay
-     * @param currency      the currency
-     * @param description   the description
-     * @param commerciant   the commerciant
-     * @param email         the email
+     * @param userRegistry   the UserRegistry object
+     * @param exchangeRates  the ExchangeRates object
+     * @param identifiers    the generator of card numbers of the bank
+     * @param velocityLimits the velocity limits of the cards and of the accounts
      */
     public PayOnlineCommand(final UserRegistry userRegistry,
                             final ExchangeRates exchangeRates,
-                            final ArrayNode output,
-                            final int timestamp,
-                            final String cardNumber,
-                            final double amount, final String currency,
-                            final String description,
-                            final String commerciant,
-                            final String email,
-                            final CommerciantRegistry commerciantRegistry) {
+                            final CommerciantRegistry commerciantRegistry,
+                            final IdentifierGenerator identifiers,
+                            final VelocityLimits velocityLimits) {
         this.userRegistry = userRegistry;
         this.exchangeRates = exchangeRates;
-        this.output = output;
-        this.timestamp = timestamp;
-        this.cardNumber = cardNumber;
-        this.amount = amount;
-        this.currency = currency;
-        this.description = description;
-        this.commerciant = commerciant;
-        this.email = email;
         this.commerciantRegistry = commerciantRegistry;
+        this.identifiers = identifiers;
+        this.velocityLimits = velocityLimits;
     }
 
     /**
@@ -95,14 +74,18 @@ public final class PayOnlineCommand implements Command {
      *
      * @param account             the account
      * @param businessUser        the business user
+     * @param amount              the amount spent, in the currency of the account
      * @param amountToPay         the amount to pay
      * @param businessCommerciant the commerciant
+     * @param timestamp           the timestamp of the payment
      * @return true if the account was updated, false otherwise
      */
     public boolean updateBusinessAccount(final Account account,
                                          final User businessUser,
+                                         final double amount,
                                          final double amountToPay,
-                                         final String businessCommerciant) {
+                                         final String businessCommerciant,
+                                         final int timestamp) {
 
         // cast the account to a business account
         BusinessAccount businessAccount = (BusinessAccount) account;
@@ -110,31 +93,11 @@ public final class PayOnlineCommand implements Command {
         // check if the user is the owner of the business account
         if (!businessAccount.getOwner().equals(businessUser) && amount != 0) {
 
-            // get the commerciant report for the business account
-            BusinessCommerciantReport businessCommerciantReport =
-                    businessAccount.getBusinessCommerciantReport();
-
             // check if the user is a manager or an employee
             if (businessAccount.isManager(businessUser)) {
-                // add the commerciant to the report
-                CommerciantBusiness commerciantForReport =
-                        businessCommerciantReport.getCommerciantBusiness(businessCommerciant);
-                if (commerciantForReport == null) {
-                    commerciantForReport = new CommerciantBusiness(businessCommerciant);
-                    businessCommerciantReport.addCommerciantBusiness(commerciantForReport);
-                }
-
-                // get the commerciant business from the report
-                CommerciantBusiness commerciantBusiness =
-                        businessCommerciantReport.getCommerciantBusiness(businessCommerciant);
-
-                // add the amount spent by the manager
-                businessAccount.addManagerSpentAmount(businessUser, amount);
-                businessAccount.setTotalSpent(businessAccount.getTotalSpent() + amount);
-
-                // add the manager to the commerciant business
-                commerciantBusiness.addManager(businessUser);
-                commerciantBusiness.addAmountSpent(amount);
+                // add the amount spent by the manager, which the reports show for the commerciant
+                businessAccount.recordSpending(businessUser, true, amount, businessCommerciant,
+                        timestamp);
 
             } else if (businessAccount.isEmployee(businessUser)) {
 
@@ -143,21 +106,8 @@ public final class PayOnlineCommand implements Command {
                     return false;
                 }
 
-                // add the commerciant to the report
-                CommerciantBusiness commerciantForReport =
-                        businessCommerciantReport.getCommerciantBusiness(businessCommerciant);
-                if (commerciantForReport == null) {
-                    commerciantForReport = new CommerciantBusiness(businessCommerciant);
-                    businessCommerciantReport.addCommerciantBusiness(commerciantForReport);
-                }
-
-                // get the commerciant business from the report
-                CommerciantBusiness commerciantBusiness =
-                        businessCommerciantReport.getCommerciantBusiness(businessCommerciant);
-                businessAccount.addEmployeeSpentAmount(businessUser, amount);
-                businessAccount.setTotalSpent(businessAccount.getTotalSpent() + amount);
-                commerciantBusiness.addEmployee(businessUser);
-                commerciantBusiness.addAmountSpent(amount);
+                businessAccount.recordSpending(businessUser, false, amount, businessCommerciant,
+                        timestamp);
             }
         }
         return true;
@@ -210,11 +160,66 @@ public final class PayOnlineCommand implements Command {
         }
     }
 
+    /**
+     * Checks a payment against the velocity limits of its card and of its account.
+     * If the payment goes over a limit, a transaction is written for it.
+     * The payments of 0 are not saved, so they are not checked or counted either.
+     * The commission is not counted, like for the cash withdrawals.
+     *
+     * @param user       the user who pays
+     * @param account    the account the payment is made from
+     * @param cardNumber the card of the payment
+     * @param amount     the amount of the payment, in the currency of the account
+     * @param rateForRon the exchange rate from the currency of the account to RON
+     * @param timestamp  the timestamp of the payment
+     * @return false if the payment is rejected, true if it can be made
+     */
+    private boolean checkVelocity(final User user, final Account account,
+                                  final String cardNumber, final double amount,
+                                  final double rateForRon, final int timestamp) {
+        if (amount == 0) {
+            return true;
+        }
+        VelocityRule rule = velocityLimits.check(cardNumber, account.getIBAN(),
+                amount * rateForRon, timestamp);
+        if (rule == null) {
+            return true;
+        }
+        Transaction transaction = new VelocityLimitTransaction(timestamp,
+                rule.getDescription(), cardNumber, amount);
+        user.addTransaction(transaction);
+        account.addTransaction(transaction);
+        return !rule.rejects();
+    }
+
+    /**
+     * Writes the error for a payment with a card which was not found.
+     *
+     * @param output    the output sink
+     * @param timestamp the timestamp of the payment
+     */
+    private void cardNotFound(final OutputSink output, final int timestamp) {
+        ObjectNode outputNode = output.addObject();
+        outputNode.put("command", "payOnline");
+        ObjectNode outputObject = outputNode.putObject("output");
+        outputObject.put("description", "Card not found");
+        outputObject.put("timestamp", timestamp);
+        outputNode.put("timestamp", timestamp);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String cardNumber = input.getCardNumber();
+        double amount = input.getAmount();
+        String currency = input.getCurrency();
+        String description = input.getDescription();
+        String commerciant = input.getCommerciant();
+        String email = input.getEmail();
+
         User user = userRegistry.getUserByEmail(email);
         if (user == null) {
             return;
@@ -222,12 +227,7 @@ public final class PayOnlineCommand implements Command {
 
         Card card = userRegistry.getCardByNumber(cardNumber);
         if (card == null) {
-            ObjectNode outputNode = output.addObject();
-            outputNode.put("command", "payOnline");
-            ObjectNode outputObject = outputNode.putObject("output");
-            outputObject.put("description", "Card not found");
-            outputObject.put("timestamp", timestamp);
-            outputNode.put("timestamp", timestamp);
+            cardNotFound(output, timestamp);
             return;
         }
 
@@ -239,12 +239,7 @@ public final class PayOnlineCommand implements Command {
             // if it is not a business account, then it is a classic or savings account
             // and it must belong to the user, so the email is wrong - error
             if (!account.getType().equals("business")) {
-                ObjectNode outputNode = output.addObject();
-                outputNode.put("command", "payOnline");
-                ObjectNode outputObject = outputNode.putObject("output");
-                outputObject.put("description", "Card not found");
-                outputObject.put("timestamp", timestamp);
-                outputNode.put("timestamp", timestamp);
+                cardNotFound(output, timestamp);
                 return;
             } else {
                 // check if the user is the owner of the business account
@@ -254,12 +249,7 @@ public final class PayOnlineCommand implements Command {
                 if (!businessAccount.isEmployee(businessUser)
                         && !businessAccount.isManager(businessUser)
                         && !businessAccount.getOwner().equals(businessUser)) {
-                    ObjectNode outputNode = output.addObject();
-                    outputNode.put("command", "payOnline");
-                    ObjectNode outputObject = outputNode.putObject("output");
-                    outputObject.put("description", "Card not found");
-                    outputObject.put("timestamp", timestamp);
-                    outputNode.put("timestamp", timestamp);
+                    cardNotFound(output, timestamp);
                     return;
                 }
                 User owner = businessAccount.getOwner();
@@ -270,7 +260,7 @@ public final class PayOnlineCommand implements Command {
 
         // check if the card currency is different from the payment currency
         if (!cardCurrency.equals(currency)) {
-            double rate = exchangeRates.convertExchangeRate(cardCurrency, currency);
+            double rate = exchangeRates.convertExchangeRate(cardCurrency, currency, timestamp);
             // check if the exchange rate was found
             if (rate != 0) {
                 // calculate the amount in the card currency
@@ -278,13 +268,20 @@ public final class PayOnlineCommand implements Command {
             }
         }
 
-        double amountToPay = user.addCommission(amount, exchangeRates, cardCurrency);
+        double amountToPay = user.addCommission(amount, exchangeRates, cardCurrency, timestamp);
         // check if the account has enough funds
         if (account.getBalance() >= amountToPay) {
+            double rateForRon = exchangeRates.convertExchangeRate(cardCurrency, "RON", timestamp);
+            double amountRon = amountToPay * rateForRon;
+
+            if (!checkVelocity(user, account, cardNumber, amount, rateForRon, timestamp)) {
+                return;
+            }
+
             if (account.getType().equals("business")) {
                 // check if updating the business account was successful
-                if (!updateBusinessAccount(account, businessUser,
-                        amountToPay, commerciant)) {
+                if (!updateBusinessAccount(account, businessUser, amount,
+                        amountToPay, commerciant, timestamp)) {
                     return;
                 }
             }
@@ -297,10 +294,9 @@ public final class PayOnlineCommand implements Command {
             // create a transaction for the payment
             if (amount != 0) {
                 user.addTransaction(transaction);
+                velocityLimits.record(cardNumber, account.getIBAN(), amount * rateForRon,
+                        timestamp);
             }
-            double rateForRon = exchangeRates.convertExchangeRate(cardCurrency, "RON");
-            double amountRon = amountToPay * rateForRon;
-
             Commerciant newCommerciant = commerciantRegistry.getCommerciantByName(commerciant);
             account.addCommerciant(newCommerciant);
 
@@ -342,8 +338,9 @@ public final class PayOnlineCommand implements Command {
                 // and a new card will be created
 
                 // generate a new card number
-                String newCardNumber = Utils.generateCardNumber();
-                card.setCardNumber(newCardNumber);
+                String newCardNumber = identifiers.generateCardNumber();
+                userRegistry.changeCardNumber(card, newCardNumber);
+                velocityLimits.removeCard(cardNumber);
 
                 // create a transaction for the destroyed card and the new card
                 Transaction transactionCardDestroyed = new CardDestroyed(timestamp,
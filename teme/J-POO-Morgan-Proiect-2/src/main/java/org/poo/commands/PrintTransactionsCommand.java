@@ -3,9 +3,11 @@ package org.poo.commands;
 import org.poo.user.UserRegistry;
 import org.poo.transaction.TransactionReport;
 import org.poo.user.User;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * Command to print the transactions of a user.
@@ -15,43 +17,35 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
  */
 public final class PrintTransactionsCommand implements Command {
     private final UserRegistry userRegistry;
-    private final String email;
-    private final int timestamp;
-    private final ArrayNode output;
 
     /**
      * Constructor for the PrintTransactionsCommand.
      *
      * @param userRegistry the user registry.
-     * @param output       the output array node.
-     * @param timestamp    the timestamp.
-     * @param email        the email of the user.
      */
-    public PrintTransactionsCommand(
-            final UserRegistry userRegistry,
-            final ArrayNode output,
-            final int timestamp,
-            final String email
-    ) {
+    public PrintTransactionsCommand(final UserRegistry userRegistry) {
         this.userRegistry = userRegistry;
-        this.email = email;
-        this.timestamp = timestamp;
-        this.output = output;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String email = input.getEmail();
+
         User user = userRegistry.getUserByEmail(email);
         if (user == null) {
             return;
         }
 
-        // get the transaction report of the user and print it to the output
+        // get the transaction report of the user and write it to the output
         TransactionReport transactionReport = user.getTransactionReport();
-        ObjectNode node = transactionReport.generateReport(timestamp);
-        output.add(node);
+        try {
+            transactionReport.writeReport(output.generator(), timestamp);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
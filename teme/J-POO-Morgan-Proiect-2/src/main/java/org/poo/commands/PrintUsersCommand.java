@@ -4,6 +4,8 @@ import org.poo.account.Account;
 import org.poo.user.UserRegistry;
 import org.poo.user.User;
 import org.poo.card.Card;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -14,29 +16,23 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 public final class PrintUsersCommand implements Command {
 
     private final UserRegistry userRegistry;
-    private final ArrayNode output;
-    private final int timestamp;
 
     /**
      * Constructor for the PrintUsersCommand.
      *
      * @param userRegistry The user registry.
-     * @param output       The output.
-     * @param timestamp    The timestamp.
      */
-    public PrintUsersCommand(final UserRegistry userRegistry,
-                             final ArrayNode output,
-                             final int timestamp) {
+    public PrintUsersCommand(final UserRegistry userRegistry) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.timestamp = timestamp;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+
         ObjectNode outputNode = output.addObject();
         outputNode.put("command", "printUsers");
 
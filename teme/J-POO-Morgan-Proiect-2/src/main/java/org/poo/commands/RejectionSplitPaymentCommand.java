@@ -1,6 +1,5 @@
 package org.poo.commands;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.exchangeRates.ExchangeRates;
 import org.poo.splitPayment.SplitPayment;
@@ -9,6 +8,8 @@ import org.poo.transaction.SplitPaymentCustomReject;
 import org.poo.transaction.Transaction;
 import org.poo.user.User;
 import org.poo.user.UserRegistry;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
 import java.util.List;
 
@@ -17,10 +18,6 @@ import java.util.List;
  */
 public final class RejectionSplitPaymentCommand implements Command {
     private final UserRegistry userRegistry;
-    private final ArrayNode output;
-    private final int timestamp;
-    private final String email;
-    private final String splitPaymentType;
     private final SplitPaymentsRegistry splitPaymentsRegistry;
     private final ExchangeRates exchangeRates;
 
@@ -28,25 +25,13 @@ public final class RejectionSplitPaymentCommand implements Command {
      * Instantiates a new Rejection split payment command.
      *
      * @param userRegistry          the user registry
-     * @param output                the output
-     * @param timestamp             the timestamp
-     * @param email                 the email
-     * @param splitPaymentType      the split payment type
      * @param splitPaymentsRegistry the split payments registry
      * @param exchangeRates         the exchange rates
      */
     public RejectionSplitPaymentCommand(final UserRegistry userRegistry,
-                                        final ArrayNode output,
-                                        final int timestamp,
-                                        final String email,
-                                        final String splitPaymentType,
                                         final SplitPaymentsRegistry splitPaymentsRegistry,
                                         final ExchangeRates exchangeRates) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.timestamp = timestamp;
-        this.email = email;
-        this.splitPaymentType = splitPaymentType;
         this.splitPaymentsRegistry = splitPaymentsRegistry;
         this.exchangeRates = exchangeRates;
     }
@@ -56,7 +41,11 @@ public final class RejectionSplitPaymentCommand implements Command {
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String email = input.getEmail();
+        String splitPaymentType = input.getSplitPaymentType();
+
         // find the user by email
         User user = userRegistry.getUserByEmail(email);
         if (user == null) {
@@ -69,9 +58,6 @@ public final class RejectionSplitPaymentCommand implements Command {
             return;
         }
 
-        // set the split payment as rejected
-        user.rejectSplitPayment(splitPaymentType);
-
         // find the split payment in the registry to delete it
         SplitPayment splitPayment = splitPaymentsRegistry.getSplitPaymentByUserEmail(email,
                 splitPaymentType);
@@ -81,9 +67,6 @@ public final class RejectionSplitPaymentCommand implements Command {
 
         List<User> usersInvolvedInSplitPayment = splitPayment.getUsers();
         for (User userInvolved : usersInvolvedInSplitPayment) {
-            // set the split payment as uninitialized for all users involved
-            userInvolved.setAcceptEqualSplitPayment(0);
-
             String description = String.format("Split payment of %.2f %s",
                     splitPayment.getTotalAmount(), splitPayment.getCurrency());
 
@@ -95,6 +78,6 @@ public final class RejectionSplitPaymentCommand implements Command {
             userInvolved.addTransaction(transaction);
         }
 
-        splitPaymentsRegistry.removeSplitPayment(splitPayment);
+        splitPaymentsRegistry.resolveSplitPayment(splitPayment, SplitPaymentsRegistry.REJECTED);
     }
 }
@@ -1,6 +1,5 @@
 package org.poo.commands;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.account.Account;
 import org.poo.cashback.CashbackManager;
@@ -17,19 +16,14 @@ import org.poo.transaction.Transaction;
 import org.poo.transaction.InsufficientFunds;
 import org.poo.transaction.SendMoneyTransaction;
 import org.poo.user.User;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
 /**
  * This class represents a command that sends money from one account to another.
  */
 public final class SendMoneyCommand implements Command {
     private final UserRegistry userRegistry;
-    private final ArrayNode output;
-    private final int timestamp;
-    private double amount;
-    private final String description;
-    private final String email;
-    private final String giverIBAN;
-    private final String receiverIBAN;
     private final ExchangeRates exchangeRates;
     private final CommerciantRegistry commerciantRegistry;
     private static final int UPGRADE_LIMIT = 300;
@@ -39,33 +33,12 @@ public final class SendMoneyCommand implements Command {
      * Constructor for the SendMoneyCommand class.
      *
      * @param userRegistry  the user registry
-     * @param output        the output array
-     * @param timestamp     the timestamp of the transaction
-     * @param giver         the IBAN of the giver
-     * @param receiver      the IBAN of the receiver
-     * @param amount        the amount of money to send
-     * @param email         the email of the user
-     * @param description   the description of the transaction
      * @param exchangeRates the exchange rates
      */
     public SendMoneyCommand(final UserRegistry userRegistry,
-                            final ArrayNode output,
-                            final int timestamp,
-                            final String giver,
-                            final String receiver,
-                            final double amount,
-                            final String email,
-                            final String description,
                             final ExchangeRates exchangeRates,
                             final CommerciantRegistry commerciantRegistry) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.timestamp = timestamp;
-        this.amount = amount;
-        this.description = description;
-        this.email = email;
-        this.giverIBAN = giver;
-        this.receiverIBAN = receiver;
         this.exchangeRates = exchangeRates;
         this.commerciantRegistry = commerciantRegistry;
     }
@@ -118,11 +91,32 @@ public final class SendMoneyCommand implements Command {
         }
     }
 
+    /**
+     * Adds the transaction of a transfer the giver does not have enough money for.
+     *
+     * @param giver        the user that sends the money
+     * @param giverAccount the account of the giver
+     * @param timestamp    the timestamp of the transfer
+     */
+    private void addInsufficientFunds(final User giver, final Account giverAccount,
+                                      final int timestamp) {
+        Transaction transaction = new InsufficientFunds(timestamp, "Insufficient funds");
+        giver.addTransaction(transaction);
+        giverAccount.addTransaction(transaction);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String giverIBAN = input.getAccount();
+        String receiverIBAN = input.getReceiver();
+        double amount = input.getAmount();
+        String email = input.getEmail();
+        String description = input.getDescription();
+
         // find the user that sends the money using the email
         User giver = userRegistry.getUserByEmail(email);
         if (giver == null) {
@@ -155,24 +149,21 @@ public final class SendMoneyCommand implements Command {
             receiver = userRegistry.getUserByAlias(receiverIBAN);
         }
 
-        // check if the user sends money to another user
+        // save the currency of the giver, the rates are the ones at the timestamp of the transfer
+        String currencyFrom = giverAccount.getCurrency();
         if (receiver != null) {
-            // save the currency of the giver and the receiver
-            String currencyFrom = giverAccount.getCurrency();
+            // the user sends money to another user
             String currencyTo = receiverAccount.getCurrency();
 
             // check if the currency of the giver is the same as the currency of the receiver
             if (currencyFrom.equals(currencyTo)) {
                 // add the commission to the amount for the giver
                 double amountWithCommission = giver.addCommission(amount,
-                        exchangeRates, currencyFrom);
+                        exchangeRates, currencyFrom, timestamp);
                 if (giverAccount.getBalance() < amountWithCommission) {
                     // if the giver does not have enough money,
                     // create a transaction with the message "Insufficient funds"
-                    Transaction transaction = new InsufficientFunds(timestamp,
-                            "Insufficient funds");
-                    giver.addTransaction(transaction);
-                    giverAccount.addTransaction(transaction);
+                    addInsufficientFunds(giver, giverAccount, timestamp);
                     return;
                 }
                 // update the balance of the giver and the receiver
@@ -194,17 +185,16 @@ public final class SendMoneyCommand implements Command {
             }
 
             // calculate the amount to transfer using the exchange rate
-            double exchangeRate = exchangeRates.convertExchangeRate(currencyFrom, currencyTo);
+            double exchangeRate = exchangeRates.convertExchangeRate(currencyFrom, currencyTo,
+                    timestamp);
             double amountToTransfer = amount * exchangeRate;
-            double amountWithCommission = giver.addCommission(amount, exchangeRates, currencyFrom);
+            double amountWithCommission = giver.addCommission(amount, exchangeRates, currencyFrom,
+                    timestamp);
 
             // check if the giver has enough money
             if (giverAccount.getBalance() < amountWithCommission) {
                 // create a transaction with the message "Insufficient funds"
-                Transaction transaction = new InsufficientFunds(timestamp,
-                        "Insufficient funds");
-                giver.addTransaction(transaction);
-                giverAccount.addTransaction(transaction);
+                addInsufficientFunds(giver, giverAccount, timestamp);
                 return;
             }
 
@@ -226,15 +216,12 @@ public final class SendMoneyCommand implements Command {
 
         } else {
             // the user sends money to a commerciant
-            String currencyFrom = giverAccount.getCurrency();
-            double amountWithCommission = giver.addCommission(amount, exchangeRates, currencyFrom);
+            double amountWithCommission = giver.addCommission(amount, exchangeRates, currencyFrom,
+                    timestamp);
             if (giverAccount.getBalance() < amountWithCommission) {
                 // if the giver does not have enough money,
                 // create a transaction with the message "Insufficient funds"
-                Transaction transaction = new InsufficientFunds(timestamp,
-                        "Insufficient funds");
-                giver.addTransaction(transaction);
-                giverAccount.addTransaction(transaction);
+                addInsufficientFunds(giver, giverAccount, timestamp);
                 return;
             }
 
@@ -246,7 +233,7 @@ public final class SendMoneyCommand implements Command {
             giver.addTransaction(transaction);
             giverAccount.addTransaction(transaction);
 
-            double rateForRon = exchangeRates.convertExchangeRate(currencyFrom, "RON");
+            double rateForRon = exchangeRates.convertExchangeRate(currencyFrom, "RON", timestamp);
             double amountRon = amount * rateForRon;
 
             String commerciant = commerciantReceiver.getCommerciant();
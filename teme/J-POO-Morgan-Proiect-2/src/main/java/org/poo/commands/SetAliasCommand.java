@@ -3,6 +3,8 @@ package org.poo.commands;
 import org.poo.account.Account;
 import org.poo.user.UserRegistry;
 import org.poo.user.User;
+import org.poo.fileio.CommandInput;
+import org.poo.output.OutputSink;
 
 /**
  * This class represents a command that sets an alias for an account,
@@ -11,35 +13,25 @@ import org.poo.user.User;
  */
 public final class SetAliasCommand implements Command {
     private final UserRegistry userRegistry;
-    private final String email;
-    private final String iban;
-    private final String alias;
 
     /**
      * Constructor for the SetAliasCommand class.
      *
      * @param userRegistry the UserRegistry object
-     * @param timestamp    the timestamp
-     * @param email        the email
-     * @param iban         the IBAN
-     * @param alias        the alias
      */
-    public SetAliasCommand(final UserRegistry userRegistry,
-                           final int timestamp,
-                           final String email,
-                           final String iban,
-                           final String alias) {
+    public SetAliasCommand(final UserRegistry userRegistry) {
         this.userRegistry = userRegistry;
-        this.email = email;
-        this.iban = iban;
-        this.alias = alias;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        String email = input.getEmail();
+        String iban = input.getAccount();
+        String alias = input.getAlias();
+
         User user = userRegistry.getUserByEmail(email);
         if (user == null) {
             return;
@@ -50,8 +42,8 @@ public final class SetAliasCommand implements Command {
             return;
         }
 
-        // Set the alias for the account
-        account.setAlias(alias);
+        // Set the alias for the account, through the registry to keep the alias index
+        userRegistry.setAlias(user, account, alias);
 
     }
 }
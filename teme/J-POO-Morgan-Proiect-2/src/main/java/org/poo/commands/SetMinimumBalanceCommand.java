@@ -4,6 +4,8 @@ import org.poo.account.Account;
 import org.poo.account.BusinessAccount;
 import org.poo.user.User;
 import org.poo.user.UserRegistry;
+import org.poo.fileio.CommandInput;
+import org.poo.output.OutputSink;
 
 /**
  * Command class for setting the minimum balance of an account.
@@ -11,33 +13,24 @@ import org.poo.user.UserRegistry;
  */
 public final class SetMinimumBalanceCommand implements Command {
     private final UserRegistry userRegistry;
-    private final int timestamp;
-    private final String iban;
-    private final double amount;
 
     /**
      * Constructor for the SetMinimumBalanceCommand class.
      *
      * @param userRegistry the UserRegistry object
-     * @param timestamp    the timestamp
-     * @param account      the IBAN of the account
-     * @param amount       the minimum balance
      */
-    public SetMinimumBalanceCommand(final UserRegistry userRegistry,
-                                    final int timestamp,
-                                    final String account,
-                                    final double amount) {
+    public SetMinimumBalanceCommand(final UserRegistry userRegistry) {
         this.userRegistry = userRegistry;
-        this.timestamp = timestamp;
-        this.iban = account;
-        this.amount = amount;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        String iban = input.getAccount();
+        double amount = input.getAmount();
+
         Account account = userRegistry.getAccountByIBAN(iban);
         if (account == null) {
             return;
@@ -7,10 +7,13 @@ import org.poo.commerciants.Commerciant;
 import org.poo.report.PaymentsRecord;
 import org.poo.report.SpendingsReport;
 import org.poo.user.User;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 
 /**
@@ -21,41 +24,26 @@ import java.util.ArrayList;
 public final class SpendingsReportCommand implements Command {
 
     private final UserRegistry userRegistry;
-    private final ArrayNode output;
-    private final int timestamp;
-    private final int startTimestamp;
-    private final int endTimestamp;
-    private final String iban;
 
     /**
      * Constructor for the SpendingsReportCommand class.
      *
-     * @param userRegistry   the UserRegistry object
-     * @param output         the ArrayNode object
-     * @param startTimestamp the start timestamp
-     * @param endTimestamp   the end timestamp
-     * @param account        the IBAN of the account
-     * @param timestamp      the timestamp
+     * @param userRegistry the UserRegistry object
      */
-    public SpendingsReportCommand(final UserRegistry userRegistry,
-                                  final ArrayNode output,
-                                  final int startTimestamp,
-                                  final int endTimestamp,
-                                  final String account,
-                                  final int timestamp) {
+    public SpendingsReportCommand(final UserRegistry userRegistry) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.iban = account;
-        this.startTimestamp = startTimestamp;
-        this.endTimestamp = endTimestamp;
-        this.timestamp = timestamp;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        int startTimestamp = input.getStartTimestamp();
+        int endTimestamp = input.getEndTimestamp();
+        String iban = input.getAccount();
+
         Account account = userRegistry.getAccountByIBAN(iban);
 
         // if the account is not found, return an error message
@@ -87,11 +75,13 @@ public final class SpendingsReportCommand implements Command {
             SpendingsReport spendingsReport = new SpendingsReport(paymentsRecord,
                     commerciantsList);
 
-            // generate the spendings report
-            ObjectNode node =
-                    spendingsReport.generateSpendingsReportBetweenTimestamps(startTimestamp,
-                    endTimestamp, timestamp, account, commerciantsList);
-            output.add(node);
+            // write the spendings report
+            try {
+                spendingsReport.writeSpendingsReportBetweenTimestamps(output.generator(),
+                        startTimestamp, endTimestamp, timestamp, account, commerciantsList);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         } else {
             // if the account is not a ClassicAccount, return an error message
             ObjectNode node = output.addObject();
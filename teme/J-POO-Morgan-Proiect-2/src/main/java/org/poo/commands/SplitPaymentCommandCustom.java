@@ -1,12 +1,13 @@
 package org.poo.commands;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.poo.account.Account;
 import org.poo.exchangeRates.ExchangeRates;
 import org.poo.splitPayment.SplitPayment;
 import org.poo.splitPayment.SplitPaymentsRegistry;
 import org.poo.user.User;
 import org.poo.user.UserRegistry;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
 import java.util.List;
 
@@ -18,13 +19,7 @@ import java.util.List;
  */
 public final class SplitPaymentCommandCustom implements Command {
     private final UserRegistry userRegistry;
-    private final ArrayNode output;
-    private final int timestamp;
-    private final double totalAmount;
-    private final String currency;
-    private final List<String> accountsIBAN;
     private final ExchangeRates exchangeRates;
-    private final List<Double> amountForEachAccount;
     private final SplitPaymentsRegistry splitPaymentsRegistry;
 
 
@@ -32,30 +27,13 @@ public final class SplitPaymentCommandCustom implements Command {
      * Constructor for the SplitPaymentCommand class.
      *
      * @param userRegistry  the UserRegistry
-     * @param output        the output ArrayNode
-     * @param timestamp     the timestamp of the command
-     * @param totalAmount   the total amount to be split
-     * @param currency      the currency of the total amount
-     * @param accounts      the list of IBANs of the accounts
      * @param exchangeRates the ExchangeRates object
      */
     public SplitPaymentCommandCustom(final UserRegistry userRegistry,
-                                     final ArrayNode output,
-                                     final int timestamp,
-                                     final double totalAmount,
-                                     final String currency,
-                                     final List<String> accounts,
                                      final ExchangeRates exchangeRates,
-                                     final List<Double> amountForEachAccount,
                                      final SplitPaymentsRegistry splitPaymentsRegistry) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.timestamp = timestamp;
-        this.totalAmount = totalAmount;
-        this.currency = currency;
-        this.accountsIBAN = accounts;
         this.exchangeRates = exchangeRates;
-        this.amountForEachAccount = amountForEachAccount;
         this.splitPaymentsRegistry = splitPaymentsRegistry;
     }
 
@@ -63,7 +41,12 @@ public final class SplitPaymentCommandCustom implements Command {
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        double totalAmount = input.getAmount();
+        String currency = input.getCurrency();
+        List<String> accountsIBAN = input.getAccounts();
+        List<Double> amountForEachAccount = input.getAmountForUsers();
 
         // check if all accounts exist
         for (String accountIBAN : accountsIBAN) {
@@ -1,12 +1,13 @@
 package org.poo.commands;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.poo.account.Account;
 import org.poo.exchangeRates.ExchangeRates;
 import org.poo.splitPayment.SplitPayment;
 import org.poo.splitPayment.SplitPaymentsRegistry;
 import org.poo.user.UserRegistry;
 import org.poo.user.User;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
 import java.util.List;
 
@@ -16,11 +17,6 @@ import java.util.List;
  */
 public final class SplitPaymentCommandEqual implements Command {
     private UserRegistry userRegistry;
-    private ArrayNode output;
-    private int timestamp;
-    private double totalAmount;
-    private String currency;
-    private List<String> accountsIBAN;
     private ExchangeRates exchangeRates;
     private SplitPaymentsRegistry splitPaymentsRegistry;
 
@@ -29,27 +25,12 @@ public final class SplitPaymentCommandEqual implements Command {
      * Constructor for the SplitPaymentCommand class.
      *
      * @param userRegistry  the UserRegistry
-     * @param output        the output ArrayNode
-     * @param timestamp     the timestamp of the command
-     * @param totalAmount   the total amount to be split
-     * @param currency      the currency of the total amount
-     * @param accounts      the list of IBANs of the accounts
      * @param exchangeRates the ExchangeRates object
      */
     public SplitPaymentCommandEqual(final UserRegistry userRegistry,
-                                    final ArrayNode output,
-                                    final int timestamp,
-                                    final double totalAmount,
-                                    final String currency,
-                                    final List<String> accounts,
                                     final ExchangeRates exchangeRates,
                                     final SplitPaymentsRegistry splitPaymentsRegistry) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.timestamp = timestamp;
-        this.totalAmount = totalAmount;
-        this.currency = currency;
-        this.accountsIBAN = accounts;
         this.exchangeRates = exchangeRates;
         this.splitPaymentsRegistry = splitPaymentsRegistry;
     }
@@ -58,7 +39,12 @@ public final class SplitPaymentCommandEqual implements Command {
      * {@inheritDoc}
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        double totalAmount = input.getAmount();
+        String currency = input.getCurrency();
+        List<String> accountsIBAN = input.getAccounts();
+
         // check if all accounts exist
         for (String accountIBAN : accountsIBAN) {
             Account account = userRegistry.getAccountByIBAN(accountIBAN);
@@ -1,6 +1,5 @@
 package org.poo.commands;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.account.Account;
 import org.poo.exchangeRates.ExchangeRates;
@@ -8,45 +7,35 @@ import org.poo.transaction.Transaction;
 import org.poo.transaction.UpgradePlanError;
 import org.poo.user.User;
 import org.poo.user.UserRegistry;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
 /**
  * Command that upgrades the service plan of a user.
  */
 public final class UpgradePlanCommand implements Command {
     private final UserRegistry userRegistry;
-    private final String iban;
-    private final String newServicePlan;
-    private final int timestamp;
-    private ArrayNode output;
     private ExchangeRates exchangeRates;
 
     /**
      * Constructor for the UpgradePlanCommand.
      *
      * @param userRegistry    the user registry
-     * @param output          the output array
-     * @param timestamp       the timestamp
-     * @param iban            the iban of the user
-     * @param newServicePlan  the new service plan
      * @param exchangeRates   the exchange rates
      */
     public UpgradePlanCommand(final UserRegistry userRegistry,
-                              final ArrayNode output,
-                              final int timestamp,
-                              final String iban,
-                              final String newServicePlan,
                               final ExchangeRates exchangeRates) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.timestamp = timestamp;
-        this.iban = iban;
-        this.newServicePlan = newServicePlan;
         this.exchangeRates = exchangeRates;
     }
 
 
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String iban = input.getAccount();
+        String newServicePlan = input.getNewPlanType();
+
         // get the user by iban
         User user = userRegistry.getUserByIBAN(iban);
         if (user == null) {
@@ -109,7 +98,7 @@ public final class UpgradePlanCommand implements Command {
             return;
         }
 
-        double rate = exchangeRates.convertExchangeRate("RON", account.getCurrency());
+        double rate = exchangeRates.convertExchangeRate("RON", account.getCurrency(), timestamp);
         user.upgradeServicePlan(newServicePlan, rate, account, timestamp);
 
 
@@ -1,6 +1,5 @@
 package org.poo.commands;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.poo.account.Account;
 import org.poo.exchangeRates.ExchangeRates;
 import org.poo.transaction.WithdrawSavingsTransaction;
@@ -8,6 +7,8 @@ import org.poo.transaction.Transaction;
 import org.poo.transaction.WithdrawSavingsTransactionSucces;
 import org.poo.user.User;
 import org.poo.user.UserRegistry;
+import org.poo.output.OutputSink;
+import org.poo.fileio.CommandInput;
 
 /**
  * WithdrawSavingsCommand class is responsible for executing
@@ -15,11 +16,6 @@ import org.poo.user.UserRegistry;
  */
 public class WithdrawSavingsCommand implements Command {
     private final UserRegistry userRegistry;
-    private final String iban;
-    private final double amount;
-    private final int timestamp;
-    private final String currency;
-    private final ArrayNode output;
     private final ExchangeRates exchangeRates;
     private static final int MINIMUM_AGE = 21;
 
@@ -27,34 +23,27 @@ public class WithdrawSavingsCommand implements Command {
      * Constructor of the WithdrawSavingsCommand class.
      *
      * @param userRegistry  the user registry
-     * @param output        the output
-     * @param timestamp     the timestamp
      * @param exchangeRates the exchange rates
-     * @param iban          the iban
-     * @param amount        the amount
-     * @param currency      the currency
      */
     public WithdrawSavingsCommand(final UserRegistry userRegistry,
-                                  final ArrayNode output,
-                                  final int timestamp,
-                                  final ExchangeRates exchangeRates,
-                                  final String iban,
-                                  final double amount,
-                                  final String currency) {
+                                  final ExchangeRates exchangeRates) {
         this.userRegistry = userRegistry;
-        this.output = output;
-        this.timestamp = timestamp;
         this.exchangeRates = exchangeRates;
-        this.iban = iban;
-        this.amount = amount;
-        this.currency = currency;
     }
 
     /**
      * Executes the command of withdrawing money from a savings account.
+     *
+     * @param input  the command
+     * @param output the output sink
      */
     @Override
-    public void execute() {
+    public void execute(final CommandInput input, final OutputSink output) {
+        int timestamp = input.getTimestamp();
+        String iban = input.getAccount();
+        double amount = input.getAmount();
+        String currency = input.getCurrency();
+
         User user = userRegistry.getUserByIBAN(iban);
         if (user == null) {
             Transaction transaction = new WithdrawSavingsTransaction(timestamp,
@@ -108,7 +97,8 @@ public class WithdrawSavingsCommand implements Command {
         }
 
         double exchangeRate =
-                exchangeRates.convertExchangeRate(savingsAccount.getCurrency(), currency);
+                exchangeRates.convertExchangeRate(savingsAccount.getCurrency(), currency,
+                        timestamp);
         double amountToTransfer = amount * exchangeRate;
 
         // check if the savings account has enough money
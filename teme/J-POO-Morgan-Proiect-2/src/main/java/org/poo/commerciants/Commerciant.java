@@ -1,5 +1,10 @@
 package org.poo.commerciants;
 
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+
 /**
  * The Commerciant class represents a commerciant, which
  * appears in a payOnline transaction.
@@ -217,4 +222,41 @@ public final class Commerciant {
     public void incrementNrOfTransactions() {
         this.nrOfTransactions++;
     }
+
+    /**
+     * Writes the fields of the commerciant to a snapshot.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeString(commerciant);
+        writer.writeInt(timestamp);
+        writer.writeInt(id);
+        writer.writeString(iban);
+        writer.writeString(type);
+        writer.writeString(cashbackStrategy);
+        writer.writeInt(nrOfTransactions);
+        writer.writeDouble(amountSpent);
+    }
+
+    /**
+     * Reads back a commerciant written by {@link #writeTo(SnapshotWriter)}.
+     *
+     * @param reader the reader of the snapshot
+     * @return the commerciant
+     * @throws IOException if the snapshot cannot be read
+     */
+    public static Commerciant readFrom(final SnapshotReader reader) throws IOException {
+        Commerciant read = new Commerciant();
+        read.commerciant = reader.readString();
+        read.timestamp = reader.readInt();
+        read.id = reader.readInt();
+        read.iban = reader.readString();
+        read.type = reader.readString();
+        read.cashbackStrategy = reader.readString();
+        read.nrOfTransactions = reader.readInt();
+        read.amountSpent = reader.readDouble();
+        return read;
+    }
 }
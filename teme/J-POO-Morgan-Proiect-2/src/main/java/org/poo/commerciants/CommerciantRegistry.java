@@ -1,31 +1,38 @@
 package org.poo.commerciants;
 
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The CommerciantRegistry class manages the collection of commerciants.
  * It provides methods to add, reset, and retrieve commerciants from the registry.
+ * Every bank has its own registry, kept in its BankContext.
+ * <p>
+ * The commerciants are indexed by name and by IBAN, as every online payment looks up
+ * its commerciant by name and every transfer checks if the receiver is a commerciant.
+ * If several commerciants have the same name or IBAN, the first one added is found.
  */
 public final class CommerciantRegistry {
 
-    private List<Commerciant> commerciants = new ArrayList<>();
-
-    private static CommerciantRegistry instance;
+    private final List<Commerciant> commerciants = new ArrayList<>();
+    private final Map<String, Commerciant> commerciantsByName = new HashMap<>();
+    private final Map<String, Commerciant> commerciantsByIban = new HashMap<>();
 
-    private CommerciantRegistry() {
-    }
+    // counts the lookups for the statistics of the bank, null when they are not kept
+    private LongAdder lookupCounter;
 
     /**
-     * Returns the single instance of CommerciantRegistry.
-     *
-     * @return The CommerciantRegistry instance.
+     * Creates an empty registry.
      */
-    public static CommerciantRegistry getInstance() {
-        if (instance == null) {
-            instance = new CommerciantRegistry();
-        }
-        return instance;
+    public CommerciantRegistry() {
     }
 
     /**
@@ -33,15 +40,32 @@ public final class CommerciantRegistry {
      */
     public void reset() {
         commerciants.clear();
+        commerciantsByName.clear();
+        commerciantsByIban.clear();
+    }
+
+    /**
+     * Counts every lookup of a commerciant into the given counter.
+     *
+     * @param counter the counter, or null to stop counting
+     */
+    public void setLookupCounter(final LongAdder counter) {
+        this.lookupCounter = counter;
+    }
+
+    private void countLookup() {
+        if (lookupCounter != null) {
+            lookupCounter.increment();
+        }
     }
 
     /**
      * Gets the list of all commerciants.
      *
-     * @return The list of all commerciants.
+     * @return A read-only list of all commerciants.
      */
     public List<Commerciant> getCommerciant() {
-        return commerciants;
+        return Collections.unmodifiableList(commerciants);
     }
 
     /**
@@ -51,6 +75,35 @@ public final class CommerciantRegistry {
      */
     public void addCommerciant(final Commerciant commerciant) {
         commerciants.add(commerciant);
+        commerciantsByName.putIfAbsent(commerciant.getCommerciant(), commerciant);
+        commerciantsByIban.putIfAbsent(commerciant.getIban(), commerciant);
+    }
+
+    /**
+     * Writes the commerciants of the registry to a snapshot, in the order they were added.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeInt(commerciants.size());
+        for (Commerciant commerciant : commerciants) {
+            commerciant.writeTo(writer);
+        }
+    }
+
+    /**
+     * Reads back the commerciants written by {@link #writeTo(SnapshotWriter)} into
+     * this registry, which must be empty, and indexes them again.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        int count = reader.readLength(Integer.BYTES);
+        for (int i = 0; i < count; i++) {
+            addCommerciant(Commerciant.readFrom(reader));
+        }
     }
 
     /**
@@ -60,12 +113,8 @@ public final class CommerciantRegistry {
      * @return The commerciant with the specified name, or null if not found.
      */
     public Commerciant getCommerciantByName(final String commerciantName) {
-        for (Commerciant commerciant : commerciants) {
-            if (commerciant.getCommerciant().equals(commerciantName)) {
-                return commerciant;
-            }
-        }
-        return null;
+        countLookup();
+        return commerciantsByName.get(commerciantName);
     }
 
     /**
@@ -75,11 +124,7 @@ public final class CommerciantRegistry {
      * @return The commerciant with the specified IBAN, or null if not found.
      */
     public Commerciant getCommerciantByIBAN(final String iban) {
-        for (Commerciant commerciant : commerciants) {
-            if (commerciant.getIban().equals(iban)) {
-                return commerciant;
-            }
-        }
-        return null;
+        countLookup();
+        return commerciantsByIban.get(iban);
     }
 }
@@ -0,0 +1,134 @@
+package org.poo.commerciants;
+
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The commerciants an account has paid, kept in alphabetical order of their names,
+ * as the cashback and the spendings report read them, and indexed by name and by
+ * IBAN, so the payments find their commerciant without going through the list.
+ * The names are unique; a commerciant keeps its place after it is added.
+ */
+public final class CommerciantStore {
+    // the commerciants, in alphabetical order of their names
+    private final ArrayList<Commerciant> commerciants = new ArrayList<>();
+
+    private final Map<String, Commerciant> byName = new HashMap<>();
+    private final Map<String, Commerciant> byIban = new HashMap<>();
+
+    /**
+     * Creates an empty store.
+     */
+    public CommerciantStore() {
+    }
+
+    /**
+     * Returns the commerciant with the given name.
+     *
+     * @param name the name of the commerciant
+     * @return the commerciant, or null if the account has not paid it
+     */
+    public Commerciant getByName(final String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * Returns the commerciant with the given IBAN. If several commerciants have the
+     * same IBAN, the first one in alphabetical order is returned.
+     *
+     * @param iban the IBAN of the commerciant
+     * @return the commerciant, or null if the account has not paid it
+     */
+    public Commerciant getByIban(final String iban) {
+        return byIban.get(iban);
+    }
+
+    /**
+     * Adds a commerciant after the ones whose names are not greater than its name.
+     * There must be no commerciant with the same name in the store.
+     *
+     * @param commerciant the commerciant to add
+     */
+    public void add(final Commerciant commerciant) {
+        String name = commerciant.getCommerciant();
+        int index = insertionIndex(name);
+        commerciants.add(index, commerciant);
+        byName.put(name, commerciant);
+
+        String iban = commerciant.getIban();
+        if (iban != null) {
+            Commerciant sameIban = byIban.get(iban);
+            if (sameIban == null || sameIban.getCommerciant().compareTo(name) > 0) {
+                byIban.put(iban, commerciant);
+            }
+        }
+    }
+
+    /**
+     * Returns the commerciants, in alphabetical order of their names.
+     * The list must not be changed.
+     *
+     * @return the commerciants
+     */
+    public ArrayList<Commerciant> getList() {
+        return commerciants;
+    }
+
+    /**
+     * Writes the commerciants of the store to a snapshot, in alphabetical order.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeInt(commerciants.size());
+        for (Commerciant commerciant : commerciants) {
+            commerciant.writeTo(writer);
+        }
+    }
+
+    /**
+     * Reads back the commerciants written by {@link #writeTo(SnapshotWriter)} into
+     * this store, which must be empty.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        int count = reader.readLength(Integer.BYTES);
+        for (int i = 0; i < count; i++) {
+            Commerciant commerciant = Commerciant.readFrom(reader);
+            if (commerciant.getCommerciant() == null
+                    || byName.containsKey(commerciant.getCommerciant())) {
+                throw reader.corrupted("commerciant " + commerciant.getCommerciant());
+            }
+            add(commerciant);
+        }
+    }
+
+    /**
+     * Finds the position of a name with a binary search: after every commerciant
+     * whose name is not greater than it.
+     *
+     * @param name the name of the commerciant
+     * @return the index at which the commerciant is inserted
+     */
+    private int insertionIndex(final String name) {
+        int low = 0;
+        int high = commerciants.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (commerciants.get(middle).getCommerciant().compareTo(name) > 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
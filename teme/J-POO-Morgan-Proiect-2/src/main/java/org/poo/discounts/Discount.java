@@ -1,5 +1,10 @@
 package org.poo.discounts;
 
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+
 /**
  * The Discount class represents a discount with a value, type, and usage status.
  * It provides methods to get and set the discount value, type, and usage state.
@@ -80,4 +85,29 @@ public final class Discount {
     public void use() {
         this.isUsed = true;
     }
+
+    /**
+     * Writes the discount to a snapshot.
+     *
+     * @param writer The writer of the snapshot.
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeDouble(value);
+        writer.writeString(type);
+        writer.writeBoolean(isUsed);
+    }
+
+    /**
+     * Reads back a discount written by {@link #writeTo(SnapshotWriter)}.
+     *
+     * @param reader The reader of the snapshot.
+     * @return The discount.
+     * @throws IOException if the snapshot cannot be read
+     */
+    public static Discount readFrom(final SnapshotReader reader) throws IOException {
+        Discount read = new Discount(reader.readDouble(), reader.readString());
+        read.isUsed = reader.readBoolean();
+        return read;
+    }
 }
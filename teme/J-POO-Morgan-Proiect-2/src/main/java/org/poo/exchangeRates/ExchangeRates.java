@@ -1,54 +1,126 @@
 package org.poo.exchangeRates;
 
+import org.poo.jfr.CurrencyConversionEvent;
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Represents a collection of exchange rates and provides utilities
  * to add, find, and convert exchange rates between currencies.
+ * <p>
+ * Every pair of currencies keeps the versions of its rate by timestamp, in a
+ * {@link RateSeries}: a rate holds from its timestamp until the next rate of the pair.
+ * A conversion at a timestamp uses the rates which hold at that timestamp, found with
+ * a binary search over the versions, and only the pairs which have a rate at that
+ * timestamp are part of the graph of rates.
+ * <p>
+ * The rates are compiled into conversion rows: every currency gets a small integer id
+ * and the row of a currency holds the rates to every other currency found by a
+ * breadth-first search through the graph of rates. Every rate of a row is saved with
+ * the range of timestamps in which the path and the rates on it stay the same, so
+ * a conversion in that range is only an array access. A row is computed again only
+ * for a conversion outside the range of its rate.
+ * <p>
+ * A rate added later cuts only the ranges of the rates which change: a new version of
+ * a pair cuts the rates whose path goes through the pair, and a new pair cuts the rows
+ * of the currencies whose search reaches its source currency. The rates before its
+ * timestamp stay saved.
+ * <p>
+ * The rows are never changed, only replaced, so the conversions read them without
+ * a lock; the rows are computed and replaced while holding the lock of the object.
  */
 public final class ExchangeRates {
 
-    private static ExchangeRates instance;
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int NO_EDGE = -1;
+    private static final int PAIR_BITS = 32;
+
+    // the bytes of a rate in a snapshot: the two currencies, the rate and the timestamp
+    private static final int RATE_SIZE = Integer.BYTES * 3 + Double.BYTES;
 
     private final ArrayList<ExchangeInputFormat> exchangeRates = new ArrayList<>();
 
-    // Private constructor to prevent external instantiation
-    private ExchangeRates() {
-    }
+    // currency name -> id, the ids are the rows and columns of the conversion table
+    private final Map<String, Integer> currencyIds = new HashMap<>();
+    private String[] currencyNames = new String[INITIAL_CAPACITY];
+    private int currencyCount = 0;
+
+    // the graph of exchange rates, as adjacency lists indexed by currency id, with
+    // one edge for every pair of currencies, kept in the order in which the pairs were added
+    private int[][] edgeTargets = new int[INITIAL_CAPACITY][];
+    private int[][] edgeIds = new int[INITIAL_CAPACITY][];
+    private int[] edgeCounts = new int[INITIAL_CAPACITY];
+
+    // the source currency and the versions of the rate of every edge, by edge id
+    private final Map<Long, Integer> pairEdges = new HashMap<>();
+    private int[] edgeSources = new int[INITIAL_CAPACITY];
+    private RateSeries[] edgeSeries = new RateSeries[INITIAL_CAPACITY];
+    private int edgeTotal = 0;
+
+    // rows[from] holds the rates from a currency, null if they must be computed
+    private ConversionRow[] rows = new ConversionRow[INITIAL_CAPACITY];
+    private volatile boolean compiled = false;
+
+    // scratch arrays for the breadth-first search
+    private int[] queue = new int[1];
+    private double[] queueRates = new double[1];
+    private long[] queueStarts = new long[1];
+    private long[] queueEnds = new long[1];
+    private boolean[] visited = new boolean[INITIAL_CAPACITY];
+
+    // counts the conversions for the statistics of the bank, null when they are not kept
+    private LongAdder conversionCounter;
 
     /**
-     * Singleton instance getter.
-     *
-     * @return the singleton instance of the ExchangeRates
+     * Creates an empty collection of exchange rates.
+     * Every bank has its own, kept in its BankContext.
      */
-    public static ExchangeRates getInstance() {
-        if (instance == null) {
-            instance = new ExchangeRates();
-        }
-        return instance;
+    public ExchangeRates() {
     }
 
     /**
-     * Clears the list of exchange rates.
+     * Clears the list of exchange rates and the conversion table.
      */
-    public void reset() {
+    public synchronized void reset() {
         exchangeRates.clear();
+        clearGraph();
+        compiled = false;
     }
 
     /**
-     * Adds a new exchange rate.
+     * Counts every conversion into the given counter.
+     *
+     * @param counter the counter, or null to stop counting
+     */
+    public void setConversionCounter(final LongAdder counter) {
+        this.conversionCounter = counter;
+    }
+
+    private void countConversion() {
+        if (conversionCounter != null) {
+            conversionCounter.increment();
+        }
+    }
+
+    /**
+     * Adds a new exchange rate, which holds from its timestamp.
+     * If the conversion table was already built, only the rates which change
+     * from that timestamp on are computed again.
      *
      * @param exchangeInput the exchange rate to add
      */
-    public void addExchangeRate(final ExchangeInputFormat exchangeInput) {
+    public synchronized void addExchangeRate(final ExchangeInputFormat exchangeInput) {
         exchangeRates.add(exchangeInput);
+        if (compiled) {
+            updateConversionTable(exchangeInput);
+        }
     }
 
     /**
@@ -56,7 +128,7 @@ public final class ExchangeRates {
      *
      * @return the list of exchange rates
      */
-    public ArrayList<ExchangeInputFormat> getExchangeRates() {
+    public synchronized ArrayList<ExchangeInputFormat> getExchangeRates() {
         return new ArrayList<>(exchangeRates);
     }
 
@@ -66,15 +138,55 @@ public final class ExchangeRates {
      * @param exchangeInput the exchange rate to add
      */
     public void addExchangeRates(final ExchangeInputFormat exchangeInput) {
-        exchangeRates.add(exchangeInput);
+        addExchangeRate(exchangeInput);
+    }
+
+    /**
+     * Writes the exchange rates to a snapshot, in the order they were added.
+     * The conversion table is not written, it is built again from the rates.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public synchronized void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeInt(exchangeRates.size());
+        for (ExchangeInputFormat exchange : exchangeRates) {
+            writer.writeString(exchange.getFrom());
+            writer.writeString(exchange.getTo());
+            writer.writeDouble(exchange.getRate());
+            writer.writeInt(exchange.getTimestamp());
+        }
+        writer.writeBoolean(compiled);
+    }
+
+    /**
+     * Reads back the exchange rates written by {@link #writeTo(SnapshotWriter)} into this
+     * collection, which must be empty. If the table was built, it is built again from all
+     * the rates, and its rows are computed by the first conversions, like after the input.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public synchronized void readFrom(final SnapshotReader reader) throws IOException {
+        int count = reader.readLength(RATE_SIZE);
+        for (int i = 0; i < count; i++) {
+            String from = reader.readString();
+            String to = reader.readString();
+            double rate = reader.readDouble();
+            exchangeRates.add(new ExchangeInputFormat(from, to, rate, reader.readInt()));
+        }
+        if (reader.readBoolean()) {
+            compileConversionTable();
+        }
     }
 
     /**
      * Finds and adds reciprocal exchange rates to the collection.
      * It will help when the exchange rate from A to B is known, but the rate from B to A is not and
      * wth conversion between two currencies.
+     * After that, the conversion table is built from all the rates.
      */
-    public void findNewExchangeRates() {
+    public synchronized void findNewExchangeRates() {
         ArrayList<ExchangeInputFormat> newRates = new ArrayList<>();
 
         for (ExchangeInputFormat exchange : exchangeRates) {
@@ -90,15 +202,34 @@ public final class ExchangeRates {
         }
 
         exchangeRates.addAll(newRates);
+
+        compileConversionTable();
     }
 
     /**
-     * Converts an exchange rate between two currencies using a graph.
-     * The currencies are represented as nodes in the graph.
-     * The map contains as keys the source currencies and as values the
-     * list of exchange rates.
-     * The graph will use breadth-first search to find the exchange rate
-     * between two currencies.
+     * Returns the id of a currency in the conversion table.
+     * The id can be saved and used with {@link #convertExchangeRate(int, int, int)}.
+     *
+     * @param currency the currency
+     * @return the id of the currency, or -1 if there is no rate for it
+     */
+    public int getCurrencyId(final String currency) {
+        if (!compiled) {
+            synchronized (this) {
+                if (!compiled) {
+                    compileConversionTable();
+                }
+            }
+        }
+        Integer id = currencyIds.get(currency);
+        if (id == null) {
+            return -1;
+        }
+        return id;
+    }
+
+    /**
+     * Converts an exchange rate between two currencies, with the latest rates.
      *
      * @param currencyFrom the source currency
      * @param currencyTo   the target currency
@@ -106,59 +237,483 @@ public final class ExchangeRates {
      */
     public double convertExchangeRate(final String currencyFrom,
                                       final String currencyTo) {
-        // build a graph
-        Map<String, List<ExchangeInputFormat>> graph = new HashMap<>();
+        return convertExchangeRate(currencyFrom, currencyTo, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Converts an exchange rate between two currencies, with the rates which
+     * hold at a timestamp.
+     * The rate is read from the conversion table, which holds the rate found by
+     * a breadth-first search from the source currency through the graph of rates.
+     *
+     * @param currencyFrom the source currency
+     * @param currencyTo   the target currency
+     * @param timestamp    the timestamp of the conversion
+     * @return the converted exchange rate, or 0 if not available
+     */
+    public double convertExchangeRate(final String currencyFrom,
+                                      final String currencyTo,
+                                      final int timestamp) {
+        return convertExchangeRate(getCurrencyId(currencyFrom), getCurrencyId(currencyTo),
+                timestamp);
+    }
+
+    /**
+     * Converts an exchange rate between two currencies given by their ids,
+     * with the latest rates.
+     *
+     * @param currencyFromId the id of the source currency
+     * @param currencyToId   the id of the target currency
+     * @return the converted exchange rate, or 0 if not available
+     */
+    public double convertExchangeRate(final int currencyFromId,
+                                      final int currencyToId) {
+        return convertExchangeRate(currencyFromId, currencyToId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Converts an exchange rate between two currencies given by their ids,
+     * with the rates which hold at a timestamp.
+     *
+     * @param currencyFromId the id of the source currency
+     * @param currencyToId   the id of the target currency
+     * @param timestamp      the timestamp of the conversion
+     * @return the converted exchange rate, or 0 if not available
+     */
+    public double convertExchangeRate(final int currencyFromId,
+                                      final int currencyToId,
+                                      final int timestamp) {
+        countConversion();
+        double rate = 0;
+        ConversionRow row = null;
+        if (currencyFromId >= 0 && currencyToId >= 0) {
+            row = rows[currencyFromId];
+            if (row == null || !row.holds(currencyToId, timestamp)) {
+                row = rowAt(currencyFromId, currencyToId, timestamp);
+            }
+            rate = row.rates[currencyToId];
+        }
+
+        CurrencyConversionEvent event = new CurrencyConversionEvent();
+        if (event.shouldCommit()) {
+            event.set(nameOf(currencyFromId), nameOf(currencyToId), timestamp,
+                    pathLength(row, currencyFromId, currencyToId), rate);
+            event.commit();
+        }
+        return rate;
+    }
+
+    /**
+     * Returns a row of the conversion table which holds a rate at a timestamp,
+     * computing it if the saved row does not.
+     *
+     * @param currencyFromId the id of the source currency
+     * @param currencyToId   the id of the target currency
+     * @param timestamp      the timestamp of the conversion
+     * @return the row
+     */
+    private synchronized ConversionRow rowAt(final int currencyFromId, final int currencyToId,
+                                             final int timestamp) {
+        ConversionRow row = rows[currencyFromId];
+        if (row == null || !row.holds(currencyToId, timestamp)) {
+            row = computeRow(currencyFromId, timestamp);
+            rows[currencyFromId] = row;
+        }
+        return row;
+    }
+
+    /**
+     * Returns the name of a currency.
+     *
+     * @param currencyId the id of the currency, or -1
+     * @return the name of the currency, or null for -1
+     */
+    private String nameOf(final int currencyId) {
+        if (currencyId < 0) {
+            return null;
+        }
+        return currencyNames[currencyId];
+    }
+
+    /**
+     * Returns the number of rates on the path whose rate is saved in a row,
+     * following the edges through which the search first reached the currencies.
+     *
+     * @param row            the row of the source currency, or null
+     * @param currencyFromId the id of the source currency, or -1
+     * @param currencyToId   the id of the target currency, or -1
+     * @return the number of rates on the path, or -1 if there is no path
+     */
+    private int pathLength(final ConversionRow row, final int currencyFromId,
+                           final int currencyToId) {
+        if (row == null || row.parentEdges[currencyToId] == NO_EDGE) {
+            return -1;
+        }
+        int length = 0;
+        int currency = currencyToId;
+        do {
+            length++;
+            currency = edgeSources[row.parentEdges[currency]];
+        } while (currency != currencyFromId);
+        return length;
+    }
+
+    /**
+     * Tells if the path whose rate is saved in a row goes through an edge.
+     *
+     * @param row          the row of the source currency
+     * @param source       the id of the source currency
+     * @param currencyToId the id of the target currency
+     * @param edge         the edge
+     * @return true if the path takes the edge
+     */
+    private boolean pathTakes(final ConversionRow row, final int source,
+                              final int currencyToId, final int edge) {
+        if (row.parentEdges[currencyToId] == NO_EDGE) {
+            return false;
+        }
+        int currency = currencyToId;
+        do {
+            int parentEdge = row.parentEdges[currency];
+            if (parentEdge == edge) {
+                return true;
+            }
+            currency = edgeSources[parentEdge];
+        } while (currency != source);
+        return false;
+    }
 
-        // populate the graph with the exchange rates
+    /**
+     * Builds the graph from all the exchange rates. The rows are computed
+     * by the first conversions.
+     */
+    private void compileConversionTable() {
+        clearGraph();
         for (ExchangeInputFormat exchange : exchangeRates) {
-            if (!graph.containsKey(exchange.getFrom())) {
-                graph.put(exchange.getFrom(), new ArrayList<>());
+            addRate(exchange);
+        }
+        compiled = true;
+    }
+
+    /**
+     * Removes all the currencies, pairs and rows.
+     */
+    private void clearGraph() {
+        currencyIds.clear();
+        currencyCount = 0;
+        Arrays.fill(edgeCounts, 0);
+        pairEdges.clear();
+        edgeTotal = 0;
+        Arrays.fill(rows, null);
+    }
+
+    /**
+     * Adds a rate to the graph after the table was built, then cuts the ranges of the
+     * saved rates which change from the timestamp of the rate on.
+     * A new version of a pair changes only the rates whose path takes the pair. A new pair,
+     * or a pair which gets a rate before its first one, can change the searches which reach
+     * its source currency; the search from any other currency never uses it.
+     *
+     * @param exchange the new exchange rate
+     */
+    private void updateConversionTable(final ExchangeInputFormat exchange) {
+        int edge = pairEdges.getOrDefault(pairKey(exchange), NO_EDGE);
+        boolean newPath = edge == NO_EDGE
+                || exchange.getTimestamp() < edgeSeries[edge].firstTimestamp();
+        if (!addRate(exchange)) {
+            return;
+        }
+        if (edge == NO_EDGE) {
+            edge = edgeTotal - 1;
+        }
+
+        int from = edgeSources[edge];
+        int timestamp = exchange.getTimestamp();
+        for (int currency = 0; currency < currencyCount; currency++) {
+            ConversionRow row = rows[currency];
+            if (row == null) {
+                continue;
+            }
+
+            if (newPath) {
+                if (currency == from || row.reaches(from)) {
+                    rows[currency] = row.cutAll(timestamp);
+                }
+                continue;
             }
-            graph.get(exchange.getFrom()).add(exchange);
+
+            boolean[] changed = new boolean[row.rates.length];
+            boolean any = false;
+            for (int target = 0; target < row.rates.length; target++) {
+                if (pathTakes(row, currency, target, edge)) {
+                    changed[target] = true;
+                    any = true;
+                }
+            }
+            if (any) {
+                rows[currency] = row.cut(changed, timestamp);
+            }
+        }
+    }
+
+    /**
+     * Returns the key of the pair of currencies of a rate.
+     *
+     * @param exchange the rate, whose currencies have ids
+     * @return the key, or -1 if a currency has no id
+     */
+    private long pairKey(final ExchangeInputFormat exchange) {
+        Integer from = currencyIds.get(exchange.getFrom());
+        Integer to = currencyIds.get(exchange.getTo());
+        if (from == null || to == null) {
+            return -1;
+        }
+        return pairKey(from, to);
+    }
+
+    private static long pairKey(final int from, final int to) {
+        return (long) from << PAIR_BITS | to;
+    }
+
+    /**
+     * Adds a rate to the versions of its pair, adding the pair to the adjacency list
+     * of its source currency if it is new.
+     *
+     * @param exchange the exchange rate
+     * @return false if the pair already had a rate for the timestamp, which is kept
+     */
+    private boolean addRate(final ExchangeInputFormat exchange) {
+        int from = internCurrency(exchange.getFrom());
+        int to = internCurrency(exchange.getTo());
+
+        Integer edge = pairEdges.get(pairKey(from, to));
+        if (edge != null) {
+            return edgeSeries[edge].add(exchange.getTimestamp(), exchange.getRate());
+        }
+
+        if (edgeTargets[from] == null) {
+            edgeTargets[from] = new int[INITIAL_CAPACITY];
+            edgeIds[from] = new int[INITIAL_CAPACITY];
+        } else if (edgeCounts[from] == edgeTargets[from].length) {
+            edgeTargets[from] = Arrays.copyOf(edgeTargets[from], edgeCounts[from] * 2);
+            edgeIds[from] = Arrays.copyOf(edgeIds[from], edgeCounts[from] * 2);
+        }
+        if (edgeTotal == edgeSeries.length) {
+            edgeSources = Arrays.copyOf(edgeSources, edgeTotal * 2);
+            edgeSeries = Arrays.copyOf(edgeSeries, edgeTotal * 2);
+        }
+
+        edgeTargets[from][edgeCounts[from]] = to;
+        edgeIds[from][edgeCounts[from]] = edgeTotal;
+        edgeCounts[from]++;
+        edgeSources[edgeTotal] = from;
+        edgeSeries[edgeTotal] = new RateSeries();
+        edgeSeries[edgeTotal].add(exchange.getTimestamp(), exchange.getRate());
+        pairEdges.put(pairKey(from, to), edgeTotal);
+        edgeTotal++;
+
+        if (queue.length < edgeTotal + 1) {
+            int capacity = (edgeTotal + 1) * 2;
+            queue = new int[capacity];
+            queueRates = new double[capacity];
+            queueStarts = new long[capacity];
+            queueEnds = new long[capacity];
         }
+        return true;
+    }
 
-        // build a queue, which will help with bfs (breadth-first search)
-        Queue<ExchangeInputFormat> queue = new LinkedList<>();
+    /**
+     * Returns the id of a currency, giving it a new id if it was not seen before.
+     *
+     * @param currency the currency
+     * @return the id of the currency
+     */
+    private int internCurrency(final String currency) {
+        Integer id = currencyIds.get(currency);
+        if (id != null) {
+            return id;
+        }
 
-        // keep track of visited currencies
-        Set<String> visited = new HashSet<>();
+        if (currencyCount == edgeCounts.length) {
+            growCapacity(currencyCount * 2);
+        }
 
-        // start with the currencyFrom
-        queue.add(new ExchangeInputFormat(currencyFrom, currencyFrom, 1.0, 0));
+        // the slot may hold the row of a currency from before a reset
+        rows[currencyCount] = null;
+        currencyIds.put(currency, currencyCount);
+        currencyNames[currencyCount] = currency;
+        return currencyCount++;
+    }
+
+    /**
+     * Grows the arrays indexed by currency id.
+     *
+     * @param capacity the new number of currencies that fit in the arrays
+     */
+    private void growCapacity(final int capacity) {
+        edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+        edgeIds = Arrays.copyOf(edgeIds, capacity);
+        edgeCounts = Arrays.copyOf(edgeCounts, capacity);
+        currencyNames = Arrays.copyOf(currencyNames, capacity);
+        rows = Arrays.copyOf(rows, capacity);
+        visited = new boolean[capacity];
+    }
+
+    /**
+     * Computes the row of the conversion table for one source currency, with the rates
+     * which hold at a timestamp.
+     * The currencies are the nodes of the graph and the pairs which have a rate at the
+     * timestamp are the edges.
+     * The graph is traversed using breadth-first search and the rate saved for a
+     * currency is the one of the first path that reaches it, which is the same
+     * rate a search for only that currency would stop at.
+     * <p>
+     * The rate is saved with the timestamps in which it holds: the ones in which every
+     * rate on its path holds and no pair gets its first rate, since a new pair can
+     * change the path.
+     *
+     * @param source    the id of the source currency
+     * @param timestamp the timestamp of the rates
+     * @return the new row
+     */
+    private ConversionRow computeRow(final int source, final int timestamp) {
+        ConversionRow row = new ConversionRow(currencyCount);
+        Arrays.fill(visited, false);
+
+        // the timestamps between which the graph has the same pairs
+        long graphStart = Long.MIN_VALUE;
+        long graphEnd = Long.MAX_VALUE;
+        for (int edge = 0; edge < edgeTotal; edge++) {
+            long first = edgeSeries[edge].firstTimestamp();
+            if (first <= timestamp) {
+                graphStart = Math.max(graphStart, first);
+            } else {
+                graphEnd = Math.min(graphEnd, first);
+            }
+        }
+        Arrays.fill(row.starts, graphStart);
+        Arrays.fill(row.ends, graphEnd);
+
+        // start with the source currency
+        int head = 0;
+        int tail = 0;
+        queue[tail] = source;
+        queueRates[tail] = 1.0;
+        queueStarts[tail] = graphStart;
+        queueEnds[tail] = graphEnd;
+        tail++;
 
         // bfs
-        while (!queue.isEmpty()) {
-            // remove the first element from the queue
-            ExchangeInputFormat current = queue.poll();
-
-            // get the currency and rate
-            String currentCurrency = current.getFrom();
-            double currentRate = current.getRate();
-
-            // mark the currency as visited
-            visited.add(currentCurrency);
-
-            // get neighbors of the current currency
-            List<ExchangeInputFormat> neighbors = graph.getOrDefault(currentCurrency,
-                    new ArrayList<>());
-            for (ExchangeInputFormat neighbor : neighbors) {
-                String nextCurrency = neighbor.getTo();
-                double nextRate = currentRate * neighbor.getRate();
-
-                // check if the target currency is reached
-                if (nextCurrency.equals(currencyTo)) {
-                    // return the exchange rate
-                    return nextRate;
+        while (head < tail) {
+            int current = queue[head];
+            double currentRate = queueRates[head];
+            long currentStart = queueStarts[head];
+            long currentEnd = queueEnds[head];
+            head++;
+
+            // a currency added to the queue more than once is expanded only the first time
+            if (visited[current]) {
+                continue;
+            }
+            visited[current] = true;
+
+            for (int i = 0; i < edgeCounts[current]; i++) {
+                int edge = edgeIds[current][i];
+                RateSeries series = edgeSeries[edge];
+                int version = series.versionAt(timestamp);
+                if (version < 0) {
+                    // the pair has no rate yet
+                    continue;
+                }
+
+                int next = edgeTargets[current][i];
+                double nextRate = currentRate * series.rate(version);
+                long nextStart = Math.max(currentStart, series.start(version));
+                long nextEnd = Math.min(currentEnd, series.end(version));
+
+                // save the rate of the first path that reaches the currency
+                if (row.parentEdges[next] == NO_EDGE) {
+                    row.parentEdges[next] = edge;
+                    row.rates[next] = nextRate;
+                    row.starts[next] = nextStart;
+                    row.ends[next] = nextEnd;
                 }
 
                 // if the currency is not visited, add it to the queue
-                if (!visited.contains(nextCurrency)) {
-                    queue.add(new ExchangeInputFormat(nextCurrency, nextCurrency, nextRate, 0));
+                if (!visited[next]) {
+                    queue[tail] = next;
+                    queueRates[tail] = nextRate;
+                    queueStarts[tail] = nextStart;
+                    queueEnds[tail] = nextEnd;
+                    tail++;
                 }
             }
         }
+        return row;
+    }
+
+    /**
+     * The rates from one currency to all the others, each with the timestamps in
+     * which it holds, from its start, inclusive, to its end, exclusive. A row is not
+     * changed after it is computed; a row with shorter ranges is made instead.
+     */
+    private static final class ConversionRow {
+        private final double[] rates;
+        private final int[] parentEdges;
+        private final long[] starts;
+        private final long[] ends;
+
+        ConversionRow(final int currencies) {
+            rates = new double[currencies];
+            parentEdges = new int[currencies];
+            starts = new long[currencies];
+            ends = new long[currencies];
+            Arrays.fill(parentEdges, NO_EDGE);
+        }
 
-        // return 0 if the target currency was not reached
-        return 0;
+        private ConversionRow(final ConversionRow row, final long[] newEnds) {
+            rates = row.rates;
+            parentEdges = row.parentEdges;
+            starts = row.starts;
+            ends = newEnds;
+        }
+
+        /**
+         * Tells if the rate to a currency holds at a timestamp.
+         */
+        boolean holds(final int currency, final int timestamp) {
+            return currency < rates.length
+                    && starts[currency] <= timestamp && timestamp < ends[currency];
+        }
+
+        /**
+         * Tells if the search reached a currency.
+         */
+        boolean reaches(final int currency) {
+            return currency < rates.length && parentEdges[currency] != NO_EDGE;
+        }
+
+        /**
+         * Makes a row whose rates end at a timestamp, at the latest.
+         */
+        ConversionRow cutAll(final int timestamp) {
+            boolean[] all = new boolean[rates.length];
+            Arrays.fill(all, true);
+            return cut(all, timestamp);
+        }
+
+        /**
+         * Makes a row whose rates to the given currencies end at a timestamp, at the latest.
+         * A rate which starts after the timestamp does not hold anymore.
+         */
+        ConversionRow cut(final boolean[] currencies, final int timestamp) {
+            long[] newEnds = ends.clone();
+            for (int i = 0; i < rates.length; i++) {
+                if (currencies[i]) {
+                    newEnds[i] = Math.max(starts[i], Math.min(ends[i], timestamp));
+                }
+            }
+            return new ConversionRow(this, newEnds);
+        }
     }
 }
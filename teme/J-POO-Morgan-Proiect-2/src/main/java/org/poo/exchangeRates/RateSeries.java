@@ -0,0 +1,115 @@
+package org.poo.exchangeRates;
+
+import java.util.Arrays;
+
+/**
+ * The rates of one pair of currencies, one version for every timestamp at which
+ * the pair got a rate, sorted by timestamp.
+ * <p>
+ * The rate of the pair at a timestamp is the one of the last version at or before it,
+ * so a version holds from its timestamp until the timestamp of the next one.
+ * Before its first version, the pair has no rate.
+ */
+final class RateSeries {
+    private static final int INITIAL_CAPACITY = 2;
+
+    private int[] timestamps = new int[INITIAL_CAPACITY];
+    private double[] rates = new double[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Adds a version of the rate.
+     * A second rate for the same timestamp is not kept: the first one stays, like the
+     * search through the rates always took the first rate added for a pair.
+     *
+     * @param timestamp the timestamp from which the rate holds
+     * @param rate      the rate
+     * @return true if the version was added
+     */
+    boolean add(final int timestamp, final double rate) {
+        int index = upperBound(timestamp);
+        if (index > 0 && timestamps[index - 1] == timestamp) {
+            return false;
+        }
+
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            rates = Arrays.copyOf(rates, size * 2);
+        }
+        System.arraycopy(timestamps, index, timestamps, index + 1, size - index);
+        System.arraycopy(rates, index, rates, index + 1, size - index);
+        timestamps[index] = timestamp;
+        rates[index] = rate;
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns the timestamp of the first version, from which the pair has a rate.
+     *
+     * @return the first timestamp
+     */
+    int firstTimestamp() {
+        return timestamps[0];
+    }
+
+    /**
+     * Finds the version which holds at a timestamp, with a binary search.
+     *
+     * @param timestamp the timestamp
+     * @return the position of the version, or -1 if the pair has no rate yet
+     */
+    int versionAt(final int timestamp) {
+        return upperBound(timestamp) - 1;
+    }
+
+    /**
+     * Returns the rate of a version.
+     *
+     * @param version the position of the version
+     * @return the rate
+     */
+    double rate(final int version) {
+        return rates[version];
+    }
+
+    /**
+     * Returns the first timestamp at which a version holds.
+     *
+     * @param version the position of the version
+     * @return the timestamp of the version
+     */
+    long start(final int version) {
+        return timestamps[version];
+    }
+
+    /**
+     * Returns the timestamp after the last one at which a version holds.
+     *
+     * @param version the position of the version
+     * @return the timestamp of the next version, or Long.MAX_VALUE for the last one
+     */
+    long end(final int version) {
+        if (version + 1 < size) {
+            return timestamps[version + 1];
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Finds the first version with a timestamp greater than the given one.
+     */
+    private int upperBound(final int timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[middle] <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
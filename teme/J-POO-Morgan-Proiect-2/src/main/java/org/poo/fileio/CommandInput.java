@@ -1,7 +1,9 @@
 package org.poo.fileio;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.poo.commands.CommandType;
 
 import java.util.List;
 
@@ -34,4 +36,91 @@ public final class CommandInput {
     private double minBalance;
     private List<String> accounts;
     private List<Double> amountForUsers;
+
+    // the kind of the command, resolved from its name when the name is read
+    @JsonIgnore
+    private CommandType commandType;
+
+    /**
+     * Sets the name of the command and resolves the kind of the command,
+     * so the command is dispatched without comparing its name again.
+     *
+     * @param command the name of the command
+     */
+    public void setCommand(final String command) {
+        this.command = command;
+        this.commandType = CommandType.fromName(command);
+    }
+
+    /**
+     * Returns a copy of this input, for a command which runs after the input
+     * was filled again with the next command.
+     *
+     * @return a copy of this input
+     */
+    public CommandInput copy() {
+        CommandInput copy = new CommandInput();
+        copy.command = command;
+        copy.commandType = commandType;
+        copy.email = email;
+        copy.account = account;
+        copy.newPlanType = newPlanType;
+        copy.role = role;
+        copy.currency = currency;
+        copy.target = target;
+        copy.description = description;
+        copy.cardNumber = cardNumber;
+        copy.commerciant = commerciant;
+        copy.receiver = receiver;
+        copy.alias = alias;
+        copy.accountType = accountType;
+        copy.splitPaymentType = splitPaymentType;
+        copy.type = type;
+        copy.location = location;
+        copy.timestamp = timestamp;
+        copy.startTimestamp = startTimestamp;
+        copy.endTimestamp = endTimestamp;
+        copy.interestRate = interestRate;
+        copy.spendingLimit = spendingLimit;
+        copy.depositLimit = depositLimit;
+        copy.amount = amount;
+        copy.minBalance = minBalance;
+        copy.accounts = accounts;
+        copy.amountForUsers = amountForUsers;
+        return copy;
+    }
+
+    /**
+     * Resets every field to its default value, so the same object can be filled
+     * again with the next command when the input is read as a stream.
+     */
+    public void clear() {
+        command = null;
+        commandType = null;
+        email = null;
+        account = null;
+        newPlanType = null;
+        role = null;
+        currency = null;
+        target = null;
+        description = null;
+        cardNumber = null;
+        commerciant = null;
+        receiver = null;
+        alias = null;
+        accountType = null;
+        splitPaymentType = null;
+        type = null;
+        location = null;
+        timestamp = 0;
+        startTimestamp = 0;
+        endTimestamp = 0;
+        interestRate = 0;
+        spendingLimit = 0;
+        depositLimit = 0;
+        amount = 0;
+        minBalance = 0;
+        accounts = null;
+        amountForUsers = null;
+    }
 }
@@ -0,0 +1,332 @@
+package org.poo.fileio;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes the input objects directly from the bytes of the input, without the
+ * reflective databinding of the ObjectMapper.
+ * <p>
+ * Every object is read field by field, with a {@link JsonScanner}: the switch on the
+ * name of the field jumps on the hash of the name, which is computed once, because
+ * the scanner returns the same string for a name it has already seen, and the value
+ * is set with its setter. The result is the same as the one of
+ * {@code objectMapper.readValue}: a field which is missing keeps its default value,
+ * null sets null or 0, the scalars are converted like Jackson does and an unknown
+ * field fails the decoding.
+ */
+public final class InputDecoder implements Closeable {
+    private final JsonScanner scanner;
+
+    /**
+     * Creates a decoder which reads from a stream.
+     *
+     * @param in the stream, which is closed with the decoder
+     */
+    public InputDecoder(final InputStream in) {
+        this(new JsonScanner(in));
+    }
+
+    /**
+     * Creates a decoder which reads from a scanner.
+     *
+     * @param scanner the scanner
+     */
+    InputDecoder(final JsonScanner scanner) {
+        this.scanner = scanner;
+    }
+
+    /**
+     * Decodes a whole input file.
+     *
+     * @param file the input file
+     * @return the decoded input
+     * @throws IOException in case of exceptions to reading
+     */
+    public static ObjectInput decode(final File file) throws IOException {
+        try (InputDecoder decoder = new InputDecoder(new FileInputStream(file))) {
+            return decoder.readInput();
+        }
+    }
+
+    /**
+     * Decodes a whole input, given as bytes.
+     *
+     * @param input the input
+     * @return the decoded input
+     * @throws IOException in case of exceptions to reading
+     */
+    public static ObjectInput decode(final byte[] input) throws IOException {
+        return new InputDecoder(new JsonScanner(input, true)).readInput();
+    }
+
+    /**
+     * Decodes one command, given as bytes.
+     *
+     * @param input the command
+     * @return the decoded command
+     * @throws IOException in case of exceptions to reading
+     */
+    public static CommandInput decodeCommand(final byte[] input) throws IOException {
+        // a single command repeats no value, so no strings are kept
+        return new InputDecoder(new JsonScanner(input, false)).readCommand();
+    }
+
+    /**
+     * Reads an ObjectInput.
+     *
+     * @return the input, or null if the value is null
+     * @throws IOException in case of exceptions to reading
+     */
+    public ObjectInput readInput() throws IOException {
+        if (!scanner.startObject("ObjectInput")) {
+            return null;
+        }
+
+        ObjectInput input = new ObjectInput();
+        String name;
+        while ((name = scanner.nextField()) != null) {
+            switch (name) {
+                case "users" -> input.setUsers(readUsers());
+                case "exchangeRates" -> input.setExchangeRates(readExchangeRates());
+                case "commands" -> input.setCommands(readCommands());
+                case "commerciants" -> input.setCommerciants(readCommerciants());
+                default -> throw scanner.unknownField("ObjectInput", name);
+            }
+        }
+        return input;
+    }
+
+    /**
+     * Reads an array of users.
+     *
+     * @return the users, or null if the value is null
+     * @throws IOException in case of exceptions to reading
+     */
+    public UserInput[] readUsers() throws IOException {
+        if (!scanner.startArray("UserInput[]")) {
+            return null;
+        }
+        List<UserInput> users = new ArrayList<>();
+        while (scanner.nextElement()) {
+            users.add(readUser());
+        }
+        return users.toArray(new UserInput[0]);
+    }
+
+    /**
+     * Reads an array of commerciants.
+     *
+     * @return the commerciants, or null if the value is null
+     * @throws IOException in case of exceptions to reading
+     */
+    public CommerciantInput[] readCommerciants() throws IOException {
+        if (!scanner.startArray("CommerciantInput[]")) {
+            return null;
+        }
+        List<CommerciantInput> commerciants = new ArrayList<>();
+        while (scanner.nextElement()) {
+            commerciants.add(readCommerciant());
+        }
+        return commerciants.toArray(new CommerciantInput[0]);
+    }
+
+    /**
+     * Reads an array of exchange rates.
+     *
+     * @return the exchange rates, or null if the value is null
+     * @throws IOException in case of exceptions to reading
+     */
+    public ExchangeInput[] readExchangeRates() throws IOException {
+        if (!scanner.startArray("ExchangeInput[]")) {
+            return null;
+        }
+        List<ExchangeInput> rates = new ArrayList<>();
+        while (scanner.nextElement()) {
+            rates.add(readExchangeRate());
+        }
+        return rates.toArray(new ExchangeInput[0]);
+    }
+
+    /**
+     * Reads an array of commands.
+     *
+     * @return the commands, or null if the value is null
+     * @throws IOException in case of exceptions to reading
+     */
+    public CommandInput[] readCommands() throws IOException {
+        if (!scanner.startArray("CommandInput[]")) {
+            return null;
+        }
+        List<CommandInput> commands = new ArrayList<>();
+        while (scanner.nextElement()) {
+            commands.add(readCommand());
+        }
+        return commands.toArray(new CommandInput[0]);
+    }
+
+    /**
+     * Reads a command into a new object.
+     *
+     * @return the command, or null if the value is null
+     * @throws IOException in case of exceptions to reading
+     */
+    public CommandInput readCommand() throws IOException {
+        if (scanner.readNull()) {
+            return null;
+        }
+        CommandInput command = new CommandInput();
+        readCommand(command);
+        return command;
+    }
+
+    /**
+     * Reads a command into the given object.
+     * The fields which are missing from the input are left unchanged.
+     *
+     * @param command the object to fill
+     * @return false if the value is null, which leaves the object unchanged
+     * @throws IOException in case of exceptions to reading
+     */
+    public boolean readCommand(final CommandInput command) throws IOException {
+        if (!scanner.startObject("CommandInput")) {
+            return false;
+        }
+        String name;
+        while ((name = scanner.nextField()) != null) {
+            switch (name) {
+                case "command" -> command.setCommand(scanner.readString(name));
+                case "email" -> command.setEmail(scanner.readString(name));
+                case "account" -> command.setAccount(scanner.readString(name));
+                case "newPlanType" -> command.setNewPlanType(scanner.readString(name));
+                case "role" -> command.setRole(scanner.readString(name));
+                case "currency" -> command.setCurrency(scanner.readString(name));
+                case "target" -> command.setTarget(scanner.readString(name));
+                case "description" -> command.setDescription(scanner.readString(name));
+                case "cardNumber" -> command.setCardNumber(scanner.readString(name));
+                case "commerciant" -> command.setCommerciant(scanner.readString(name));
+                case "receiver" -> command.setReceiver(scanner.readString(name));
+                case "alias" -> command.setAlias(scanner.readString(name));
+                case "accountType" -> command.setAccountType(scanner.readString(name));
+                case "splitPaymentType" -> command.setSplitPaymentType(scanner.readString(name));
+                case "type" -> command.setType(scanner.readString(name));
+                case "location" -> command.setLocation(scanner.readString(name));
+                case "timestamp" -> command.setTimestamp(scanner.readInt(name));
+                case "startTimestamp" -> command.setStartTimestamp(scanner.readInt(name));
+                case "endTimestamp" -> command.setEndTimestamp(scanner.readInt(name));
+                case "interestRate" -> command.setInterestRate(scanner.readDouble(name));
+                case "spendingLimit" -> command.setSpendingLimit(scanner.readDouble(name));
+                case "depositLimit" -> command.setDepositLimit(scanner.readDouble(name));
+                case "amount" -> command.setAmount(scanner.readDouble(name));
+                case "minBalance" -> command.setMinBalance(scanner.readDouble(name));
+                case "accounts" -> command.setAccounts(readStrings(name));
+                case "amountForUsers" -> command.setAmountForUsers(readDoubles(name));
+                // ignored, like the property is by the ObjectMapper
+                case "commandType" -> scanner.skipValue();
+                default -> throw scanner.unknownField("CommandInput", name);
+            }
+        }
+        return true;
+    }
+
+    private UserInput readUser() throws IOException {
+        if (!scanner.startObject("UserInput")) {
+            return null;
+        }
+
+        UserInput user = new UserInput();
+        String name;
+        while ((name = scanner.nextField()) != null) {
+            switch (name) {
+                case "firstName" -> user.setFirstName(scanner.readString(name));
+                case "lastName" -> user.setLastName(scanner.readString(name));
+                case "email" -> user.setEmail(scanner.readString(name));
+                case "birthDate" -> user.setBirthDate(scanner.readString(name));
+                case "occupation" -> user.setOccupation(scanner.readString(name));
+                default -> throw scanner.unknownField("UserInput", name);
+            }
+        }
+        return user;
+    }
+
+    private CommerciantInput readCommerciant() throws IOException {
+        if (!scanner.startObject("CommerciantInput")) {
+            return null;
+        }
+
+        CommerciantInput commerciant = new CommerciantInput();
+        String name;
+        while ((name = scanner.nextField()) != null) {
+            switch (name) {
+                case "commerciant" -> commerciant.setCommerciant(scanner.readString(name));
+                case "id" -> commerciant.setId(scanner.readInt(name));
+                case "account" -> commerciant.setAccount(scanner.readString(name));
+                case "type" -> commerciant.setType(scanner.readString(name));
+                case "cashbackStrategy" ->
+                        commerciant.setCashbackStrategy(scanner.readString(name));
+                default -> throw scanner.unknownField("CommerciantInput", name);
+            }
+        }
+        return commerciant;
+    }
+
+    private ExchangeInput readExchangeRate() throws IOException {
+        if (!scanner.startObject("ExchangeInput")) {
+            return null;
+        }
+
+        ExchangeInput rate = new ExchangeInput();
+        String name;
+        while ((name = scanner.nextField()) != null) {
+            switch (name) {
+                case "from" -> rate.setFrom(scanner.readString(name));
+                case "to" -> rate.setTo(scanner.readString(name));
+                case "rate" -> rate.setRate(scanner.readDouble(name));
+                case "timestamp" -> rate.setTimestamp(scanner.readInt(name));
+                default -> throw scanner.unknownField("ExchangeInput", name);
+            }
+        }
+        return rate;
+    }
+
+    private List<String> readStrings(final String name) throws IOException {
+        if (!scanner.startArray(name)) {
+            return null;
+        }
+        List<String> strings = new ArrayList<>();
+        while (scanner.nextElement()) {
+            strings.add(scanner.readString(name));
+        }
+        return strings;
+    }
+
+    private List<Double> readDoubles(final String name) throws IOException {
+        if (!scanner.startArray(name)) {
+            return null;
+        }
+        List<Double> values = new ArrayList<>();
+        while (scanner.nextElement()) {
+            if (scanner.readNull()) {
+                values.add(null);
+            } else {
+                values.add(scanner.readDouble(name));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Closes the input.
+     *
+     * @throws IOException in case of exceptions to closing
+     */
+    @Override
+    public void close() throws IOException {
+        scanner.close();
+    }
+}
@@ -0,0 +1,776 @@
+package org.poo.fileio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the values of a JSON document directly from its bytes, for the
+ * {@link InputDecoder}.
+ * <p>
+ * The strings are not decoded into characters while they are scanned: their bytes are
+ * hashed and looked up in a table of the strings built before, so the names of the
+ * fields and the emails, IBANs and currencies which repeat from one command to the
+ * next are built only once. The numbers are built from their digits.
+ * <p>
+ * The objects and the arrays are read member by member: {@link #nextField()} and
+ * {@link #nextElement()} return the next member, checking the commas between them.
+ */
+final class JsonScanner implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // the first and the largest size of the table of strings, powers of two
+    private static final int INITIAL_CACHE_SIZE = 256;
+    private static final int MAX_CACHE_SIZE = 131072;
+    // longer strings, like the descriptions, are not kept
+    private static final int MAX_CACHED_LENGTH = 48;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final int INT_BITS = 32;
+
+    // reads 8 bytes of the buffer as a long, the first byte in the lowest bits
+    private static final VarHandle LONGS =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final int LOG_BYTE_BITS = 3;
+    // a long with the same byte 8 times
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = ONES << (Byte.SIZE - 1);
+    private static final long QUOTES = ONES * '"';
+    private static final long BACKSLASHES = ONES * '\\';
+    private static final long SPACES = ONES * ' ';
+
+    // the decimals with at most this many digits are exact as a long and as a double
+    private static final int MAX_FAST_DIGITS = 15;
+    // the integers with at most this many digits fit in a long
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final double[] POWERS_OF_TEN = new double[MAX_FAST_DIGITS + 1];
+    private static final int DECIMAL_BASE = 10;
+    private static final int HEX_BASE = 16;
+    private static final int UNICODE_ESCAPE_DIGITS = 4;
+    private static final int FIRST_PRINTABLE = ' ';
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * DECIMAL_BASE;
+        }
+    }
+
+    // null if the whole input is in the buffer
+    private final InputStream in;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+
+    // the start of the value being read, kept when the buffer is refilled, or -1
+    private int mark = -1;
+    // the number of bytes dropped from the buffer, for the positions in the errors
+    private long dropped;
+
+    // true right after a '{' or a '[', when the next member has no comma before it
+    private boolean afterOpen;
+
+    // the strings built before, in a table with open addressing, with their bytes
+    // and their hashes; null if the strings are not kept
+    private int[] cachedHashes;
+    private byte[][] cachedBytes;
+    private String[] cachedStrings;
+    private int cachedCount;
+
+    /**
+     * Creates a scanner which reads from a stream.
+     *
+     * @param in the stream
+     */
+    JsonScanner(final InputStream in) {
+        this.in = in;
+        this.buffer = new byte[BUFFER_SIZE];
+        createCache(INITIAL_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a scanner which reads from an array.
+     *
+     * @param input        the input, which is not copied
+     * @param cacheStrings true to keep the strings, for an input in which they repeat
+     */
+    JsonScanner(final byte[] input, final boolean cacheStrings) {
+        this.in = null;
+        this.buffer = input;
+        this.limit = input.length;
+        if (cacheStrings) {
+            createCache(INITIAL_CACHE_SIZE);
+        }
+    }
+
+    /**
+     * Checks if the next value is an object, without reading it.
+     *
+     * @return true if the next value starts with '{'
+     * @throws IOException in case of exceptions to reading
+     */
+    boolean atObject() throws IOException {
+        return peek() == '{';
+    }
+
+    /**
+     * Reads the start of an object.
+     *
+     * @param type the name of the expected object, for the errors
+     * @return false if the value is null instead
+     * @throws IOException if the value is not an object or null
+     */
+    boolean startObject(final String type) throws IOException {
+        if (readNull()) {
+            return false;
+        }
+        if (peek() != '{') {
+            throw mismatch(type);
+        }
+        position++;
+        afterOpen = true;
+        return true;
+    }
+
+    /**
+     * Reads the name of the next field of the current object.
+     *
+     * @return the name, or null at the end of the object
+     * @throws IOException in case of exceptions to reading
+     */
+    String nextField() throws IOException {
+        int c = peek();
+        if (c == '}') {
+            position++;
+            afterOpen = false;
+            return null;
+        }
+        if (!afterOpen) {
+            expect(',');
+            c = peek();
+        }
+        afterOpen = false;
+        if (c != '"') {
+            throw error("Expected the name of a field");
+        }
+        position++;
+        String name = scanText();
+        expect(':');
+        return name;
+    }
+
+    /**
+     * Reads the start of an array.
+     *
+     * @param type the name of the expected array, for the errors
+     * @return false if the value is null instead
+     * @throws IOException if the value is not an array or null
+     */
+    boolean startArray(final String type) throws IOException {
+        if (readNull()) {
+            return false;
+        }
+        if (peek() != '[') {
+            throw mismatch(type);
+        }
+        position++;
+        afterOpen = true;
+        return true;
+    }
+
+    /**
+     * Moves to the next element of the current array.
+     *
+     * @return true if there is an element, false at the end of the array
+     * @throws IOException in case of exceptions to reading
+     */
+    boolean nextElement() throws IOException {
+        if (peek() == ']') {
+            position++;
+            afterOpen = false;
+            return false;
+        }
+        if (!afterOpen) {
+            expect(',');
+        }
+        afterOpen = false;
+        return true;
+    }
+
+    /**
+     * Reads a null value, if the next value is null.
+     *
+     * @return true if a null was read
+     * @throws IOException in case of exceptions to reading
+     */
+    boolean readNull() throws IOException {
+        if (peek() != 'n') {
+            return false;
+        }
+        scanLiteral("null");
+        return true;
+    }
+
+    /**
+     * Reads a string. A number or a boolean is kept as its text, like Jackson does.
+     *
+     * @param type the name of the field, for the errors
+     * @return the string, or null
+     * @throws IOException if the value is an object or an array
+     */
+    String readString(final String type) throws IOException {
+        int c = peek();
+        if (c == '"') {
+            position++;
+            return scanText();
+        }
+        if (c == 'n') {
+            scanLiteral("null");
+            return null;
+        }
+        if (c == 't' || c == 'f') {
+            String literal = c == 't' ? "true" : "false";
+            scanLiteral(literal);
+            return literal;
+        }
+        if (c == '-' || (c >= '0' && c <= '9')) {
+            scanNumber();
+            String text = numberText();
+            mark = -1;
+            return text;
+        }
+        throw mismatch(type);
+    }
+
+    /**
+     * Reads an int. A decimal is truncated and a string is parsed, like Jackson does.
+     *
+     * @param type the name of the field, for the errors
+     * @return the value, 0 for null
+     * @throws IOException if the value is not a number, null or a numeric string
+     */
+    int readInt(final String type) throws IOException {
+        int c = peek();
+        if (c == '-' || (c >= '0' && c <= '9')) {
+            boolean integral = scanNumber();
+            double value = integral ? integralValue() : decimalValue();
+            mark = -1;
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw error("Numeric value out of range of int in " + type);
+            }
+            return (int) value;
+        }
+        if (c == 'n') {
+            scanLiteral("null");
+            return 0;
+        }
+        if (c == '"') {
+            position++;
+            String text = scanText().trim();
+            try {
+                return text.isEmpty() ? 0 : Integer.parseInt(text);
+            } catch (NumberFormatException e) {
+                throw error("Cannot decode an int from \"" + text + "\" in " + type);
+            }
+        }
+        throw mismatch(type);
+    }
+
+    /**
+     * Reads a double. A string is parsed, like Jackson does.
+     *
+     * @param type the name of the field, for the errors
+     * @return the value, 0 for null
+     * @throws IOException if the value is not a number, null or a numeric string
+     */
+    double readDouble(final String type) throws IOException {
+        int c = peek();
+        if (c == '-' || (c >= '0' && c <= '9')) {
+            boolean integral = scanNumber();
+            double value = integral ? integralValue() : decimalValue();
+            mark = -1;
+            return value;
+        }
+        if (c == 'n') {
+            scanLiteral("null");
+            return 0;
+        }
+        if (c == '"') {
+            position++;
+            String text = scanText().trim();
+            try {
+                return text.isEmpty() ? 0 : Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw error("Cannot decode a double from \"" + text + "\" in " + type);
+            }
+        }
+        throw mismatch(type);
+    }
+
+    /**
+     * Skips the next value, with everything it holds.
+     *
+     * @throws IOException in case of exceptions to reading
+     */
+    void skipValue() throws IOException {
+        int c = peek();
+        if (c == '{') {
+            position++;
+            afterOpen = true;
+            while (nextField() != null) {
+                skipValue();
+            }
+        } else if (c == '[') {
+            position++;
+            afterOpen = true;
+            while (nextElement()) {
+                skipValue();
+            }
+        } else {
+            readString("a value");
+        }
+    }
+
+    /**
+     * Creates the exception for a field which is not known.
+     *
+     * @param type the name of the object
+     * @param name the name of the field
+     * @return the exception, with the position in the input
+     */
+    IOException unknownField(final String type, final String name) {
+        return error("Unrecognized field \"" + name + "\" of " + type);
+    }
+
+    /**
+     * Closes the stream, if there is one.
+     *
+     * @throws IOException in case of exceptions to closing
+     */
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads the text of a string, whose opening quote was read.
+     */
+    private String scanText() throws IOException {
+        mark = position;
+        while (true) {
+            // the loops work on locals, which stay in registers
+            byte[] bytes = buffer;
+            int end = limit;
+            int next = position;
+            // 8 bytes at a time, up to the first one which ends the plain text
+            while (next <= end - Long.BYTES) {
+                long special = specialBytes((long) LONGS.get(bytes, next));
+                if (special != 0) {
+                    next += Long.numberOfTrailingZeros(special) >>> LOG_BYTE_BITS;
+                    break;
+                }
+                next += Long.BYTES;
+            }
+            while (next < end && !isSpecial(bytes[next])) {
+                next++;
+            }
+            position = next;
+
+            if (next < end) {
+                byte b = bytes[next];
+                if (b == '\\') {
+                    return scanEscapedText();
+                }
+                if (b != '"') {
+                    throw error("Unescaped control character in a string");
+                }
+                break;
+            }
+            if (!fill()) {
+                throw error("Unexpected end of input in a string");
+            }
+        }
+
+        int start = mark;
+        int length = position - start;
+        position++;
+        mark = -1;
+        return cachedString(start, length);
+    }
+
+    /**
+     * Finds the quotes, the backslashes and the control characters in 8 bytes.
+     * The lowest byte which is one of them has its high bit set in the result, as
+     * may some of the bytes above it, so only the lowest one is used.
+     */
+    private static long specialBytes(final long word) {
+        long quotes = word ^ QUOTES;
+        long backslashes = word ^ BACKSLASHES;
+        return ((quotes - ONES) & ~quotes
+                | (backslashes - ONES) & ~backslashes
+                | (word - SPACES) & ~word) & HIGH_BITS;
+    }
+
+    private static boolean isSpecial(final byte b) {
+        return b == '"' || b == '\\' || (b >= 0 && b < FIRST_PRINTABLE);
+    }
+
+    /**
+     * Hashes the bytes of a string, 8 at a time.
+     */
+    private int hash(final int start, final int length) {
+        long hash = length;
+        int next = start;
+        int end = start + length;
+        for (; next <= end - Long.BYTES; next += Long.BYTES) {
+            hash = (hash + (long) LONGS.get(buffer, next)) * HASH_MULTIPLIER;
+        }
+        for (; next < end; next++) {
+            hash = (hash + buffer[next]) * HASH_MULTIPLIER;
+        }
+        return (int) (hash >>> INT_BITS);
+    }
+
+    /**
+     * Returns the string with the given bytes, reusing the one built for the same
+     * bytes before. When the table is full, the new strings are not kept.
+     */
+    private String cachedString(final int start, final int length) {
+        if (cachedStrings == null || length > MAX_CACHED_LENGTH) {
+            return new String(buffer, start, length, StandardCharsets.UTF_8);
+        }
+        int hash = hash(start, length);
+        int mask = cachedStrings.length - 1;
+        int slot = hash & mask;
+        while (cachedStrings[slot] != null) {
+            if (cachedHashes[slot] == hash && Arrays.equals(cachedBytes[slot], 0,
+                    cachedBytes[slot].length, buffer, start, start + length)) {
+                return cachedStrings[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        String text = new String(buffer, start, length, StandardCharsets.UTF_8);
+        // the table is kept at most half full
+        if (cachedCount * 2 >= cachedStrings.length) {
+            if (cachedStrings.length == MAX_CACHE_SIZE) {
+                return text;
+            }
+            growCache();
+            return cachedString(start, length);
+        }
+        cachedHashes[slot] = hash;
+        cachedBytes[slot] = Arrays.copyOfRange(buffer, start, start + length);
+        cachedStrings[slot] = text;
+        cachedCount++;
+        return text;
+    }
+
+    private void createCache(final int size) {
+        cachedHashes = new int[size];
+        cachedBytes = new byte[size][];
+        cachedStrings = new String[size];
+        cachedCount = 0;
+    }
+
+    private void growCache() {
+        int[] hashes = cachedHashes;
+        byte[][] bytes = cachedBytes;
+        String[] strings = cachedStrings;
+        createCache(strings.length * 2);
+
+        int mask = cachedStrings.length - 1;
+        for (int i = 0; i < strings.length; i++) {
+            if (strings[i] != null) {
+                int slot = hashes[i] & mask;
+                while (cachedStrings[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                cachedHashes[slot] = hashes[i];
+                cachedBytes[slot] = bytes[i];
+                cachedStrings[slot] = strings[i];
+                cachedCount++;
+            }
+        }
+    }
+
+    /**
+     * Reads the rest of a string which holds escapes, from the mark. The bytes between
+     * the escapes are decoded as they are, so no character is split between them.
+     */
+    private String scanEscapedText() throws IOException {
+        StringBuilder text = new StringBuilder();
+        while (true) {
+            if (position == limit && !fill()) {
+                throw error("Unexpected end of input in a string");
+            }
+            byte b = buffer[position];
+            if (b == '"' || b == '\\') {
+                text.append(new String(buffer, mark, position - mark, StandardCharsets.UTF_8));
+                position++;
+                mark = -1;
+                if (b == '"') {
+                    return text.toString();
+                }
+                text.append(scanEscape());
+                mark = position;
+            } else if (b >= 0 && b < FIRST_PRINTABLE) {
+                throw error("Unescaped control character in a string");
+            } else {
+                position++;
+            }
+        }
+    }
+
+    private char scanEscape() throws IOException {
+        int c = nextByte();
+        return switch (c) {
+            case '"', '\\', '/' -> (char) c;
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> scanUnicodeEscape();
+            default -> throw error("Unrecognized escape in a string");
+        };
+    }
+
+    private char scanUnicodeEscape() throws IOException {
+        int value = 0;
+        for (int i = 0; i < UNICODE_ESCAPE_DIGITS; i++) {
+            int digit = Character.digit(nextByte(), HEX_BASE);
+            if (digit < 0) {
+                throw error("Invalid unicode escape in a string");
+            }
+            value = value * HEX_BASE + digit;
+        }
+        return (char) value;
+    }
+
+    /**
+     * Reads a number, checking its syntax, and leaves the mark at its first byte.
+     *
+     * @return true if the number has no fraction and no exponent
+     */
+    private boolean scanNumber() throws IOException {
+        mark = position;
+        boolean integral = true;
+        if (peekByte() == '-') {
+            position++;
+        }
+        int c = peekByte();
+        if (c == '0') {
+            position++;
+        } else if (c >= '1' && c <= '9') {
+            skipDigits();
+        } else {
+            throw error("Invalid number");
+        }
+
+        if (peekByte() == '.') {
+            integral = false;
+            position++;
+            if (skipDigits() == 0) {
+                throw error("Invalid number, no digits after the decimal point");
+            }
+        }
+        c = peekByte();
+        if (c == 'e' || c == 'E') {
+            integral = false;
+            position++;
+            c = peekByte();
+            if (c == '+' || c == '-') {
+                position++;
+            }
+            if (skipDigits() == 0) {
+                throw error("Invalid number, no digits in the exponent");
+            }
+        }
+        checkEndOfValue();
+        return integral;
+    }
+
+    private int skipDigits() throws IOException {
+        int count = 0;
+        while (true) {
+            byte[] bytes = buffer;
+            int end = limit;
+            int next = position;
+            while (next < end && bytes[next] >= '0' && bytes[next] <= '9') {
+                next++;
+            }
+            count += next - position;
+            position = next;
+            if (next < end || !fill()) {
+                return count;
+            }
+        }
+    }
+
+    private String numberText() {
+        return new String(buffer, mark, position - mark, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns the value of the integer between the mark and the position, converted
+     * like Jackson converts an int or a long to a double.
+     */
+    private double integralValue() {
+        int start = buffer[mark] == '-' ? mark + 1 : mark;
+        if (position - start > MAX_LONG_DIGITS) {
+            return Double.parseDouble(numberText());
+        }
+        long value = 0;
+        for (int i = start; i < position; i++) {
+            value = value * DECIMAL_BASE + (buffer[i] - '0');
+        }
+        return start > mark ? -value : value;
+    }
+
+    /**
+     * Returns the value of the decimal between the mark and the position. A decimal
+     * with at most 15 digits and no exponent is built as its digits divided by a power
+     * of ten: both are exact doubles, so the division is rounded once, to the same
+     * double as the one parsed from the text.
+     */
+    private double decimalValue() {
+        boolean negative = buffer[mark] == '-';
+        long digits = 0;
+        int digitCount = 0;
+        int fractionDigits = -1;
+        for (int i = negative ? mark + 1 : mark; i < position; i++) {
+            byte b = buffer[i];
+            if (b == '.') {
+                fractionDigits = 0;
+            } else if (b >= '0' && b <= '9' && digitCount < MAX_FAST_DIGITS) {
+                digits = digits * DECIMAL_BASE + (b - '0');
+                digitCount++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else {
+                // an exponent or too many digits
+                return Double.parseDouble(numberText());
+            }
+        }
+
+        double value = digits / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private void scanLiteral(final String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (nextByte() != literal.charAt(i)) {
+                throw error("Unrecognized token, expected " + literal);
+            }
+        }
+        checkEndOfValue();
+    }
+
+    private void checkEndOfValue() throws IOException {
+        int c = peekByte();
+        if (c != -1 && c != ' ' && c != '\n' && c != '\r' && c != '\t'
+                && c != ',' && c != ']' && c != '}') {
+            throw error("Unexpected character after a value");
+        }
+    }
+
+    private void expect(final char c) throws IOException {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        position++;
+    }
+
+    /**
+     * Returns the next byte which is not a space, without reading it.
+     *
+     * @return the byte, or -1 at the end of the input
+     */
+    private int peek() throws IOException {
+        while (true) {
+            byte[] bytes = buffer;
+            int end = limit;
+            int next = position;
+            while (next < end) {
+                byte b = bytes[next];
+                if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                    position = next;
+                    return b;
+                }
+                next++;
+            }
+            position = next;
+            if (!fill()) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the next byte, without reading it.
+     *
+     * @return the byte, or -1 at the end of the input
+     */
+    private int peekByte() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private int nextByte() throws IOException {
+        if (position == limit && !fill()) {
+            throw error("Unexpected end of input");
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Reads more bytes into the buffer, keeping the ones from the mark.
+     *
+     * @return false at the end of the input
+     */
+    private boolean fill() throws IOException {
+        if (in == null) {
+            return false;
+        }
+        int keep = mark >= 0 ? mark : position;
+        if (keep > 0) {
+            System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+            limit -= keep;
+            position -= keep;
+            if (mark >= 0) {
+                mark = 0;
+            }
+            dropped += keep;
+        } else if (limit == buffer.length) {
+            // the value being read fills the buffer
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read <= 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    private IOException mismatch(final String type) throws IOException {
+        int c = peek();
+        String found = c == -1 ? "the end of the input" : "'" + (char) c + "'";
+        return error("Cannot decode " + type + " from " + found);
+    }
+
+    private IOException error(final String message) {
+        return new IOException(message + " at byte " + (dropped + position));
+    }
+}
@@ -0,0 +1,134 @@
+package org.poo.fileio;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Reads an input file as a stream, instead of loading the whole ObjectInput.
+ * The users, commerciants and exchange rates are read first, with
+ * {@link #readSetup()}, then the commands are decoded one at a time with
+ * {@link #nextCommand(CommandInput)}, so only one command is in memory at once.
+ * <p>
+ * The commands can be streamed only if they come after the other sections, as in
+ * the test files. Otherwise, they are read into memory together with the setup.
+ * The objects are decoded with the {@link InputDecoder}.
+ */
+public final class StreamingObjectInput implements Closeable {
+    private final JsonScanner scanner;
+    private final InputDecoder decoder;
+
+    // true while the scanner is inside the commands array
+    private boolean streamingCommands = false;
+
+    // the commands, if they had to be read before the setup sections
+    private CommandInput[] bufferedCommands;
+    private int bufferedIndex = 0;
+
+    /**
+     * Opens the input file.
+     *
+     * @param file the input file
+     * @throws IOException if the file cannot be opened or is not a JSON object
+     */
+    public StreamingObjectInput(final File file) throws IOException {
+        this.scanner = new JsonScanner(new FileInputStream(file));
+        this.decoder = new InputDecoder(scanner);
+        if (!scanner.atObject()) {
+            scanner.close();
+            throw new IOException("The input file " + file + " is not a JSON object");
+        }
+        scanner.startObject("ObjectInput");
+    }
+
+    /**
+     * Reads the users, commerciants and exchange rates, stopping at the start of
+     * the commands array. A missing section is returned as an empty array.
+     *
+     * @return an ObjectInput holding the setup sections
+     * @throws IOException in case of exceptions to reading
+     */
+    public ObjectInput readSetup() throws IOException {
+        ObjectInput setup = new ObjectInput();
+
+        String fieldName;
+        while ((fieldName = scanner.nextField()) != null) {
+            switch (fieldName) {
+                case "users":
+                    setup.setUsers(decoder.readUsers());
+                    break;
+                case "commerciants":
+                    setup.setCommerciants(decoder.readCommerciants());
+                    break;
+                case "exchangeRates":
+                    setup.setExchangeRates(decoder.readExchangeRates());
+                    break;
+                case "commands":
+                    if (setup.getUsers() != null && setup.getCommerciants() != null
+                            && setup.getExchangeRates() != null) {
+                        // the setup is complete, the commands will be streamed
+                        streamingCommands = scanner.startArray("CommandInput[]");
+                        return fillMissingSections(setup);
+                    }
+                    bufferedCommands = decoder.readCommands();
+                    break;
+                default:
+                    scanner.skipValue();
+                    break;
+            }
+        }
+        return fillMissingSections(setup);
+    }
+
+    /**
+     * Decodes the next command into the given object, which is cleared first.
+     * The same object can be passed for every command.
+     *
+     * @param command the object to fill
+     * @return the filled command, or null if there are no more commands
+     * @throws IOException in case of exceptions to reading
+     */
+    public CommandInput nextCommand(final CommandInput command) throws IOException {
+        if (bufferedCommands != null) {
+            if (bufferedIndex == bufferedCommands.length) {
+                return null;
+            }
+            return bufferedCommands[bufferedIndex++];
+        }
+
+        if (!streamingCommands) {
+            return null;
+        }
+        command.clear();
+        if (!scanner.nextElement() || !decoder.readCommand(command)) {
+            // the end of the commands array
+            streamingCommands = false;
+            return null;
+        }
+        return command;
+    }
+
+    /**
+     * Closes the input file.
+     *
+     * @throws IOException in case of exceptions to closing
+     */
+    @Override
+    public void close() throws IOException {
+        scanner.close();
+    }
+
+    private static ObjectInput fillMissingSections(final ObjectInput setup) {
+        if (setup.getUsers() == null) {
+            setup.setUsers(new UserInput[0]);
+        }
+        if (setup.getCommerciants() == null) {
+            setup.setCommerciants(new CommerciantInput[0]);
+        }
+        if (setup.getExchangeRates() == null) {
+            setup.setExchangeRates(new ExchangeInput[0]);
+        }
+        return setup;
+    }
+}
@@ -0,0 +1,53 @@
+package org.poo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for the balance of an account crossing one of its thresholds:
+ * going near its minimum balance (a warning for its cards), reaching it (its cards
+ * would be frozen) or going back above them.
+ */
+@Name("org.poo.BalanceThreshold")
+@Label("Balance Threshold")
+@Category({"J. POO Morgan", "Accounts"})
+@Description("A change of the status given to the cards of an account by its balance")
+@Enabled(false)
+@StackTrace(false)
+public final class BalanceThresholdEvent extends Event {
+
+    @Label("Previous Status")
+    @Description("active, warning or frozen")
+    private String previousStatus;
+
+    @Label("Status")
+    @Description("active, warning or frozen")
+    private String status;
+
+    @Label("Balance")
+    private double balance;
+
+    @Label("Minimum Balance")
+    private double minBalance;
+
+    /**
+     * Sets the fields of the event.
+     *
+     * @param previous the status before the balance changed
+     * @param current  the status after the balance changed
+     * @param amount   the new balance
+     * @param minimum  the minimum balance of the account
+     */
+    public void set(final String previous, final String current, final double amount,
+                    final double minimum) {
+        previousStatus = previous;
+        status = current;
+        balance = amount;
+        minBalance = minimum;
+    }
+}
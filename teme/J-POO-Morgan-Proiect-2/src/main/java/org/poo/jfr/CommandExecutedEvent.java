@@ -0,0 +1,74 @@
+package org.poo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one command executed by the bank. Its duration is the
+ * time the command took, from {@link #begin()} to {@link #record}.
+ * <p>
+ * Like the other events of the bank, it is disabled unless the recording uses the
+ * bank.jfc settings, which enable it.
+ */
+@Name("org.poo.CommandExecuted")
+@Label("Command Executed")
+@Category({"J. POO Morgan", "Commands"})
+@Description("A command executed by the bank")
+@Enabled(false)
+@StackTrace(false)
+public final class CommandExecutedEvent extends Event {
+
+    /**
+     * The outcome of a command which wrote no error.
+     */
+    public static final String SUCCESS = "success";
+
+    /**
+     * The outcome of a command which wrote an error, like "Account not found".
+     */
+    public static final String ERROR = "error";
+
+    /**
+     * The outcome of a command which threw an exception.
+     */
+    public static final String EXCEPTION = "exception";
+
+    @Label("Command")
+    private String command;
+
+    @Label("Command Timestamp")
+    @Description("The timestamp of the command, from the input")
+    private int commandTimestamp;
+
+    @Label("IBAN")
+    @Description("The account of the command, if it has one")
+    private String iban;
+
+    @Label("Outcome")
+    private String outcome;
+
+    /**
+     * Ends the event and commits it, if the recording keeps it.
+     *
+     * @param commandName the name of the command
+     * @param timestamp   the timestamp of the command
+     * @param account     the IBAN of the account of the command, or null
+     * @param result      {@link #SUCCESS}, {@link #ERROR} or {@link #EXCEPTION}
+     */
+    public void record(final String commandName, final int timestamp,
+                       final String account, final String result) {
+        end();
+        if (shouldCommit()) {
+            command = commandName;
+            commandTimestamp = timestamp;
+            iban = account;
+            outcome = result;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.poo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a conversion between two currencies. The rate is read
+ * from the conversion table, so the event has no duration; the path length tells
+ * through how many rates the search went to find it.
+ */
+@Name("org.poo.CurrencyConversion")
+@Label("Currency Conversion")
+@Category({"J. POO Morgan", "Exchange Rates"})
+@Description("A rate read from the conversion table")
+@Enabled(false)
+@StackTrace(false)
+public final class CurrencyConversionEvent extends Event {
+
+    @Label("From")
+    private String from;
+
+    @Label("To")
+    private String to;
+
+    @Label("Timestamp")
+    @Description("The timestamp whose rates were used")
+    private int timestamp;
+
+    @Label("Path Length")
+    @Description("The number of exchange rates multiplied to find the rate, -1 if there is none")
+    private int pathLength;
+
+    @Label("Rate")
+    private double rate;
+
+    /**
+     * Sets the fields of the event.
+     *
+     * @param currencyFrom the source currency, or null if it has no rate
+     * @param currencyTo   the target currency, or null if it has no rate
+     * @param at           the timestamp of the conversion
+     * @param length       the length of the path between the currencies, or -1
+     * @param conversion   the rate, or 0 if there is no path
+     */
+    public void set(final String currencyFrom, final String currencyTo, final int at,
+                    final int length, final double conversion) {
+        from = currencyFrom;
+        to = currencyTo;
+        timestamp = at;
+        pathLength = length;
+        rate = conversion;
+    }
+}
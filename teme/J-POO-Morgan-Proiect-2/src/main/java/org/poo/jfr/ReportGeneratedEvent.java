@@ -0,0 +1,61 @@
+package org.poo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a report built by the report package. Its duration is
+ * the time the report took, from {@link #begin()} to {@link #record}.
+ */
+@Name("org.poo.ReportGenerated")
+@Label("Report Generated")
+@Category({"J. POO Morgan", "Reports"})
+@Description("A report over a time range")
+@Enabled(false)
+@StackTrace(false)
+public final class ReportGeneratedEvent extends Event {
+
+    @Label("Kind")
+    @Description("classic, savings, spendings, businessTransaction or businessCommerciant")
+    private String kind;
+
+    @Label("IBAN")
+    private String iban;
+
+    @Label("Start Timestamp")
+    private int startTimestamp;
+
+    @Label("End Timestamp")
+    private int endTimestamp;
+
+    @Label("Entries Scanned")
+    @Description("The number of transactions, operations or commerciants put in the report")
+    private int entriesScanned;
+
+    /**
+     * Ends the event and commits it, if the recording keeps it.
+     *
+     * @param reportKind the kind of the report
+     * @param account    the IBAN of the account of the report
+     * @param start      the start of the time range
+     * @param finish     the end of the time range
+     * @param scanned    the number of entries read to build the report
+     */
+    public void record(final String reportKind, final String account,
+                       final int start, final int finish, final int scanned) {
+        end();
+        if (shouldCommit()) {
+            kind = reportKind;
+            iban = account;
+            startTimestamp = start;
+            endTimestamp = finish;
+            entriesScanned = scanned;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.poo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a split payment taken out of the registry, because
+ * every participant accepted it, one of them could not pay or one of them rejected it.
+ */
+@Name("org.poo.SplitPaymentResolved")
+@Label("Split Payment Resolved")
+@Category({"J. POO Morgan", "Split Payments"})
+@Description("A split payment which is no longer pending")
+@Enabled(false)
+@StackTrace(false)
+public final class SplitPaymentResolvedEvent extends Event {
+
+    @Label("Split Payment Type")
+    private String splitPaymentType;
+
+    @Label("Outcome")
+    @Description("accepted, insufficientFunds or rejected")
+    private String outcome;
+
+    @Label("Participants")
+    private int participants;
+
+    @Label("Total Amount")
+    private double totalAmount;
+
+    @Label("Currency")
+    private String currency;
+
+    @Label("Created At")
+    @Description("The timestamp of the command which created the split payment")
+    private int createdAt;
+
+    /**
+     * Sets the fields of the event.
+     *
+     * @param type            the type of the split payment, equal or custom
+     * @param result          how the split payment was resolved
+     * @param accounts        the number of participants
+     * @param amount          the total amount
+     * @param paymentCurrency the currency of the amount
+     * @param timestamp       the timestamp of the split payment
+     */
+    public void set(final String type, final String result, final int accounts,
+                    final double amount, final String paymentCurrency, final int timestamp) {
+        splitPaymentType = type;
+        outcome = result;
+        participants = accounts;
+        totalAmount = amount;
+        currency = paymentCurrency;
+        createdAt = timestamp;
+    }
+}
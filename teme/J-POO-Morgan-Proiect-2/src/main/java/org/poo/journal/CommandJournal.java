@@ -0,0 +1,274 @@
+package org.poo.journal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.poo.fileio.CommandInput;
+import org.poo.fileio.InputDecoder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the executed commands, used to rebuild the state of the bank
+ * after the process stops in the middle of a run.
+ * <p>
+ * Every record holds the length of the payload, the CRC32 of the rest of the record,
+ * the position of the command in the input and the command itself, as JSON.
+ * The records are written with group commit: they are collected in memory and written
+ * and forced to the disk together, every groupSize records, so the run does not wait
+ * for the disk after every command. A crash may lose the last group, or leave a part
+ * of it in the file; the records after the first one which is incomplete or does not
+ * match its checksum are dropped when the journal is opened again.
+ */
+public final class CommandJournal implements Closeable {
+    private static final int HEADER_SIZE = Integer.BYTES * 3;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    // the largest part of the file mapped at once; a mapping cannot go over 2 GB
+    private static final int WINDOW_SIZE = 1024 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final ObjectWriter writer;
+    private final int groupSize;
+
+    // the end of the last valid record found when the journal was opened
+    private final long recoveredEnd;
+
+    // the position of the first and the next command in the journal
+    private int firstSequence = -1;
+    private int nextSequence = 0;
+
+    // the records which are not written yet
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private int pendingRecords = 0;
+
+    private final CRC32 checksum = new CRC32();
+
+    private CommandJournal(final FileChannel channel, final ObjectMapper objectMapper,
+                           final int groupSize) throws IOException {
+        this.channel = channel;
+        this.writer = objectMapper.copy()
+                .setSerializationInclusion(JsonInclude.Include.NON_DEFAULT)
+                .writerFor(CommandInput.class);
+        this.groupSize = groupSize;
+
+        // find the valid records and drop what follows them
+        this.recoveredEnd = scan(channel.size(), null, 0);
+        channel.truncate(recoveredEnd);
+        channel.position(recoveredEnd);
+    }
+
+    /**
+     * Opens the journal from a file, creating the file if it does not exist.
+     *
+     * @param file         the journal file
+     * @param objectMapper the mapper used to encode the commands
+     * @param groupSize    the number of records written and forced together
+     * @return the journal
+     * @throws IOException if the file cannot be opened
+     */
+    public static CommandJournal open(final Path file, final ObjectMapper objectMapper,
+                                      final int groupSize) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new CommandJournal(channel, objectMapper, groupSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the position in the input of the first command in the journal.
+     *
+     * @return the position of the first command, or -1 if the journal is empty
+     */
+    public int getFirstSequence() {
+        return firstSequence;
+    }
+
+    /**
+     * Returns the position in the input of the command after the last one in the journal.
+     *
+     * @return the position of the next command
+     */
+    public int getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Reads the commands found in the journal when it was opened, in order, starting
+     * with the one at the given position in the input. The commands appended since
+     * then are not read.
+     *
+     * @param fromSequence the position of the first command to read
+     * @param action       receives every command
+     * @throws IOException if the journal cannot be read
+     */
+    public void replay(final int fromSequence,
+                       final Consumer<CommandInput> action) throws IOException {
+        scan(recoveredEnd, action, fromSequence);
+    }
+
+    /**
+     * Adds a command to the journal. The record is written to the disk with its group.
+     *
+     * @param sequence the position of the command in the input
+     * @param input    the command
+     * @throws IOException in case of exceptions to writing
+     */
+    public void append(final int sequence, final CommandInput input) throws IOException {
+        byte[] payload = writer.writeValueAsBytes(input);
+
+        ensurePending(HEADER_SIZE + payload.length);
+        int start = pending.position();
+        pending.putInt(payload.length);
+        pending.putInt(0);
+        pending.putInt(sequence);
+        pending.put(payload);
+
+        // the checksum covers the position of the command and the payload
+        checksum.reset();
+        checksum.update(pending.slice(start + Integer.BYTES * 2, Integer.BYTES + payload.length));
+        pending.putInt(start + Integer.BYTES, (int) checksum.getValue());
+
+        if (firstSequence < 0) {
+            firstSequence = sequence;
+        }
+        nextSequence = sequence + 1;
+
+        pendingRecords++;
+        if (pendingRecords >= groupSize) {
+            sync();
+        }
+    }
+
+    /**
+     * Writes the pending records and forces them to the disk.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    public void sync() throws IOException {
+        if (pendingRecords == 0) {
+            return;
+        }
+
+        pending.flip();
+        while (pending.hasRemaining()) {
+            channel.write(pending);
+        }
+        pending.clear();
+        pendingRecords = 0;
+
+        channel.force(false);
+    }
+
+    /**
+     * Writes the pending records and closes the file.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Makes room for a record in the buffer of pending records.
+     *
+     * @param size the size of the record
+     */
+    private void ensurePending(final int size) {
+        if (pending.remaining() >= size) {
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2,
+                pending.position() + size));
+        pending.flip();
+        larger.put(pending);
+        pending = larger;
+    }
+
+    /**
+     * Goes through the valid records at the start of the file, reading them through
+     * memory mappings of at most {@link #WINDOW_SIZE} bytes, so a journal larger than
+     * 2 GB can be read. A record which goes past the end of a window is read again from
+     * the start of the next window, which begins with it. The first and next positions
+     * of the journal are updated.
+     *
+     * @param size         the size of the part of the file to read
+     * @param action       receives the commands, or null to only check the records
+     * @param fromSequence the position of the first command given to the action
+     * @return the end of the last valid record
+     * @throws IOException if the file cannot be read
+     */
+    private long scan(final long size, final Consumer<CommandInput> action,
+                      final int fromSequence) throws IOException {
+        if (size == 0) {
+            return 0;
+        }
+
+        CRC32 recordChecksum = new CRC32();
+        long windowStart = 0;
+        while (true) {
+            long windowSize = Math.min(WINDOW_SIZE, size - windowStart);
+            MappedByteBuffer buffer =
+                    channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+
+            // the start of the first record which is not complete in the window
+            int start = 0;
+            while (buffer.remaining() >= HEADER_SIZE) {
+                start = buffer.position();
+                int length = buffer.getInt(start);
+                int expectedChecksum = buffer.getInt(start + Integer.BYTES);
+                if (length < 0 || length > WINDOW_SIZE - HEADER_SIZE) {
+                    return windowStart + start;
+                }
+                if (length > buffer.remaining() - HEADER_SIZE) {
+                    break;
+                }
+
+                recordChecksum.reset();
+                recordChecksum.update(buffer.slice(start + Integer.BYTES * 2,
+                        Integer.BYTES + length));
+                if ((int) recordChecksum.getValue() != expectedChecksum) {
+                    return windowStart + start;
+                }
+
+                buffer.position(start + Integer.BYTES * 2);
+                int sequence = buffer.getInt();
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                start = buffer.position();
+
+                if (action == null) {
+                    if (firstSequence < 0) {
+                        firstSequence = sequence;
+                    }
+                    nextSequence = sequence + 1;
+                } else if (sequence >= fromSequence) {
+                    action.accept(InputDecoder.decodeCommand(payload));
+                }
+            }
+
+            // the rest of the last window is a record cut by a crash
+            if (windowStart + windowSize == size) {
+                return windowStart + start;
+            }
+            windowStart += start;
+        }
+    }
+}
@@ -6,21 +6,136 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.poo.bankingApp.BankManager;
 import org.poo.checker.Checker;
 import org.poo.checker.CheckerConstants;
+import org.poo.fileio.InputDecoder;
 import org.poo.fileio.ObjectInput;
+import org.poo.fileio.StreamingObjectInput;
+import org.poo.output.ArrayNodeOutputSink;
+import org.poo.output.JsonGeneratorOutputSink;
+import org.poo.output.OutputSink;
+import org.poo.velocity.VelocityRule;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * The entry point to this homework. It runs the checker that tests your implementation.
  */
 public final class Main {
+    /**
+     * System property which selects the streaming input mode: the commands are read
+     * and executed one at a time, instead of loading the whole input file first.
+     * Run with -Dbank.streamingInput=true to enable it.
+     */
+    public static final String STREAMING_INPUT_PROPERTY = "bank.streamingInput";
+
+    /**
+     * System property which selects the streaming output mode: the results are written
+     * to the output file while the commands are executed, with the same pretty format.
+     * Run with -Dbank.streamingOutput=true to enable it.
+     */
+    public static final String STREAMING_OUTPUT_PROPERTY = "bank.streamingOutput";
+
+    /**
+     * System property which selects the compact streaming output: the results are
+     * written as they are produced, without indentation.
+     * Run with -Dbank.compactOutput=true to enable it.
+     */
+    public static final String COMPACT_OUTPUT_PROPERTY = "bank.compactOutput";
+
+    /**
+     * System property which sets the number of threads that execute the commands.
+     * The commands of different users run in parallel, with the same results.
+     * Run with -Dbank.parallelism=4 to use 4 threads. By default, it is 1 (serial).
+     */
+    public static final String PARALLELISM_PROPERTY = "bank.parallelism";
+
+    /**
+     * System property which sets the number of input files processed at the same time.
+     * Every file runs in its own bank, so the results do not depend on it.
+     * Run with -Dbank.fileThreads=1 to process the files one by one.
+     * By default, it is the number of processors.
+     */
+    public static final String FILE_THREADS_PROPERTY = "bank.fileThreads";
+
+    /**
+     * System property which sets the number of commands between two snapshots of the bank.
+     * Run with -Dbank.snapshotEvery=100 to save the state after every 100 commands.
+     * By default, no snapshots are written.
+     */
+    public static final String SNAPSHOT_EVERY_PROPERTY = "bank.snapshotEvery";
+
+    /**
+     * System property which sets the directory of the snapshots, "snapshots" by default.
+     */
+    public static final String SNAPSHOT_DIR_PROPERTY = "bank.snapshotDir";
+
+    /**
+     * System property which resumes every run from its snapshot after the given number
+     * of commands, read from the snapshot directory. Only the remaining commands are
+     * executed, so only their results are written. An input without that snapshot
+     * is executed from the start.
+     * Run with -Dbank.resumeAt=100 to resume after the first 100 commands.
+     */
+    public static final String RESUME_AT_PROPERTY = "bank.resumeAt";
+
+    /**
+     * System property which sets the directory of the command journals. Every run writes
+     * its commands to a journal before executing them; if the journal of an input is
+     * found when it starts, the state is rebuilt from it and only the remaining commands
+     * are executed. The journal is removed when the run ends normally.
+     * Run with -Dbank.journalDir=journals to enable it.
+     */
+    public static final String JOURNAL_DIR_PROPERTY = "bank.journalDir";
+
+    /**
+     * System property which sets the number of commands written and forced to the disk
+     * together in the journal, 64 by default.
+     */
+    public static final String JOURNAL_GROUP_SIZE_PROPERTY = "bank.journalGroupSize";
+
+    /**
+     * System property which sets the directory of the statistics. Every run keeps the
+     * latencies and counters of its commands and writes them to input.stats.json.
+     * Run with -Dbank.statsDir=stats to enable it.
+     */
+    public static final String STATS_DIR_PROPERTY = "bank.statsDir";
+
+    /**
+     * System property which sets the velocity limits checked by payOnline and
+     * cashWithdrawal, as scope:length:count:amount:action rules separated by commas.
+     * Run with -Dbank.velocityRules=card:10:3:0:reject,account:100:0:5000:flag to enable them.
+     */
+    public static final String VELOCITY_RULES_PROPERTY = "bank.velocityRules";
+
+    /**
+     * System property which writes a FrozenCard or a WarningForPay transaction at the moment
+     * the balance of an account crosses a threshold, not only the warnings of checkCardStatus.
+     * Run with -Dbank.cardStatusTransactions=true to enable it.
+     */
+    public static final String CARD_STATUS_TRANSACTIONS_PROPERTY = "bank.cardStatusTransactions";
+
+    /**
+     * the default number of commands forced to the disk together in the journal
+     */
+    public static final int JOURNAL_GROUP_SIZE = 64;
+
+    /**
+     * the number of results written between two flushes of the streaming output
+     */
+    public static final int OUTPUT_FLUSH_INTERVAL = 64;
+
     /**
      * for coding style
      */
@@ -50,18 +165,56 @@ public final class Main {
                 sorted(Comparator.comparingInt(Main::fileConsumer))
                 .toList();
 
-        for (File file : sortedFiles) {
-            String filepath = CheckerConstants.OUT_PATH + file.getName();
-            File out = new File(filepath);
-            boolean isCreated = out.createNewFile();
-            if (isCreated) {
-                action(file.getName(), filepath);
-            }
-        }
+        processFiles(sortedFiles);
 
         Checker.calculateScore();
     }
 
+    /**
+     * Processes the input files on a thread pool. Every file gets its own bank,
+     * so the files do not share any state.
+     *
+     * @param files the input files
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    private static void processFiles(final List<File> files) throws IOException {
+        int threads = Integer.getInteger(FILE_THREADS_PROPERTY,
+                Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+
+        List<Future<Void>> results = new ArrayList<>();
+        try {
+            for (File file : files) {
+                String filepath = CheckerConstants.OUT_PATH + file.getName();
+                File out = new File(filepath);
+                boolean isCreated = out.createNewFile();
+                if (isCreated) {
+                    results.add(pool.submit(() -> {
+                        action(file.getName(), filepath);
+                        return null;
+                    }));
+                }
+            }
+
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing the input files", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
     /**
      * @param filePath1 for input file
      * @param filePath2 for output file
@@ -71,12 +224,19 @@ public final class Main {
                               final String filePath2) throws IOException {
         ObjectMapper objectMapper = new ObjectMapper();
         File file = new File(CheckerConstants.TESTS_PATH + filePath1);
-        ObjectInput inputData = objectMapper.readValue(file, ObjectInput.class);
+
+        boolean compact = Boolean.getBoolean(COMPACT_OUTPUT_PROPERTY);
+        if (compact || Boolean.getBoolean(STREAMING_OUTPUT_PROPERTY)) {
+            try (OutputSink output = new JsonGeneratorOutputSink(objectMapper,
+                    new File(filePath2), !compact, OUTPUT_FLUSH_INTERVAL)) {
+                processInput(file, output);
+            }
+            return;
+        }
 
         ArrayNode output = objectMapper.createArrayNode();
 
-        BankManager myApp = new BankManager();
-        myApp.processCommands(inputData, output);
+        processInput(file, new ArrayNodeOutputSink(objectMapper, output));
 
         /*
          * TODO Implement your function here
@@ -101,6 +261,72 @@ public final class Main {
         objectWriter.writeValue(new File(filePath2), output);
     }
 
+    /**
+     * Reads the input file and processes the commands, writing the results to the sink.
+     *
+     * @param file   the input file
+     * @param output the sink which receives the results
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    private static void processInput(final File file,
+                                     final OutputSink output) throws IOException {
+        BankManager myApp = new BankManager(Integer.getInteger(PARALLELISM_PROPERTY, 1));
+
+        Path snapshotDirectory = Paths.get(System.getProperty(SNAPSHOT_DIR_PROPERTY, "snapshots"));
+        String runName = file.getName().replaceFirst("\\.json$", "");
+        int snapshotInterval = Integer.getInteger(SNAPSHOT_EVERY_PROPERTY, 0);
+        if (snapshotInterval > 0) {
+            Files.createDirectories(snapshotDirectory);
+            myApp.enableSnapshots(snapshotDirectory, runName, snapshotInterval);
+        }
+        Integer resumeAt = Integer.getInteger(RESUME_AT_PROPERTY);
+        if (resumeAt != null) {
+            Path snapshot = snapshotDirectory.resolve(runName + "-" + resumeAt + ".snapshot");
+            if (Files.exists(snapshot)) {
+                myApp.resumeFrom(snapshot);
+            }
+        }
+
+        Path journal = null;
+        String journalDirectory = System.getProperty(JOURNAL_DIR_PROPERTY);
+        if (journalDirectory != null) {
+            Files.createDirectories(Paths.get(journalDirectory));
+            journal = Paths.get(journalDirectory, runName + ".journal");
+            myApp.enableJournal(journal,
+                    Integer.getInteger(JOURNAL_GROUP_SIZE_PROPERTY, JOURNAL_GROUP_SIZE));
+        }
+
+        String statsDirectory = System.getProperty(STATS_DIR_PROPERTY);
+        if (statsDirectory != null) {
+            myApp.enableStats();
+        }
+
+        String velocityRules = System.getProperty(VELOCITY_RULES_PROPERTY);
+        if (velocityRules != null) {
+            myApp.setVelocityRules(VelocityRule.parseAll(velocityRules));
+        }
+        myApp.setCardStatusTransactions(Boolean.getBoolean(CARD_STATUS_TRANSACTIONS_PROPERTY));
+
+        if (Boolean.getBoolean(STREAMING_INPUT_PROPERTY)) {
+            try (StreamingObjectInput input = new StreamingObjectInput(file)) {
+                myApp.processCommands(input, output);
+            }
+        } else {
+            ObjectInput inputData = InputDecoder.decode(file);
+            myApp.processCommands(inputData, output);
+        }
+
+        // the run ended, so the commands do not have to be executed again
+        if (journal != null) {
+            Files.deleteIfExists(journal);
+        }
+
+        if (statsDirectory != null) {
+            Files.createDirectories(Paths.get(statsDirectory));
+            myApp.getStats().writeJson(Paths.get(statsDirectory, runName + ".stats.json"));
+        }
+    }
+
     /**
      * Method used for extracting the test number from the file name.
      *
@@ -0,0 +1,99 @@
+package org.poo.output;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+
+/**
+ * Output sink which keeps the whole output in memory, in an ArrayNode.
+ * The array is written by the caller, after all the commands were processed.
+ */
+public final class ArrayNodeOutputSink implements OutputSink {
+    private final ObjectMapper objectMapper;
+    private final ArrayNode output;
+
+    // holds the elements written through the generator, until they are added
+    private TokenBuffer buffer;
+
+    /**
+     * Constructor for the ArrayNodeOutputSink class.
+     *
+     * @param objectMapper the mapper used to read back the generated elements
+     * @param output       the array which receives the elements
+     */
+    public ArrayNodeOutputSink(final ObjectMapper objectMapper, final ArrayNode output) {
+        this.objectMapper = objectMapper;
+        this.output = output;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObjectNode addObject() {
+        drainBuffer();
+        return output.addObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(final JsonNode node) {
+        drainBuffer();
+        output.add(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JsonGenerator generator() {
+        if (buffer == null) {
+            buffer = new TokenBuffer(objectMapper, false);
+        }
+        return buffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endCommand() {
+        drainBuffer();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        drainBuffer();
+    }
+
+    /**
+     * Adds the elements written through the generator to the array.
+     */
+    private void drainBuffer() {
+        if (buffer == null) {
+            return;
+        }
+
+        try (JsonParser parser = buffer.asParser(objectMapper)) {
+            while (parser.nextToken() != null) {
+                JsonNode node = objectMapper.readTree(parser);
+                output.add(node);
+            }
+        } catch (IOException e) {
+            // the tokens were written in memory, so they can always be read back
+            throw new IllegalStateException(e);
+        }
+        buffer = null;
+    }
+}
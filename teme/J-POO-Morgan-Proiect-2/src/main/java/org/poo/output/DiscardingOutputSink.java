@@ -0,0 +1,70 @@
+package org.poo.output;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Output sink which drops every result. It is used when the commands are executed
+ * again only to rebuild the state of the bank, as their results were already written.
+ */
+public final class DiscardingOutputSink implements OutputSink {
+    private final ObjectMapper objectMapper;
+
+    // receives the elements written through the generator, until the command ends
+    private TokenBuffer buffer;
+
+    /**
+     * Constructor for the DiscardingOutputSink class.
+     *
+     * @param objectMapper the mapper of the generator given to the commands
+     */
+    public DiscardingOutputSink(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObjectNode addObject() {
+        return JsonNodeFactory.instance.objectNode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(final JsonNode node) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JsonGenerator generator() {
+        if (buffer == null) {
+            buffer = new TokenBuffer(objectMapper, false);
+        }
+        return buffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endCommand() {
+        buffer = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        buffer = null;
+    }
+}
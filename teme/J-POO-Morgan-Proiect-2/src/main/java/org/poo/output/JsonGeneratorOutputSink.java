@@ -0,0 +1,129 @@
+package org.poo.output;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Output sink which writes the elements to a file as the commands are executed.
+ * Only the nodes of the current command are kept in memory, and the file is
+ * flushed every few elements, so the output grows on disk while processing.
+ * <p>
+ * In pretty mode, the file is identical to the ArrayNode written with the
+ * default pretty printer. In compact mode, no whitespace is written.
+ */
+public final class JsonGeneratorOutputSink implements OutputSink {
+    private final ObjectMapper nodeMapper;
+    private final JsonGenerator generator;
+    private final int flushInterval;
+
+    // the nodes added by the current command, written when the command ends
+    private final List<JsonNode> pending = new ArrayList<>();
+
+    // the number of elements written since the last flush
+    private int unflushed = 0;
+
+    /**
+     * Opens the output file and starts the output array.
+     *
+     * @param objectMapper  the mapper used to write the nodes
+     * @param file          the output file
+     * @param pretty        true to indent the output, false for compact output
+     * @param flushInterval the number of elements written between two flushes
+     * @throws IOException in case of exceptions to writing
+     */
+    public JsonGeneratorOutputSink(final ObjectMapper objectMapper,
+                                   final File file,
+                                   final boolean pretty,
+                                   final int flushInterval) throws IOException {
+        ObjectWriter writer;
+        if (pretty) {
+            writer = objectMapper.writerWithDefaultPrettyPrinter();
+        } else {
+            writer = objectMapper.writer();
+        }
+
+        // the sink decides when to flush, not every written node
+        this.nodeMapper = objectMapper.copy()
+                .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = writer.createGenerator(file, JsonEncoding.UTF8);
+        this.flushInterval = flushInterval;
+        generator.writeStartArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObjectNode addObject() {
+        ObjectNode node = nodeMapper.createObjectNode();
+        pending.add(node);
+        return node;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(final JsonNode node) {
+        pending.add(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JsonGenerator generator() throws IOException {
+        writePending();
+        return generator;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endCommand() throws IOException {
+        writePending();
+        if (unflushed >= flushInterval) {
+            generator.flush();
+            unflushed = 0;
+        }
+    }
+
+    /**
+     * Writes the remaining elements, ends the output array and closes the file.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writePending();
+            generator.writeEndArray();
+        } finally {
+            generator.close();
+        }
+    }
+
+    /**
+     * Writes the nodes added by the current command.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    private void writePending() throws IOException {
+        for (JsonNode node : pending) {
+            nodeMapper.writeTree(generator, node);
+            unflushed++;
+        }
+        pending.clear();
+    }
+}
@@ -0,0 +1,101 @@
+package org.poo.output;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Output sink which passes everything to the sink of the run and remembers the
+ * nodes added by the current command, to tell if the command reported an error.
+ * <p>
+ * The commands report an error with an output object holding a "description" or an
+ * "error", for example "Account not found". Every thread has its own sink, which is
+ * given the sink of the run before every command.
+ */
+public final class OutcomeSink implements OutputSink {
+    private OutputSink delegate;
+
+    // the nodes added by the current command
+    private final List<JsonNode> added = new ArrayList<>();
+
+    /**
+     * Starts a new command, written to the given sink.
+     *
+     * @param output the sink of the run
+     */
+    public void begin(final OutputSink output) {
+        delegate = output;
+        added.clear();
+    }
+
+    /**
+     * Ends the current command and forgets its nodes.
+     */
+    public void end() {
+        delegate = null;
+        added.clear();
+    }
+
+    /**
+     * Tells if the current command reported an error.
+     *
+     * @return true if one of the nodes added by the command is an error
+     */
+    public boolean hasError() {
+        for (JsonNode node : added) {
+            JsonNode output = node.get("output");
+            if (output != null && output.isObject()
+                    && (output.has("error") || output.has("description"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObjectNode addObject() {
+        ObjectNode node = delegate.addObject();
+        added.add(node);
+        return node;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(final JsonNode node) {
+        delegate.add(node);
+        added.add(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JsonGenerator generator() throws IOException {
+        return delegate.generator();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endCommand() throws IOException {
+        delegate.endCommand();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
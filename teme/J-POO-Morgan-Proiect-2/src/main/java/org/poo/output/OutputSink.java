@@ -0,0 +1,52 @@
+package org.poo.output;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Interface for the place where the commands write their results.
+ * Every result is one element of the output array.
+ * <p>
+ * The commands can build a node and fill it, or write the element directly
+ * through the generator. The elements of a command are final once
+ * {@link #endCommand()} is called, after the command was executed.
+ */
+public interface OutputSink extends Closeable {
+
+    /**
+     * Adds a new empty object at the end of the output.
+     * The object can be filled until the command ends.
+     *
+     * @return the new object
+     */
+    ObjectNode addObject();
+
+    /**
+     * Adds a node at the end of the output.
+     *
+     * @param node the node to add
+     */
+    void add(JsonNode node);
+
+    /**
+     * Returns the generator used to write elements directly, after all the
+     * elements added so far. Every value written at the top level of the
+     * generator is one element of the output.
+     *
+     * @return the generator for the output array
+     * @throws IOException in case of exceptions to writing
+     */
+    JsonGenerator generator() throws IOException;
+
+    /**
+     * Marks the end of a command. The elements written by the command
+     * can no longer change.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    void endCommand() throws IOException;
+}
@@ -4,45 +4,83 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.account.BusinessAccount;
+import org.poo.jfr.ReportGeneratedEvent;
 import org.poo.user.User;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 
 /**
  * Represents a report of all commerciants in the business account.
- * It contains a list of CommerciantBusiness objects.
- * Each commerciant has listed its employees and managers who made transactions.
+ * It contains a list of CommerciantBusiness objects, built for the time range
+ * of the report. Each commerciant has listed its employees and managers who made
+ * transactions.
+ * <p>
+ * The amounts received by the commerciants are added up from the buckets of the
+ * {@link BusinessRollup}. The lists of the associates hold one name for every payment,
+ * so they are built from the payments of the range.
  */
 public final class BusinessCommerciantReport {
 
-    private ArrayList<CommerciantBusiness> commerciantBusinesses = new ArrayList<>();
+    // the amounts spent by the associates, added up by timestamp
+    private final BusinessRollup rollup;
 
     /**
-     * Default constructor.
+     * Constructor for the BusinessCommerciantReport class.
+     *
+     * @param rollup the amounts of the business account
      */
-    public BusinessCommerciantReport() {
+    public BusinessCommerciantReport(final BusinessRollup rollup) {
+        this.rollup = rollup;
     }
 
     /**
-     * Constructor with commerciantBusinesses.
+     * Builds the commerciants paid between two timestamps, sorted by their names.
      *
-     * @param commerciant the commerciant
+     * @param timestampStart the start timestamp
+     * @param timestampEnd   the end timestamp
+     * @return the commerciants, with their associates and the amounts they received
      */
-    public CommerciantBusiness getCommerciantBusiness(final String commerciant) {
-        for (CommerciantBusiness commerciantBusiness : commerciantBusinesses) {
-            if (commerciantBusiness.getCommerciant().equals(commerciant)) {
-                return commerciantBusiness;
+    public List<CommerciantBusiness> getCommerciantBusinesses(final int timestampStart,
+                                                              final int timestampEnd) {
+        List<CommerciantBusiness> commerciantBusinesses = new ArrayList<>();
+        HashMap<String, CommerciantBusiness> byName = new HashMap<>();
+        for (BusinessOperation payment : rollup.spendingsBetween(timestampStart, timestampEnd)) {
+            if (payment.getCommerciant() == null) {
+                continue;
+            }
+
+            CommerciantBusiness commerciantBusiness = byName.get(payment.getCommerciant());
+            if (commerciantBusiness == null) {
+                commerciantBusiness = new CommerciantBusiness(payment.getCommerciant());
+                byName.put(payment.getCommerciant(), commerciantBusiness);
+                addCommerciantBusiness(commerciantBusinesses, commerciantBusiness);
             }
+            if (payment.isManager()) {
+                commerciantBusiness.addManager(payment.getUser());
+            } else {
+                commerciantBusiness.addEmployee(payment.getUser());
+            }
+        }
+
+        BusinessTotals totals = rollup.totalsBetween(timestampStart, timestampEnd);
+        for (CommerciantBusiness commerciantBusiness : commerciantBusinesses) {
+            int id = rollup.commerciantId(commerciantBusiness.getCommerciant());
+            commerciantBusiness.addAmountSpent(totals.getReceived(id));
         }
-        return null;
+        return commerciantBusinesses;
     }
 
     /**
-     * Add a commerciant to the report.
+     * Add a commerciant to a list sorted alphabetically by the names.
      *
-     * @param commerciantBusiness the commerciant
+     * @param commerciantBusinesses the sorted list
+     * @param commerciantBusiness   the commerciant
      */
-    public void addCommerciantBusiness(final CommerciantBusiness commerciantBusiness) {
+    private static void addCommerciantBusiness(
+            final List<CommerciantBusiness> commerciantBusinesses,
+            final CommerciantBusiness commerciantBusiness) {
         // Add the commerciant alphabetically by its name
         for (int i = 0; i < commerciantBusinesses.size(); i++) {
             if (commerciantBusinesses.get(i).getCommerciant()
@@ -57,8 +95,11 @@ public final class BusinessCommerciantReport {
 
 
     /**
-     * Generate a report of all commerciants in the business account.
+     * Generate a report of the commerciants paid from the business account
+     * between two timestamps.
      *
+     * @param timestampStart the start timestamp
+     * @param timestampEnd   the end timestamp
      * @param timestamp the timestamp of the report
      * @param account   the business account
      * @return the report as a JSON object
@@ -71,6 +112,8 @@ public final class BusinessCommerciantReport {
 
         // Create the JSON report
 
+        ReportGeneratedEvent event = new ReportGeneratedEvent();
+        event.begin();
         try {
             ObjectMapper mapper = new ObjectMapper();
             ObjectNode output = mapper.createObjectNode();
@@ -86,6 +129,8 @@ public final class BusinessCommerciantReport {
             accountNode.put("statistics type", "commerciant");
 
             ArrayNode commerciantsArray = accountNode.putArray("commerciants");
+            List<CommerciantBusiness> commerciantBusinesses =
+                    getCommerciantBusinesses(timestampStart, timestampEnd);
 
             for (CommerciantBusiness commerciantBusiness : commerciantBusinesses) {
                 ObjectNode commerciantNode = mapper.createObjectNode();
@@ -109,6 +154,8 @@ public final class BusinessCommerciantReport {
             }
 
             output.put("timestamp", timestamp);
+            event.record("businessCommerciant", account.getIBAN(), timestampStart,
+                    timestampEnd, commerciantBusinesses.size());
             return output;
 
         } catch (Exception e) {
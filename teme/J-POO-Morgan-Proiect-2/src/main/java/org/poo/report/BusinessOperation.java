@@ -0,0 +1,66 @@
+package org.poo.report;
+
+import org.poo.user.User;
+
+/**
+ * An amount spent or deposited by an associate of a business account.
+ * Will be used for the business reports.
+ */
+public final class BusinessOperation {
+    private final User user;
+    private final boolean manager;
+    private final double amount;
+    private final String commerciant;
+
+    /**
+     * Constructor for the BusinessOperation class.
+     *
+     * @param user        the associate who made the operation
+     * @param manager     true if the associate is a manager, false for an employee
+     * @param amount      the amount spent or deposited
+     * @param commerciant the commerciant paid, or null for a deposit
+     */
+    public BusinessOperation(final User user, final boolean manager, final double amount,
+                             final String commerciant) {
+        this.user = user;
+        this.manager = manager;
+        this.amount = amount;
+        this.commerciant = commerciant;
+    }
+
+    /**
+     * Getter for the associate who made the operation.
+     *
+     * @return the associate
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Checks if the operation was made by a manager.
+     *
+     * @return true for a manager, false for an employee
+     */
+    public boolean isManager() {
+        return manager;
+    }
+
+    /**
+     * Getter for the amount spent or deposited.
+     *
+     * @return the amount
+     */
+    public double getAmount() {
+        return amount;
+    }
+
+    /**
+     * Getter for the commerciant paid.
+     *
+     * @return the commerciant, or null if the operation did not pay one
+     */
+    public String getCommerciant() {
+        return commerciant;
+    }
+}
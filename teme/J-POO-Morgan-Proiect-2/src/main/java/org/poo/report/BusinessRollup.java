@@ -0,0 +1,265 @@
+package org.poo.report;
+
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+import org.poo.user.User;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Keeps the amounts spent and deposited by the associates of a business account,
+ * added up by buckets of timestamps, so the totals between two timestamps are found
+ * by adding a few buckets instead of going through every operation of the range.
+ * <p>
+ * The buckets are nested: a bucket of the first level holds 16 timestamps, and
+ * 16 buckets of a level make a bucket of the next one, up to the last level, whose
+ * buckets hold 2^28 timestamps. Every operation is added to its bucket on every level.
+ * A range is split into the largest buckets which fit in it: at most 15 buckets of
+ * a level at each of its ends, so the number of buckets added grows with the logarithm
+ * of the length of the range. The timestamps at the ends of the range which do not
+ * fill a bucket of the first level are added one operation at a time, from the
+ * operations kept in order of their timestamps.
+ * <p>
+ * The buckets are added in the order of their timestamps, but not one operation
+ * at a time, so the sums can differ from the ones added one by one in the last bits.
+ */
+public final class BusinessRollup {
+    private static final int LEVEL_BITS = 4;
+    private static final int LEVELS = 7;
+
+    // the bytes of an operation in a snapshot: timestamp, user, manager, amount, commerciant
+    private static final int OPERATION_SIZE = Integer.BYTES * 3 + 1 + Double.BYTES;
+
+    // the operations, in the order of their timestamps
+    private final TimeRangeIndex<BusinessOperation> spendings = new TimeRangeIndex<>();
+    private final TimeRangeIndex<BusinessOperation> deposits = new TimeRangeIndex<>();
+
+    // levels.get(level) maps the timestamp shifted by the bits of the level to its bucket
+    private final List<HashMap<Integer, BusinessTotals>> levels = new ArrayList<>();
+
+    // the ids of the commerciants, given in the order they were first paid
+    private final HashMap<String, Integer> commerciantIds = new HashMap<>();
+
+    /**
+     * Creates a rollup without operations.
+     */
+    public BusinessRollup() {
+        for (int level = 0; level < LEVELS; level++) {
+            levels.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Records an amount spent by an associate.
+     *
+     * @param user        the associate
+     * @param manager     true if the associate is a manager, false for an employee
+     * @param amount      the amount spent
+     * @param commerciant the commerciant paid, or null if none
+     * @param timestamp   the timestamp of the payment
+     */
+    public void addSpending(final User user, final boolean manager, final double amount,
+                            final String commerciant, final int timestamp) {
+        spendings.add(timestamp, new BusinessOperation(user, manager, amount, commerciant));
+        int id = -1;
+        if (commerciant != null) {
+            id = commerciantIds.computeIfAbsent(commerciant, name -> commerciantIds.size());
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            bucket(level, timestamp).addSpending(user, manager, amount, id);
+        }
+    }
+
+    /**
+     * Records an amount deposited by an associate.
+     *
+     * @param user      the associate
+     * @param manager   true if the associate is a manager, false for an employee
+     * @param amount    the amount deposited
+     * @param timestamp the timestamp of the deposit
+     */
+    public void addDeposit(final User user, final boolean manager, final double amount,
+                           final int timestamp) {
+        deposits.add(timestamp, new BusinessOperation(user, manager, amount, null));
+        for (int level = 0; level < LEVELS; level++) {
+            bucket(level, timestamp).addDeposit(user, manager, amount);
+        }
+    }
+
+    /**
+     * Writes the operations of the rollup to a snapshot, in the order they were added.
+     * The associates must be registered in the writer already.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writeOperations(writer, spendings);
+        writeOperations(writer, deposits);
+    }
+
+    /**
+     * Reads back the operations written by {@link #writeTo(SnapshotWriter)} into this
+     * rollup, which must be empty, adding them again so the buckets are built like they
+     * were. The spendings and the deposits are added to different totals, so adding all
+     * the spendings before the deposits gives the same sums.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        int count = reader.readLength(OPERATION_SIZE);
+        for (int i = 0; i < count; i++) {
+            int timestamp = reader.readInt();
+            User user = reader.readRef(User.class);
+            boolean manager = reader.readBoolean();
+            double amount = reader.readDouble();
+            addSpending(user, manager, amount, reader.readString(), timestamp);
+        }
+        count = reader.readLength(OPERATION_SIZE);
+        for (int i = 0; i < count; i++) {
+            int timestamp = reader.readInt();
+            User user = reader.readRef(User.class);
+            boolean manager = reader.readBoolean();
+            double amount = reader.readDouble();
+            reader.readString();
+            addDeposit(user, manager, amount, timestamp);
+        }
+    }
+
+    private static void writeOperations(final SnapshotWriter writer,
+                                        final TimeRangeIndex<BusinessOperation> operations)
+            throws IOException {
+        int[] timestamps = operations.timestamps();
+        List<BusinessOperation> all = operations.getAll();
+        writer.writeInt(all.size());
+        for (int i = 0; i < timestamps.length; i++) {
+            BusinessOperation operation = all.get(i);
+            writer.writeInt(timestamps[i]);
+            writer.writeRef(operation.getUser());
+            writer.writeBoolean(operation.isManager());
+            writer.writeDouble(operation.getAmount());
+            writer.writeString(operation.getCommerciant());
+        }
+    }
+
+    /**
+     * Returns the id of a commerciant in the totals.
+     *
+     * @param commerciant the commerciant
+     * @return the id, or -1 if the commerciant was never paid
+     */
+    public int commerciantId(final String commerciant) {
+        Integer id = commerciantIds.get(commerciant);
+        if (id == null) {
+            return -1;
+        }
+        return id;
+    }
+
+    /**
+     * Returns the payments made between two timestamps, inclusive, in the order
+     * they were made.
+     *
+     * @param timestampStart the start timestamp
+     * @param timestampEnd   the end timestamp
+     * @return a read-only list of the payments
+     */
+    public List<BusinessOperation> spendingsBetween(final int timestampStart,
+                                                    final int timestampEnd) {
+        return spendings.between(timestampStart, timestampEnd);
+    }
+
+    /**
+     * Adds up the operations made between two timestamps, inclusive.
+     *
+     * @param timestampStart the start timestamp
+     * @param timestampEnd   the end timestamp
+     * @return new totals of the range
+     */
+    public BusinessTotals totalsBetween(final int timestampStart, final int timestampEnd) {
+        BusinessTotals totals = new BusinessTotals();
+        if (timestampStart > timestampEnd) {
+            return totals;
+        }
+
+        // the range is [from, to), with longs, so the end of the last bucket fits
+        long from = timestampStart;
+        long to = (long) timestampEnd + 1;
+        long firstWidth = 1L << LEVEL_BITS;
+
+        // the timestamps before the first bucket and after the last one
+        long bucketsStart = Math.min(to, Math.ceilDiv(from, firstWidth) * firstWidth);
+        long bucketsEnd = Math.floorDiv(to, firstWidth) * firstWidth;
+        if (bucketsStart >= bucketsEnd) {
+            // the range does not fill a bucket
+            addOperations(totals, from, to);
+            return totals;
+        }
+        addOperations(totals, from, bucketsStart);
+
+        // the buckets at the end of the range are found backwards
+        List<BusinessTotals> endBuckets = new ArrayList<>();
+        from = bucketsStart;
+        to = bucketsEnd;
+        for (int level = 0; level < LEVELS && from < to; level++) {
+            int shift = (level + 1) * LEVEL_BITS;
+            long width = 1L << shift;
+            long parentWidth = width << LEVEL_BITS;
+            boolean last = level == LEVELS - 1;
+            HashMap<Integer, BusinessTotals> buckets = levels.get(level);
+
+            while (from < to && (last || Math.floorMod(from, parentWidth) != 0)) {
+                BusinessTotals bucket = buckets.get((int) (from >> shift));
+                if (bucket != null) {
+                    totals.addAll(bucket);
+                }
+                from += width;
+            }
+            while (from < to && Math.floorMod(to, parentWidth) != 0) {
+                to -= width;
+                BusinessTotals bucket = buckets.get((int) (to >> shift));
+                if (bucket != null) {
+                    endBuckets.add(bucket);
+                }
+            }
+        }
+
+        for (int i = endBuckets.size() - 1; i >= 0; i--) {
+            totals.addAll(endBuckets.get(i));
+        }
+        addOperations(totals, bucketsEnd, (long) timestampEnd + 1);
+        return totals;
+    }
+
+    /**
+     * Adds the operations with a timestamp in [from, to) one by one.
+     */
+    private void addOperations(final BusinessTotals totals, final long from, final long to) {
+        if (from >= to) {
+            return;
+        }
+        for (BusinessOperation spending : spendings.between((int) from, (int) (to - 1))) {
+            int id = -1;
+            if (spending.getCommerciant() != null) {
+                id = commerciantId(spending.getCommerciant());
+            }
+            totals.addSpending(spending.getUser(), spending.isManager(),
+                    spending.getAmount(), id);
+        }
+        for (BusinessOperation deposit : deposits.between((int) from, (int) (to - 1))) {
+            totals.addDeposit(deposit.getUser(), deposit.isManager(), deposit.getAmount());
+        }
+    }
+
+    /**
+     * Returns the bucket of a level which holds a timestamp, creating it if needed.
+     */
+    private BusinessTotals bucket(final int level, final int timestamp) {
+        int key = timestamp >> ((level + 1) * LEVEL_BITS);
+        return levels.get(level).computeIfAbsent(key, k -> new BusinessTotals());
+    }
+}
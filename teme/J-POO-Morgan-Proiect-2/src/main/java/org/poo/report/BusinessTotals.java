@@ -0,0 +1,165 @@
+package org.poo.report;
+
+import org.poo.user.User;
+import org.poo.user.UserAmounts;
+
+import java.util.Arrays;
+
+/**
+ * The amounts spent and deposited in a business account over a span of time:
+ * by every associate, in total, and received by every commerciant.
+ * <p>
+ * The commerciants are given by the ids the {@link BusinessRollup} gives them.
+ * The tables of the associates are created when the first amount is added to them,
+ * because most spans of time only hold some kinds of operations.
+ */
+public final class BusinessTotals {
+    private static final int SPENT_BY_MANAGERS = 0;
+    private static final int SPENT_BY_EMPLOYEES = 1;
+    private static final int DEPOSITED_BY_MANAGERS = 2;
+    private static final int DEPOSITED_BY_EMPLOYEES = 3;
+    private static final int TABLES = 4;
+
+    private final UserAmounts[] amounts = new UserAmounts[TABLES];
+    private double totalSpent = 0.0;
+    private double totalDeposited = 0.0;
+
+    // received[id] is the amount received by the commerciant with the given id
+    private double[] received = new double[0];
+
+    // the number of operations added up
+    private int operationCount = 0;
+
+    /**
+     * Adds an amount spent by an associate.
+     *
+     * @param user        the associate
+     * @param manager     true if the associate is a manager, false for an employee
+     * @param amount      the amount spent
+     * @param commerciant the id of the commerciant paid, or a negative value for none
+     */
+    public void addSpending(final User user, final boolean manager, final double amount,
+                            final int commerciant) {
+        table(manager ? SPENT_BY_MANAGERS : SPENT_BY_EMPLOYEES).add(user, amount);
+        totalSpent += amount;
+        if (commerciant >= 0) {
+            if (commerciant >= received.length) {
+                received = Arrays.copyOf(received,
+                        Math.max(commerciant + 1, received.length * 2));
+            }
+            received[commerciant] += amount;
+        }
+        operationCount++;
+    }
+
+    /**
+     * Adds an amount deposited by an associate.
+     *
+     * @param user    the associate
+     * @param manager true if the associate is a manager, false for an employee
+     * @param amount  the amount deposited
+     */
+    public void addDeposit(final User user, final boolean manager, final double amount) {
+        table(manager ? DEPOSITED_BY_MANAGERS : DEPOSITED_BY_EMPLOYEES).add(user, amount);
+        totalDeposited += amount;
+        operationCount++;
+    }
+
+    /**
+     * Adds the amounts of another span of time.
+     *
+     * @param other the totals to add
+     */
+    public void addAll(final BusinessTotals other) {
+        for (int i = 0; i < TABLES; i++) {
+            if (other.amounts[i] != null) {
+                table(i).addAll(other.amounts[i]);
+            }
+        }
+        totalSpent += other.totalSpent;
+        totalDeposited += other.totalDeposited;
+        if (other.received.length > received.length) {
+            received = Arrays.copyOf(received, other.received.length);
+        }
+        for (int i = 0; i < other.received.length; i++) {
+            received[i] += other.received[i];
+        }
+        operationCount += other.operationCount;
+    }
+
+    /**
+     * Returns the amount spent by an associate.
+     *
+     * @param user    the associate
+     * @param manager true for the amount spent as a manager, false as an employee
+     * @return the amount, or 0 if the associate spent nothing
+     */
+    public double getSpent(final User user, final boolean manager) {
+        return amountOf(manager ? SPENT_BY_MANAGERS : SPENT_BY_EMPLOYEES, user);
+    }
+
+    /**
+     * Returns the amount deposited by an associate.
+     *
+     * @param user    the associate
+     * @param manager true for the amount deposited as a manager, false as an employee
+     * @return the amount, or 0 if the associate deposited nothing
+     */
+    public double getDeposited(final User user, final boolean manager) {
+        return amountOf(manager ? DEPOSITED_BY_MANAGERS : DEPOSITED_BY_EMPLOYEES, user);
+    }
+
+    /**
+     * Returns the amount received by a commerciant.
+     *
+     * @param commerciant the id of the commerciant
+     * @return the amount, or 0 if the commerciant received nothing
+     */
+    public double getReceived(final int commerciant) {
+        if (commerciant < 0 || commerciant >= received.length) {
+            return 0.0;
+        }
+        return received[commerciant];
+    }
+
+    /**
+     * Returns the total amount spent.
+     *
+     * @return the total spent
+     */
+    public double getTotalSpent() {
+        return totalSpent;
+    }
+
+    /**
+     * Returns the total amount deposited.
+     *
+     * @return the total deposited
+     */
+    public double getTotalDeposited() {
+        return totalDeposited;
+    }
+
+    /**
+     * Returns the number of operations added up.
+     *
+     * @return the number of spendings and deposits
+     */
+    public int getOperationCount() {
+        return operationCount;
+    }
+
+    private UserAmounts table(final int index) {
+        if (amounts[index] == null) {
+            amounts[index] = new UserAmounts();
+        }
+        return amounts[index];
+    }
+
+    private double amountOf(final int index, final User user) {
+        if (amounts[index] == null) {
+            return 0.0;
+        }
+        return amounts[index].get(user);
+    }
+}
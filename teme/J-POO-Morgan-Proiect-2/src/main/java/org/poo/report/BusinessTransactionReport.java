@@ -4,17 +4,31 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.account.BusinessAccount;
+import org.poo.jfr.ReportGeneratedEvent;
 import org.poo.user.User;
+
 import java.util.List;
-import java.util.Map;
 
 /**
  * BusinessTransactionReport class is responsible for generating
  * a report of the transactions
  * that occurred between two timestamps for a business account.
+ * The amounts of the range are added up from the buckets of the {@link BusinessRollup}.
  */
 public final class BusinessTransactionReport {
 
+    // the amounts spent and deposited by the associates, added up by timestamp
+    private final BusinessRollup rollup;
+
+    /**
+     * Constructor for the BusinessTransactionReport class.
+     *
+     * @param rollup the amounts of the business account
+     */
+    public BusinessTransactionReport(final BusinessRollup rollup) {
+        this.rollup = rollup;
+    }
+
     /**
      * Generates a report of the transactions that occurred between two t
      * imestamps for a business account.
@@ -33,6 +47,8 @@ public final class BusinessTransactionReport {
 
         // Create the JSON report
 
+        ReportGeneratedEvent event = new ReportGeneratedEvent();
+        event.begin();
         try {
             ObjectMapper mapper = new ObjectMapper();
             ObjectNode output = mapper.createObjectNode();
@@ -49,40 +65,37 @@ public final class BusinessTransactionReport {
 
             ArrayNode managersArray = accountNode.putArray("managers");
 
+            // add up the operations made between the timestamps
+            BusinessTotals totals = rollup.totalsBetween(timestampStart, timestampEnd);
+
             List<User> managers = account.getManagers();
-            Map<User, Double> managersSpent = account.getManagerSpentAmounts();
-            Map<User, Double> managersDeposited = account.getManagerDepositedAmounts();
 
             for (User manager : managers) {
                 ObjectNode managerNode = managersArray.addObject();
                 String username = manager.getLastName() + " " + manager.getFirstName();
                 managerNode.put("username", username);
-                managerNode.put("spent",
-                        managersSpent.getOrDefault(manager, 0.0)); // Use default if null
-                managerNode.put("deposited",
-                        managersDeposited.getOrDefault(manager, 0.0)); // Use default if null
+                managerNode.put("spent", totals.getSpent(manager, true)); // 0 if none
+                managerNode.put("deposited", totals.getDeposited(manager, true)); // 0 if none
             }
 
             ArrayNode employeesArray = accountNode.putArray("employees");
 
             List<User> employees = account.getEmployees();
-            Map<User, Double> employeesSpent = account.getEmployeeSpentAmount();
-            Map<User, Double> employeesDeposited = account.getEmployeeDepositedAmounts();
 
             for (User employee : employees) {
                 ObjectNode employeeNode = employeesArray.addObject();
                 String username = employee.getLastName() + " " + employee.getFirstName();
                 employeeNode.put("username", username);
-                employeeNode.put("spent",
-                        employeesSpent.getOrDefault(employee, 0.0));
-                employeeNode.put("deposited",
-                        employeesDeposited.getOrDefault(employee, 0.0));
+                employeeNode.put("spent", totals.getSpent(employee, false));
+                employeeNode.put("deposited", totals.getDeposited(employee, false));
             }
 
-            accountNode.put("total spent", account.getTotalSpent());
-            accountNode.put("total deposited", account.getTotalDeposited());
+            accountNode.put("total spent", totals.getTotalSpent());
+            accountNode.put("total deposited", totals.getTotalDeposited());
 
             output.put("timestamp", timestamp);
+            event.record("businessTransaction", account.getIBAN(), timestampStart,
+                    timestampEnd, totals.getOperationCount());
             return output;
 
         } catch (Exception e) {
@@ -1,12 +1,20 @@
 package org.poo.report;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.account.Account;
+import org.poo.jfr.ReportGeneratedEvent;
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
 import org.poo.transaction.Transaction;
+import org.poo.transaction.TransactionList;
+import org.poo.transaction.TransactionStore;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Class which generates transaction reports for accounts.
@@ -14,8 +22,17 @@ import java.util.ArrayList;
  */
 public final class ClassicReport {
 
-    // List of transactions
-    private final ArrayList<Transaction> transactions = new ArrayList<>();
+    // List of transactions, indexed by timestamp
+    private final TransactionList transactions;
+
+    /**
+     * Creates an empty report.
+     *
+     * @param store the store which saves the transactions
+     */
+    public ClassicReport(final TransactionStore store) {
+        transactions = new TransactionList(store);
+    }
 
     /**
      * Adds a transaction to the report.
@@ -32,7 +49,27 @@ public final class ClassicReport {
      * @return the list of transactions
      */
     public ArrayList<Transaction> getTransactions() {
-        return new ArrayList<>(transactions); // Return a copy to ensure immutability
+        return new ArrayList<>(transactions.getAll()); // Return a copy to ensure immutability
+    }
+
+    /**
+     * Writes the transactions of the report to a snapshot.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        transactions.writeTo(writer);
+    }
+
+    /**
+     * Reads back the transactions written by {@link #writeTo(SnapshotWriter)}.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        transactions.readFrom(reader);
     }
 
     /**
@@ -50,6 +87,8 @@ public final class ClassicReport {
             final int timestampEnd,
             final int timestamp,
             final Account account) {
+        ReportGeneratedEvent event = new ReportGeneratedEvent();
+        event.begin();
         try {
             // prepare the output JSON
             ObjectMapper mapper = new ObjectMapper();
@@ -63,19 +102,59 @@ public final class ClassicReport {
 
             ArrayNode transactionArray = accountNode.putArray("transactions");
 
-            // go through the transactions and add them to the report
-            for (Transaction transaction : transactions) {
-                // check if the transaction occurred between the specified timestamps
-                if (transaction.getTimestamp() >= timestampStart
-                        && transaction.getTimestamp() <= timestampEnd) {
-                    ObjectNode transactionNode = transactionArray.addObject();
-                    transaction.toJson(transactionNode);
-                }
+            // add the transactions which occurred between the specified timestamps
+            List<Transaction> inRange = transactions.between(timestampStart, timestampEnd);
+            for (Transaction transaction : inRange) {
+                ObjectNode transactionNode = transactionArray.addObject();
+                transaction.toJson(transactionNode);
             }
             output.put("timestamp", timestamp);
+            event.record("classic", account.getIBAN(), timestampStart, timestampEnd,
+                    inRange.size());
             return output;
         } catch (Exception e) {
             throw new RuntimeException("Error generating report", e);
         }
     }
+
+    /**
+     * Writes the report for the transactions between the specified timestamps,
+     * the same as the one of {@link #generateReportBetweenTimestamps}, without
+     * building the nodes.
+     *
+     * @param generator      the generator to write to
+     * @param timestampStart the start timestamp
+     * @param timestampEnd   the end timestamp
+     * @param timestamp      the current timestamp of the report generation
+     * @param account        the account for which the report is generated
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeReportBetweenTimestamps(final JsonGenerator generator,
+                                             final int timestampStart,
+                                             final int timestampEnd,
+                                             final int timestamp,
+                                             final Account account) throws IOException {
+        ReportGeneratedEvent event = new ReportGeneratedEvent();
+        event.begin();
+        generator.writeStartObject();
+        generator.writeStringField("command", "report");
+
+        generator.writeObjectFieldStart("output");
+        generator.writeNumberField("balance", account.getBalance());
+        generator.writeStringField("currency", account.getCurrency());
+        generator.writeStringField("IBAN", account.getIBAN());
+
+        generator.writeArrayFieldStart("transactions");
+        List<Transaction> inRange = transactions.between(timestampStart, timestampEnd);
+        for (Transaction transaction : inRange) {
+            transaction.writeTo(generator);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+
+        generator.writeNumberField("timestamp", timestamp);
+        generator.writeEndObject();
+        event.record("classic", account.getIBAN(), timestampStart, timestampEnd,
+                inRange.size());
+    }
 }
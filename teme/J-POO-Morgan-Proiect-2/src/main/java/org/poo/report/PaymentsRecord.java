@@ -1,8 +1,14 @@
 package org.poo.report;
 
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
 import org.poo.transaction.Transaction;
+import org.poo.transaction.TransactionList;
+import org.poo.transaction.TransactionStore;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Handles recording and reporting of payment transactions for an account.
@@ -12,8 +18,17 @@ import java.util.ArrayList;
  */
 public final class PaymentsRecord {
 
-    // The list of transactions in the record
-    private final ArrayList<Transaction> transactions = new ArrayList<>();
+    // The list of transactions in the record, indexed by timestamp
+    private final TransactionList transactions;
+
+    /**
+     * Creates an empty record.
+     *
+     * @param store the store which saves the transactions
+     */
+    public PaymentsRecord(final TransactionStore store) {
+        transactions = new TransactionList(store);
+    }
 
     /**
      * Adds a transaction to the record.
@@ -30,6 +45,38 @@ public final class PaymentsRecord {
      * @return a list of transactions
      */
     public ArrayList<Transaction> getTransactions() {
-        return new ArrayList<>(transactions); // Return a defensive copy
+        return new ArrayList<>(transactions.getAll()); // Return a defensive copy
+    }
+
+    /**
+     * Writes the transactions of the record to a snapshot.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        transactions.writeTo(writer);
+    }
+
+    /**
+     * Reads back the transactions written by {@link #writeTo(SnapshotWriter)}.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        transactions.readFrom(reader);
+    }
+
+    /**
+     * Retrieves the transactions made between two timestamps, inclusive.
+     *
+     * @param timestampStart the start timestamp
+     * @param timestampEnd   the end timestamp
+     * @return a new list of the transactions in the range
+     */
+    public List<Transaction> getTransactionsBetween(final int timestampStart,
+                                                    final int timestampEnd) {
+        return transactions.between(timestampStart, timestampEnd);
     }
 }
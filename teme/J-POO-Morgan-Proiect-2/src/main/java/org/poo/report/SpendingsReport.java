@@ -1,13 +1,17 @@
 package org.poo.report;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.account.Account;
 import org.poo.commerciants.Commerciant;
+import org.poo.jfr.ReportGeneratedEvent;
 import org.poo.transaction.Transaction;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Generates a spendings report based on a time range.
@@ -70,6 +74,8 @@ public final class SpendingsReport {
             final Account account,
             final ArrayList<Commerciant> commerciants) {
 
+        ReportGeneratedEvent event = new ReportGeneratedEvent();
+        event.begin();
         try {
             // create the JSON object
             ObjectMapper mapper = new ObjectMapper();
@@ -96,22 +102,76 @@ public final class SpendingsReport {
             accountNode.put("IBAN", account.getIBAN());
 
             ArrayNode transactionArray = accountNode.putArray("transactions");
-            ArrayList<Transaction> record = paymentsRecord.getTransactions();
+            List<Transaction> record =
+                    paymentsRecord.getTransactionsBetween(timestampStart, timestampEnd);
 
-            // go through the transactions and add them to the report
+            // add the transactions within the time range to the report
             for (Transaction transaction : record) {
-                // check if the transaction is within the time range
-                if (transaction.getTimestamp() >= timestampStart
-                        && transaction.getTimestamp() <= timestampEnd) {
-                    ObjectNode transactionNode = transactionArray.addObject();
-                    transaction.toJson(transactionNode);
-                }
+                ObjectNode transactionNode = transactionArray.addObject();
+                transaction.toJson(transactionNode);
             }
 
             output.put("timestamp", timestamp);
+            event.record("spendings", account.getIBAN(), timestampStart, timestampEnd,
+                    record.size());
             return output;
         } catch (Exception e) {
             throw new RuntimeException("Error generating report", e);
         }
     }
+
+    /**
+     * Writes the spendings report for a time range, the same as the one of
+     * {@link #generateSpendingsReportBetweenTimestamps}, without building the nodes.
+     *
+     * @param generator      the generator to write to
+     * @param timestampStart Start of the time range.
+     * @param timestampEnd   End of the time range.
+     * @param timestamp      Current timestamp.
+     * @param account        Account details.
+     * @param commerciants   List of commerciants to include in the report.
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeSpendingsReportBetweenTimestamps(
+            final JsonGenerator generator,
+            final int timestampStart,
+            final int timestampEnd,
+            final int timestamp,
+            final Account account,
+            final ArrayList<Commerciant> commerciants) throws IOException {
+
+        ReportGeneratedEvent event = new ReportGeneratedEvent();
+        event.begin();
+        generator.writeStartObject();
+        generator.writeStringField("command", "spendingsReport");
+
+        generator.writeObjectFieldStart("output");
+        generator.writeNumberField("balance", account.getBalance());
+
+        generator.writeArrayFieldStart("commerciants");
+        for (Commerciant commerciant : commerciants) {
+            generator.writeStartObject();
+            generator.writeStringField("commerciant", commerciant.getCommerciant());
+            generator.writeNumberField("total", commerciant.getAmountSpent());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+
+        generator.writeStringField("currency", account.getCurrency());
+        generator.writeStringField("IBAN", account.getIBAN());
+
+        generator.writeArrayFieldStart("transactions");
+        List<Transaction> record =
+                paymentsRecord.getTransactionsBetween(timestampStart, timestampEnd);
+        for (Transaction transaction : record) {
+            transaction.writeTo(generator);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+
+        generator.writeNumberField("timestamp", timestamp);
+        generator.writeEndObject();
+        event.record("spendings", account.getIBAN(), timestampStart, timestampEnd,
+                record.size());
+    }
 }
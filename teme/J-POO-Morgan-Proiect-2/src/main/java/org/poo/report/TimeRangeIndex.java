@@ -0,0 +1,153 @@
+package org.poo.report;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the entries of a report in the order they were added, together with
+ * an index sorted by timestamp, so the entries between two timestamps are found
+ * with a binary search instead of going through the whole history.
+ * <p>
+ * The entries almost always come in timestamp order, and then the index is just the
+ * array of timestamps, with the entries at the same positions. An entry with a timestamp
+ * lower than the last one is inserted in the index at its place, and from then on
+ * the entries of a range are put back in the order they were added.
+ *
+ * @param <T> the type of the entries
+ */
+public final class TimeRangeIndex<T> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // the entries, in the order they were added
+    private final ArrayList<T> entries = new ArrayList<>();
+
+    // the timestamps of the entries, sorted, and the position of each entry
+    private int[] sortedTimestamps = new int[INITIAL_CAPACITY];
+    private int[] sortedPositions = new int[INITIAL_CAPACITY];
+
+    // true while every entry was added in timestamp order
+    private boolean inOrder = true;
+
+    /**
+     * Adds an entry at the end.
+     *
+     * @param timestamp the timestamp of the entry
+     * @param entry     the entry to add
+     */
+    public void add(final int timestamp, final T entry) {
+        int size = entries.size();
+        if (size == sortedTimestamps.length) {
+            sortedTimestamps = Arrays.copyOf(sortedTimestamps, size * 2);
+            sortedPositions = Arrays.copyOf(sortedPositions, size * 2);
+        }
+
+        int index = size;
+        if (size > 0 && sortedTimestamps[size - 1] > timestamp) {
+            // the entry goes after the entries with the same timestamp
+            inOrder = false;
+            index = upperBound(timestamp);
+            System.arraycopy(sortedTimestamps, index, sortedTimestamps, index + 1, size - index);
+            System.arraycopy(sortedPositions, index, sortedPositions, index + 1, size - index);
+        }
+
+        sortedTimestamps[index] = timestamp;
+        sortedPositions[index] = size;
+        entries.add(entry);
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns all the entries, in the order they were added.
+     *
+     * @return a read-only view of the entries
+     */
+    public List<T> getAll() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Returns the timestamps of the entries, in the order the entries were added.
+     *
+     * @return a new array with the timestamp of every entry
+     */
+    public int[] timestamps() {
+        int[] timestamps = new int[entries.size()];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[sortedPositions[i]] = sortedTimestamps[i];
+        }
+        return timestamps;
+    }
+
+    /**
+     * Returns the entries with a timestamp between the two timestamps, inclusive,
+     * in the order they were added.
+     *
+     * @param timestampStart the start timestamp
+     * @param timestampEnd   the end timestamp
+     * @return a read-only list of the entries in the range
+     */
+    public List<T> between(final int timestampStart, final int timestampEnd) {
+        if (timestampStart > timestampEnd) {
+            return Collections.emptyList();
+        }
+
+        int from = lowerBound(timestampStart);
+        int to = upperBound(timestampEnd);
+        if (inOrder) {
+            return Collections.unmodifiableList(entries.subList(from, to));
+        }
+
+        // put the entries of the range back in the order they were added
+        int[] positions = Arrays.copyOfRange(sortedPositions, from, to);
+        Arrays.sort(positions);
+        List<T> range = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            range.add(entries.get(position));
+        }
+        return range;
+    }
+
+    /**
+     * Finds the first position in the index with a timestamp greater or equal to the given one.
+     */
+    private int lowerBound(final int timestamp) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedTimestamps[middle] < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first position in the index with a timestamp greater than the given one.
+     */
+    private int upperBound(final int timestamp) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedTimestamps[middle] <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,49 @@
+package org.poo.snapshot;
+
+import org.poo.bankingApp.BankContext;
+
+/**
+ * The whole state of the bank after a number of commands: the registries, the
+ * exchange rates and the generators of IBAN codes and card numbers.
+ * Restoring it and executing the remaining commands gives the same state as
+ * executing all the commands from the start.
+ */
+public final class BankSnapshot {
+    private final int commandsProcessed;
+    private final BankContext context;
+
+    private BankSnapshot(final int commandsProcessed, final BankContext context) {
+        this.commandsProcessed = commandsProcessed;
+        this.context = context;
+    }
+
+    /**
+     * Takes the current state of a bank. The snapshot refers to the live objects,
+     * so it must be written before the next command is executed.
+     *
+     * @param commandsProcessed the number of commands executed so far
+     * @param context           the state of the bank
+     * @return the snapshot
+     */
+    public static BankSnapshot capture(final int commandsProcessed, final BankContext context) {
+        return new BankSnapshot(commandsProcessed, context);
+    }
+
+    /**
+     * Returns the state of the bank saved in the snapshot.
+     *
+     * @return the state of the bank
+     */
+    public BankContext getContext() {
+        return context;
+    }
+
+    /**
+     * Returns the number of commands executed before the snapshot was taken.
+     *
+     * @return the number of commands
+     */
+    public int getCommandsProcessed() {
+        return commandsProcessed;
+    }
+}
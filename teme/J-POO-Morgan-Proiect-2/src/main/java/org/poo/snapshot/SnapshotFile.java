@@ -0,0 +1,151 @@
+package org.poo.snapshot;
+
+import org.poo.bankingApp.BankContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes snapshots of the bank state.
+ * <p>
+ * A snapshot file starts with a fixed header: the magic number, the format version,
+ * the number of commands executed before the snapshot, the length of the payload and
+ * its CRC32 checksum. The payload holds the fields of the bank, written by the classes
+ * of the bank through a {@link SnapshotWriter} in a fixed order: the numbers with a fixed
+ * length, the arrays and lists after their length, and the strings through a string pool.
+ * The users, accounts, cards and split payments shared between the registries are written
+ * once and referred to by their id. The indexes and tables computed from other fields,
+ * such as the conversion table of the exchange rates or the buckets of the business
+ * reports, are not written but built again. A change of the fields of a class changes
+ * the payload, so it comes with a new version of the format.
+ * <p>
+ * The payload is written to a temporary file after the space of the header, and the
+ * header is written last, once the length and the checksum are known; the file replaces
+ * the old snapshot only once it is complete. On reading, the payload is mapped in memory
+ * and its checksum verified before any field is read, so a damaged file is never decoded.
+ */
+public final class SnapshotFile {
+    // "POOB" in ASCII
+    private static final int MAGIC = 0x504F4F42;
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = Integer.BYTES * 3 + Long.BYTES * 2;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes a snapshot to a file, replacing the file if it exists.
+     *
+     * @param file     the snapshot file
+     * @param snapshot the snapshot to write
+     * @throws IOException in case of exceptions to writing
+     */
+    public static void write(final Path file, final BankSnapshot snapshot) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            SnapshotWriter writer = new SnapshotWriter(channel);
+            snapshot.getContext().writeTo(writer);
+            writer.finish();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(snapshot.getCommandsProcessed());
+            header.putLong(writer.length());
+            header.putLong(writer.checksum());
+            header.flip();
+            long position = 0;
+            while (header.hasRemaining()) {
+                position += channel.write(header, position);
+            }
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a snapshot from a file.
+     *
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static BankSnapshot read(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("The snapshot " + file + " is too short");
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("The snapshot " + file + " is too short");
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("The file " + file + " is not a snapshot");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("The snapshot " + file + " has version " + version
+                        + ", expected " + VERSION);
+            }
+            int commandsProcessed = header.getInt();
+            long length = header.getLong();
+            long expectedChecksum = header.getLong();
+            if (length != size - HEADER_SIZE) {
+                throw new IOException("The snapshot " + file + " is truncated");
+            }
+            if (commandsProcessed < 0) {
+                throw new IOException("The snapshot " + file + " has an invalid header");
+            }
+            if (checksumOf(channel, size) != expectedChecksum) {
+                throw new IOException("The snapshot " + file + " is corrupted");
+            }
+
+            SnapshotReader reader = new SnapshotReader(file, channel, HEADER_SIZE, size);
+            BankContext context = new BankContext();
+            context.readFrom(reader);
+            if (!reader.atEnd()) {
+                throw reader.corrupted("end of the bank");
+            }
+            return BankSnapshot.capture(commandsProcessed, context);
+        }
+    }
+
+    /**
+     * Computes the checksum of the payload through mappings of the file, one window
+     * at a time, so the payload is never copied to the heap.
+     *
+     * @param channel the channel of the file
+     * @param size    the size of the file
+     * @return the CRC32 checksum of the payload
+     * @throws IOException if the payload cannot be mapped
+     */
+    private static long checksumOf(final FileChannel channel, final long size)
+            throws IOException {
+        CRC32 checksum = new CRC32();
+        for (long start = HEADER_SIZE; start < size; start += SnapshotReader.WINDOW_SIZE) {
+            checksum.update(channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(SnapshotReader.WINDOW_SIZE, size - start)));
+        }
+        return checksum.getValue();
+    }
+}
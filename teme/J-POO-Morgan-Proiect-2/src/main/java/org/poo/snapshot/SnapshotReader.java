@@ -0,0 +1,275 @@
+package org.poo.snapshot;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * Reads back the fields written by a {@link SnapshotWriter}, in the same order.
+ * <p>
+ * The payload is read from the file through a memory mapping, so it is never copied to
+ * the heap as a whole; a large snapshot is mapped one window at a time, each window
+ * starting where the previous one stopped being read. The lengths and ids read are
+ * checked against the rest of the payload and the objects registered, so a snapshot
+ * written by another version of the bank gives an IOException instead of a wrong state.
+ */
+public final class SnapshotReader {
+    // the largest part of the file mapped at once; a mapping cannot go over 2 GB
+    static final int WINDOW_SIZE = 1024 * 1024 * 1024;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long end;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    private final ArrayList<String> strings = new ArrayList<>();
+    private final ArrayList<Object> objects = new ArrayList<>();
+
+    /**
+     * Creates a reader of a payload.
+     *
+     * @param file    the snapshot file, for the messages of the errors
+     * @param channel the channel of the file
+     * @param start   the position of the payload in the file
+     * @param end     the end of the payload
+     * @throws IOException if the payload cannot be mapped
+     */
+    SnapshotReader(final Path file, final FileChannel channel, final long start,
+                   final long end) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.end = end;
+        map(start);
+    }
+
+    /**
+     * Reads a byte.
+     *
+     * @return the byte
+     * @throws IOException if the payload ends before it
+     */
+    public byte readByte() throws IOException {
+        require(Byte.BYTES);
+        return window.get();
+    }
+
+    /**
+     * Reads a boolean.
+     *
+     * @return the boolean
+     * @throws IOException if the payload ends before it
+     */
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    /**
+     * Reads an int.
+     *
+     * @return the int
+     * @throws IOException if the payload ends before it
+     */
+    public int readInt() throws IOException {
+        require(Integer.BYTES);
+        return window.getInt();
+    }
+
+    /**
+     * Reads a long.
+     *
+     * @return the long
+     * @throws IOException if the payload ends before it
+     */
+    public long readLong() throws IOException {
+        require(Long.BYTES);
+        return window.getLong();
+    }
+
+    /**
+     * Reads a double.
+     *
+     * @return the double
+     * @throws IOException if the payload ends before it
+     */
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    /**
+     * Reads a string, from the string pool or from its text the first time.
+     *
+     * @return the string, or null
+     * @throws IOException if the id or the text is not valid
+     */
+    public String readString() throws IOException {
+        int id = readInt();
+        if (id == SnapshotWriter.NULL_ID) {
+            return null;
+        }
+        if (id < strings.size() && id >= 0) {
+            return strings.get(id);
+        }
+        if (id != strings.size()) {
+            throw corrupted("string " + id);
+        }
+        byte[] text = new byte[readLength(Byte.BYTES)];
+        int read = 0;
+        while (read < text.length) {
+            require(1);
+            int chunk = Math.min(window.remaining(), text.length - read);
+            window.get(text, read, chunk);
+            read += chunk;
+        }
+        String value = new String(text, StandardCharsets.UTF_8);
+        strings.add(value);
+        return value;
+    }
+
+    /**
+     * Reads an array written by {@link SnapshotWriter#writeInts(int[], int)}.
+     *
+     * @return the values
+     * @throws IOException if the payload ends before them
+     */
+    public int[] readInts() throws IOException {
+        int[] values = new int[readLength(Integer.BYTES)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readInt();
+        }
+        return values;
+    }
+
+    /**
+     * Reads an array written by {@link SnapshotWriter#writeLongs(long[], int)}.
+     *
+     * @return the values
+     * @throws IOException if the payload ends before them
+     */
+    public long[] readLongs() throws IOException {
+        long[] values = new long[readLength(Long.BYTES)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readLong();
+        }
+        return values;
+    }
+
+    /**
+     * Reads an array written by {@link SnapshotWriter#writeDoubles(double[], int)}.
+     *
+     * @return the values
+     * @throws IOException if the payload ends before them
+     */
+    public double[] readDoubles() throws IOException {
+        double[] values = new double[readLength(Double.BYTES)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readDouble();
+        }
+        return values;
+    }
+
+    /**
+     * Reads an array written by {@link SnapshotWriter#writeBytes(byte[], int)}.
+     *
+     * @return the values
+     * @throws IOException if the payload ends before them
+     */
+    public byte[] readBytes() throws IOException {
+        byte[] values = new byte[readLength(Byte.BYTES)];
+        int read = 0;
+        while (read < values.length) {
+            require(1);
+            int chunk = Math.min(window.remaining(), values.length - read);
+            window.get(values, read, chunk);
+            read += chunk;
+        }
+        return values;
+    }
+
+    /**
+     * Reads the length of an array or a list, checking that the payload can hold it.
+     *
+     * @param elementSize the smallest number of bytes of an element
+     * @return the length
+     * @throws IOException if the length is not valid
+     */
+    public int readLength(final int elementSize) throws IOException {
+        int length = readInt();
+        if (length < 0 || (long) length * elementSize > end - position()) {
+            throw corrupted("length " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Gives an object read back the next id, like {@link SnapshotWriter#register(Object)}.
+     *
+     * @param object the object
+     */
+    public void register(final Object object) {
+        objects.add(object);
+    }
+
+    /**
+     * Reads the id of a registered object and returns the object.
+     *
+     * @param type the class of the object
+     * @param <T>  the type of the object
+     * @return the object, or null
+     * @throws IOException if no object of that class has the id
+     */
+    public <T> T readRef(final Class<T> type) throws IOException {
+        int id = readInt();
+        if (id == SnapshotWriter.NULL_ID) {
+            return null;
+        }
+        if (id < 0 || id >= objects.size() || !type.isInstance(objects.get(id))) {
+            throw corrupted(type.getSimpleName() + " " + id);
+        }
+        return type.cast(objects.get(id));
+    }
+
+    /**
+     * Returns an exception for a value which cannot be in a valid payload.
+     *
+     * @param value the value
+     * @return the exception
+     */
+    public IOException corrupted(final String value) {
+        return new IOException("The snapshot " + file + " has an invalid " + value
+                + " at byte " + position() + " of the payload");
+    }
+
+    /**
+     * Tells if the whole payload was read.
+     *
+     * @return true at the end of the payload
+     */
+    boolean atEnd() {
+        return position() == end;
+    }
+
+    private long position() {
+        return windowStart + window.position();
+    }
+
+    private void require(final int bytes) throws IOException {
+        if (window.remaining() >= bytes) {
+            return;
+        }
+        if (end - position() < bytes) {
+            throw new IOException("The snapshot " + file + " ends in the middle of a field");
+        }
+        map(position());
+    }
+
+    private void map(final long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                Math.min(WINDOW_SIZE, end - start));
+    }
+}
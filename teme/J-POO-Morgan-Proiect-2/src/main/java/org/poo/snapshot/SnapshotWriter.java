@@ -0,0 +1,270 @@
+package org.poo.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Writes the fields of the bank to the payload of a snapshot, in the order the classes of
+ * the bank give them, read back in the same order by the {@link SnapshotReader}.
+ * <p>
+ * The numbers are written in big-endian order, with a fixed length, and the arrays are
+ * prefixed by their length. Every string is written once: the first time, it gets the next
+ * id of the string pool and is followed by the length and the UTF-8 bytes of its text;
+ * after that, only its id is written. The users, accounts, cards and split payments shared
+ * between the registries are registered when they are written and referred to by their id.
+ * <p>
+ * The payload is written through a buffer to the channel, from its current position,
+ * and its checksum is computed on the way.
+ */
+public final class SnapshotWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // the id written for null, for the strings and the references
+    static final int NULL_ID = -1;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CRC32 checksum = new CRC32();
+    private long length = 0;
+
+    private final HashMap<String, Integer> strings = new HashMap<>();
+    private final IdentityHashMap<Object, Integer> objects = new IdentityHashMap<>();
+
+    /**
+     * Creates a writer of a payload.
+     *
+     * @param channel the channel, positioned where the payload starts
+     */
+    SnapshotWriter(final FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Writes a byte.
+     *
+     * @param value the byte
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeByte(final int value) throws IOException {
+        reserve(Byte.BYTES);
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes a boolean, as a byte.
+     *
+     * @param value the boolean
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeBoolean(final boolean value) throws IOException {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes an int.
+     *
+     * @param value the int
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeInt(final int value) throws IOException {
+        reserve(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    /**
+     * Writes a long.
+     *
+     * @param value the long
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeLong(final long value) throws IOException {
+        reserve(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    /**
+     * Writes a double, with all the bits of its value.
+     *
+     * @param value the double
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeDouble(final double value) throws IOException {
+        writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Writes a string as its id in the string pool, followed by its text the first
+     * time it is written.
+     *
+     * @param value the string, or null
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeString(final String value) throws IOException {
+        if (value == null) {
+            writeInt(NULL_ID);
+            return;
+        }
+        Integer id = strings.get(value);
+        if (id != null) {
+            writeInt(id);
+            return;
+        }
+        writeInt(strings.size());
+        strings.put(value, strings.size());
+        byte[] text = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(text.length);
+        int written = 0;
+        while (written < text.length) {
+            reserve(1);
+            int chunk = Math.min(buffer.remaining(), text.length - written);
+            buffer.put(text, written, chunk);
+            written += chunk;
+        }
+    }
+
+    /**
+     * Writes the first values of an array, after their number.
+     *
+     * @param values the array
+     * @param count  the number of values to write
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeInts(final int[] values, final int count) throws IOException {
+        writeInt(count);
+        for (int i = 0; i < count; i++) {
+            writeInt(values[i]);
+        }
+    }
+
+    /**
+     * Writes the first values of an array, after their number.
+     *
+     * @param values the array
+     * @param count  the number of values to write
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeLongs(final long[] values, final int count) throws IOException {
+        writeInt(count);
+        for (int i = 0; i < count; i++) {
+            writeLong(values[i]);
+        }
+    }
+
+    /**
+     * Writes the first values of an array, after their number.
+     *
+     * @param values the array
+     * @param count  the number of values to write
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeDoubles(final double[] values, final int count) throws IOException {
+        writeInt(count);
+        for (int i = 0; i < count; i++) {
+            writeDouble(values[i]);
+        }
+    }
+
+    /**
+     * Writes the first values of an array, after their number.
+     *
+     * @param values the array
+     * @param count  the number of values to write
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeBytes(final byte[] values, final int count) throws IOException {
+        writeInt(count);
+        int written = 0;
+        while (written < count) {
+            reserve(1);
+            int chunk = Math.min(buffer.remaining(), count - written);
+            buffer.put(values, written, chunk);
+            written += chunk;
+        }
+    }
+
+    /**
+     * Gives an object the next id, so it can be referred to by {@link #writeRef(Object)}.
+     * The reader registers the object it reads back at the same point.
+     *
+     * @param object the object, written just before or after
+     */
+    public void register(final Object object) {
+        objects.put(object, objects.size());
+    }
+
+    /**
+     * Tells if an object was registered.
+     *
+     * @param object the object
+     * @return true if the object has an id
+     */
+    public boolean isRegistered(final Object object) {
+        return objects.containsKey(object);
+    }
+
+    /**
+     * Writes the id of a registered object.
+     *
+     * @param object the object, or null
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeRef(final Object object) throws IOException {
+        if (object == null) {
+            writeInt(NULL_ID);
+            return;
+        }
+        Integer id = objects.get(object);
+        if (id == null) {
+            throw new IllegalStateException("The " + object.getClass().getSimpleName()
+                    + " is referred to before it is written");
+        }
+        writeInt(id);
+    }
+
+    /**
+     * Writes what is left in the buffer.
+     *
+     * @throws IOException in case of exceptions to writing
+     */
+    void finish() throws IOException {
+        flush();
+    }
+
+    /**
+     * Returns the number of bytes written, once the writer is finished.
+     *
+     * @return the length of the payload
+     */
+    long length() {
+        return length;
+    }
+
+    /**
+     * Returns the CRC32 checksum of the bytes written, once the writer is finished.
+     *
+     * @return the checksum of the payload
+     */
+    long checksum() {
+        return checksum.getValue();
+    }
+
+    private void reserve(final int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            length += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -1,11 +1,23 @@
 package org.poo.splitPayment;
 
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
 import org.poo.user.User;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Set;
 
 /**
  * The SplitPayment class handles the distribution of payments between multiple users.
+ * <p>
+ * Every participant accepts the payment separately: the payment counts down the
+ * participants who still have to accept it, so a user can take part in several
+ * pending payments and the last acceptance is found without going through the users.
+ * A user who pays from several accounts accepts once.
  */
 public final class SplitPayment {
     private List<String> accountsIBAN = new ArrayList<>();
@@ -16,6 +28,14 @@ public final class SplitPayment {
     private Double totalAmount;
     private int timestamp;
 
+    // the distinct users of the payment, the ones who accepted it and how many did not
+    private final Set<User> participants = new HashSet<>();
+    private final Set<User> acceptedBy = new HashSet<>();
+    private int remainingAcceptances = 0;
+
+    // set when the payment leaves the registry, because it was paid or rejected
+    private boolean resolved = false;
+
     public SplitPayment() {
     }
 
@@ -30,6 +50,9 @@ public final class SplitPayment {
         accountsIBAN.add(accountIban);
         amountForEachAccount.add(amount);
         users.add(user);
+        if (participants.add(user)) {
+            remainingAcceptances++;
+        }
     }
 
     /**
@@ -153,7 +176,56 @@ public final class SplitPayment {
      * @return true if the user is in the payment, false otherwise
      */
     public boolean checkIfUserIsInPayment(final User user) {
-        return users.contains(user);
+        return participants.contains(user);
+    }
+
+    /**
+     * Records that a participant accepted the payment. Accepting it again changes nothing.
+     *
+     * @param user the participant
+     * @return true if the user is a participant who had not accepted the payment yet
+     */
+    public boolean accept(final User user) {
+        if (!participants.contains(user) || !acceptedBy.add(user)) {
+            return false;
+        }
+        remainingAcceptances--;
+        return true;
+    }
+
+    /**
+     * Checks if a participant accepted the payment.
+     *
+     * @param user the participant
+     * @return true if the user accepted the payment
+     */
+    public boolean hasAccepted(final User user) {
+        return acceptedBy.contains(user);
+    }
+
+    /**
+     * Gets the number of participants who still have to accept the payment.
+     *
+     * @return the number of acceptances left
+     */
+    public int getRemainingAcceptances() {
+        return remainingAcceptances;
+    }
+
+    /**
+     * Tells if the payment left the registry, because it was paid or rejected.
+     *
+     * @return true if the payment is no longer pending
+     */
+    boolean isResolved() {
+        return resolved;
+    }
+
+    /**
+     * Marks the payment as no longer pending.
+     */
+    void markResolved() {
+        resolved = true;
     }
 
     /**
@@ -162,15 +234,69 @@ public final class SplitPayment {
      * @return true if all users have accepted the payment, false otherwise
      */
     public boolean checkIfAllUsersAcceptedPayment() {
-        for (User user : users) {
-            if (splitPaymentType.equals("equal") && !user.hasAcceptedEqualPayment()) {
-                return false;
+        return remainingAcceptances == 0;
+    }
+
+    /**
+     * Writes the payment to a snapshot, with the users as references.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeInt(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            writer.writeString(accountsIBAN.get(i));
+            writer.writeDouble(amountForEachAccount.get(i));
+            writer.writeRef(users.get(i));
+        }
+        writer.writeString(currency);
+        writer.writeString(splitPaymentType);
+        writer.writeBoolean(totalAmount != null);
+        if (totalAmount != null) {
+            writer.writeDouble(totalAmount);
+        }
+        writer.writeInt(timestamp);
+
+        // the users who accepted, in the order of the payment, so the snapshot is the same
+        writer.writeInt(acceptedBy.size());
+        for (User user : new LinkedHashSet<>(users)) {
+            if (acceptedBy.contains(user)) {
+                writer.writeRef(user);
             }
+        }
+        writer.writeBoolean(resolved);
+    }
+
+    /**
+     * Reads back a payment written by {@link #writeTo(SnapshotWriter)}.
+     *
+     * @param reader the reader of the snapshot
+     * @return the payment
+     * @throws IOException if the snapshot cannot be read
+     */
+    static SplitPayment readFrom(final SnapshotReader reader) throws IOException {
+        SplitPayment read = new SplitPayment();
+        int count = reader.readLength(Integer.BYTES * 2 + Double.BYTES);
+        for (int i = 0; i < count; i++) {
+            String iban = reader.readString();
+            double amount = reader.readDouble();
+            read.addUserPayment(iban, amount, reader.readRef(User.class));
+        }
+        read.currency = reader.readString();
+        read.splitPaymentType = reader.readString();
+        if (reader.readBoolean()) {
+            read.totalAmount = reader.readDouble();
+        }
+        read.timestamp = reader.readInt();
 
-            if (splitPaymentType.equals("custom") && !user.hasAcceptedCustomPayment()) {
-                return false;
+        int accepted = reader.readLength(Integer.BYTES);
+        for (int i = 0; i < accepted; i++) {
+            if (!read.accept(reader.readRef(User.class))) {
+                throw reader.corrupted("acceptance of the split payment");
             }
         }
-        return true;
+        read.resolved = reader.readBoolean();
+        return read;
     }
 }
@@ -1,32 +1,78 @@
 package org.poo.splitPayment;
 
+import org.poo.jfr.SplitPaymentResolvedEvent;
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+import org.poo.user.User;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class represents a registry that manages a collection of split payments.
- * It ensures a single instance is maintained throughout the application lifecycle.
+ * Every bank has its own registry, kept in its BankContext.
+ * <p>
+ * Every user has a queue of the pending split payments of each type they take part
+ * in and did not accept yet, oldest first, so every answer of a user goes to the head
+ * of their queue and a user can answer several pending payments one after the other.
+ * A resolved payment is taken out of the queues where it is the head and skipped in
+ * the others when it gets there, so a payment is added, accepted and resolved without
+ * going through the other pending payments.
  */
 public final class SplitPaymentsRegistry {
 
-    private final List<SplitPayment> splitPayments = new ArrayList<>();
-    private static SplitPaymentsRegistry instance;
+    /**
+     * Outcome of a split payment which every participant accepted and paid.
+     */
+    public static final String ACCEPTED = "accepted";
+
+    /**
+     * Outcome of a split payment which one of the participants could not pay.
+     */
+    public static final String INSUFFICIENT_FUNDS = "insufficientFunds";
+
+    /**
+     * Outcome of a split payment which one of the participants rejected.
+     */
+    public static final String REJECTED = "rejected";
+
+    // the pending split payments, oldest first
+    private final Set<SplitPayment> splitPayments = new LinkedHashSet<>();
+
+    // type -> email -> the pending split payments the user did not accept, oldest first
+    private final Map<String, Map<String, ArrayDeque<SplitPayment>>> pendingByUser =
+            new HashMap<>();
+
+    // counts the lookups for the statistics of the bank, null when they are not kept
+    private LongAdder lookupCounter;
 
-    // Private constructor to prevent instantiation
-    private SplitPaymentsRegistry() {
+    /**
+     * Creates an empty registry.
+     */
+    public SplitPaymentsRegistry() {
     }
 
     /**
-     * Singleton instance getter.
+     * Counts every lookup of a split payment into the given counter.
      *
-     * @return the singleton instance of the SplitPaymentsRegistry.
+     * @param counter the counter, or null to stop counting
      */
-    public static SplitPaymentsRegistry getInstance() {
-        if (instance == null) {
-            instance = new SplitPaymentsRegistry();
+    public void setLookupCounter(final LongAdder counter) {
+        this.lookupCounter = counter;
+    }
+
+    private void countLookup() {
+        if (lookupCounter != null) {
+            lookupCounter.increment();
         }
-        return instance;
     }
 
     /**
@@ -36,15 +82,26 @@ public final class SplitPaymentsRegistry {
      */
     public void addSplitPayment(final SplitPayment splitPayment) {
         splitPayments.add(splitPayment);
+
+        Map<String, ArrayDeque<SplitPayment>> queues = pendingByUser.computeIfAbsent(
+                splitPayment.getSplitPaymentType(), type -> new HashMap<>());
+        for (User user : splitPayment.getUsers()) {
+            ArrayDeque<SplitPayment> queue =
+                    queues.computeIfAbsent(user.getEmail(), email -> new ArrayDeque<>());
+            // a user who pays from several accounts is queued once
+            if (queue.peekLast() != splitPayment) {
+                queue.addLast(splitPayment);
+            }
+        }
     }
 
     /**
-     * Retrieves an unmodifiable view of all split payments.
+     * Retrieves a read-only copy of all the pending split payments, oldest first.
      *
      * @return a list of split payments.
      */
     public List<SplitPayment> getSplitPayments() {
-        return Collections.unmodifiableList(splitPayments);
+        return Collections.unmodifiableList(new ArrayList<>(splitPayments));
     }
 
     /**
@@ -52,10 +109,12 @@ public final class SplitPaymentsRegistry {
      */
     public void reset() {
         splitPayments.clear();
+        pendingByUser.clear();
     }
 
     /**
-     * Retrieves a split payment based on the user's email and split payment type.
+     * Retrieves the oldest pending split payment of a type which a user takes part in
+     * and did not accept yet: the one the next answer of the user goes to.
      *
      * @param email the email of the user.
      * @param splitPaymentType the type of split payment.
@@ -63,13 +122,35 @@ public final class SplitPaymentsRegistry {
      */
     public SplitPayment getSplitPaymentByUserEmail(final String email,
                                                    final String splitPaymentType) {
-        for (final SplitPayment splitPayment : splitPayments) {
-            if (splitPayment.checkIfUserIsInPaymentByEmail(email)
-                    && splitPayment.getSplitPaymentType().equals(splitPaymentType)) {
-                return splitPayment;
-            }
+        countLookup();
+        Map<String, ArrayDeque<SplitPayment>> queues = pendingByUser.get(splitPaymentType);
+        if (queues == null) {
+            return null;
+        }
+        ArrayDeque<SplitPayment> queue = queues.get(email);
+        if (queue == null) {
+            return null;
+        }
+        return queue.peekFirst();
+    }
+
+    /**
+     * Records that a user accepted a split payment, which is then no longer in the
+     * queue of the user.
+     *
+     * @param splitPayment the split payment returned by getSplitPaymentByUserEmail.
+     * @param user the user who accepts it.
+     */
+    public void acceptSplitPayment(final SplitPayment splitPayment, final User user) {
+        if (!splitPayment.accept(user)) {
+            return;
+        }
+        Map<String, ArrayDeque<SplitPayment>> queues =
+                pendingByUser.get(splitPayment.getSplitPaymentType());
+        ArrayDeque<SplitPayment> queue = queues.get(user.getEmail());
+        if (queue != null && queue.remove(splitPayment)) {
+            dropResolved(queues, user.getEmail(), queue);
         }
-        return null;
     }
 
     /**
@@ -78,6 +159,132 @@ public final class SplitPaymentsRegistry {
      * @param splitPayment the split payment to remove.
      */
     public void removeSplitPayment(final SplitPayment splitPayment) {
-        splitPayments.remove(splitPayment);
+        if (!splitPayments.remove(splitPayment)) {
+            return;
+        }
+        splitPayment.markResolved();
+
+        Map<String, ArrayDeque<SplitPayment>> queues =
+                pendingByUser.get(splitPayment.getSplitPaymentType());
+        for (User user : splitPayment.getUsers()) {
+            ArrayDeque<SplitPayment> queue = queues.get(user.getEmail());
+            if (queue != null) {
+                dropResolved(queues, user.getEmail(), queue);
+            }
+        }
+    }
+
+    /**
+     * Takes the resolved split payments out of the head of a queue, so its head is
+     * always pending; the ones behind the head are dropped when they reach it.
+     * The queue is forgotten when it is empty.
+     *
+     * @param queues the queues of the users, for one type of split payment
+     * @param email the email of the user
+     * @param queue the queue of the user
+     */
+    private static void dropResolved(final Map<String, ArrayDeque<SplitPayment>> queues,
+                                     final String email,
+                                     final ArrayDeque<SplitPayment> queue) {
+        while (!queue.isEmpty() && queue.peekFirst().isResolved()) {
+            queue.pollFirst();
+        }
+        if (queue.isEmpty()) {
+            queues.remove(email);
+        }
+    }
+
+    /**
+     * Removes a split payment which is no longer pending and records how it ended
+     * as a Flight Recorder event.
+     *
+     * @param splitPayment the split payment to remove.
+     * @param outcome {@link #ACCEPTED}, {@link #INSUFFICIENT_FUNDS} or {@link #REJECTED}.
+     */
+    public void resolveSplitPayment(final SplitPayment splitPayment, final String outcome) {
+        removeSplitPayment(splitPayment);
+
+        SplitPaymentResolvedEvent event = new SplitPaymentResolvedEvent();
+        if (event.shouldCommit()) {
+            event.set(splitPayment.getSplitPaymentType(), outcome,
+                    splitPayment.getAccountsIBAN().size(), splitPayment.getTotalAmount(),
+                    splitPayment.getCurrency(), splitPayment.getTimestamp());
+            event.commit();
+        }
+    }
+
+    /**
+     * Writes the split payments and the queues of the users to a snapshot. The payments
+     * are written once, the pending ones first, followed by the resolved ones still
+     * queued behind the head of a queue, and the queues refer to them.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        Set<SplitPayment> written = new LinkedHashSet<>(splitPayments);
+        for (Map<String, ArrayDeque<SplitPayment>> queues : pendingByUser.values()) {
+            for (ArrayDeque<SplitPayment> queue : queues.values()) {
+                written.addAll(queue);
+            }
+        }
+        writer.writeInt(written.size());
+        for (SplitPayment splitPayment : written) {
+            writer.register(splitPayment);
+            splitPayment.writeTo(writer);
+        }
+
+        writer.writeInt(splitPayments.size());
+        for (SplitPayment splitPayment : splitPayments) {
+            writer.writeRef(splitPayment);
+        }
+        writer.writeInt(pendingByUser.size());
+        for (Map.Entry<String, Map<String, ArrayDeque<SplitPayment>>> type
+                : pendingByUser.entrySet()) {
+            writer.writeString(type.getKey());
+            writer.writeInt(type.getValue().size());
+            for (Map.Entry<String, ArrayDeque<SplitPayment>> queue
+                    : type.getValue().entrySet()) {
+                writer.writeString(queue.getKey());
+                writer.writeInt(queue.getValue().size());
+                for (SplitPayment splitPayment : queue.getValue()) {
+                    writer.writeRef(splitPayment);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads back the split payments and the queues written by
+     * {@link #writeTo(SnapshotWriter)} into this registry, which must be empty.
+     * The users must be read already.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        int count = reader.readLength(Integer.BYTES);
+        for (int i = 0; i < count; i++) {
+            reader.register(SplitPayment.readFrom(reader));
+        }
+
+        count = reader.readLength(Integer.BYTES);
+        for (int i = 0; i < count; i++) {
+            splitPayments.add(reader.readRef(SplitPayment.class));
+        }
+        int types = reader.readLength(Integer.BYTES);
+        for (int i = 0; i < types; i++) {
+            Map<String, ArrayDeque<SplitPayment>> queues = new HashMap<>();
+            pendingByUser.put(reader.readString(), queues);
+            int emails = reader.readLength(Integer.BYTES);
+            for (int j = 0; j < emails; j++) {
+                ArrayDeque<SplitPayment> queue = new ArrayDeque<>();
+                queues.put(reader.readString(), queue);
+                int queued = reader.readLength(Integer.BYTES);
+                for (int k = 0; k < queued; k++) {
+                    queue.addLast(reader.readRef(SplitPayment.class));
+                }
+            }
+        }
     }
 }
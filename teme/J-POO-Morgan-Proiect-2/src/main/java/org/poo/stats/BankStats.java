@@ -0,0 +1,201 @@
+package org.poo.stats;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.poo.bankingApp.BankContext;
+import org.poo.commands.CommandType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics of a bank: the latencies and the number of successful and failed
+ * commands of every kind, the number of lookups in the registries and the number of
+ * currency conversions.
+ * <p>
+ * A command fails if it throws an exception or writes an error to the output, like
+ * "Account not found". The errors only saved in the history of a user, like
+ * "Insufficient funds", are results of commands which succeeded.
+ * <p>
+ * The counters can be updated by several threads at the same time, without locks,
+ * so the commands of a parallel run are counted as well. The commands are measured
+ * by the BankManager, with an {@link org.poo.output.OutcomeSink}. The registries and the
+ * exchange rates count their lookups only after {@link #attach(BankContext)}.
+ */
+public final class BankStats {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[CommandType.values().length];
+    private final LongAdder[] successes = new LongAdder[CommandType.values().length];
+    private final LongAdder[] errors = new LongAdder[CommandType.values().length];
+
+    private final LongAdder userLookups = new LongAdder();
+    private final LongAdder commerciantLookups = new LongAdder();
+    private final LongAdder splitPaymentLookups = new LongAdder();
+    private final LongAdder conversions = new LongAdder();
+
+    /**
+     * Creates empty statistics.
+     */
+    public BankStats() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+            successes[i] = new LongAdder();
+            errors[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Makes the registries and the exchange rates of a bank count their lookups into
+     * these statistics. It is called again when the bank is replaced, for example by
+     * the one restored from a snapshot.
+     *
+     * @param context the state of the bank
+     */
+    public void attach(final BankContext context) {
+        context.getUserRegistry().setLookupCounter(userLookups);
+        context.getCommerciantRegistry().setLookupCounter(commerciantLookups);
+        context.getSplitPaymentsRegistry().setLookupCounter(splitPaymentLookups);
+        context.getExchangeRates().setConversionCounter(conversions);
+    }
+
+    /**
+     * Records a command.
+     *
+     * @param type     the kind of the command
+     * @param duration the duration of the command, in nanoseconds
+     * @param failed   true if the command failed
+     */
+    public void record(final CommandType type, final long duration, final boolean failed) {
+        int kind = type.ordinal();
+        latencies[kind].record(duration);
+        if (failed) {
+            errors[kind].increment();
+        } else {
+            successes[kind].increment();
+        }
+    }
+
+    /**
+     * Returns the latencies of the commands of a kind.
+     *
+     * @param type the kind of the commands
+     * @return the histogram of the latencies
+     */
+    public LatencyHistogram getLatencies(final CommandType type) {
+        return latencies[type.ordinal()];
+    }
+
+    /**
+     * Returns the number of successful commands of a kind.
+     *
+     * @param type the kind of the commands
+     * @return the number of successful commands
+     */
+    public long getSuccesses(final CommandType type) {
+        return successes[type.ordinal()].sum();
+    }
+
+    /**
+     * Returns the number of failed commands of a kind.
+     *
+     * @param type the kind of the commands
+     * @return the number of failed commands
+     */
+    public long getErrors(final CommandType type) {
+        return errors[type.ordinal()].sum();
+    }
+
+    /**
+     * Returns the number of lookups of users, accounts and cards in the user registry.
+     *
+     * @return the number of lookups
+     */
+    public long getUserLookups() {
+        return userLookups.sum();
+    }
+
+    /**
+     * Returns the number of lookups in the commerciant registry.
+     *
+     * @return the number of lookups
+     */
+    public long getCommerciantLookups() {
+        return commerciantLookups.sum();
+    }
+
+    /**
+     * Returns the number of lookups in the split payments registry.
+     *
+     * @return the number of lookups
+     */
+    public long getSplitPaymentLookups() {
+        return splitPaymentLookups.sum();
+    }
+
+    /**
+     * Returns the number of currency conversions.
+     *
+     * @return the number of conversions
+     */
+    public long getConversions() {
+        return conversions.sum();
+    }
+
+    /**
+     * Writes the statistics as a JSON object. Only the kinds of commands which
+     * were executed are written; the latencies are in nanoseconds.
+     *
+     * @param generator the generator to write to
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeJson(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("commands");
+        for (CommandType type : CommandType.values()) {
+            LatencyHistogram histogram = getLatencies(type);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            generator.writeObjectFieldStart(type.getCommandName());
+            generator.writeNumberField("count", histogram.getCount());
+            generator.writeNumberField("successes", getSuccesses(type));
+            generator.writeNumberField("errors", getErrors(type));
+            generator.writeNumberField("totalNanos", histogram.getTotal());
+            generator.writeNumberField("meanNanos", Math.round(histogram.getMean()));
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                generator.writeNumberField(PERCENTILE_NAMES[i] + "Nanos",
+                        histogram.getValueAtPercentile(PERCENTILES[i]));
+            }
+            generator.writeNumberField("maxNanos", histogram.getMax());
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+
+        generator.writeObjectFieldStart("registryLookups");
+        generator.writeNumberField("users", getUserLookups());
+        generator.writeNumberField("commerciants", getCommerciantLookups());
+        generator.writeNumberField("splitPayments", getSplitPaymentLookups());
+        generator.writeEndObject();
+        generator.writeNumberField("exchangeRateConversions", getConversions());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the statistics to a JSON file.
+     *
+     * @param file the file to write
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeJson(final Path file) throws IOException {
+        try (JsonGenerator generator = new ObjectMapper().getFactory()
+                .createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            writeJson(generator);
+        }
+    }
+}
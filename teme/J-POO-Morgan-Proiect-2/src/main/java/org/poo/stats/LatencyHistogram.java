@@ -0,0 +1,148 @@
+package org.poo.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations, in nanoseconds, which several threads can record into
+ * without locks.
+ * <p>
+ * The values are counted in buckets whose width grows with the value, like in
+ * HdrHistogram: the values below 64 have a bucket each, then every power of two is
+ * split into 32 buckets of the same width. A value is reported as the highest value
+ * of its bucket, which is at most 1/32 (about 3%) above it, so the histogram covers
+ * every long value with 1888 counters.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int BUCKETS = SUB_BUCKETS
+            + (Long.SIZE - SUB_BUCKET_BITS - 1) * HALF_SUB_BUCKETS;
+    private static final double PERCENT = 100.0;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalValue = new LongAdder();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value the value, in nanoseconds
+     */
+    public void record(final long value) {
+        long recorded = Math.max(0, value);
+        counts.incrementAndGet(bucketOf(recorded));
+        totalCount.increment();
+        totalValue.add(recorded);
+
+        long max = maxValue.get();
+        while (recorded > max && !maxValue.compareAndSet(max, recorded)) {
+            max = maxValue.get();
+        }
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded values.
+     *
+     * @return the sum, in nanoseconds
+     */
+    public long getTotal() {
+        return totalValue.sum();
+    }
+
+    /**
+     * Returns the largest recorded value, exactly.
+     *
+     * @return the largest value, or 0 if no value was recorded
+     */
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean, or 0 if no value was recorded
+     */
+    public double getMean() {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        return (double) getTotal() / count;
+    }
+
+    /**
+     * Returns the value below which the given percentage of the recorded values are.
+     * The values recorded while the method runs may or may not be counted.
+     *
+     * @param percentile the percentage, between 0 and 100
+     * @return the highest value of the bucket which holds the percentile,
+     * but not more than the largest recorded value; 0 if no value was recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / PERCENT * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns the bucket of a value.
+     *
+     * @param value the value, not negative
+     * @return the index of the bucket
+     */
+    static int bucketOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS + 1;
+        int top = (int) (value >>> shift);
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + top - HALF_SUB_BUCKETS;
+    }
+
+    /**
+     * Returns the highest value counted in a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the highest value of the bucket
+     */
+    static long highestValueOf(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int offset = bucket - SUB_BUCKETS;
+        int shift = offset / HALF_SUB_BUCKETS + 1;
+        long top = offset % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        long lowest = top << shift;
+        return lowest + ((1L << shift) - 1);
+    }
+}
@@ -1,7 +1,10 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 /**
  * Represents a transaction for a destroyed card.
  */
@@ -39,4 +42,47 @@ public final class CardDestroyed extends Transaction {
         node.put("description", getDescription());
         node.put("timestamp", getTimestamp());
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, ACCOUNT, account);
+        writeString(generator, CARD, card);
+        writeString(generator, CARD_HOLDER, cardHolder);
+        writeString(generator, DESCRIPTION, getDescription());
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.CARD_DESTROYED;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void writeFields(final TransactionRow row) {
+        row.putString(account);
+        row.putString(card);
+        row.putString(cardHolder);
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static CardDestroyed readFrom(final TransactionRow row) {
+        return new CardDestroyed(row.getTimestamp(), row.getDescription(),
+                row.nextString(), row.nextString(), row.nextString());
+    }
 }
@@ -1,7 +1,10 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 /**
  * Represents a card payment transaction.
  * This class is designed to store details about a card payment.
@@ -55,4 +58,45 @@ public final class CardPaymentTransaction extends Transaction {
         node.put("description", getDescription());
         node.put("timestamp", getTimestamp());
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeNumber(generator, AMOUNT, getAmount());
+        writeString(generator, COMMERCIANT, getCommerciant());
+        writeString(generator, DESCRIPTION, getDescription());
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.CARD_PAYMENT;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void writeFields(final TransactionRow row) {
+        row.putAmount(amount);
+        row.putString(commerciant);
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static CardPaymentTransaction readFrom(final TransactionRow row) {
+        return new CardPaymentTransaction(row.getTimestamp(), row.getDescription(),
+                row.getAmount(), row.nextString());
+    }
 }
@@ -1,7 +1,10 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 /**
  * Represents a cash withdrawal error transaction.
  */
@@ -26,4 +29,33 @@ public final class CashWithdrawalError extends Transaction {
         node.put("description", getDescription());
         node.put("timestamp", getTimestamp());
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, DESCRIPTION, getDescription());
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.CASH_WITHDRAWAL_ERROR;
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static CashWithdrawalError readFrom(final TransactionRow row) {
+        return new CashWithdrawalError(row.getTimestamp(), row.getDescription());
+    }
 }
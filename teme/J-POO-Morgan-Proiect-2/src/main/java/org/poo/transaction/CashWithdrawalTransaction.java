@@ -1,7 +1,10 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 /**
  * Represents a cash withdrawal transaction.
  */
@@ -40,4 +43,43 @@ public final class CashWithdrawalTransaction extends Transaction {
         node.put("description", getDescription());
         node.put("timestamp", getTimestamp());
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeNumber(generator, AMOUNT, getAmount());
+        writeString(generator, DESCRIPTION, getDescription());
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.CASH_WITHDRAWAL;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void writeFields(final TransactionRow row) {
+        row.putAmount(amount);
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static CashWithdrawalTransaction readFrom(final TransactionRow row) {
+        return new CashWithdrawalTransaction(row.getTimestamp(), row.getDescription(),
+                row.getAmount());
+    }
 }
@@ -1,7 +1,10 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 /**
  * Transaction that represents an error when trying to delete an account.
  */
@@ -25,4 +28,33 @@ public final class ErrorDeleteAccount extends Transaction {
         node.put("description", getDescription());
         node.put("timestamp", getTimestamp());
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, DESCRIPTION, getDescription());
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.ERROR_DELETE_ACCOUNT;
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static ErrorDeleteAccount readFrom(final TransactionRow row) {
+        return new ErrorDeleteAccount(row.getTimestamp(), row.getDescription());
+    }
 }
@@ -1,7 +1,10 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 /**
  * This class represents a transaction involving interest rate income.
  * It extends the Transaction class and provides details about the amount and currency.
@@ -57,4 +60,45 @@ public final class InterestRateIncome extends Transaction {
         node.put("description", getDescription());
         node.put("timestamp", getTimestamp());
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeNumber(generator, AMOUNT, getAmount());
+        writeString(generator, CURRENCY, getCurrency());
+        writeString(generator, DESCRIPTION, getDescription());
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.INTEREST_RATE_INCOME;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void writeFields(final TransactionRow row) {
+        row.putAmount(amount);
+        row.putString(currency);
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static InterestRateIncome readFrom(final TransactionRow row) {
+        return new InterestRateIncome(row.getTimestamp(), row.getDescription(),
+                row.getAmount(), row.nextString());
+    }
 }
@@ -1,7 +1,10 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 /**
  * Represents a transaction for the creation of a new card.
  */
@@ -68,4 +71,47 @@ public final class NewCardCreatedTransaction extends Transaction {
         node.put("description", getDescription());
         node.put("timestamp", getTimestamp());
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, ACCOUNT, getIban());
+        writeString(generator, CARD, getCardNumber());
+        writeString(generator, CARD_HOLDER, getEmail());
+        writeString(generator, DESCRIPTION, getDescription());
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.NEW_CARD_CREATED;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void writeFields(final TransactionRow row) {
+        row.putString(iban);
+        row.putString(cardNumber);
+        row.putString(email);
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static NewCardCreatedTransaction readFrom(final TransactionRow row) {
+        return new NewCardCreatedTransaction(row.getTimestamp(), row.getDescription(),
+                row.nextString(), row.nextString(), row.nextString());
+    }
 }
@@ -1,7 +1,10 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 /**
  * Class representing a transaction for sending money
  * from one account to another.
@@ -96,4 +99,51 @@ public final class SendMoneyTransaction extends Transaction {
         node.put("timestamp", getTimestamp());
         node.put("transferType", getTransferType());
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, AMOUNT, getAmount() + " " + getCurrency());
+        writeString(generator, DESCRIPTION, getDescription());
+        writeString(generator, RECEIVER_IBAN, getReceiverIBAN());
+        writeString(generator, SENDER_IBAN, getSenderIBAN());
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        writeString(generator, TRANSFER_TYPE, getTransferType());
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.SEND_MONEY;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void writeFields(final TransactionRow row) {
+        row.putAmount(amount);
+        row.putString(senderIBAN);
+        row.putString(receiverIBAN);
+        row.putString(currency);
+        row.putString(transferType);
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static SendMoneyTransaction readFrom(final TransactionRow row) {
+        return new SendMoneyTransaction(row.getTimestamp(), row.getDescription(),
+                row.nextString(), row.nextString(), row.getAmount(), row.nextString(),
+                row.nextString());
+    }
 }
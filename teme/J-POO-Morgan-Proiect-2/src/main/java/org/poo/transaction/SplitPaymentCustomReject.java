@@ -1,8 +1,10 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
 import java.util.List;
 
 public class SplitPaymentCustomReject extends Transaction {
@@ -90,4 +92,50 @@ public class SplitPaymentCustomReject extends Transaction {
         }
         node.put("splitPaymentType", getSplitPaymentType());
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        writeString(generator, DESCRIPTION, getDescription());
+        writeString(generator, ERROR, "One user rejected the payment.");
+        writeNumbers(generator, AMOUNT_FOR_USERS, getAmountForUsers());
+        writeString(generator, CURRENCY, getCurrency());
+        writeStrings(generator, INVOLVED_ACCOUNTS, getInvolvedAccounts());
+        writeString(generator, SPLIT_PAYMENT_TYPE, getSplitPaymentType());
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.SPLIT_PAYMENT_CUSTOM_REJECT;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void writeFields(final TransactionRow row) {
+        row.putDoubles(amountForUsers);
+        row.putString(currency);
+        row.putStrings(involvedAccounts);
+        row.putString(splitPaymentType);
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static SplitPaymentCustomReject readFrom(final TransactionRow row) {
+        return new SplitPaymentCustomReject(row.getTimestamp(), row.getDescription(),
+                row.nextDoubles(), row.nextString(), row.nextStrings(), row.nextString());
+    }
 }
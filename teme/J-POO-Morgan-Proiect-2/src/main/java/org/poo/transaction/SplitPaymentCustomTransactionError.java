@@ -1,8 +1,10 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -105,4 +107,52 @@ public final class SplitPaymentCustomTransactionError extends Transaction {
         node.put("splitPaymentType", getSplitPaymentType());
         node.put("timestamp", getTimestamp());
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeNumbers(generator, AMOUNT_FOR_USERS, getAmountForUsers());
+        writeString(generator, CURRENCY, getCurrency());
+        writeString(generator, DESCRIPTION, getDescription());
+        writeString(generator, ERROR, getError());
+        writeStrings(generator, INVOLVED_ACCOUNTS, getInvolvedAccounts());
+        writeString(generator, SPLIT_PAYMENT_TYPE, getSplitPaymentType());
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.SPLIT_PAYMENT_CUSTOM_ERROR;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void writeFields(final TransactionRow row) {
+        row.putDoubles(amountForUsers);
+        row.putString(currency);
+        row.putStrings(involvedAccounts);
+        row.putString(splitPaymentType);
+        row.putString(error);
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static SplitPaymentCustomTransactionError readFrom(final TransactionRow row) {
+        return new SplitPaymentCustomTransactionError(row.getTimestamp(), row.getDescription(),
+                row.nextDoubles(), row.nextString(), row.nextStrings(), row.nextString(),
+                row.nextString());
+    }
 }
@@ -1,8 +1,10 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -77,4 +79,47 @@ public final class SplitPaymentTransaction extends Transaction {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        writeString(generator, DESCRIPTION, getDescription());
+        writeString(generator, CURRENCY, getCurrency());
+        writeNumber(generator, AMOUNT, getAmount());
+        writeString(generator, SPLIT_PAYMENT_TYPE, "equal");
+        writeStrings(generator, INVOLVED_ACCOUNTS, getInvolvedAccounts());
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.SPLIT_PAYMENT;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void writeFields(final TransactionRow row) {
+        row.putAmount(amount);
+        row.putString(currency);
+        row.putStrings(involvedAccounts);
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static SplitPaymentTransaction readFrom(final TransactionRow row) {
+        return new SplitPaymentTransaction(row.getTimestamp(), row.getDescription(),
+                row.getAmount(), row.nextString(), row.nextStrings());
+    }
 }
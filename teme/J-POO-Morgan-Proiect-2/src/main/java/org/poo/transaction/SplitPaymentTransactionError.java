@@ -1,8 +1,10 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -94,4 +96,52 @@ public final class SplitPaymentTransactionError extends Transaction {
         node.put("splitPaymentType", splitPaymentType);
 
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        writeString(generator, DESCRIPTION, getDescription());
+        writeString(generator, ERROR, getError());
+        writeString(generator, CURRENCY, getCurrency());
+        writeNumber(generator, AMOUNT, getAmount());
+        writeStrings(generator, INVOLVED_ACCOUNTS, getInvolvedAccounts());
+        writeString(generator, SPLIT_PAYMENT_TYPE, splitPaymentType);
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.SPLIT_PAYMENT_ERROR;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void writeFields(final TransactionRow row) {
+        row.putAmount(amount);
+        row.putString(currency);
+        row.putStrings(involvedAccounts);
+        row.putString(error);
+        row.putString(splitPaymentType);
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static SplitPaymentTransactionError readFrom(final TransactionRow row) {
+        return new SplitPaymentTransactionError(row.getTimestamp(), row.getDescription(),
+                row.getAmount(), row.nextString(), row.nextStrings(), row.nextString(),
+                row.nextString());
+    }
 }
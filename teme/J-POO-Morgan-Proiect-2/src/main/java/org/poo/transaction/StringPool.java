@@ -0,0 +1,79 @@
+package org.poo.transaction;
+
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Gives every distinct string an int id, so the transaction store keeps each
+ * description, currency and IBAN only once, however many transactions use it.
+ * The ids start from 0, in the order the strings were first seen.
+ */
+final class StringPool {
+    // the id of null
+    static final int NULL_ID = -1;
+
+    private final ArrayList<String> strings = new ArrayList<>();
+    private final HashMap<String, Integer> ids = new HashMap<>();
+
+    /**
+     * Returns the id of a string, giving it a new one if it was not seen before.
+     *
+     * @param string the string, can be null
+     * @return the id of the string
+     */
+    int intern(final String string) {
+        if (string == null) {
+            return NULL_ID;
+        }
+        Integer id = ids.get(string);
+        if (id == null) {
+            id = strings.size();
+            strings.add(string);
+            ids.put(string, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the string with the given id.
+     *
+     * @param id the id returned by {@link #intern(String)}
+     * @return the string, or null for {@link #NULL_ID}
+     */
+    String get(final int id) {
+        if (id == NULL_ID) {
+            return null;
+        }
+        return strings.get(id);
+    }
+
+    /**
+     * Returns the number of distinct strings.
+     *
+     * @return the number of strings
+     */
+    int size() {
+        return strings.size();
+    }
+
+    void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeInt(strings.size());
+        for (String string : strings) {
+            writer.writeString(string);
+        }
+    }
+
+    void readFrom(final SnapshotReader reader) throws IOException {
+        int count = reader.readLength(Integer.BYTES);
+        for (int i = 0; i < count; i++) {
+            intern(reader.readString());
+        }
+        if (strings.size() != count) {
+            throw reader.corrupted("string pool");
+        }
+    }
+}
@@ -1,18 +1,57 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+import java.util.List;
+
 /**
  * Represents a general transaction.
  * This is an abstract base class designed to be extended by
  * specific transaction types.
  * The transactions will be included in reports for the account and user.
+ * <p>
+ * The reports save the transactions in a {@link TransactionStore}. Every subclass
+ * has a kind, writes its fields to a row of the store and has a static
+ * {@code readFrom} method, which builds the transaction back from the row.
  */
 public abstract class Transaction {
 
+    // the names of the fields written by the transactions, encoded once
+    static final SerializedString ACCOUNT = new SerializedString("account");
+    static final SerializedString ACCOUNT_IBAN = new SerializedString("accountIBAN");
+    static final SerializedString AMOUNT = new SerializedString("amount");
+    static final SerializedString AMOUNT_FOR_USERS = new SerializedString("amountForUsers");
+    static final SerializedString CARD = new SerializedString("card");
+    static final SerializedString CARD_HOLDER = new SerializedString("cardHolder");
+    static final SerializedString CLASSIC_ACCOUNT_IBAN =
+            new SerializedString("classicAccountIBAN");
+    static final SerializedString COMMERCIANT = new SerializedString("commerciant");
+    static final SerializedString CURRENCY = new SerializedString("currency");
+    static final SerializedString DESCRIPTION = new SerializedString("description");
+    static final SerializedString ERROR = new SerializedString("error");
+    static final SerializedString INVOLVED_ACCOUNTS = new SerializedString("involvedAccounts");
+    static final SerializedString NEW_PLAN_TYPE = new SerializedString("newPlanType");
+    static final SerializedString RECEIVER_IBAN = new SerializedString("receiverIBAN");
+    static final SerializedString SAVINGS_ACCOUNT_IBAN =
+            new SerializedString("savingsAccountIBAN");
+    static final SerializedString SENDER_IBAN = new SerializedString("senderIBAN");
+    static final SerializedString SPLIT_PAYMENT_TYPE = new SerializedString("splitPaymentType");
+    static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    static final SerializedString TRANSFER_TYPE = new SerializedString("transferType");
+
+
     private final int timestamp;
     private final String description;
 
+    // the store which saved the transaction and its row there, so a transaction
+    // added to several reports is saved only once
+    private TransactionStore savedIn;
+    private int savedRow;
+
     /**
      * Constructs a Transaction.
      *
@@ -49,4 +88,129 @@ public abstract class Transaction {
      * @param node the ObjectNode to populate with transaction details
      */
     public abstract void toJson(ObjectNode node);
+
+    /**
+     * Writes the transaction as a JSON object, with the same fields in the same
+     * order as {@link #toJson(ObjectNode)}, without building a node.
+     *
+     * @param generator the generator to write to
+     * @throws IOException in case of exceptions to writing
+     */
+    public abstract void writeTo(JsonGenerator generator) throws IOException;
+
+    /**
+     * Returns the kind of the transaction, saved in its row.
+     *
+     * @return the kind of the transaction
+     */
+    abstract TransactionKind getKind();
+
+    /**
+     * Writes the fields of the transaction, other than the timestamp and the
+     * description, to its row. The transactions which only have a description
+     * write nothing.
+     *
+     * @param row the row of the transaction
+     */
+    void writeFields(final TransactionRow row) {
+    }
+
+    /**
+     * Returns the row of the transaction in a store.
+     *
+     * @param store the store
+     * @return the row, or -1 if the transaction was not saved in the store
+     */
+    final int rowIn(final TransactionStore store) {
+        return savedIn == store ? savedRow : -1;
+    }
+
+    /**
+     * Remembers where the transaction was saved.
+     *
+     * @param store the store
+     * @param row   the row of the transaction
+     */
+    final void savedAt(final TransactionStore store, final int row) {
+        savedIn = store;
+        savedRow = row;
+    }
+
+    /**
+     * Writes a string field.
+     *
+     * @param generator the generator to write to
+     * @param name      the name of the field
+     * @param value     the value, can be null
+     * @throws IOException in case of exceptions to writing
+     */
+    static void writeString(final JsonGenerator generator, final SerializableString name,
+                            final String value) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeString(value);
+    }
+
+    /**
+     * Writes an int field.
+     *
+     * @param generator the generator to write to
+     * @param name      the name of the field
+     * @param value     the value
+     * @throws IOException in case of exceptions to writing
+     */
+    static void writeNumber(final JsonGenerator generator, final SerializableString name,
+                            final int value) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeNumber(value);
+    }
+
+    /**
+     * Writes a double field.
+     *
+     * @param generator the generator to write to
+     * @param name      the name of the field
+     * @param value     the value
+     * @throws IOException in case of exceptions to writing
+     */
+    static void writeNumber(final JsonGenerator generator, final SerializableString name,
+                            final double value) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeNumber(value);
+    }
+
+    /**
+     * Writes an array of strings.
+     *
+     * @param generator the generator to write to
+     * @param name      the name of the field
+     * @param values    the values
+     * @throws IOException in case of exceptions to writing
+     */
+    static void writeStrings(final JsonGenerator generator, final SerializableString name,
+                             final List<String> values) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeStartArray();
+        for (String value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Writes an array of doubles.
+     *
+     * @param generator the generator to write to
+     * @param name      the name of the field
+     * @param values    the values
+     * @throws IOException in case of exceptions to writing
+     */
+    static void writeNumbers(final JsonGenerator generator, final SerializableString name,
+                             final List<Double> values) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeStartArray();
+        for (double value : values) {
+            generator.writeNumber(value);
+        }
+        generator.writeEndArray();
+    }
 }
@@ -0,0 +1,64 @@
+package org.poo.transaction;
+
+import java.util.function.Function;
+
+/**
+ * The kinds of transactions, saved as a code in every row of the transaction store.
+ * Each kind knows how to build its transaction back from a row.
+ * <p>
+ * The codes are the ordinals, so new kinds are added at the end.
+ */
+enum TransactionKind {
+    CARD_DESTROYED(CardDestroyed::readFrom),
+    CARD_PAYMENT(CardPaymentTransaction::readFrom),
+    CASH_WITHDRAWAL_ERROR(CashWithdrawalError::readFrom),
+    CASH_WITHDRAWAL(CashWithdrawalTransaction::readFrom),
+    ERROR_DELETE_ACCOUNT(ErrorDeleteAccount::readFrom),
+    FROZEN_CARD(FrozenCard::readFrom),
+    INSUFFICIENT_FUNDS(InsufficientFunds::readFrom),
+    INTEREST_RATE_CHANGE(InterestRateChange::readFrom),
+    INTEREST_RATE_INCOME(InterestRateIncome::readFrom),
+    NEW_ACCOUNT_CREATED(NewAccountCreated::readFrom),
+    NEW_CARD_CREATED(NewCardCreatedTransaction::readFrom),
+    SEND_MONEY(SendMoneyTransaction::readFrom),
+    SPENDINGS_REPORT_ERROR(SpendingsReportError::readFrom),
+    SPLIT_PAYMENT_CUSTOM_REJECT(SplitPaymentCustomReject::readFrom),
+    SPLIT_PAYMENT_CUSTOM(SplitPaymentCustomTransaction::readFrom),
+    SPLIT_PAYMENT_CUSTOM_ERROR(SplitPaymentCustomTransactionError::readFrom),
+    SPLIT_PAYMENT(SplitPaymentTransaction::readFrom),
+    SPLIT_PAYMENT_ERROR(SplitPaymentTransactionError::readFrom),
+    UPGRADE_PLAN_ERROR(UpgradePlanError::readFrom),
+    UPGRADE_PLAN(UpgradePlanTransaction::readFrom),
+    WARNING_FOR_PAY(WarningForPay::readFrom),
+    WITHDRAW_SAVINGS(WithdrawSavingsTransaction::readFrom),
+    WITHDRAW_SAVINGS_SUCCESS(WithdrawSavingsTransactionSucces::readFrom),
+    VELOCITY_LIMIT(VelocityLimitTransaction::readFrom);
+
+    private static final TransactionKind[] KINDS = values();
+
+    private final Function<TransactionRow, Transaction> reader;
+
+    TransactionKind(final Function<TransactionRow, Transaction> reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Builds the transaction saved in a row.
+     *
+     * @param row the row, positioned at its first field
+     * @return a new transaction, equal to the one which was saved
+     */
+    Transaction read(final TransactionRow row) {
+        return reader.apply(row);
+    }
+
+    /**
+     * Returns the kind with the given code.
+     *
+     * @param code the code saved in the store
+     * @return the kind
+     */
+    static TransactionKind fromCode(final int code) {
+        return KINDS[code];
+    }
+}
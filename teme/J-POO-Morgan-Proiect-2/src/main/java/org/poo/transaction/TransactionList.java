@@ -0,0 +1,280 @@
+package org.poo.transaction;
+
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The transactions of a report, kept as their rows in a {@link TransactionStore}.
+ * The transactions are built back from the store only when they are read.
+ * <p>
+ * Like the TimeRangeIndex of the reports, the list keeps the rows in the order
+ * they were added and the timestamps sorted, so the transactions between two
+ * timestamps are found with a binary search. While every transaction is added in
+ * timestamp order, the sorted timestamps are at the same positions as the rows.
+ * The positions of the rows in timestamp order are kept only after a transaction
+ * comes with a timestamp lower than the last one.
+ * <p>
+ * Adding a transaction takes constant time, even out of order: a transaction with
+ * a timestamp lower than the last sorted one, like the ones of a split payment written
+ * at the timestamp of the payment, goes to a side buffer. The buffer is sorted and
+ * merged into the sorted timestamps when the list is read by timestamp, or when it
+ * grows past an eighth of the list, so the merges cost a constant time per transaction.
+ */
+public final class TransactionList {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // the side buffer is merged when it has more than this many transactions and
+    // more than the size of the list divided by MERGE_RATIO
+    private static final int MIN_MERGE = 64;
+    private static final int MERGE_RATIO = 8;
+
+    private final TransactionStore store;
+
+    // the rows, in the order they were added
+    private int[] rows = new int[INITIAL_CAPACITY];
+    private int size;
+
+    // the timestamps, sorted, and the position of each row; null while in order
+    private int[] sortedTimestamps = new int[INITIAL_CAPACITY];
+    private int[] sortedPositions;
+
+    // the transactions which came out of order and are not merged yet, as keys made of
+    // their timestamp and position; null until the first one comes
+    private long[] pending;
+    private int pendingCount;
+
+    /**
+     * Creates an empty list.
+     *
+     * @param store the store which saves the transactions
+     */
+    public TransactionList(final TransactionStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Saves a transaction in the store, if it is not already there,
+     * and adds it at the end of the list.
+     *
+     * @param transaction the transaction to add
+     */
+    public void add(final Transaction transaction) {
+        append(store.add(transaction), transaction.getTimestamp());
+    }
+
+    /**
+     * Writes the rows of the list to a snapshot, in the order they were added.
+     * The store is written by its owner.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeInts(rows, size);
+    }
+
+    /**
+     * Reads back the rows written by {@link #writeTo(SnapshotWriter)} into this list,
+     * which must be empty, and sorts them again by their timestamps in the store.
+     * The store must be read first.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        int stored = store.size();
+        for (int row : reader.readInts()) {
+            if (row < 0 || row >= stored) {
+                throw reader.corrupted("transaction " + row);
+            }
+            append(row, store.timestampAt(row));
+        }
+    }
+
+    private void append(final int row, final int timestamp) {
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size * 2);
+            sortedTimestamps = Arrays.copyOf(sortedTimestamps, size * 2);
+            if (sortedPositions != null) {
+                sortedPositions = Arrays.copyOf(sortedPositions, size * 2);
+            }
+        }
+
+        int sorted = size - pendingCount;
+        if (sorted > 0 && sortedTimestamps[sorted - 1] > timestamp) {
+            if (sortedPositions == null) {
+                sortedPositions = new int[rows.length];
+                for (int i = 0; i < sorted; i++) {
+                    sortedPositions[i] = i;
+                }
+            }
+            addPending(key(timestamp, size));
+        } else {
+            sortedTimestamps[sorted] = timestamp;
+            if (sortedPositions != null) {
+                sortedPositions[sorted] = size;
+            }
+        }
+        rows[size++] = row;
+
+        if (pendingCount > MIN_MERGE && pendingCount > size / MERGE_RATIO) {
+            merge();
+        }
+    }
+
+    private void addPending(final long key) {
+        if (pending == null) {
+            pending = new long[INITIAL_CAPACITY];
+        } else if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+        }
+        pending[pendingCount++] = key;
+    }
+
+    /**
+     * Sorts the side buffer and merges it into the sorted timestamps. The transactions
+     * are ordered by timestamp and then by position, like a stable sort.
+     */
+    private void merge() {
+        if (pendingCount == 0) {
+            return;
+        }
+        Arrays.sort(pending, 0, pendingCount);
+
+        int sorted = size - pendingCount;
+        int[] timestamps = new int[rows.length];
+        int[] positions = new int[rows.length];
+        int next = 0;
+        int index = 0;
+        for (int merged = 0; merged < size; merged++) {
+            if (next == pendingCount || (index < sorted
+                    && key(sortedTimestamps[index], sortedPositions[index]) < pending[next])) {
+                timestamps[merged] = sortedTimestamps[index];
+                positions[merged] = sortedPositions[index];
+                index++;
+            } else {
+                timestamps[merged] = (int) (pending[next] >> Integer.SIZE);
+                positions[merged] = (int) pending[next];
+                next++;
+            }
+        }
+        sortedTimestamps = timestamps;
+        sortedPositions = positions;
+        pendingCount = 0;
+    }
+
+    /**
+     * Returns a key which orders the transactions by timestamp and then by position.
+     */
+    private static long key(final int timestamp, final int position) {
+        return ((long) timestamp << Integer.SIZE) | position;
+    }
+
+    /**
+     * Returns the number of transactions.
+     *
+     * @return the number of transactions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns all the transactions, in the order they were added.
+     *
+     * @return a new list of the transactions
+     */
+    public List<Transaction> getAll() {
+        return store.get(rows, 0, size);
+    }
+
+    /**
+     * Returns all the transactions, sorted by timestamp. The transactions with
+     * the same timestamp are in the order they were added.
+     *
+     * @return a new list of the transactions
+     */
+    public List<Transaction> getAllByTimestamp() {
+        merge();
+        if (sortedPositions == null) {
+            return getAll();
+        }
+        return store.get(rowsAt(sortedPositions, size), 0, size);
+    }
+
+    /**
+     * Returns the transactions with a timestamp between the two timestamps, inclusive,
+     * in the order they were added.
+     *
+     * @param timestampStart the start timestamp
+     * @param timestampEnd   the end timestamp
+     * @return a new list of the transactions in the range
+     */
+    public List<Transaction> between(final int timestampStart, final int timestampEnd) {
+        if (timestampStart > timestampEnd) {
+            return Collections.emptyList();
+        }
+        merge();
+
+        int from = lowerBound(timestampStart);
+        int to = upperBound(timestampEnd);
+        if (sortedPositions == null) {
+            return store.get(rows, from, to);
+        }
+
+        // put the rows of the range back in the order they were added
+        int[] positions = Arrays.copyOfRange(sortedPositions, from, to);
+        Arrays.sort(positions);
+        return store.get(rowsAt(positions, positions.length), 0, positions.length);
+    }
+
+    /**
+     * Returns the rows at the first positions of an array of positions.
+     */
+    private int[] rowsAt(final int[] positions, final int count) {
+        int[] selected = new int[count];
+        for (int i = 0; i < count; i++) {
+            selected[i] = rows[positions[i]];
+        }
+        return selected;
+    }
+
+    /**
+     * Finds the first position in the index with a timestamp greater or equal to the given one.
+     */
+    private int lowerBound(final int timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedTimestamps[middle] < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first position in the index with a timestamp greater than the given one.
+     */
+    private int upperBound(final int timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedTimestamps[middle] <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
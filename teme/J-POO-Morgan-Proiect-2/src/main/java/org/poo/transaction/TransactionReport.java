@@ -1,29 +1,40 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import java.util.ArrayList;
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
 import java.util.List;
 
 /**
  * Represents a report that contains a list of transactions for the user.
  * Will be used for command printTransactions.
+ * <p>
+ * The transactions are saved in the transaction store of the bank and are read
+ * sorted by timestamp. Transactions with the same timestamp keep the order in which
+ * they were added, like a stable sort of the whole list.
  */
 public final class TransactionReport {
 
-    private final List<Transaction> transactions;
+    private final TransactionList transactions;
 
     /**
      * Constructs a TransactionReport with an empty list of transactions.
+     *
+     * @param store the store which saves the transactions
      */
-    public TransactionReport() {
-        transactions = new ArrayList<>();
+    public TransactionReport(final TransactionStore store) {
+        transactions = new TransactionList(store);
     }
 
     /**
-     * Adds a transaction to the report.
+     * Adds a transaction to the report, after all the transactions with
+     * a timestamp lower or equal to its timestamp.
      *
      * @param transaction The transaction to add.
      */
@@ -32,12 +43,32 @@ public final class TransactionReport {
     }
 
     /**
-     * Retrieves the list of transactions in the report.
+     * Retrieves the list of transactions in the report, sorted by timestamp.
      *
-     * @return A list of transactions.
+     * @return A new list of transactions.
      */
     public List<Transaction> getTransactions() {
-        return transactions;
+        return transactions.getAllByTimestamp();
+    }
+
+    /**
+     * Writes the transactions of the report to a snapshot.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        transactions.writeTo(writer);
+    }
+
+    /**
+     * Reads back the transactions written by {@link #writeTo(SnapshotWriter)}.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        transactions.readFrom(reader);
     }
 
     /**
@@ -55,7 +86,7 @@ public final class TransactionReport {
 
             // go through each transaction and add it to the report
             ArrayNode transactionArray = output.putArray("output");
-            for (Transaction transaction : transactions) {
+            for (Transaction transaction : getTransactions()) {
                 ObjectNode transactionNode = transactionArray.addObject();
                 transaction.toJson(transactionNode);
             }
@@ -66,4 +97,27 @@ public final class TransactionReport {
             throw new RuntimeException("Error generating report", e);
         }
     }
+
+    /**
+     * Writes the JSON report of all transactions, the same as the one of
+     * {@link #generateReport(int)}, without building the nodes.
+     *
+     * @param generator the generator to write to
+     * @param timestamp the timestamp to include in the report
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeReport(final JsonGenerator generator, final int timestamp)
+            throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("command", "printTransactions");
+
+        generator.writeArrayFieldStart("output");
+        for (Transaction transaction : getTransactions()) {
+            transaction.writeTo(generator);
+        }
+        generator.writeEndArray();
+
+        generator.writeNumberField("timestamp", timestamp);
+        generator.writeEndObject();
+    }
 }
@@ -0,0 +1,161 @@
+package org.poo.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A row of the transaction store, seen by a transaction which saves its fields
+ * in it or which is built back from it.
+ * <p>
+ * The timestamp, the description and the amount have their own columns. The other
+ * fields are written one after the other and must be read in the same order:
+ * the strings as their ids in the string pool, the lists as their size followed by
+ * their elements, and a double as the two halves of its bits.
+ */
+final class TransactionRow {
+    private static final int NULL_LIST = -1;
+    private static final int INT_BITS = 32;
+    private static final long LOW_BITS = 0xFFFFFFFFL;
+
+    private final TransactionStore store;
+    private final int row;
+
+    // the position of the next field to read
+    private int next;
+
+    /**
+     * Creates a view of a row, positioned at its first field.
+     *
+     * @param store the store which holds the row
+     * @param row   the row
+     */
+    TransactionRow(final TransactionStore store, final int row) {
+        this.store = store;
+        this.row = row;
+        this.next = store.fieldsStart(row);
+    }
+
+    /**
+     * Sets the amount of the transaction.
+     *
+     * @param amount the amount
+     */
+    void putAmount(final double amount) {
+        store.setAmount(row, amount);
+    }
+
+    /**
+     * Writes a string field.
+     *
+     * @param string the string, can be null
+     */
+    void putString(final String string) {
+        store.appendField(store.intern(string));
+    }
+
+    /**
+     * Writes a list of strings.
+     *
+     * @param strings the strings, can be null
+     */
+    void putStrings(final List<String> strings) {
+        if (strings == null) {
+            store.appendField(NULL_LIST);
+            return;
+        }
+        store.appendField(strings.size());
+        for (String string : strings) {
+            putString(string);
+        }
+    }
+
+    /**
+     * Writes a list of doubles.
+     *
+     * @param values the values, can be null
+     */
+    void putDoubles(final List<Double> values) {
+        if (values == null) {
+            store.appendField(NULL_LIST);
+            return;
+        }
+        store.appendField(values.size());
+        for (Double value : values) {
+            long bits = Double.doubleToRawLongBits(value);
+            store.appendField((int) (bits >>> INT_BITS));
+            store.appendField((int) bits);
+        }
+    }
+
+    /**
+     * Returns the timestamp of the transaction.
+     *
+     * @return the timestamp
+     */
+    int getTimestamp() {
+        return store.timestampOf(row);
+    }
+
+    /**
+     * Returns the description of the transaction.
+     *
+     * @return the description
+     */
+    String getDescription() {
+        return store.descriptionOf(row);
+    }
+
+    /**
+     * Returns the amount of the transaction.
+     *
+     * @return the amount, or 0 if the transaction did not set one
+     */
+    double getAmount() {
+        return store.amountOf(row);
+    }
+
+    /**
+     * Reads the next field as a string.
+     *
+     * @return the string
+     */
+    String nextString() {
+        return store.string(store.field(next++));
+    }
+
+    /**
+     * Reads the next field as a list of strings.
+     *
+     * @return a new list, or null if null was written
+     */
+    List<String> nextStrings() {
+        int size = store.field(next++);
+        if (size == NULL_LIST) {
+            return null;
+        }
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(nextString());
+        }
+        return strings;
+    }
+
+    /**
+     * Reads the next field as a list of doubles.
+     *
+     * @return a new list, or null if null was written
+     */
+    List<Double> nextDoubles() {
+        int size = store.field(next++);
+        if (size == NULL_LIST) {
+            return null;
+        }
+        List<Double> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long high = store.field(next++);
+            long low = store.field(next++) & LOW_BITS;
+            values.add(Double.longBitsToDouble(high << INT_BITS | low));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,228 @@
+package org.poo.transaction;
+
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Holds every transaction of a bank, one row per transaction, in arrays of
+ * primitives instead of one object per transaction.
+ * <p>
+ * A row is made of the timestamp, the code of the kind of the transaction, the id of
+ * its description, its amount and the position of its other fields. The fields are
+ * ints in one shared array: the currencies, IBANs, card numbers and the other strings
+ * are saved as ids in a {@link StringPool}, so a string used by many transactions
+ * is kept only once. The amounts are saved as the bits of the doubles, so the
+ * transactions are built back exactly as they were.
+ * <p>
+ * The reports of the users and of the accounts keep the numbers of the rows, see
+ * {@link TransactionList}. A transaction added to several reports is saved once.
+ * The transaction objects are built back only when a report is written.
+ * <p>
+ * The methods are synchronized, because the commands of a parallel run save
+ * transactions at the same time.
+ */
+public final class TransactionStore {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final StringPool strings = new StringPool();
+
+    private int size;
+    private int[] timestamps = new int[INITIAL_CAPACITY];
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] descriptions = new int[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private int[] fieldStarts = new int[INITIAL_CAPACITY];
+
+    // the other fields of all the rows, one after the other
+    private int[] fields = new int[INITIAL_CAPACITY];
+    private int fieldCount;
+
+    /**
+     * Saves a transaction, unless it was already saved in this store.
+     *
+     * @param transaction the transaction
+     * @return the row of the transaction
+     */
+    public synchronized int add(final Transaction transaction) {
+        int saved = transaction.rowIn(this);
+        if (saved >= 0) {
+            return saved;
+        }
+
+        if (size == timestamps.length) {
+            int capacity = size * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            fieldStarts = Arrays.copyOf(fieldStarts, capacity);
+        }
+
+        int row = size;
+        timestamps[row] = transaction.getTimestamp();
+        kinds[row] = (byte) transaction.getKind().ordinal();
+        descriptions[row] = strings.intern(transaction.getDescription());
+        amounts[row] = 0;
+        fieldStarts[row] = fieldCount;
+        transaction.writeFields(new TransactionRow(this, row));
+
+        size++;
+        transaction.savedAt(this, row);
+        return row;
+    }
+
+    /**
+     * Builds the transaction saved in a row.
+     *
+     * @param row the row
+     * @return a new transaction, equal to the saved one
+     */
+    public synchronized Transaction get(final int row) {
+        return read(row);
+    }
+
+    /**
+     * Builds the transactions saved in some rows.
+     *
+     * @param rows the array of rows
+     * @param from the first position in the array, inclusive
+     * @param to   the last position in the array, exclusive
+     * @return a new list of the transactions, in the order of the rows
+     */
+    public synchronized List<Transaction> get(final int[] rows, final int from, final int to) {
+        List<Transaction> transactions = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            transactions.add(read(rows[i]));
+        }
+        return transactions;
+    }
+
+    /**
+     * Returns the number of saved transactions.
+     *
+     * @return the number of rows
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of distinct strings used by the saved transactions.
+     *
+     * @return the number of strings
+     */
+    public synchronized int stringCount() {
+        return strings.size();
+    }
+
+    /**
+     * Writes the rows and the strings of the store to a snapshot.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public synchronized void writeTo(final SnapshotWriter writer) throws IOException {
+        strings.writeTo(writer);
+        writer.writeInts(timestamps, size);
+        writer.writeBytes(kinds, size);
+        writer.writeInts(descriptions, size);
+        writer.writeLongs(amounts, size);
+        writer.writeInts(fieldStarts, size);
+        writer.writeInts(fields, fieldCount);
+    }
+
+    /**
+     * Reads back the rows and the strings written by {@link #writeTo(SnapshotWriter)}
+     * into this store, which must be empty.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public synchronized void readFrom(final SnapshotReader reader) throws IOException {
+        strings.readFrom(reader);
+        int[] readTimestamps = reader.readInts();
+        byte[] readKinds = reader.readBytes();
+        int[] readDescriptions = reader.readInts();
+        long[] readAmounts = reader.readLongs();
+        int[] readFieldStarts = reader.readInts();
+        int[] readFields = reader.readInts();
+        size = readTimestamps.length;
+        if (readKinds.length != size || readDescriptions.length != size
+                || readAmounts.length != size || readFieldStarts.length != size) {
+            throw reader.corrupted("number of transactions");
+        }
+
+        // the arrays keep room for the next rows, like the ones of an empty store
+        int capacity = Math.max(INITIAL_CAPACITY, size);
+        timestamps = Arrays.copyOf(readTimestamps, capacity);
+        kinds = Arrays.copyOf(readKinds, capacity);
+        descriptions = Arrays.copyOf(readDescriptions, capacity);
+        amounts = Arrays.copyOf(readAmounts, capacity);
+        fieldStarts = Arrays.copyOf(readFieldStarts, capacity);
+        fieldCount = readFields.length;
+        fields = Arrays.copyOf(readFields, Math.max(INITIAL_CAPACITY, fieldCount));
+    }
+
+    /**
+     * Returns the timestamp of a saved transaction, without building it back.
+     *
+     * @param row the row of the transaction
+     * @return the timestamp of the transaction
+     */
+    synchronized int timestampAt(final int row) {
+        return timestamps[row];
+    }
+
+    private Transaction read(final int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("No transaction at row " + row);
+        }
+        return TransactionKind.fromCode(kinds[row]).read(new TransactionRow(this, row));
+    }
+
+    // the methods below are used by TransactionRow, while the lock is held
+
+    int fieldsStart(final int row) {
+        return fieldStarts[row];
+    }
+
+    int timestampOf(final int row) {
+        return timestamps[row];
+    }
+
+    String descriptionOf(final int row) {
+        return strings.get(descriptions[row]);
+    }
+
+    double amountOf(final int row) {
+        return Double.longBitsToDouble(amounts[row]);
+    }
+
+    void setAmount(final int row, final double amount) {
+        amounts[row] = Double.doubleToRawLongBits(amount);
+    }
+
+    int field(final int position) {
+        return fields[position];
+    }
+
+    void appendField(final int value) {
+        if (fieldCount == fields.length) {
+            fields = Arrays.copyOf(fields, fieldCount * 2);
+        }
+        fields[fieldCount++] = value;
+    }
+
+    int intern(final String string) {
+        return strings.intern(string);
+    }
+
+    String string(final int id) {
+        return strings.get(id);
+    }
+}
@@ -1,7 +1,10 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 /**
  * This class represents a transaction where the user upgrades their service plan.
  * It contains the details of the new service plan and the associated account.
@@ -57,4 +60,45 @@ public final class UpgradePlanTransaction extends Transaction {
         node.put("newPlanType", getNewServicePlan());
         node.put("timestamp", getTimestamp());
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, ACCOUNT_IBAN, getAccount());
+        writeString(generator, DESCRIPTION, getDescription());
+        writeString(generator, NEW_PLAN_TYPE, getNewServicePlan());
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.UPGRADE_PLAN;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void writeFields(final TransactionRow row) {
+        row.putString(newServicePlan);
+        row.putString(account);
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static UpgradePlanTransaction readFrom(final TransactionRow row) {
+        return new UpgradePlanTransaction(row.getTimestamp(), row.getDescription(),
+                row.nextString(), row.nextString());
+    }
 }
@@ -0,0 +1,102 @@
+package org.poo.transaction;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+
+/**
+ * Represents a payment which went over a velocity limit of its card or of its account,
+ * and was rejected or only flagged.
+ */
+public final class VelocityLimitTransaction extends Transaction {
+    private final double amount;
+    private final String card;
+
+    /**
+     * Creates a new velocity limit transaction.
+     *
+     * @param timestamp   the timestamp of the payment
+     * @param description the description of the limit which was exceeded
+     * @param card        the number of the card used for the payment
+     * @param amount      the amount of the payment
+     */
+    public VelocityLimitTransaction(final int timestamp,
+                                    final String description,
+                                    final String card,
+                                    final double amount) {
+        super(timestamp, description);
+        this.card = card;
+        this.amount = amount;
+    }
+
+    /**
+     * Returns the amount of the payment.
+     *
+     * @return the amount of the payment
+     */
+    public double getAmount() {
+        return amount;
+    }
+
+    /**
+     * Returns the number of the card used for the payment.
+     *
+     * @return the card number
+     */
+    public String getCard() {
+        return card;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void toJson(final ObjectNode node) {
+        node.put("amount", getAmount());
+        node.put("card", getCard());
+        node.put("description", getDescription());
+        node.put("timestamp", getTimestamp());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeNumber(generator, AMOUNT, getAmount());
+        writeString(generator, CARD, getCard());
+        writeString(generator, DESCRIPTION, getDescription());
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.VELOCITY_LIMIT;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void writeFields(final TransactionRow row) {
+        row.putAmount(amount);
+        row.putString(card);
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static VelocityLimitTransaction readFrom(final TransactionRow row) {
+        return new VelocityLimitTransaction(row.getTimestamp(), row.getDescription(),
+                row.nextString(), row.getAmount());
+    }
+}
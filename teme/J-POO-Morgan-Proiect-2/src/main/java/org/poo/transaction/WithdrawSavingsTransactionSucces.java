@@ -1,7 +1,10 @@
 package org.poo.transaction;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
+
 /**
  * Represents a transaction for a successful withdrawal from a savings account.
  * The transaction includes the amount withdrawn, the associated classic account IBAN,
@@ -72,4 +75,47 @@ public final class WithdrawSavingsTransactionSucces extends Transaction {
         node.put("classicAccountIBAN", classicAccountIban);
         node.put("savingsAccountIBAN", savingsAccountIban);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, DESCRIPTION, getDescription());
+        writeNumber(generator, TIMESTAMP, getTimestamp());
+        writeNumber(generator, AMOUNT, amount);
+        writeString(generator, CLASSIC_ACCOUNT_IBAN, classicAccountIban);
+        writeString(generator, SAVINGS_ACCOUNT_IBAN, savingsAccountIban);
+        generator.writeEndObject();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    TransactionKind getKind() {
+        return TransactionKind.WITHDRAW_SAVINGS_SUCCESS;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void writeFields(final TransactionRow row) {
+        row.putAmount(amount);
+        row.putString(classicAccountIban);
+        row.putString(savingsAccountIban);
+    }
+
+    /**
+     * Builds the transaction saved in a row of the store.
+     *
+     * @param row the row of the transaction
+     * @return the transaction
+     */
+    static WithdrawSavingsTransactionSucces readFrom(final TransactionRow row) {
+        return new WithdrawSavingsTransactionSucces(row.getTimestamp(), row.getDescription(),
+                row.getAmount(), row.nextString(), row.nextString());
+    }
 }
@@ -3,13 +3,16 @@ package org.poo.user;
 import org.poo.account.Account;
 import org.poo.account.AccountFactory;
 import org.poo.exchangeRates.ExchangeRates;
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
 import org.poo.transaction.TransactionReport;
+import org.poo.transaction.TransactionStore;
 import org.poo.transaction.Transaction;
 import org.poo.transaction.UpgradePlanTransaction;
 import org.poo.transaction.UpgradePlanError;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Comparator;
 
 /**
  * Represents a user.
@@ -22,6 +25,9 @@ public final class User {
     private String birthDate;
     private String occupation;
 
+    // the position of the user in the UserRegistry, -1 until the user is added to it
+    private int id = -1;
+
     // service plan: can be standard, student, silver, gold
     private String servicePlan;
 
@@ -29,13 +35,11 @@ public final class User {
     private ArrayList<Account> accounts = new ArrayList<>();
     private boolean hasAccount = false;
 
-    // the transaction report for the user
-    private TransactionReport transactionReport = new TransactionReport();
+    // the store which saves the transactions of the user and of the accounts
+    private TransactionStore transactionStore;
 
-    // 0 means the user did not decide yet, 1 means the user accepts
-    // custom split payment, 2 means the user did not accept custom split payment
-    private int acceptCustomSplitPayment = 0;
-    private int acceptEqualSplitPayment = 0;
+    // the transaction report for the user
+    private TransactionReport transactionReport;
 
     // how many times a user has made payments over 300 RON
     // if he makes more than 5, he will be upgraded to gold
@@ -55,14 +59,18 @@ public final class User {
      * @param firstName the user's first name
      * @param lastName  the user's last name
      * @param email     the user's email address
+     * @param store     the store which saves the transactions of the user
      */
     public User(final String firstName, final String lastName, final String email,
-                final String birthDate, final String occupation) {
+                final String birthDate, final String occupation,
+                final TransactionStore store) {
         this.firstName = firstName;
         this.lastName = lastName;
         this.email = email;
         this.birthDate = birthDate;
         this.occupation = occupation;
+        this.transactionStore = store;
+        this.transactionReport = new TransactionReport(store);
     }
 
     /**
@@ -70,6 +78,26 @@ public final class User {
      * @param user
      */
     public User(final User user) {
+        this.transactionStore = user.transactionStore;
+        this.transactionReport = new TransactionReport(transactionStore);
+    }
+
+    /**
+     * Gets the id the user received when added to the UserRegistry.
+     *
+     * @return the id of the user, or -1 if the user is not in the registry
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id of the user, given by the UserRegistry.
+     *
+     * @param id the id of the user
+     */
+    public void setId(final int id) {
+        this.id = id;
     }
 
     /**
@@ -209,7 +237,8 @@ public final class User {
         // create a new account based on the account type, using the factory pattern
         AccountFactory.AccountType type = AccountFactory.AccountType.valueOf(accountType);
         Account newAccount = AccountFactory.createAccount(type,
-                currency, iban, 0, 0, "alias", interestRate, owner, businessAmount);
+                currency, iban, 0, 0, "alias", interestRate, owner, businessAmount,
+                transactionStore);
 
         // add the new account to the list of accounts
         accounts.add(newAccount);
@@ -289,10 +318,48 @@ public final class User {
      * @param transaction the transaction to add
      */
     public void addTransaction(final Transaction transaction) {
+        // the report keeps the transactions sorted by timestamp
         transactionReport.addTransaction(transaction);
+    }
+
+    /**
+     * Writes the fields of the user and the history to a snapshot.
+     * The accounts are written by the UserRegistry, which knows the ones shared.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeString(firstName);
+        writer.writeString(lastName);
+        writer.writeString(email);
+        writer.writeString(birthDate);
+        writer.writeString(occupation);
+        writer.writeInt(id);
+        writer.writeString(servicePlan);
+        writer.writeBoolean(hasAccount);
+        writer.writeInt(paymentsOverThreeHundred);
+        transactionReport.writeTo(writer);
+    }
 
-        // Sort the transactions by timestamp after adding the new transaction
-        transactionReport.getTransactions().sort(Comparator.comparing(Transaction::getTimestamp));
+    /**
+     * Reads back a user written by {@link #writeTo(SnapshotWriter)}, without accounts.
+     *
+     * @param reader the reader of the snapshot
+     * @param store  the store which saves the transactions of the user, read already
+     * @return the user
+     * @throws IOException if the snapshot cannot be read
+     */
+    public static User readFrom(final SnapshotReader reader, final TransactionStore store)
+            throws IOException {
+        User user = new User(reader.readString(), reader.readString(), reader.readString(),
+                reader.readString(), reader.readString(), store);
+        user.id = reader.readInt();
+        user.servicePlan = reader.readString();
+        user.hasAccount = reader.readBoolean();
+        user.paymentsOverThreeHundred = reader.readInt();
+        user.transactionReport.readFrom(reader);
+        return user;
     }
 
 
@@ -407,18 +474,20 @@ public final class User {
      * @param amount        the amount to which the commission is added
      * @param exchangeRates the exchange rates
      * @param currency      the currency of the amount
+     * @param timestamp     the timestamp of the transaction, whose rates are used
      * @return the amount with the commission added
      */
     public double addCommission(final double amount,
                                 final ExchangeRates exchangeRates,
-                                final String currency) {
+                                final String currency,
+                                final int timestamp) {
 
         if (getServicePlan().equals("student")) {
             return amount;
         } else if (getServicePlan().equals("standard")) {
             return amount + TRANSACTION_FEE_RATE * amount;
         } else if (getServicePlan().equals("silver")) {
-            double rate = exchangeRates.convertExchangeRate(currency, "RON");
+            double rate = exchangeRates.convertExchangeRate(currency, "RON", timestamp);
             double amountInRON = amount * rate;
             if (amountInRON < SILVER_PLAN_RATE) {
                 return amount;
@@ -430,76 +499,4 @@ public final class User {
         }
         return amount;
     }
-
-    /**
-     * Gets the user's decision regarding custom split payment.
-     *
-     * @param acceptCustomSplitPayment the user's decision regarding custom split payment
-     */
-    public void setAcceptCustomSplitPayment(final int acceptCustomSplitPayment) {
-        this.acceptCustomSplitPayment = acceptCustomSplitPayment;
-    }
-
-
-    /**
-     * Accepts the split payment.
-     * Selects the type of the split payment
-     *
-     * @param splitPaymentType the type of the split payment
-     */
-    public void acceptSplitPayment(final String splitPaymentType) {
-        if (splitPaymentType.equals("custom")) {
-            setAcceptCustomSplitPayment(1);
-        } else {
-            setAcceptEqualSplitPayment(1);
-        }
-    }
-
-    /**
-     * Rejects the split payment.
-     * Selects the type of the split payment
-     *
-     * @param splitPaymentType the type of the split payment
-     */
-    public void rejectSplitPayment(final String splitPaymentType) {
-        if (splitPaymentType.equals("custom")) {
-            setAcceptCustomSplitPayment(2);
-        } else {
-            setAcceptEqualSplitPayment(2);
-        }
-    }
-
-    /**
-     * Sets the user's decision regarding custom split payment.
-     *
-     * @param acceptEqualSplitPayment the user's decision regarding custom split payment
-     */
-    public void setAcceptEqualSplitPayment(final int acceptEqualSplitPayment) {
-        this.acceptEqualSplitPayment = acceptEqualSplitPayment;
-    }
-
-
-    /**
-     * Checks if the user has accepted custom split payment.
-     *
-     * @return true if the user has accepted custom split payment, false otherwise
-     */
-    public boolean hasAcceptedCustomPayment() {
-        if (acceptCustomSplitPayment == 1) {
-            return true;
-        }
-        return false;
-    }
-
-    /**
-     * Checks if the user has accepted equal split payment.
-     *
-     * @return true if the user has accepted equal split payment, false otherwise
-     */
-    public boolean hasAcceptedEqualPayment() {
-        if (acceptEqualSplitPayment == 1) {
-            return true;
-        }
-        return false;
-    }
 }
@@ -0,0 +1,201 @@
+package org.poo.user;
+
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Amounts of money kept for every user, such as the amounts spent or deposited by the
+ * associates of a business account.
+ * <p>
+ * The amounts are stored in a hash table with open addressing, keyed by the id the user
+ * receives from the UserRegistry, with the amounts as primitive doubles. Adding to the
+ * amount of a user who is already in the table does not allocate.
+ */
+public final class UserAmounts {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    // keys[slot] is the id of the user plus one, 0 for an empty slot
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private double[] amounts = new double[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Adds an amount to the amount of a user.
+     *
+     * @param user   the user
+     * @param amount the amount to add
+     */
+    public void add(final User user, final double amount) {
+        add(keyOf(user), amount);
+    }
+
+    /**
+     * Adds the amounts of another table to the amounts of this one.
+     *
+     * @param other the table to add
+     */
+    public void addAll(final UserAmounts other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != 0) {
+                add(other.keys[i], other.amounts[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds an amount to the amount kept for a key.
+     *
+     * @param key    the key of the user
+     * @param amount the amount to add
+     */
+    private void add(final int key, final double amount) {
+        int slot = find(key);
+        if (keys[slot] == key) {
+            amounts[slot] += amount;
+            return;
+        }
+
+        // the table is kept at most half full, so a free slot is always found
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+            slot = find(key);
+        }
+        keys[slot] = key;
+        amounts[slot] = amount;
+        size++;
+    }
+
+    /**
+     * Returns the amount of a user.
+     *
+     * @param user the user
+     * @return the amount of the user, or 0 if nothing was added for them
+     */
+    public double get(final User user) {
+        int key = keyOf(user);
+        int slot = find(key);
+        if (keys[slot] == key) {
+            return amounts[slot];
+        }
+        return 0.0;
+    }
+
+    /**
+     * Tells if an amount was added for a user.
+     *
+     * @param user the user
+     * @return true if the user has an amount
+     */
+    public boolean contains(final User user) {
+        int key = keyOf(user);
+        return keys[find(key)] == key;
+    }
+
+    /**
+     * Returns the number of users which have an amount.
+     *
+     * @return the number of users
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the amounts.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    /**
+     * Writes the table to a snapshot, slot by slot.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeInts(keys, keys.length);
+        writer.writeDoubles(amounts, amounts.length);
+    }
+
+    /**
+     * Reads back the table written by {@link #writeTo(SnapshotWriter)} into this one.
+     * The keys are the ids of the users, which the UserRegistry reads back unchanged.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        int[] readKeys = reader.readInts();
+        double[] readAmounts = reader.readDoubles();
+        if (readKeys.length != readAmounts.length || Integer.bitCount(readKeys.length) != 1) {
+            throw reader.corrupted("table of " + readKeys.length + " amounts");
+        }
+        int count = 0;
+        for (int key : readKeys) {
+            if (key < 0) {
+                throw reader.corrupted("user " + key);
+            }
+            if (key != 0) {
+                count++;
+            }
+        }
+        if (count * 2 > readKeys.length) {
+            throw reader.corrupted("table of " + count + " amounts");
+        }
+        keys = readKeys;
+        amounts = readAmounts;
+        size = count;
+    }
+
+    /**
+     * Returns the key of a user in the table.
+     *
+     * @param user the user
+     * @return the key
+     */
+    private static int keyOf(final User user) {
+        if (user.getId() < 0) {
+            throw new IllegalArgumentException("The user " + user.getEmail()
+                    + " is not in the user registry");
+        }
+        return user.getId() + 1;
+    }
+
+    /**
+     * Finds the slot of a key, or the empty slot where it would be added.
+     *
+     * @param key the key
+     * @return the slot
+     */
+    private int find(final int key) {
+        int mask = keys.length - 1;
+        int slot = ((key * HASH_MULTIPLIER) >>> 1) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the capacity of the table.
+     */
+    private void grow() {
+        int[] oldKeys = keys;
+        double[] oldAmounts = amounts;
+        keys = new int[oldKeys.length * 2];
+        amounts = new double[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                amounts[slot] = oldAmounts[i];
+            }
+        }
+    }
+}
@@ -1,35 +1,62 @@
 package org.poo.user;
 
 import org.poo.account.Account;
+import org.poo.account.AccountFactory;
 import org.poo.card.Card;
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+import org.poo.transaction.TransactionStore;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 
 /**
  * This class represents a registry that manages a collection of users.
  * This class is responsible for adding, retrieving and searching for users.
+ * <p>
+ * Besides the list of users, the registry keeps hash indexes by email, IBAN, alias
+ * and card number, so the lookups made by the commands do not scan every account.
+ * The indexes are kept up to date by the commands which create or remove
+ * accounts and cards, through the index maintenance methods of this class.
+ * <p>
+ * Every bank has its own registry, kept in its BankContext.
  */
 public final class UserRegistry {
 
     private final List<User> users = new ArrayList<>();
 
-    private static UserRegistry instance;
+    // email -> user
+    private final Map<String, User> usersByEmail = new HashMap<>();
 
-    private UserRegistry() {
-    }
+    // IBAN -> account and IBAN -> the owner of the account
+    private final Map<String, Account> accountsByIBAN = new HashMap<>();
+    private final Map<String, User> usersByIBAN = new HashMap<>();
+
+    // alias -> account and alias -> the owner of the account
+    private final Map<String, Account> accountsByAlias = new HashMap<>();
+    private final Map<String, User> usersByAlias = new HashMap<>();
+
+    // card number -> card, the account that holds it and the owner of the account
+    private final Map<String, Card> cardsByNumber = new HashMap<>();
+    private final Map<String, Account> accountsByCardNumber = new HashMap<>();
+    private final Map<String, User> usersByCardNumber = new HashMap<>();
+
+    // counts the lookups for the statistics of the bank, null when they are not kept
+    private LongAdder lookupCounter;
+
+    // called with every account indexed from now on, null when nobody watches the accounts
+    private BiConsumer<User, Account> accountListener;
 
     /**
-     * Singleton instance getter.
-     *
-     * @return the singleton instance of the UserRegistry.
+     * Creates an empty registry.
      */
-    public static UserRegistry getInstance() {
-        if (instance == null) {
-            instance = new UserRegistry();
-        }
-        return instance;
+    public UserRegistry() {
     }
 
     /**
@@ -37,6 +64,38 @@ public final class UserRegistry {
      */
     public void reset() {
         users.clear();
+        usersByEmail.clear();
+        accountsByIBAN.clear();
+        usersByIBAN.clear();
+        accountsByAlias.clear();
+        usersByAlias.clear();
+        cardsByNumber.clear();
+        accountsByCardNumber.clear();
+        usersByCardNumber.clear();
+    }
+
+    /**
+     * Counts every lookup of a user, an account or a card into the given counter.
+     *
+     * @param counter the counter, or null to stop counting
+     */
+    public void setLookupCounter(final LongAdder counter) {
+        this.lookupCounter = counter;
+    }
+
+    /**
+     * Calls the given listener with every account indexed from now on and its owner.
+     *
+     * @param listener the listener, or null to stop calling it
+     */
+    public void setAccountListener(final BiConsumer<User, Account> listener) {
+        this.accountListener = listener;
+    }
+
+    private void countLookup() {
+        if (lookupCounter != null) {
+            lookupCounter.increment();
+        }
     }
 
     /**
@@ -50,11 +109,163 @@ public final class UserRegistry {
 
     /**
      * Adds a new user to the registry.
+     * The user receives its id, the position in the list of users.
+     * The accounts and cards the user already holds are indexed as well.
      *
      * @param user the user to add.
      */
     public void addUser(final User user) {
+        user.setId(users.size());
         users.add(user);
+        usersByEmail.putIfAbsent(user.getEmail(), user);
+        for (final Account account : user.getAccounts()) {
+            addAccount(user, account);
+        }
+    }
+
+    /**
+     * Indexes a newly created account, together with its alias and cards.
+     *
+     * @param owner   the user who owns the account.
+     * @param account the account to index.
+     */
+    public void addAccount(final User owner, final Account account) {
+        accountsByIBAN.putIfAbsent(account.getIBAN(), account);
+        usersByIBAN.putIfAbsent(account.getIBAN(), owner);
+        if (account.getAlias() != null) {
+            indexAlias(owner, account, account.getAlias());
+        }
+        for (final Card card : account.getCards()) {
+            addCard(owner, account, card);
+        }
+        if (accountListener != null) {
+            accountListener.accept(owner, account);
+        }
+    }
+
+    /**
+     * Removes an account from the indexes, together with its alias and cards.
+     *
+     * @param account the account to remove.
+     */
+    public void removeAccount(final Account account) {
+        if (accountsByIBAN.get(account.getIBAN()) == account) {
+            accountsByIBAN.remove(account.getIBAN());
+            usersByIBAN.remove(account.getIBAN());
+        }
+        if (account.getAlias() != null && accountsByAlias.get(account.getAlias()) == account) {
+            indexFirstWithAlias(account.getAlias());
+        }
+        for (final Card card : account.getCards()) {
+            removeCard(card.getCardNumber());
+        }
+    }
+
+    /**
+     * Sets the alias of an account and moves the alias index entry accordingly.
+     * If several accounts use the same alias, the one found is the first in the order
+     * of the users and of their accounts, like when every account was searched.
+     *
+     * @param owner   the user who owns the account.
+     * @param account the account which receives the alias.
+     * @param alias   the new alias.
+     */
+    public void setAlias(final User owner, final Account account, final String alias) {
+        String oldAlias = account.getAlias();
+        account.setAlias(alias);
+        if (oldAlias != null && accountsByAlias.get(oldAlias) == account) {
+            // another account with the old alias may be found now
+            indexFirstWithAlias(oldAlias);
+        }
+        if (alias != null) {
+            indexAlias(owner, account, alias);
+        }
+    }
+
+    /**
+     * Indexes an account under an alias, unless an account which comes before it
+     * already has the alias.
+     */
+    private void indexAlias(final User owner, final Account account, final String alias) {
+        Account indexed = accountsByAlias.get(alias);
+        if (indexed == null || comesBefore(owner, account, usersByAlias.get(alias), indexed)) {
+            accountsByAlias.put(alias, account);
+            usersByAlias.put(alias, owner);
+        }
+    }
+
+    /**
+     * Returns true if an account comes before another one in the order of the users
+     * and of their accounts.
+     */
+    private static boolean comesBefore(final User owner, final Account account,
+                                       final User otherOwner, final Account other) {
+        if (owner != otherOwner) {
+            return owner.getId() < otherOwner.getId();
+        }
+        List<Account> accounts = owner.getAccounts();
+        return accounts.indexOf(account) < accounts.indexOf(other);
+    }
+
+    /**
+     * Indexes an alias again under the first account which has it, after the
+     * indexed one lost it. The accounts are searched only in this case.
+     */
+    private void indexFirstWithAlias(final String alias) {
+        accountsByAlias.remove(alias);
+        usersByAlias.remove(alias);
+        for (final User user : users) {
+            for (final Account account : user.getAccounts()) {
+                if (alias.equals(account.getAlias())) {
+                    accountsByAlias.put(alias, account);
+                    usersByAlias.put(alias, user);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Indexes a newly created card.
+     *
+     * @param owner   the user who owns the account holding the card.
+     * @param account the account holding the card.
+     * @param card    the card to index.
+     */
+    public void addCard(final User owner, final Account account, final Card card) {
+        cardsByNumber.put(card.getCardNumber(), card);
+        accountsByCardNumber.put(card.getCardNumber(), account);
+        usersByCardNumber.put(card.getCardNumber(), owner);
+    }
+
+    /**
+     * Removes a card from the indexes.
+     *
+     * @param cardNumber the number of the card to remove.
+     */
+    public void removeCard(final String cardNumber) {
+        cardsByNumber.remove(cardNumber);
+        accountsByCardNumber.remove(cardNumber);
+        usersByCardNumber.remove(cardNumber);
+    }
+
+    /**
+     * Changes the number of a card (a one time pay card gets a new number after
+     * every payment) and moves its index entries under the new number.
+     *
+     * @param card          the card to renumber.
+     * @param newCardNumber the new card number.
+     */
+    public void changeCardNumber(final Card card, final String newCardNumber) {
+        String oldCardNumber = card.getCardNumber();
+        Account account = accountsByCardNumber.get(oldCardNumber);
+        User owner = usersByCardNumber.get(oldCardNumber);
+        removeCard(oldCardNumber);
+
+        card.setCardNumber(newCardNumber);
+        if (account != null) {
+            addCard(owner, account, card);
+        }
     }
 
     /**
@@ -64,29 +275,19 @@ public final class UserRegistry {
      * @return the user with the given email, or null if not found.
      */
     public User getUserByEmail(final String email) {
-        for (final User user : users) {
-            if (user.getEmail().equals(email)) {
-                return user;
-            }
-        }
-        return null;
+        countLookup();
+        return usersByEmail.get(email);
     }
 
     /**
-     * Finds an account by its IBAN, searching through all users.
+     * Finds an account by its IBAN, with one lookup in the IBAN index.
      *
      * @param iban the IBAN of the account.
      * @return the account with the given IBAN, or null if not found.
      */
     public Account getAccountByIBAN(final String iban) {
-        for (final User user : users) {
-            for (final Account account : user.getAccounts()) {
-                if (account.getIBAN().equals(iban)) {
-                    return account;
-                }
-            }
-        }
-        return null;
+        countLookup();
+        return accountsByIBAN.get(iban);
     }
 
     /**
@@ -97,14 +298,8 @@ public final class UserRegistry {
      * @return the account with the given alias, or null if not found.
      */
     public Account getAccountByAlias(final String alias) {
-        for (final User user : users) {
-            for (final Account account : user.getAccounts()) {
-                if (account.getAlias() != null && account.getAlias().equals(alias)) {
-                    return account;
-                }
-            }
-        }
-        return null;
+        countLookup();
+        return accountsByAlias.get(alias);
     }
 
     /**
@@ -114,35 +309,19 @@ public final class UserRegistry {
      * @return the account that holds the card, or null if not found.
      */
     public Account getAccountByCardNumber(final String cardNumber) {
-        for (final User user : users) {
-            for (final Account account : user.getAccounts()) {
-                for (final Card card : account.getCards()) {
-                    if (card.getCardNumber().equals(cardNumber)) {
-                        return account;
-                    }
-                }
-            }
-        }
-        return null;
+        countLookup();
+        return accountsByCardNumber.get(cardNumber);
     }
 
     /**
-     * Finds a card by its card number, searching through all users.
+     * Finds a card by its card number, with one lookup in the card index.
      *
      * @param cardNumber the card number.
      * @return the card with the given number, or null if not found.
      */
     public Card getCardByNumber(final String cardNumber) {
-        for (final User user : users) {
-            for (final Account account : user.getAccounts()) {
-                for (final Card card : account.getCards()) {
-                    if (card.getCardNumber().equals(cardNumber)) {
-                        return card;
-                    }
-                }
-            }
-        }
-        return null;
+        countLookup();
+        return cardsByNumber.get(cardNumber);
     }
 
     /**
@@ -152,50 +331,126 @@ public final class UserRegistry {
      * @return the user who holds the card, or null if not found.
      */
     public User getUserByCardNumber(final String cardNumber) {
-        for (final User user : users) {
-            for (final Account account : user.getAccounts()) {
-                for (final Card card : account.getCards()) {
-                    if (card.getCardNumber().equals(cardNumber)) {
-                        return user;
-                    }
-                }
-            }
-        }
-        return null;
+        countLookup();
+        return usersByCardNumber.get(cardNumber);
     }
 
     /**
-     * Finds a user by their account IBAN, searching through all users.
+     * Finds a user by their account IBAN, with one lookup in the IBAN index.
      *
      * @param iban the IBAN of the account.
      * @return the user who owns the account, or null if not found.
      */
     public User getUserByIBAN(final String iban) {
+        countLookup();
+        return usersByIBAN.get(iban);
+    }
+
+    /**
+     * Finds a user by their account alias, with one lookup in the alias index.
+     * An alias shared by several accounts gives the owner of the first one.
+     *
+     * @param alias the alias of the account.
+     * @return the user who owns the account, or null if not found.
+     */
+    public User getUserByAlias(final String alias) {
+        countLookup();
+        return usersByAlias.get(alias);
+    }
+
+    /**
+     * Writes the users, their accounts and the indexes to a snapshot. An account held
+     * by several users is written with the first one and referred to by the others,
+     * and the indexes refer to the users, accounts and cards written before them.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeInt(users.size());
+        for (final User user : users) {
+            writer.register(user);
+            user.writeTo(writer);
+        }
         for (final User user : users) {
+            writer.writeInt(user.getAccounts().size());
             for (final Account account : user.getAccounts()) {
-                if (account.getIBAN().equals(iban)) {
-                    return user;
+                boolean written = writer.isRegistered(account);
+                writer.writeBoolean(written);
+                if (written) {
+                    writer.writeRef(account);
+                } else {
+                    AccountFactory.writeAccount(writer, account);
                 }
             }
         }
-        return null;
+
+        writeIndex(writer, usersByEmail);
+        writeIndex(writer, accountsByIBAN);
+        writeIndex(writer, usersByIBAN);
+        writeIndex(writer, accountsByAlias);
+        writeIndex(writer, usersByAlias);
+        writeIndex(writer, cardsByNumber);
+        writeIndex(writer, accountsByCardNumber);
+        writeIndex(writer, usersByCardNumber);
     }
 
     /**
-     * Finds a user by their account alias, searching through all users.
+     * Reads back the users, accounts and indexes written by
+     * {@link #writeTo(SnapshotWriter)} into this registry, which must be empty.
      *
-     * @param alias the alias of the account.
-     * @return the user who owns the account, or null if not found.
+     * @param reader the reader of the snapshot
+     * @param store  the store which saves the transactions, read already
+     * @throws IOException if the snapshot cannot be read
      */
-    public User getUserByAlias(final String alias) {
+    public void readFrom(final SnapshotReader reader, final TransactionStore store)
+            throws IOException {
+        int count = reader.readLength(Integer.BYTES);
+        for (int i = 0; i < count; i++) {
+            User user = User.readFrom(reader, store);
+            if (user.getId() != i) {
+                throw reader.corrupted("user id " + user.getId());
+            }
+            reader.register(user);
+            users.add(user);
+        }
         for (final User user : users) {
-            for (final Account account : user.getAccounts()) {
-                if (account.getAlias() != null && account.getAlias().equals(alias)) {
-                    return user;
+            int accounts = reader.readLength(Integer.BYTES);
+            for (int i = 0; i < accounts; i++) {
+                if (reader.readBoolean()) {
+                    user.getAccounts().add(reader.readRef(Account.class));
+                } else {
+                    user.getAccounts().add(AccountFactory.readAccount(reader, store));
                 }
             }
         }
-        return null;
+
+        readIndex(reader, usersByEmail, User.class);
+        readIndex(reader, accountsByIBAN, Account.class);
+        readIndex(reader, usersByIBAN, User.class);
+        readIndex(reader, accountsByAlias, Account.class);
+        readIndex(reader, usersByAlias, User.class);
+        readIndex(reader, cardsByNumber, Card.class);
+        readIndex(reader, accountsByCardNumber, Account.class);
+        readIndex(reader, usersByCardNumber, User.class);
+    }
+
+    private static void writeIndex(final SnapshotWriter writer, final Map<String, ?> index)
+            throws IOException {
+        writer.writeInt(index.size());
+        for (final Map.Entry<String, ?> entry : index.entrySet()) {
+            writer.writeString(entry.getKey());
+            writer.writeRef(entry.getValue());
+        }
+    }
+
+    private static <T> void readIndex(final SnapshotReader reader, final Map<String, T> index,
+                                      final Class<T> type) throws IOException {
+        int count = reader.readLength(Integer.BYTES * 2);
+        for (int i = 0; i < count; i++) {
+            String key = reader.readString();
+            index.put(key, reader.readRef(type));
+        }
     }
 
 }
@@ -0,0 +1,74 @@
+package org.poo.utils;
+
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Generates the IBAN codes and card numbers of one bank.
+ * Every bank starts from the same seeds, so the same input always gives the same
+ * codes, whatever other banks run in the same JVM.
+ * <p>
+ * The state of a Random cannot be read, so a snapshot saves how many codes of each
+ * kind were generated, and the restored generator generates them again.
+ */
+public final class IdentifierGenerator {
+    private final Random ibanRandom = new Random(Utils.IBAN_SEED);
+    private final Random cardRandom = new Random(Utils.CARD_SEED);
+    private long ibanCount = 0;
+    private long cardCount = 0;
+
+    /**
+     * Generates the next IBAN code.
+     *
+     * @return the IBAN as String
+     */
+    public String generateIBAN() {
+        ibanCount++;
+        return Utils.generateIBAN(ibanRandom);
+    }
+
+    /**
+     * Generates the next card number.
+     *
+     * @return the card number as String
+     */
+    public String generateCardNumber() {
+        cardCount++;
+        return Utils.generateCardNumber(cardRandom);
+    }
+
+    /**
+     * Writes the number of codes generated to a snapshot.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeLong(ibanCount);
+        writer.writeLong(cardCount);
+    }
+
+    /**
+     * Reads back the numbers written by {@link #writeTo(SnapshotWriter)} into a new
+     * generator and generates as many codes, so the next ones are the same.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        long ibans = reader.readLong();
+        long cards = reader.readLong();
+        if (ibans < 0 || cards < 0) {
+            throw reader.corrupted("number of codes");
+        }
+        while (ibanCount < ibans) {
+            generateIBAN();
+        }
+        while (cardCount < cards) {
+            generateCardNumber();
+        }
+    }
+}
@@ -7,23 +7,28 @@ public final class Utils {
         // Checkstyle error free constructor
     }
 
-    private static final int IBAN_SEED = 1;
-    private static final int CARD_SEED = 2;
+    /**
+     * the seed of the generator of IBAN codes, at the start of every run
+     */
+    public static final int IBAN_SEED = 1;
+
+    /**
+     * the seed of the generator of card numbers, at the start of every run
+     */
+    public static final int CARD_SEED = 2;
+
     private static final int DIGIT_BOUND = 10;
     private static final int DIGIT_GENERATION = 16;
     private static final String RO_STR = "RO";
     private static final String POO_STR = "POOB";
 
-
-    private static Random ibanRandom = new Random(IBAN_SEED);
-    private static Random cardRandom = new Random(CARD_SEED);
-
     /**
      * Utility method for generating an IBAN code.
      *
+     * @param ibanRandom the generator of IBAN codes of the bank
      * @return the IBAN as String
      */
-    public static String generateIBAN() {
+    public static String generateIBAN(final Random ibanRandom) {
         StringBuilder sb = new StringBuilder(RO_STR);
         for (int i = 0; i < RO_STR.length(); i++) {
             sb.append(ibanRandom.nextInt(DIGIT_BOUND));
@@ -40,9 +45,10 @@ public final class Utils {
     /**
      * Utility method for generating a card number.
      *
+     * @param cardRandom the generator of card numbers of the bank
      * @return the card number as String
      */
-    public static String generateCardNumber() {
+    public static String generateCardNumber(final Random cardRandom) {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < DIGIT_GENERATION; i++) {
             sb.append(cardRandom.nextInt(DIGIT_BOUND));
@@ -50,12 +56,4 @@ public final class Utils {
 
         return sb.toString();
     }
-
-    /**
-     * Resets the seeds between runs.
-     */
-    public static void resetRandom() {
-        ibanRandom = new Random(IBAN_SEED);
-        cardRandom = new Random(CARD_SEED);
-    }
 }
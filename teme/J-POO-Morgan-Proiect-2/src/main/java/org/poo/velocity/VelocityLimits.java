@@ -0,0 +1,247 @@
+package org.poo.velocity;
+
+import org.poo.account.Account;
+import org.poo.card.Card;
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The velocity limits of a bank and the windows of the recent payments of every card
+ * and every account, checked by payOnline and cashWithdrawal before a payment and
+ * updated after it.
+ * <p>
+ * Every card and every account gets one {@link VelocityWindow} for each rule of its
+ * scope, created with its first payment, so checking and recording a payment takes
+ * a lookup and constant time for every rule. Without rules, nothing is kept.
+ * <p>
+ * The maps can be changed by several threads of a parallel run. The windows of a card
+ * or an account are only used by the commands of its users, which do not run at the
+ * same time.
+ */
+public final class VelocityLimits {
+    private static final VelocityRule[] NO_RULES = new VelocityRule[0];
+
+    private VelocityRule[] rules = NO_RULES;
+
+    // the windows of a scope are only looked up if it has rules
+    private boolean cardRules = false;
+    private boolean accountRules = false;
+
+    // the windows of every card and every account, one for every rule of their scope
+    private final ConcurrentHashMap<String, VelocityWindow[]> cardWindows =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, VelocityWindow[]> accountWindows =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Replaces the rules. The payments recorded so far are forgotten.
+     *
+     * @param newRules the rules, checked in this order
+     */
+    public void setRules(final List<VelocityRule> newRules) {
+        rules = newRules.toArray(NO_RULES);
+        cardRules = false;
+        accountRules = false;
+        for (VelocityRule rule : rules) {
+            if (rule.getScope() == VelocityRule.Scope.card) {
+                cardRules = true;
+            } else {
+                accountRules = true;
+            }
+        }
+        cardWindows.clear();
+        accountWindows.clear();
+    }
+
+    /**
+     * Returns true if there are rules to check.
+     *
+     * @return true if the payments are checked
+     */
+    public boolean isEnabled() {
+        return rules.length > 0;
+    }
+
+    /**
+     * Checks a payment against the rules.
+     *
+     * @param cardNumber the card of the payment
+     * @param iban       the account the payment is made from
+     * @param amountRon  the amount of the payment, in RON
+     * @param timestamp  the timestamp of the payment
+     * @return the first rule which rejects the payment, or else the first rule which
+     *         flags it, or null if the payment is within every limit
+     */
+    public VelocityRule check(final String cardNumber, final String iban,
+                              final double amountRon, final int timestamp) {
+        if (rules.length == 0) {
+            return null;
+        }
+        VelocityWindow[] card = cardWindows(cardNumber);
+        VelocityWindow[] account = accountWindows(iban);
+
+        VelocityRule flagged = null;
+        for (int i = 0; i < rules.length; i++) {
+            VelocityRule rule = rules[i];
+            VelocityWindow window = rule.getScope() == VelocityRule.Scope.card
+                    ? card[i] : account[i];
+            if (rule.isExceeded(window, amountRon, timestamp)) {
+                if (rule.rejects()) {
+                    return rule;
+                }
+                if (flagged == null) {
+                    flagged = rule;
+                }
+            }
+        }
+        return flagged;
+    }
+
+    /**
+     * Records a payment which was made.
+     *
+     * @param cardNumber the card of the payment
+     * @param iban       the account the payment was made from
+     * @param amountRon  the amount of the payment, in RON
+     * @param timestamp  the timestamp of the payment
+     */
+    public void record(final String cardNumber, final String iban, final double amountRon,
+                       final int timestamp) {
+        if (rules.length == 0) {
+            return;
+        }
+        VelocityWindow[] card = cardWindows(cardNumber);
+        VelocityWindow[] account = accountWindows(iban);
+        for (int i = 0; i < rules.length; i++) {
+            if (rules[i].getScope() == VelocityRule.Scope.card) {
+                card[i].add(timestamp, amountRon);
+            } else {
+                account[i].add(timestamp, amountRon);
+            }
+        }
+    }
+
+    /**
+     * Forgets the payments of a card which no longer exists, like a deleted card
+     * or a one-time card replaced after its payment.
+     *
+     * @param cardNumber the number of the card
+     */
+    public void removeCard(final String cardNumber) {
+        cardWindows.remove(cardNumber);
+    }
+
+    /**
+     * Forgets the payments of a deleted account and of all its cards.
+     *
+     * @param account the deleted account
+     */
+    public void removeAccount(final Account account) {
+        accountWindows.remove(account.getIBAN());
+        for (Card card : account.getCards()) {
+            cardWindows.remove(card.getCardNumber());
+        }
+    }
+
+    /**
+     * Writes the rules and the windows of the cards and accounts to a snapshot.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeInt(rules.length);
+        for (VelocityRule rule : rules) {
+            rule.writeTo(writer);
+        }
+        writeWindows(writer, cardWindows);
+        writeWindows(writer, accountWindows);
+    }
+
+    /**
+     * Reads back the rules and the windows written by {@link #writeTo(SnapshotWriter)}
+     * into these limits, which must have no rules.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        int count = reader.readLength(Integer.BYTES * 2 + Double.BYTES + 2);
+        List<VelocityRule> read = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            read.add(VelocityRule.readFrom(reader));
+        }
+        setRules(read);
+        readWindows(reader, cardWindows, VelocityRule.Scope.card);
+        readWindows(reader, accountWindows, VelocityRule.Scope.account);
+    }
+
+    private static void writeWindows(final SnapshotWriter writer,
+                                     final Map<String, VelocityWindow[]> map)
+            throws IOException {
+        writer.writeInt(map.size());
+        for (Map.Entry<String, VelocityWindow[]> entry : map.entrySet()) {
+            writer.writeString(entry.getKey());
+            for (VelocityWindow window : entry.getValue()) {
+                if (window != null) {
+                    window.writeTo(writer);
+                }
+            }
+        }
+    }
+
+    private void readWindows(final SnapshotReader reader,
+                             final Map<String, VelocityWindow[]> map,
+                             final VelocityRule.Scope scope) throws IOException {
+        int count = reader.readLength(Integer.BYTES);
+        for (int i = 0; i < count; i++) {
+            String key = reader.readString();
+            VelocityWindow[] windows = new VelocityWindow[rules.length];
+            for (int j = 0; j < rules.length; j++) {
+                if (rules[j].getScope() == scope) {
+                    windows[j] = new VelocityWindow(rules[j].getLength());
+                    windows[j].readFrom(reader);
+                }
+            }
+            map.put(key, windows);
+        }
+    }
+
+    private VelocityWindow[] cardWindows(final String cardNumber) {
+        if (!cardRules) {
+            return null;
+        }
+        return windows(cardWindows, cardNumber, VelocityRule.Scope.card);
+    }
+
+    private VelocityWindow[] accountWindows(final String iban) {
+        if (!accountRules) {
+            return null;
+        }
+        return windows(accountWindows, iban, VelocityRule.Scope.account);
+    }
+
+    private VelocityWindow[] windows(final ConcurrentHashMap<String, VelocityWindow[]> map,
+                                     final String key, final VelocityRule.Scope scope) {
+        VelocityWindow[] windows = map.get(key);
+        if (windows == null) {
+            windows = new VelocityWindow[rules.length];
+            for (int i = 0; i < rules.length; i++) {
+                if (rules[i].getScope() == scope) {
+                    windows[i] = new VelocityWindow(rules[i].getLength());
+                }
+            }
+            VelocityWindow[] previous = map.putIfAbsent(key, windows);
+            if (previous != null) {
+                windows = previous;
+            }
+        }
+        return windows;
+    }
+}
@@ -0,0 +1,199 @@
+package org.poo.velocity;
+
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A velocity limit: the largest number of payments and the largest amount, in RON, which
+ * a card or an account may pay over the last timestamps. A payment over the limit is
+ * rejected, or only flagged and made anyway.
+ * <p>
+ * A rule is written as scope:length:count:amount:action, for example
+ * {@code card:10:3:0:reject} rejects a fourth payment with a card in 10 timestamps and
+ * {@code account:100:0:5000:flag} flags the payments from an account over 5000 RON in
+ * 100 timestamps. A count or an amount of 0 is no limit.
+ */
+public final class VelocityRule {
+    // the positions of the fields of a written rule
+    private static final int SCOPE = 0;
+    private static final int LENGTH = 1;
+    private static final int COUNT = 2;
+    private static final int AMOUNT = 3;
+    private static final int ACTION = 4;
+    private static final int FIELDS = 5;
+
+    /**
+     * What the payments are counted for.
+     */
+    public enum Scope {
+        card,
+        account
+    }
+
+    /**
+     * What happens to a payment over the limit.
+     */
+    public enum Action {
+        reject,
+        flag
+    }
+
+    private final Scope scope;
+    private final int length;
+    private final int maxCount;
+    private final double maxAmount;
+    private final Action action;
+
+    /**
+     * Creates a rule.
+     *
+     * @param scope     the card or the account
+     * @param length    the number of timestamps the payments are counted over
+     * @param maxCount  the largest number of payments, 0 for no limit
+     * @param maxAmount the largest amount, in RON, 0 for no limit
+     * @param action    what happens to a payment over the limit
+     */
+    public VelocityRule(final Scope scope, final int length, final int maxCount,
+                        final double maxAmount, final Action action) {
+        this.scope = scope;
+        this.length = length;
+        this.maxCount = maxCount;
+        this.maxAmount = maxAmount;
+        this.action = action;
+    }
+
+    /**
+     * Reads a rule written as scope:length:count:amount:action.
+     *
+     * @param specification the rule
+     * @return the rule
+     * @throws IllegalArgumentException if the rule is not written correctly
+     */
+    public static VelocityRule parse(final String specification) {
+        String[] fields = specification.trim().split(":");
+        if (fields.length != FIELDS) {
+            throw new IllegalArgumentException(
+                    "Expected scope:length:count:amount:action, found " + specification);
+        }
+        int length = Integer.parseInt(fields[LENGTH].trim());
+        if (length < 1) {
+            throw new IllegalArgumentException("The length of a rule must be positive, found "
+                    + specification);
+        }
+        return new VelocityRule(Scope.valueOf(fields[SCOPE].trim()), length,
+                Integer.parseInt(fields[COUNT].trim()), Double.parseDouble(fields[AMOUNT].trim()),
+                Action.valueOf(fields[ACTION].trim()));
+    }
+
+    /**
+     * Reads a list of rules separated by commas.
+     *
+     * @param specification the rules
+     * @return the rules, in the order they were written
+     * @throws IllegalArgumentException if a rule is not written correctly
+     */
+    public static List<VelocityRule> parseAll(final String specification) {
+        List<VelocityRule> rules = new ArrayList<>();
+        for (String rule : specification.split(",")) {
+            if (!rule.isBlank()) {
+                rules.add(parse(rule));
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Checks if a payment would go over the limit.
+     *
+     * @param window    the payments of the card or of the account
+     * @param amountRon the amount of the payment, in RON
+     * @param timestamp the timestamp of the payment
+     * @return true if the payment goes over the limit
+     */
+    public boolean isExceeded(final VelocityWindow window, final double amountRon,
+                              final int timestamp) {
+        window.advance(timestamp);
+        if (maxCount > 0 && window.getCount() >= maxCount) {
+            return true;
+        }
+        return maxAmount > 0 && window.getAmount() + amountRon > maxAmount;
+    }
+
+    /**
+     * Returns the description of the transaction written for a payment over the limit.
+     *
+     * @return the description
+     */
+    public String getDescription() {
+        if (action == Action.reject) {
+            return "The payment exceeds the velocity limit of the " + scope;
+        }
+        return "The payment was flagged by the velocity limit of the " + scope;
+    }
+
+    /**
+     * Returns true if the payments over the limit are rejected.
+     *
+     * @return true to reject, false to only flag the payments
+     */
+    public boolean rejects() {
+        return action == Action.reject;
+    }
+
+    /**
+     * Getter for the scope of the rule.
+     *
+     * @return the card or the account
+     */
+    public Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * Getter for the number of timestamps the payments are counted over.
+     *
+     * @return the length of the window
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Writes the rule to a snapshot.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeByte(scope.ordinal());
+        writer.writeInt(length);
+        writer.writeInt(maxCount);
+        writer.writeDouble(maxAmount);
+        writer.writeByte(action.ordinal());
+    }
+
+    /**
+     * Reads back a rule written by {@link #writeTo(SnapshotWriter)}.
+     *
+     * @param reader the reader of the snapshot
+     * @return the rule
+     * @throws IOException if the snapshot cannot be read
+     */
+    public static VelocityRule readFrom(final SnapshotReader reader) throws IOException {
+        int scope = reader.readByte();
+        int length = reader.readInt();
+        int maxCount = reader.readInt();
+        double maxAmount = reader.readDouble();
+        int action = reader.readByte();
+        if (scope < 0 || scope >= Scope.values().length || length < 1
+                || action < 0 || action >= Action.values().length) {
+            throw reader.corrupted("velocity rule");
+        }
+        return new VelocityRule(Scope.values()[scope], length, maxCount, maxAmount,
+                Action.values()[action]);
+    }
+}
@@ -0,0 +1,164 @@
+package org.poo.velocity;
+
+import org.poo.snapshot.SnapshotReader;
+import org.poo.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+
+/**
+ * The number of payments and the amount paid with a card or from an account over the
+ * last timestamps, kept in a fixed amount of memory and updated in constant time.
+ * <p>
+ * The window is a ring of buckets, each holding the payments of a few consecutive
+ * timestamps in two primitive arrays. A window of at most {@link #MAX_BUCKETS}
+ * timestamps has one bucket for every timestamp, so it is exact. A longer window is
+ * rounded up to whole buckets: it can hold the payments of up to length / 32 timestamps
+ * more than its length.
+ * <p>
+ * Moving the window to a later timestamp empties the buckets left behind and takes their
+ * payments out of the totals, so the totals are not added up again. The amount can drift
+ * in the last bits while the window holds payments; it is 0 again when the window is empty.
+ * A timestamp before the last one is counted in the window of the last one.
+ */
+public final class VelocityWindow {
+    /**
+     * The largest number of buckets of a window.
+     */
+    public static final int MAX_BUCKETS = 32;
+
+    // the number of timestamps in a bucket
+    private final int width;
+
+    // counts[slot] and amounts[slot] are the payments of the bucket in that slot of the ring
+    private final int[] counts;
+    private final double[] amounts;
+
+    // the bucket of the last timestamp, the one the window ends with
+    private long lastBucket = Integer.MIN_VALUE;
+
+    private int count = 0;
+    private double amount = 0.0;
+
+    /**
+     * Creates an empty window.
+     *
+     * @param length the number of timestamps the window covers, at least 1
+     */
+    public VelocityWindow(final int length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("The length of a window must be positive, found "
+                    + length);
+        }
+        int buckets = Math.min(length, MAX_BUCKETS);
+        width = (length + buckets - 1) / buckets;
+        counts = new int[buckets];
+        amounts = new double[buckets];
+    }
+
+    /**
+     * Moves the end of the window to a timestamp, leaving behind the payments which are
+     * no longer in it.
+     *
+     * @param timestamp the timestamp
+     */
+    public void advance(final int timestamp) {
+        long bucket = Math.floorDiv(timestamp, width);
+        if (bucket <= lastBucket) {
+            return;
+        }
+
+        if (bucket - lastBucket >= counts.length) {
+            // every bucket is left behind
+            for (int slot = 0; slot < counts.length; slot++) {
+                counts[slot] = 0;
+                amounts[slot] = 0.0;
+            }
+            count = 0;
+            amount = 0.0;
+        } else {
+            for (long left = lastBucket + 1; left <= bucket; left++) {
+                int slot = (int) Math.floorMod(left, (long) counts.length);
+                count -= counts[slot];
+                amount -= amounts[slot];
+                counts[slot] = 0;
+                amounts[slot] = 0.0;
+            }
+            if (count == 0) {
+                amount = 0.0;
+            }
+        }
+        lastBucket = bucket;
+    }
+
+    /**
+     * Adds a payment to the window, moving its end to the timestamp of the payment.
+     *
+     * @param timestamp the timestamp of the payment
+     * @param value     the amount paid
+     */
+    public void add(final int timestamp, final double value) {
+        advance(timestamp);
+        long bucket = Math.floorDiv(timestamp, width);
+        if (bucket <= lastBucket - counts.length) {
+            // older than the window
+            return;
+        }
+        int slot = (int) Math.floorMod(bucket, (long) counts.length);
+        counts[slot]++;
+        amounts[slot] += value;
+        count++;
+        amount += value;
+    }
+
+    /**
+     * Returns the number of payments in the window.
+     *
+     * @return the number of payments
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the amount paid in the window.
+     *
+     * @return the amount
+     */
+    public double getAmount() {
+        return amount;
+    }
+
+    /**
+     * Writes the buckets and the totals of the window to a snapshot.
+     *
+     * @param writer the writer of the snapshot
+     * @throws IOException in case of exceptions to writing
+     */
+    public void writeTo(final SnapshotWriter writer) throws IOException {
+        writer.writeLong(lastBucket);
+        writer.writeInt(count);
+        writer.writeDouble(amount);
+        writer.writeInts(counts, counts.length);
+        writer.writeDoubles(amounts, amounts.length);
+    }
+
+    /**
+     * Reads back the buckets and the totals written by {@link #writeTo(SnapshotWriter)}
+     * into this window, created with the same length.
+     *
+     * @param reader the reader of the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public void readFrom(final SnapshotReader reader) throws IOException {
+        lastBucket = reader.readLong();
+        count = reader.readInt();
+        amount = reader.readDouble();
+        int[] readCounts = reader.readInts();
+        double[] readAmounts = reader.readDoubles();
+        if (readCounts.length != counts.length || readAmounts.length != amounts.length) {
+            throw reader.corrupted("velocity window of " + readCounts.length + " buckets");
+        }
+        System.arraycopy(readCounts, 0, counts, 0, counts.length);
+        System.arraycopy(readAmounts, 0, amounts, 0, amounts.length);
+    }
+}
@@ -0,0 +1,104 @@
+package org.poo.workload;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The share of every kind of command in a generated workload.
+ * The mix is written as a list of weights, for example
+ * "payOnline=40,sendMoney=20,addFunds=10": every command of the workload is
+ * payOnline with probability 40 / 70.
+ */
+public final class CommandMix {
+    private final Map<String, Integer> weights;
+
+    // the names and the cumulative weights, for the draws
+    private final String[] names;
+    private final int[] cumulativeWeights;
+
+    /**
+     * Creates a mix from the weights of the commands.
+     *
+     * @param weights the weight of every command name, in the order they are listed
+     */
+    public CommandMix(final Map<String, Integer> weights) {
+        this.weights = Collections.unmodifiableMap(new LinkedHashMap<>(weights));
+
+        // the commands with no weight are left out, so the cumulative weights increase
+        int positive = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            if (entry.getValue() < 0) {
+                throw new IllegalArgumentException("Negative weight for " + entry.getKey());
+            }
+            if (entry.getValue() > 0) {
+                positive++;
+            }
+        }
+        if (positive == 0) {
+            throw new IllegalArgumentException("The command mix has no commands");
+        }
+
+        names = new String[positive];
+        cumulativeWeights = new int[positive];
+        int total = 0;
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            if (entry.getValue() > 0) {
+                total += entry.getValue();
+                names[i] = entry.getKey();
+                cumulativeWeights[i] = total;
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Reads a mix written as "name=weight" pairs separated by commas.
+     *
+     * @param specification the mix, for example "payOnline=40,sendMoney=20"
+     * @return the mix
+     */
+    public static CommandMix parse(final String specification) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String pair : specification.split(",")) {
+            String trimmed = pair.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected name=weight, found " + trimmed);
+            }
+            weights.put(trimmed.substring(0, separator).trim(),
+                    Integer.parseInt(trimmed.substring(separator + 1).trim()));
+        }
+        return new CommandMix(weights);
+    }
+
+    /**
+     * Returns the weight of every command name.
+     *
+     * @return the weights, in the order they were listed
+     */
+    public Map<String, Integer> getWeights() {
+        return weights;
+    }
+
+    /**
+     * Draws the name of the next command.
+     *
+     * @param random the random generator
+     * @return the name of a command, drawn with the probability of its weight
+     */
+    public String next(final Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = Arrays.binarySearch(cumulativeWeights, value + 1);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return names[index];
+    }
+}
@@ -0,0 +1,930 @@
+package org.poo.workload;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.poo.utils.IdentifierGenerator;
+import org.poo.utils.Utils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates large input files for the bank, in the format of the test inputs.
+ * <p>
+ * The file holds the users, the commerciants, the exchange rates and the commands.
+ * The first commands set up the bank: every user opens a classic account with a card,
+ * some of them a savings or a business account as well, and the business accounts
+ * receive their associates. The rest of the commands are drawn from the command mix,
+ * on accounts and commerciants drawn with a Zipfian popularity, so a few accounts are
+ * used very often and most of them rarely. Every split payment is followed, a few
+ * commands later, by the answers of its participants.
+ * <p>
+ * The IBANs and card numbers are not in the input: the bank generates them when the
+ * accounts and cards are created. The generator creates them with the same seeds, in
+ * the same order, so the commands can use them. No one time card is created and no
+ * account or card is deleted, so the numbers stay the same as the ones of the bank.
+ * <p>
+ * The file is written as a stream, so only the accounts, not the commands, are kept
+ * in memory, and the same settings always give the same file.
+ */
+public final class WorkloadGenerator {
+    /**
+     * System property which sets the seed of the workload.
+     */
+    public static final String SEED_PROPERTY = "workload.seed";
+
+    /**
+     * System property which sets the number of users.
+     */
+    public static final String USERS_PROPERTY = "workload.users";
+
+    /**
+     * System property which sets the number of commands after the setup of the bank.
+     */
+    public static final String COMMANDS_PROPERTY = "workload.commands";
+
+    /**
+     * System property which sets the number of currencies in the graph of exchange rates.
+     */
+    public static final String CURRENCIES_PROPERTY = "workload.currencies";
+
+    /**
+     * System property which sets the number of commerciants.
+     */
+    public static final String COMMERCIANTS_PROPERTY = "workload.commerciants";
+
+    /**
+     * System property which sets the exponent of the Zipfian popularity, 0 for uniform.
+     */
+    public static final String ZIPF_EXPONENT_PROPERTY = "workload.zipfExponent";
+
+    /**
+     * System property which sets the share of the users who open a savings account.
+     */
+    public static final String SAVINGS_SHARE_PROPERTY = "workload.savingsShare";
+
+    /**
+     * System property which sets the share of the users who open a business account.
+     */
+    public static final String BUSINESS_SHARE_PROPERTY = "workload.businessShare";
+
+    /**
+     * System property which sets the number of associates of every business account.
+     */
+    public static final String BUSINESS_FAN_OUT_PROPERTY = "workload.businessFanOut";
+
+    /**
+     * System property which sets the largest number of accounts in a split payment.
+     */
+    public static final String SPLIT_PARTICIPANTS_PROPERTY = "workload.splitParticipants";
+
+    /**
+     * System property which sets the largest amount of a payment.
+     */
+    public static final String MAX_AMOUNT_PROPERTY = "workload.maxAmount";
+
+    /**
+     * System property which sets the mix of the commands, for example
+     * -Dworkload.mix=payOnline=40,sendMoney=20,addFunds=10.
+     */
+    public static final String COMMAND_MIX_PROPERTY = "workload.mix";
+
+    /**
+     * System property which writes the file with indentation, like the test inputs.
+     */
+    public static final String PRETTY_PROPERTY = "workload.pretty";
+
+    /**
+     * the commands which can be part of the command mix
+     */
+    public static final Set<String> SUPPORTED_COMMANDS = Set.of("printUsers", "payOnline",
+            "sendMoney", "addFunds", "splitPayment", "acceptSplitPayment", "rejectSplitPayment",
+            "cashWithdrawal", "withdrawSavings", "addInterest", "changeInterestRate",
+            "upgradePlan", "report", "spendingsReport", "businessReport", "printTransactions",
+            "checkCardStatus", "setMinimumBalance", "changeSpendingLimit", "changeDepositLimit",
+            "setAlias", "createCard");
+
+    private static final String[] COMMON_CURRENCIES = {"RON", "EUR", "USD", "GBP", "CHF",
+        "JPY", "CAD", "AUD", "SEK", "NOK", "DKK", "PLN", "HUF", "CZK", "BGN", "TRY"};
+    private static final String[] FIRST_NAMES = {"Ana", "Mihai", "Elena", "Andrei", "Maria",
+        "Ioana", "Alex", "Jennifer", "Omar", "Pauline", "Manuel", "Tinca"};
+    private static final String[] LAST_NAMES = {"Popescu", "Ionescu", "Gould", "Becker",
+        "Roux", "Lawrence", "Stancu", "Cristea", "Chandler", "Dinu"};
+    private static final String[] DOMAINS = {"gmail.ro", "yahoo.com", "outlook.fr",
+        "hotmail.us", "mail.com"};
+    private static final String[] OCCUPATIONS = {"student", "engineer", "doctor", "teacher",
+        "lawyer", "artist"};
+    private static final String[] COMMERCIANT_TYPES = {"Food", "Clothes", "Tech"};
+    private static final String[] CASHBACK_STRATEGIES = {"nrOfTransactions",
+        "spendingThreshold"};
+    private static final String[] LOCATIONS = {"Bucharest", "Cluj", "Iasi", "Paris",
+        "Lynnbury", "Berlin"};
+
+    private static final int ALPHABET = 26;
+    private static final int FIRST_BIRTH_YEAR = 1950;
+    private static final int BIRTH_YEARS = 57;
+    private static final int MONTHS = 12;
+    private static final int DAYS = 28;
+    private static final int SHORTCUTS_DIVISOR = 4;
+    private static final double MIN_CURRENCY_VALUE = 0.01;
+    private static final double MAX_CURRENCY_VALUE = 10;
+    private static final double RATE_SCALE = 10000;
+    private static final double AMOUNT_SCALE = 100;
+    private static final double MAX_INTEREST_RATE = 0.2;
+    private static final int INITIAL_DEPOSIT_FACTOR = 20;
+    private static final int MANAGER_ONE_IN = 4;
+    private static final double SPLIT_ANSWER_CHANCE = 0.5;
+    private static final double SPLIT_REJECT_CHANCE = 0.1;
+    private static final double FOREIGN_CURRENCY_CHANCE = 0.3;
+    private static final double COMMERCIANT_TRANSFER_CHANCE = 0.15;
+    private static final double ASSOCIATE_PAYMENT_CHANCE = 0.5;
+    private static final int MAX_DRAWS = 1000;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final WorkloadSettings settings;
+
+    // the state of the file being written
+    private Random random;
+    private IdentifierGenerator identifiers;
+    private JsonGenerator json;
+    private int timestamp;
+    private int commandsWritten;
+
+    private String[] currencies;
+    private String[] commerciantNames;
+    private String[] commerciantIBANs;
+    private String[] emails;
+
+    // the accounts, indexed by the order in which they were created
+    private int accountCount;
+    private String[] ibans;
+    private int[] owners;
+    private String[] accountCurrencies;
+    private String[] cardNumbers;
+    private int[][] associates;
+
+    // the accounts of every kind
+    private IndexList allAccounts;
+    private IndexList classicAccounts;
+    private IndexList savingsAccounts;
+    private IndexList businessAccounts;
+
+    // the popularity of the accounts of every kind, of the currencies and of the commerciants
+    private ZipfianSampler allSampler;
+    private ZipfianSampler classicSampler;
+    private ZipfianSampler savingsSampler;
+    private ZipfianSampler businessSampler;
+    private ZipfianSampler currencySampler;
+    private ZipfianSampler commerciantSampler;
+
+    // the answers of the participants of the split payments, not written yet
+    private final ArrayDeque<SplitAnswer> pendingAnswers = new ArrayDeque<>();
+
+    /**
+     * The answer of a participant to a split payment.
+     */
+    private static final class SplitAnswer {
+        private final String email;
+        private final String splitPaymentType;
+        private final boolean accept;
+
+        SplitAnswer(final String email, final String splitPaymentType, final boolean accept) {
+            this.email = email;
+            this.splitPaymentType = splitPaymentType;
+            this.accept = accept;
+        }
+    }
+
+    /**
+     * A growing list of account indexes.
+     */
+    private static final class IndexList {
+        private int[] items = new int[INITIAL_CAPACITY];
+        private int size;
+
+        void add(final int item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = item;
+        }
+
+        int get(final int index) {
+            return items[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Constructor for the WorkloadGenerator class.
+     *
+     * @param settings the settings of the workload
+     */
+    public WorkloadGenerator(final WorkloadSettings settings) {
+        for (String command : settings.getCommandMix().getWeights().keySet()) {
+            if (!SUPPORTED_COMMANDS.contains(command)) {
+                throw new IllegalArgumentException("The workload cannot generate " + command);
+            }
+        }
+        this.settings = settings;
+    }
+
+    /**
+     * Writes the workload to a file.
+     *
+     * @param file the file to write
+     * @throws IOException in case of exceptions to writing
+     */
+    public void write(final Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(out);
+        }
+    }
+
+    /**
+     * Writes the workload to a stream. The stream is not closed.
+     *
+     * @param out the stream to write to
+     * @throws IOException in case of exceptions to writing
+     */
+    public void write(final OutputStream out) throws IOException {
+        random = new Random(settings.getSeed());
+        identifiers = new IdentifierGenerator();
+        timestamp = 1;
+        commandsWritten = 0;
+        accountCount = 0;
+        int capacity = settings.getUsers() * 2;
+        ibans = new String[capacity];
+        owners = new int[capacity];
+        accountCurrencies = new String[capacity];
+        cardNumbers = new String[capacity];
+        associates = new int[capacity][];
+        allAccounts = new IndexList();
+        classicAccounts = new IndexList();
+        savingsAccounts = new IndexList();
+        businessAccounts = new IndexList();
+        pendingAnswers.clear();
+
+        json = new ObjectMapper().getFactory().createGenerator(out, JsonEncoding.UTF8);
+        if (settings.isPrettyPrint()) {
+            json.useDefaultPrettyPrinter();
+        }
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        try {
+            json.writeStartObject();
+            writeUsers();
+            writeCommerciants();
+            writeExchangeRates();
+
+            json.writeArrayFieldStart("commands");
+            writeSetupCommands();
+            writeWorkloadCommands();
+            json.writeEndArray();
+
+            json.writeEndObject();
+        } finally {
+            json.close();
+            json = null;
+        }
+    }
+
+    /**
+     * Returns the number of commands written by the last call to write.
+     *
+     * @return the number of commands, including the ones which set up the bank
+     */
+    public int getCommandsWritten() {
+        return commandsWritten;
+    }
+
+    private void writeUsers() throws IOException {
+        emails = new String[settings.getUsers()];
+        json.writeArrayFieldStart("users");
+        for (int i = 0; i < settings.getUsers(); i++) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            emails[i] = firstName + "_" + lastName + "_" + i + "@"
+                    + DOMAINS[random.nextInt(DOMAINS.length)];
+
+            json.writeStartObject();
+            json.writeStringField("firstName", firstName);
+            json.writeStringField("lastName", lastName);
+            json.writeStringField("email", emails[i]);
+            json.writeStringField("birthDate", String.format("%04d-%02d-%02d",
+                    FIRST_BIRTH_YEAR + random.nextInt(BIRTH_YEARS),
+                    1 + random.nextInt(MONTHS), 1 + random.nextInt(DAYS)));
+            json.writeStringField("occupation", OCCUPATIONS[random.nextInt(OCCUPATIONS.length)]);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private void writeCommerciants() throws IOException {
+        // the IBANs of the commerciants come from their own generator,
+        // so they do not change the IBANs of the accounts
+        Random ibanRandom = new Random(settings.getSeed() + 1);
+        commerciantNames = new String[settings.getCommerciants()];
+        commerciantIBANs = new String[settings.getCommerciants()];
+
+        json.writeArrayFieldStart("commerciants");
+        for (int i = 0; i < settings.getCommerciants(); i++) {
+            String type = COMMERCIANT_TYPES[random.nextInt(COMMERCIANT_TYPES.length)];
+            commerciantNames[i] = type + " Shop " + i;
+            commerciantIBANs[i] = Utils.generateIBAN(ibanRandom);
+
+            json.writeStartObject();
+            json.writeStringField("commerciant", commerciantNames[i]);
+            json.writeNumberField("id", i);
+            json.writeStringField("account", commerciantIBANs[i]);
+            json.writeStringField("type", type);
+            json.writeStringField("cashbackStrategy",
+                    CASHBACK_STRATEGIES[random.nextInt(CASHBACK_STRATEGIES.length)]);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        commerciantSampler = new ZipfianSampler(random, commerciantNames.length,
+                settings.getZipfExponent());
+    }
+
+    /**
+     * Writes a chain of rates through all the currencies, so every currency can be
+     * converted to every other one, plus a few shortcuts. Every currency has a value
+     * in RON and the rates are the ratios of the values, so all the paths between two
+     * currencies give about the same rate.
+     */
+    private void writeExchangeRates() throws IOException {
+        currencies = new String[settings.getCurrencies()];
+        double[] values = new double[currencies.length];
+        for (int i = 0; i < currencies.length; i++) {
+            currencies[i] = currencyName(i);
+            values[i] = i == 0 ? 1 : MIN_CURRENCY_VALUE
+                    + random.nextDouble() * (MAX_CURRENCY_VALUE - MIN_CURRENCY_VALUE);
+        }
+
+        json.writeArrayFieldStart("exchangeRates");
+        for (int i = 1; i < currencies.length; i++) {
+            writeExchangeRate(i - 1, i, values);
+        }
+        for (int i = 0; i < currencies.length / SHORTCUTS_DIVISOR; i++) {
+            int from = random.nextInt(currencies.length);
+            int to = random.nextInt(currencies.length);
+            if (from != to) {
+                writeExchangeRate(from, to, values);
+            }
+        }
+        json.writeEndArray();
+        currencySampler = new ZipfianSampler(random, currencies.length,
+                settings.getZipfExponent());
+    }
+
+    private void writeExchangeRate(final int from, final int to, final double[] values)
+            throws IOException {
+        json.writeStartObject();
+        json.writeStringField("from", currencies[from]);
+        json.writeStringField("to", currencies[to]);
+        json.writeNumberField("rate", Math.round(values[from] / values[to] * RATE_SCALE)
+                / RATE_SCALE);
+        json.writeEndObject();
+    }
+
+    /**
+     * Returns the code of a currency: the common currencies first, then made up codes.
+     *
+     * @param index the index of the currency
+     * @return the code of the currency
+     */
+    static String currencyName(final int index) {
+        if (index < COMMON_CURRENCIES.length) {
+            return COMMON_CURRENCIES[index];
+        }
+        StringBuilder code = new StringBuilder();
+        int rest = index - COMMON_CURRENCIES.length;
+        do {
+            code.append((char) ('A' + rest % ALPHABET));
+            rest /= ALPHABET;
+        } while (rest > 0);
+        return "X" + code.reverse();
+    }
+
+    /**
+     * Opens the accounts of the users, adds their first funds and creates their cards,
+     * then adds the associates of the business accounts.
+     */
+    private void writeSetupCommands() throws IOException {
+        for (int user = 0; user < settings.getUsers(); user++) {
+            int classic = openAccount(user, "classic", randomCurrency());
+            classicAccounts.add(classic);
+            createCard(classic);
+
+            if (random.nextDouble() < settings.getSavingsShare()) {
+                savingsAccounts.add(openAccount(user, "savings", randomCurrency()));
+            }
+            if (random.nextDouble() < settings.getBusinessShare()) {
+                int business = openAccount(user, "business", randomCurrency());
+                businessAccounts.add(business);
+                createCard(business);
+            }
+        }
+
+        int fanOut = Math.min(settings.getBusinessFanOut(), settings.getUsers() - 1);
+        for (int i = 0; i < businessAccounts.size(); i++) {
+            int account = businessAccounts.get(i);
+            associates[account] = new int[fanOut];
+            for (int j = 0; j < fanOut; j++) {
+                int associate = drawAssociate(account, j);
+                associates[account][j] = associate;
+
+                startCommand("addNewBusinessAssociate");
+                json.writeStringField("account", ibans[account]);
+                json.writeStringField("role",
+                        random.nextInt(MANAGER_ONE_IN) == 0 ? "manager" : "employee");
+                json.writeStringField("email", emails[associate]);
+                endCommand();
+            }
+        }
+
+        double exponent = settings.getZipfExponent();
+        allSampler = new ZipfianSampler(random, allAccounts.size(), exponent);
+        classicSampler = new ZipfianSampler(random, classicAccounts.size(), exponent);
+        if (savingsAccounts.size() > 0) {
+            savingsSampler = new ZipfianSampler(random, savingsAccounts.size(), exponent);
+        }
+        if (businessAccounts.size() > 0) {
+            businessSampler = new ZipfianSampler(random, businessAccounts.size(), exponent);
+        }
+    }
+
+    /**
+     * Draws a user who is neither the owner nor already an associate of the account.
+     */
+    private int drawAssociate(final int account, final int found) {
+        while (true) {
+            int user = random.nextInt(settings.getUsers());
+            boolean taken = user == owners[account];
+            for (int k = 0; k < found && !taken; k++) {
+                taken = associates[account][k] == user;
+            }
+            if (!taken) {
+                return user;
+            }
+        }
+    }
+
+    private int openAccount(final int user, final String type, final String currency)
+            throws IOException {
+        startCommand("addAccount");
+        json.writeStringField("email", emails[user]);
+        json.writeStringField("currency", currency);
+        json.writeStringField("accountType", type);
+        if (type.equals("savings")) {
+            json.writeNumberField("interestRate", amount(MAX_INTEREST_RATE));
+        }
+        endCommand();
+
+        if (accountCount == ibans.length) {
+            int capacity = accountCount * 2;
+            ibans = Arrays.copyOf(ibans, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            accountCurrencies = Arrays.copyOf(accountCurrencies, capacity);
+            cardNumbers = Arrays.copyOf(cardNumbers, capacity);
+            associates = Arrays.copyOf(associates, capacity);
+        }
+        int account = accountCount++;
+        ibans[account] = identifiers.generateIBAN();
+        owners[account] = user;
+        accountCurrencies[account] = currency;
+        allAccounts.add(account);
+
+        startCommand("addFunds");
+        json.writeStringField("email", emails[user]);
+        json.writeStringField("account", ibans[account]);
+        json.writeNumberField("amount", amount(settings.getMaxAmount() * INITIAL_DEPOSIT_FACTOR));
+        endCommand();
+        return account;
+    }
+
+    private void createCard(final int account) throws IOException {
+        startCommand("createCard");
+        json.writeStringField("account", ibans[account]);
+        json.writeStringField("email", emails[owners[account]]);
+        endCommand();
+
+        // only the first card of an account is used by the payments
+        String cardNumber = identifiers.generateCardNumber();
+        if (cardNumbers[account] == null) {
+            cardNumbers[account] = cardNumber;
+        }
+    }
+
+    /**
+     * Writes the commands drawn from the command mix. Half of the time, when a split
+     * payment waits for answers, the next answer is written instead.
+     */
+    private void writeWorkloadCommands() throws IOException {
+        CommandMix mix = settings.getCommandMix();
+        for (int i = 0; i < settings.getCommands(); i++) {
+            if (!pendingAnswers.isEmpty() && random.nextDouble() < SPLIT_ANSWER_CHANCE) {
+                writeSplitAnswer(pendingAnswers.poll());
+                continue;
+            }
+
+            int draws = 0;
+            while (!writeCommand(mix.next(random))) {
+                if (++draws == MAX_DRAWS) {
+                    throw new IllegalStateException("The command mix needs accounts "
+                            + "which the workload does not have");
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes one command of the given kind.
+     *
+     * @param command the name of the command
+     * @return false if there is no account the command can use
+     */
+    private boolean writeCommand(final String command) throws IOException {
+        switch (command) {
+            case "printUsers":
+                startCommand(command);
+                endCommand();
+                return true;
+            case "payOnline":
+                writePayOnline(drawCardAccount());
+                return true;
+            case "sendMoney":
+                writeSendMoney(drawCardAccount());
+                return true;
+            case "addFunds":
+                writeAccountCommand(command, drawAccount(allAccounts, allSampler),
+                        true, amount(settings.getMaxAmount()));
+                return true;
+            case "splitPayment":
+                writeSplitPayment();
+                return true;
+            case "acceptSplitPayment":
+            case "rejectSplitPayment":
+                writeSplitAnswer(new SplitAnswer(emails[random.nextInt(emails.length)],
+                        random.nextBoolean() ? "custom" : "equal",
+                        command.equals("acceptSplitPayment")));
+                return true;
+            case "cashWithdrawal":
+                writeCashWithdrawal(drawCardAccount());
+                return true;
+            case "checkCardStatus":
+                startCommand(command);
+                json.writeStringField("cardNumber", cardNumbers[drawCardAccount()]);
+                endCommand();
+                return true;
+            case "createCard":
+                createCard(drawCardAccount());
+                return true;
+            case "upgradePlan":
+                startCommand(command);
+                json.writeStringField("account", ibans[drawAccount(allAccounts, allSampler)]);
+                json.writeStringField("newPlanType", random.nextBoolean() ? "silver" : "gold");
+                endCommand();
+                return true;
+            case "report":
+            case "spendingsReport":
+                writeReport(command, drawReportAccount(), null);
+                return true;
+            case "setMinimumBalance":
+                writeAccountCommand(command, drawAccount(allAccounts, allSampler),
+                        false, amount(settings.getMaxAmount()));
+                return true;
+            case "printTransactions":
+                startCommand(command);
+                json.writeStringField("email",
+                        emails[owners[drawAccount(allAccounts, allSampler)]]);
+                endCommand();
+                return true;
+            case "setAlias":
+                int aliased = drawAccount(classicAccounts, classicSampler);
+                startCommand(command);
+                json.writeStringField("email", emails[owners[aliased]]);
+                json.writeStringField("account", ibans[aliased]);
+                json.writeStringField("alias", "alias" + timestamp);
+                endCommand();
+                return true;
+            default:
+                return writeSpecialAccountCommand(command);
+        }
+    }
+
+    /**
+     * Writes a command which needs a savings or a business account.
+     *
+     * @param command the name of the command
+     * @return false if there is no account of the kind the command needs
+     */
+    private boolean writeSpecialAccountCommand(final String command) throws IOException {
+        switch (command) {
+            case "withdrawSavings":
+            case "addInterest":
+            case "changeInterestRate":
+                if (savingsSampler == null) {
+                    return false;
+                }
+                int savings = drawAccount(savingsAccounts, savingsSampler);
+                startCommand(command);
+                json.writeStringField("account", ibans[savings]);
+                if (command.equals("withdrawSavings")) {
+                    json.writeNumberField("amount", amount(settings.getMaxAmount()));
+                    json.writeStringField("currency", randomCurrency());
+                } else if (command.equals("changeInterestRate")) {
+                    json.writeNumberField("interestRate", amount(MAX_INTEREST_RATE));
+                }
+                endCommand();
+                return true;
+            case "businessReport":
+                if (businessSampler == null) {
+                    return false;
+                }
+                writeReport(command, drawAccount(businessAccounts, businessSampler),
+                        random.nextBoolean() ? "transaction" : "commerciant");
+                return true;
+            case "changeSpendingLimit":
+            case "changeDepositLimit":
+                if (businessSampler == null) {
+                    return false;
+                }
+                writeAccountCommand(command, drawAccount(businessAccounts, businessSampler),
+                        true, amount(settings.getMaxAmount()));
+                return true;
+            default:
+                throw new IllegalArgumentException("The workload cannot generate " + command);
+        }
+    }
+
+    private void writeAccountCommand(final String command, final int account,
+                                     final boolean withEmail, final double amount)
+            throws IOException {
+        startCommand(command);
+        if (withEmail) {
+            json.writeStringField("email", emails[owners[account]]);
+        }
+        json.writeStringField("account", ibans[account]);
+        json.writeNumberField("amount", amount);
+        endCommand();
+    }
+
+    private void writePayOnline(final int account) throws IOException {
+        startCommand("payOnline");
+        json.writeStringField("email", emails[payer(account)]);
+        json.writeStringField("cardNumber", cardNumbers[account]);
+        json.writeNumberField("amount", amount(settings.getMaxAmount()));
+        json.writeStringField("currency", paymentCurrency(account));
+        json.writeStringField("description", "Online payment");
+        json.writeStringField("commerciant", commerciantNames[commerciantSampler.next()]);
+        endCommand();
+    }
+
+    private void writeSendMoney(final int account) throws IOException {
+        String receiver;
+        if (random.nextDouble() < COMMERCIANT_TRANSFER_CHANCE) {
+            receiver = commerciantIBANs[commerciantSampler.next()];
+        } else {
+            receiver = ibans[drawAccount(allAccounts, allSampler)];
+        }
+
+        startCommand("sendMoney");
+        json.writeStringField("account", ibans[account]);
+        json.writeNumberField("amount", amount(settings.getMaxAmount()));
+        json.writeStringField("receiver", receiver);
+        json.writeStringField("email", emails[owners[account]]);
+        json.writeStringField("description", "Transfer");
+        endCommand();
+    }
+
+    private void writeCashWithdrawal(final int account) throws IOException {
+        // only the owner of the account can withdraw cash with its card
+        startCommand("cashWithdrawal");
+        json.writeStringField("email", emails[owners[account]]);
+        json.writeStringField("cardNumber", cardNumbers[account]);
+        json.writeNumberField("amount", amount(settings.getMaxAmount()));
+        json.writeStringField("location", LOCATIONS[random.nextInt(LOCATIONS.length)]);
+        endCommand();
+    }
+
+    private void writeReport(final String command, final int account, final String type)
+            throws IOException {
+        startCommand(command);
+        json.writeNumberField("startTimestamp", Math.max(0, timestamp
+                - settings.getReportWindow()));
+        json.writeNumberField("endTimestamp", timestamp);
+        json.writeStringField("account", ibans[account]);
+        if (type != null) {
+            json.writeStringField("type", type);
+        }
+        endCommand();
+    }
+
+    /**
+     * Writes a split payment between classic accounts of different users and queues
+     * the answers of their owners; a few of them reject the payment.
+     */
+    private void writeSplitPayment() throws IOException {
+        int participants = 2 + random.nextInt(settings.getMaxSplitParticipants() - 1);
+        participants = Math.min(participants, classicAccounts.size());
+        int[] accounts = new int[participants];
+        for (int i = 0; i < participants; i++) {
+            accounts[i] = drawSplitParticipant(accounts, i);
+        }
+
+        boolean custom = random.nextBoolean();
+        String type = custom ? "custom" : "equal";
+        double[] amounts = new double[participants];
+        double total = 0;
+        for (int i = 0; i < participants; i++) {
+            amounts[i] = amount(settings.getMaxAmount());
+            total += amounts[i];
+        }
+
+        startCommand("splitPayment");
+        json.writeStringField("splitPaymentType", type);
+        json.writeArrayFieldStart("accounts");
+        for (int account : accounts) {
+            json.writeString(ibans[account]);
+        }
+        json.writeEndArray();
+        json.writeNumberField("amount", Math.round(total * AMOUNT_SCALE) / AMOUNT_SCALE);
+        if (custom) {
+            json.writeArrayFieldStart("amountForUsers");
+            for (double amount : amounts) {
+                json.writeNumber(amount);
+            }
+            json.writeEndArray();
+        }
+        json.writeStringField("currency", randomCurrency());
+        endCommand();
+
+        for (int account : accounts) {
+            pendingAnswers.add(new SplitAnswer(emails[owners[account]], type,
+                    random.nextDouble() >= SPLIT_REJECT_CHANCE));
+        }
+    }
+
+    /**
+     * Draws a classic account whose owner is not already part of the split payment.
+     * After a few tries, any account is accepted, so small banks do not loop forever.
+     */
+    private int drawSplitParticipant(final int[] accounts, final int found) {
+        int account = drawAccount(classicAccounts, classicSampler);
+        for (int tries = 0; tries < MAX_DRAWS; tries++) {
+            boolean taken = false;
+            for (int k = 0; k < found && !taken; k++) {
+                taken = owners[accounts[k]] == owners[account];
+            }
+            if (!taken) {
+                return account;
+            }
+            account = drawAccount(classicAccounts, classicSampler);
+        }
+        return account;
+    }
+
+    private void writeSplitAnswer(final SplitAnswer answer) throws IOException {
+        startCommand(answer.accept ? "acceptSplitPayment" : "rejectSplitPayment");
+        json.writeStringField("email", answer.email);
+        json.writeStringField("splitPaymentType", answer.splitPaymentType);
+        endCommand();
+    }
+
+    /**
+     * Draws an account with a card: a classic account or, sometimes, a business one.
+     */
+    private int drawCardAccount() {
+        if (businessSampler != null && random.nextDouble() < settings.getBusinessShare()) {
+            return drawAccount(businessAccounts, businessSampler);
+        }
+        return drawAccount(classicAccounts, classicSampler);
+    }
+
+    /**
+     * Draws an account for a report: a classic account or, sometimes, a savings one.
+     * The reports of the business accounts are only given by businessReport.
+     */
+    private int drawReportAccount() {
+        if (savingsSampler != null && random.nextDouble() < settings.getSavingsShare()) {
+            return drawAccount(savingsAccounts, savingsSampler);
+        }
+        return drawAccount(classicAccounts, classicSampler);
+    }
+
+    private static int drawAccount(final IndexList accounts, final ZipfianSampler sampler) {
+        return accounts.get(sampler.next());
+    }
+
+    /**
+     * Returns the user who pays with the card of an account: the owner or,
+     * for a business account, sometimes one of the associates.
+     */
+    private int payer(final int account) {
+        int[] accountAssociates = associates[account];
+        if (accountAssociates != null && accountAssociates.length > 0
+                && random.nextDouble() < ASSOCIATE_PAYMENT_CHANCE) {
+            return accountAssociates[random.nextInt(accountAssociates.length)];
+        }
+        return owners[account];
+    }
+
+    private String paymentCurrency(final int account) {
+        if (random.nextDouble() < FOREIGN_CURRENCY_CHANCE) {
+            return randomCurrency();
+        }
+        return accountCurrencies[account];
+    }
+
+    private String randomCurrency() {
+        return currencies[currencySampler.next()];
+    }
+
+    /**
+     * Draws an amount between 0 and the given maximum, with two decimals.
+     */
+    private double amount(final double max) {
+        return Math.round(random.nextDouble() * max * AMOUNT_SCALE) / AMOUNT_SCALE;
+    }
+
+    private void startCommand(final String command) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("command", command);
+    }
+
+    private void endCommand() throws IOException {
+        json.writeNumberField("timestamp", timestamp++);
+        json.writeEndObject();
+        commandsWritten++;
+    }
+
+    /**
+     * Writes a workload to the file given as the first argument, with the settings
+     * given as system properties, for example:
+     * <pre>
+     * java -Dworkload.users=1000000 -Dworkload.commands=5000000 \
+     *     -cp ... org.poo.workload.WorkloadGenerator big.json
+     * </pre>
+     *
+     * @param args the path of the file to write
+     * @throws IOException in case of exceptions to writing
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: WorkloadGenerator <output file>");
+            System.exit(1);
+        }
+
+        WorkloadSettings settings = new WorkloadSettings();
+        settings.setSeed(Long.getLong(SEED_PROPERTY, WorkloadSettings.DEFAULT_SEED));
+        settings.setUsers(Integer.getInteger(USERS_PROPERTY, settings.getUsers()));
+        settings.setCommands(Integer.getInteger(COMMANDS_PROPERTY, settings.getCommands()));
+        settings.setCurrencies(Integer.getInteger(CURRENCIES_PROPERTY, settings.getCurrencies()));
+        settings.setCommerciants(Integer.getInteger(COMMERCIANTS_PROPERTY,
+                settings.getCommerciants()));
+        settings.setZipfExponent(doubleProperty(ZIPF_EXPONENT_PROPERTY,
+                settings.getZipfExponent()));
+        settings.setSavingsShare(doubleProperty(SAVINGS_SHARE_PROPERTY,
+                settings.getSavingsShare()));
+        settings.setBusinessShare(doubleProperty(BUSINESS_SHARE_PROPERTY,
+                settings.getBusinessShare()));
+        settings.setBusinessFanOut(Integer.getInteger(BUSINESS_FAN_OUT_PROPERTY,
+                settings.getBusinessFanOut()));
+        settings.setMaxSplitParticipants(Integer.getInteger(SPLIT_PARTICIPANTS_PROPERTY,
+                settings.getMaxSplitParticipants()));
+        settings.setMaxAmount(doubleProperty(MAX_AMOUNT_PROPERTY, settings.getMaxAmount()));
+        String mix = System.getProperty(COMMAND_MIX_PROPERTY);
+        if (mix != null) {
+            settings.setCommandMix(CommandMix.parse(mix));
+        }
+        settings.setPrettyPrint(Boolean.getBoolean(PRETTY_PROPERTY));
+
+        WorkloadGenerator generator = new WorkloadGenerator(settings);
+        Path file = Paths.get(args[0]);
+        generator.write(file);
+        System.out.println("Wrote " + generator.getCommandsWritten() + " commands for "
+                + settings.getUsers() + " users to " + file);
+    }
+
+    private static double doubleProperty(final String name, final double defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,260 @@
+package org.poo.workload;
+
+/**
+ * The settings of a generated workload. Every setting has a default value,
+ * so only the ones which matter for a test have to be changed.
+ * Two workloads generated with the same settings are identical.
+ */
+public final class WorkloadSettings {
+    /**
+     * the default seed of the random generator
+     */
+    public static final long DEFAULT_SEED = 42;
+
+    /**
+     * the default mix of the commands which follow the setup of the bank
+     */
+    public static final String DEFAULT_COMMAND_MIX = "payOnline=35,sendMoney=15,addFunds=10,"
+            + "splitPayment=8,cashWithdrawal=5,checkCardStatus=3,withdrawSavings=3,"
+            + "report=2,spendingsReport=2,businessReport=2,setMinimumBalance=2,upgradePlan=2,"
+            + "createCard=2,changeSpendingLimit=1,changeDepositLimit=1,addInterest=1,"
+            + "changeInterestRate=1,setAlias=1,printTransactions=1";
+
+    private static final int DEFAULT_USERS = 1000;
+    private static final int DEFAULT_COMMANDS = 10000;
+    private static final int DEFAULT_CURRENCIES = 8;
+    private static final int DEFAULT_COMMERCIANTS = 20;
+    private static final double DEFAULT_ZIPF_EXPONENT = 0.99;
+    private static final double DEFAULT_SAVINGS_SHARE = 0.25;
+    private static final double DEFAULT_BUSINESS_SHARE = 0.05;
+    private static final int DEFAULT_BUSINESS_FAN_OUT = 4;
+    private static final int DEFAULT_SPLIT_PARTICIPANTS = 4;
+    private static final double DEFAULT_MAX_AMOUNT = 500;
+    private static final int DEFAULT_REPORT_WINDOW = 1000;
+
+    private long seed = DEFAULT_SEED;
+    private int users = DEFAULT_USERS;
+    private int commands = DEFAULT_COMMANDS;
+    private int currencies = DEFAULT_CURRENCIES;
+    private int commerciants = DEFAULT_COMMERCIANTS;
+    private double zipfExponent = DEFAULT_ZIPF_EXPONENT;
+    private double savingsShare = DEFAULT_SAVINGS_SHARE;
+    private double businessShare = DEFAULT_BUSINESS_SHARE;
+    private int businessFanOut = DEFAULT_BUSINESS_FAN_OUT;
+    private int maxSplitParticipants = DEFAULT_SPLIT_PARTICIPANTS;
+    private double maxAmount = DEFAULT_MAX_AMOUNT;
+    private int reportWindow = DEFAULT_REPORT_WINDOW;
+    private CommandMix commandMix = CommandMix.parse(DEFAULT_COMMAND_MIX);
+    private boolean prettyPrint = false;
+
+    /**
+     * @return the seed of the random generator
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @param seed the seed of the random generator
+     */
+    public void setSeed(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return the number of users
+     */
+    public int getUsers() {
+        return users;
+    }
+
+    /**
+     * @param users the number of users, at least 2
+     */
+    public void setUsers(final int users) {
+        if (users < 2) {
+            throw new IllegalArgumentException("A workload needs at least 2 users: " + users);
+        }
+        this.users = users;
+    }
+
+    /**
+     * @return the number of commands after the setup of the bank
+     */
+    public int getCommands() {
+        return commands;
+    }
+
+    /**
+     * @param commands the number of commands after the setup of the bank
+     */
+    public void setCommands(final int commands) {
+        this.commands = commands;
+    }
+
+    /**
+     * @return the number of currencies in the graph of exchange rates
+     */
+    public int getCurrencies() {
+        return currencies;
+    }
+
+    /**
+     * @param currencies the number of currencies in the graph of exchange rates, at least 1
+     */
+    public void setCurrencies(final int currencies) {
+        if (currencies < 1) {
+            throw new IllegalArgumentException("A workload needs a currency: " + currencies);
+        }
+        this.currencies = currencies;
+    }
+
+    /**
+     * @return the number of commerciants
+     */
+    public int getCommerciants() {
+        return commerciants;
+    }
+
+    /**
+     * @param commerciants the number of commerciants, at least 1
+     */
+    public void setCommerciants(final int commerciants) {
+        if (commerciants < 1) {
+            throw new IllegalArgumentException("A workload needs a commerciant: " + commerciants);
+        }
+        this.commerciants = commerciants;
+    }
+
+    /**
+     * @return the exponent of the Zipfian popularity of the accounts and commerciants
+     */
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    /**
+     * @param zipfExponent the exponent of the Zipfian popularity of the accounts and
+     *                     commerciants, 0 for uniform popularity
+     */
+    public void setZipfExponent(final double zipfExponent) {
+        this.zipfExponent = zipfExponent;
+    }
+
+    /**
+     * @return the share of the users who also open a savings account
+     */
+    public double getSavingsShare() {
+        return savingsShare;
+    }
+
+    /**
+     * @param savingsShare the share of the users who also open a savings account
+     */
+    public void setSavingsShare(final double savingsShare) {
+        this.savingsShare = savingsShare;
+    }
+
+    /**
+     * @return the share of the users who also open a business account
+     */
+    public double getBusinessShare() {
+        return businessShare;
+    }
+
+    /**
+     * @param businessShare the share of the users who also open a business account
+     */
+    public void setBusinessShare(final double businessShare) {
+        this.businessShare = businessShare;
+    }
+
+    /**
+     * @return the number of associates of every business account
+     */
+    public int getBusinessFanOut() {
+        return businessFanOut;
+    }
+
+    /**
+     * @param businessFanOut the number of associates of every business account
+     */
+    public void setBusinessFanOut(final int businessFanOut) {
+        this.businessFanOut = businessFanOut;
+    }
+
+    /**
+     * @return the largest number of accounts in a split payment
+     */
+    public int getMaxSplitParticipants() {
+        return maxSplitParticipants;
+    }
+
+    /**
+     * @param maxSplitParticipants the largest number of accounts in a split payment,
+     *                             at least 2
+     */
+    public void setMaxSplitParticipants(final int maxSplitParticipants) {
+        if (maxSplitParticipants < 2) {
+            throw new IllegalArgumentException("A split payment needs 2 accounts: "
+                    + maxSplitParticipants);
+        }
+        this.maxSplitParticipants = maxSplitParticipants;
+    }
+
+    /**
+     * @return the largest amount of a payment
+     */
+    public double getMaxAmount() {
+        return maxAmount;
+    }
+
+    /**
+     * @param maxAmount the largest amount of a payment
+     */
+    public void setMaxAmount(final double maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    /**
+     * @return the number of timestamps covered by a report
+     */
+    public int getReportWindow() {
+        return reportWindow;
+    }
+
+    /**
+     * @param reportWindow the number of timestamps covered by a report
+     */
+    public void setReportWindow(final int reportWindow) {
+        this.reportWindow = reportWindow;
+    }
+
+    /**
+     * @return the mix of the commands after the setup of the bank
+     */
+    public CommandMix getCommandMix() {
+        return commandMix;
+    }
+
+    /**
+     * @param commandMix the mix of the commands after the setup of the bank
+     */
+    public void setCommandMix(final CommandMix commandMix) {
+        this.commandMix = commandMix;
+    }
+
+    /**
+     * @return true if the file is written with indentation
+     */
+    public boolean isPrettyPrint() {
+        return prettyPrint;
+    }
+
+    /**
+     * @param prettyPrint true to write the file with indentation
+     */
+    public void setPrettyPrint(final boolean prettyPrint) {
+        this.prettyPrint = prettyPrint;
+    }
+}
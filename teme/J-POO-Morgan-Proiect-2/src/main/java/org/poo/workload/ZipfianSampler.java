@@ -0,0 +1,131 @@
+package org.poo.workload;
+
+import java.util.Random;
+
+/**
+ * Draws ranks from a Zipfian distribution: rank k (counted from 0) is drawn with a
+ * probability proportional to 1 / (k + 1)^exponent, so a few ranks are drawn very often
+ * and most of them rarely, like the accounts of a real bank.
+ * <p>
+ * The ranks are drawn by rejection-inversion (Hörmann and Derflinger), which needs
+ * neither a table of probabilities nor time proportional to the number of ranks,
+ * so it works the same for ten accounts or for millions.
+ */
+public final class ZipfianSampler {
+    private static final double TAYLOR_THRESHOLD = 1e-8;
+    private static final double HALF = 0.5;
+    private static final double THIRD = 1.0 / 3.0;
+    private static final double QUARTER = 0.25;
+    private static final double FIRST_BOUNDARY = 1.5;
+    private static final double SECOND_BOUNDARY = 2.5;
+
+    private final Random random;
+    private final int count;
+    private final double exponent;
+
+    // the values of the integral of h used by every draw
+    private final double integralFirst;
+    private final double integralLast;
+    private final double squeeze;
+
+    /**
+     * Creates a sampler over the given number of ranks.
+     *
+     * @param random   the random generator which drives the draws
+     * @param count    the number of ranks, at least 1
+     * @param exponent the exponent of the distribution, 0 for uniform draws
+     */
+    public ZipfianSampler(final Random random, final int count, final double exponent) {
+        if (count < 1) {
+            throw new IllegalArgumentException("The number of ranks must be positive: " + count);
+        }
+        if (exponent < 0) {
+            throw new IllegalArgumentException("The exponent cannot be negative: " + exponent);
+        }
+        this.random = random;
+        this.count = count;
+        this.exponent = exponent;
+
+        integralFirst = integral(FIRST_BOUNDARY) - 1;
+        integralLast = integral(count + HALF);
+        squeeze = 2 - integralInverse(integral(SECOND_BOUNDARY) - h(2));
+    }
+
+    /**
+     * Returns the number of ranks.
+     *
+     * @return the number of ranks
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Draws the next rank.
+     *
+     * @return a rank between 0 and count - 1, the small ones being the most frequent
+     */
+    public int next() {
+        while (true) {
+            double u = integralLast + random.nextDouble() * (integralFirst - integralLast);
+            double x = integralInverse(u);
+            int k = (int) (x + HALF);
+            if (k < 1) {
+                k = 1;
+            } else if (k > count) {
+                k = count;
+            }
+
+            if (k - x <= squeeze || u >= integral(k + HALF) - h(k)) {
+                return k - 1;
+            }
+        }
+    }
+
+    /**
+     * The unnormalized probability of a rank counted from 1.
+     */
+    private double h(final double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    /**
+     * The integral of h, from 1 to x.
+     */
+    private double integral(final double x) {
+        double logX = Math.log(x);
+        return expm1OverX((1 - exponent) * logX) * logX;
+    }
+
+    /**
+     * The inverse of the integral of h.
+     */
+    private double integralInverse(final double x) {
+        double t = x * (1 - exponent);
+        if (t < -1) {
+            // the argument can pass -1 only because of rounding
+            t = -1;
+        }
+        return Math.exp(log1pOverX(t) * x);
+    }
+
+    /**
+     * log(1 + x) / x, with its Taylor series near 0.
+     */
+    private static double log1pOverX(final double x) {
+        if (Math.abs(x) > TAYLOR_THRESHOLD) {
+            return Math.log1p(x) / x;
+        }
+        return 1 - x * (HALF - x * (THIRD - QUARTER * x));
+    }
+
+    /**
+     * (exp(x) - 1) / x, with its Taylor series near 0.
+     */
+    private static double expm1OverX(final double x) {
+        if (Math.abs(x) > TAYLOR_THRESHOLD) {
+            return Math.expm1(x) / x;
+        }
+        return 1 + x * HALF * (1 + x * THIRD * (1 + QUARTER * x));
+    }
+}